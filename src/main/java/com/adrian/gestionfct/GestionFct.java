@@ -37,6 +37,9 @@ public class GestionFct extends Application {
 
     private ConfigurableApplicationContext springBootApplicationContext() {
         SpringApplicationBuilder builder = new SpringApplicationBuilder(GestionFct.class);
+        // Para abrir documentos con el visor del sistema: Spring Boot arranca sin cabeza y AWT no sirve
+        builder.initializers(contexto -> contexto.getBeanFactory()
+                .registerSingleton("hostServices", getHostServices()));
         String[] args = getParameters().getRaw().stream().toArray(String[]::new);
         return builder.run(args);
     }
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.ResourceBundle;
 import javafx.stage.Stage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -37,8 +38,9 @@ public class AppJavaConfig {
     
     @Bean
     @Lazy(value = true) //Stage only created after Spring context bootstap
-    public StageManager stageManager(Stage stage) throws IOException {
-        return new StageManager(springFXMLLoader, stage);
+    public StageManager stageManager(Stage stage,
+            @Value("${gestionfct.vistas.max-retenidas:8}") int maxVistasRetenidas) throws IOException {
+        return new StageManager(springFXMLLoader, stage, maxVistasRetenidas);
     }
 
 }
@@ -0,0 +1,69 @@
+package com.adrian.gestionfct.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caché en memoria para los datos de referencia (cursos, periodos, empresas y tutores),
+ * que cambian poco y se consultan cada vez que se abre un diálogo de asignación.
+ *
+ * Cada caché tiene tamaño máximo y caducidad; además los servicios la vacían
+ * explícitamente al guardar o borrar. Cuando el cambio lo hace otro puesto, las vacía
+ * el sincronizador al leer su aviso, según {@link #cachesDeTabla(String)}. Las
+ * estadísticas de aciertos y fallos se consultan con
+ * {@link com.adrian.gestionfct.services.CacheService}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CURSOS_ACADEMICOS = "cursosAcademicos";
+    public static final String CURSO_ACTIVO = "cursoActivo";
+    public static final String PERIODOS_ACTIVOS = "periodosActivos";
+    public static final String EMPRESAS_ACTIVAS = "empresasActivas";
+    public static final String TUTORES_ACTIVOS = "tutoresActivos";
+    public static final String TUTORES_POR_EMPRESA = "tutoresPorEmpresa";
+
+    /** Cachés que dependen de cada tabla; las mismas que vacían los @CacheEvict de su servicio. */
+    private static final Map<String, List<String>> CACHES_POR_TABLA = Map.of(
+            "cursos_academicos", List.of(CURSOS_ACADEMICOS, CURSO_ACTIVO, PERIODOS_ACTIVOS),
+            "periodos", List.of(PERIODOS_ACTIVOS),
+            "empresas", List.of(EMPRESAS_ACTIVAS, TUTORES_ACTIVOS, TUTORES_POR_EMPRESA),
+            "tutores_empresa", List.of(TUTORES_ACTIVOS, TUTORES_POR_EMPRESA));
+
+    @Value("${gestionfct.cache.ttl-minutos:10}")
+    private long ttlMinutos;
+
+    @Value("${gestionfct.cache.tamano-maximo:500}")
+    private long tamanoMaximo;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats());
+        // Con nombres fijos, una caché mal escrita en una anotación falla en vez de crearse sola
+        cacheManager.setCacheNames(List.of(CURSOS_ACADEMICOS, CURSO_ACTIVO, PERIODOS_ACTIVOS,
+                EMPRESAS_ACTIVAS, TUTORES_ACTIVOS, TUTORES_POR_EMPRESA));
+        return cacheManager;
+    }
+
+    /**
+     * Cachés que hay que vaciar cuando cambia la tabla dada.
+     */
+    public static List<String> cachesDeTabla(String tabla) {
+        return CACHES_POR_TABLA.getOrDefault(tabla, List.of());
+    }
+}
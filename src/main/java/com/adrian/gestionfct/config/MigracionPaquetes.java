@@ -0,0 +1,43 @@
+package com.adrian.gestionfct.config;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.services.AlmacenDocumentos;
+
+/**
+ * Pasa los documentos guardados como archivos sueltos a los paquetes al arrancar con
+ * {@code --empaquetar-documentos} (con {@code gestionfct.documentos.paquetes.activos=true}).
+ *
+ * Se ejecuta antes de abrir la pantalla de inicio. Se puede cortar y volver a lanzar: los
+ * contenidos ya empaquetados no se copian otra vez.
+ */
+@Component
+public class MigracionPaquetes implements CommandLineRunner {
+
+    private static final Logger LOG = getLogger(MigracionPaquetes.class);
+    static final String OPCION = "--empaquetar-documentos";
+
+    private final AlmacenDocumentos almacen;
+
+    public MigracionPaquetes(AlmacenDocumentos almacen) {
+        this.almacen = almacen;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (!Arrays.asList(args).contains(OPCION)) {
+            return;
+        }
+        LOG.info("Empaquetando los documentos sueltos...");
+        AlmacenDocumentos.Empaquetado resultado = almacen.empaquetarSueltos();
+        LOG.info("Documentos empaquetados: {} ({}); omitidos: {}", resultado.empaquetados(),
+                Documento.formatearTamano(resultado.bytes()), resultado.omitidos());
+    }
+}
@@ -25,10 +25,26 @@ public class SpringFXMLLoader {
     }
 
     public Parent load(String fxmlPath) throws IOException {      
+        return loadView(fxmlPath).root();
+    }
+
+    /**
+     * Loads the FXML hierarchy and returns it together with the controller Spring
+     * provided for it. Call it on the JavaFX thread: loading runs the controller's
+     * initialize(), and the controllers are singleton beans.
+     */
+    public LoadedView loadView(String fxmlPath) throws IOException {
         FXMLLoader loader = new FXMLLoader();
         loader.setControllerFactory(context::getBean); //Spring now FXML Controller Factory
         loader.setResources(resourceBundle);
         loader.setLocation(getClass().getResource(fxmlPath));
-        return loader.load();
+        Parent root = loader.load();
+        return new LoadedView(root, loader.getController());
+    }
+
+    /**
+     * Root node of a loaded FXML document and its controller.
+     */
+    public record LoadedView(Parent root, Object controller) {
     }
 }
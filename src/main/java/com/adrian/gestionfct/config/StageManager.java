@@ -2,11 +2,19 @@ package com.adrian.gestionfct.config;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.slf4j.Logger;
 
+import com.adrian.gestionfct.config.SpringFXMLLoader.LoadedView;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.Refrescable;
 
 import javafx.application.Platform;
 import javafx.scene.Parent;
@@ -14,7 +22,20 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
- * Manages switching Scenes on the Primary Stage
+ * Manages switching Scenes on the Primary Stage.
+ *
+ * Loaded views are kept in a small LRU cache, so going back to a view does not parse
+ * its FXML and rebuild its scene graph again: its controller is only asked to refresh
+ * through {@link Refrescable}. After a view is shown, the views usually opened from it
+ * ({@link FxmlView#getVistasSiguientes()}) are preloaded. The controller of the view being
+ * left is told through {@link Refrescable#alOcultar()}.
+ *
+ * Preloading runs on the JavaFX thread, because loading an FXML also runs its controller's
+ * initialize() and the controllers are singleton beans shared with the views on screen.
+ * Each view is loaded in its own {@link Platform#runLater} turn, so input and rendering
+ * go in between. A preload requested in a session that has since logged out is dropped.
+ *
+ * All public methods must be called on the JavaFX thread.
  */
 public class StageManager {
 
@@ -22,33 +43,65 @@ public class StageManager {
     private final Stage primaryStage;
     private final SpringFXMLLoader springFXMLLoader;
 
-    public StageManager(SpringFXMLLoader springFXMLLoader, Stage stage) {
+    /** Access-ordered, so the eldest entry is the least recently shown view. */
+    private final Map<FxmlView, SoftReference<LoadedView>> viewCache;
+    private final Deque<Preload> pendingPreloads = new ArrayDeque<>();
+    private boolean preloadScheduled;
+    /** Incremented on logout: views of the previous session are not cached any more. */
+    private int session;
+    private Object currentController;
+
+    public StageManager(SpringFXMLLoader springFXMLLoader, Stage stage, int maxCachedViews) {
         this.springFXMLLoader = springFXMLLoader;
         this.primaryStage = stage;
+        this.viewCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FxmlView, SoftReference<LoadedView>> eldest) {
+                return size() > maxCachedViews;
+            }
+        };
     }
 
     public void switchScene(final FxmlView view) {
-        Parent viewRootNodeHierarchy = loadViewNodeHierarchy(view.getFxmlFile());
-        show(viewRootNodeHierarchy, view.getTitle());
+        // Views of the previous session are not reused after logging out
+        if (view == FxmlView.LOGIN) {
+            viewCache.keySet().removeIf(cached -> cached != FxmlView.LOGIN);
+            session++;
+        }
+
+        LoadedView loadedView = obtainView(view);
+        if (loadedView == null) {
+            return;
+        }
+        if (currentController != loadedView.controller() && currentController instanceof Refrescable previous) {
+            previous.alOcultar();
+        }
+        currentController = loadedView.controller();
+
+        show(loadedView.root(), view.getTitle());
+        if (loadedView.controller() instanceof Refrescable refrescable) {
+            refrescable.refrescar();
+        }
+        preload(view.getVistasSiguientes());
     }
-    
+
     private void show(final Parent rootnode, String title) {
         Scene scene = prepareScene(rootnode);
         //scene.getStylesheets().add("/styles/Styles.css");
-        
+
         //primaryStage.initStyle(StageStyle.TRANSPARENT);
         primaryStage.setTitle(title);
         primaryStage.setScene(scene);
         primaryStage.sizeToScene();
         primaryStage.centerOnScreen();
-        
+
         try {
             primaryStage.show();
         } catch (Exception exception) {
             logAndExit ("Unable to show scene for title" + title,  exception);
         }
     }
-    
+
     private Scene prepareScene(Parent rootnode){
         Scene scene = primaryStage.getScene();
 
@@ -59,24 +112,82 @@ public class StageManager {
         return scene;
     }
 
+    /**
+     * Returns the cached view or loads it now. A pending preload of the view then finds it
+     * cached and does nothing.
+     */
+    private LoadedView obtainView(FxmlView view) {
+        SoftReference<LoadedView> reference = viewCache.get(view);
+        LoadedView loadedView = reference != null ? reference.get() : null;
+
+        if (loadedView == null) {
+            loadedView = loadViewNodeHierarchy(view.getFxmlFile());
+        }
+        if (loadedView != null) {
+            viewCache.put(view, new SoftReference<>(loadedView));
+        }
+        return loadedView;
+    }
+
+    /**
+     * Queues the given views to be loaded and cached one per JavaFX event turn.
+     */
+    private void preload(List<FxmlView> views) {
+        for (FxmlView next : views) {
+            Preload preload = new Preload(next, session);
+            if (!viewCache.containsKey(next) && !pendingPreloads.contains(preload)) {
+                pendingPreloads.add(preload);
+            }
+        }
+        schedulePreload();
+    }
+
+    private void schedulePreload() {
+        if (!preloadScheduled && !pendingPreloads.isEmpty()) {
+            preloadScheduled = true;
+            Platform.runLater(this::preloadNext);
+        }
+    }
+
+    /**
+     * Loads the next queued view, unless it is already cached or was queued before the
+     * last logout, and schedules the following one.
+     */
+    private void preloadNext() {
+        preloadScheduled = false;
+        Preload next = pendingPreloads.poll();
+        if (next != null && next.session() == session && !viewCache.containsKey(next.view())) {
+            try {
+                viewCache.put(next.view(), new SoftReference<>(springFXMLLoader.loadView(next.view().getFxmlFile())));
+            } catch (Exception exception) {
+                LOG.warn("Unable to preload FXML view {}", next.view().getFxmlFile(), exception);
+            }
+        }
+        schedulePreload();
+    }
+
+    /** A view waiting to be preloaded and the session that asked for it. */
+    private record Preload(FxmlView view, int session) {
+    }
+
     /**
      * Loads the object hierarchy from a FXML document and returns to root node
      * of that hierarchy.
      *
-     * @return Parent root node of the FXML document hierarchy
+     * @return the root node of the FXML document hierarchy and its controller
      */
-    private Parent loadViewNodeHierarchy(String fxmlFilePath) {
-        Parent rootNode = null;
+    private LoadedView loadViewNodeHierarchy(String fxmlFilePath) {
         try {
-            rootNode = springFXMLLoader.load(fxmlFilePath);
-            Objects.requireNonNull(rootNode, "A Root FXML node must not be null");
+            LoadedView loadedView = springFXMLLoader.loadView(fxmlFilePath);
+            Objects.requireNonNull(loadedView.root(), "A Root FXML node must not be null");
+            return loadedView;
         } catch (Exception exception) {
             logAndExit("Unable to load FXML view" + fxmlFilePath, exception);
+            return null;
         }
-        return rootNode;
     }
-    
-    
+
+
     private void logAndExit(String errorMsg, Exception exception) {
         LOG.error(errorMsg, exception, exception.getCause());
         Platform.exit();
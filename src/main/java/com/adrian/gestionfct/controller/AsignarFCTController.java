@@ -2,31 +2,56 @@ package com.adrian.gestionfct.controller;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 
 import com.adrian.gestionfct.config.StageManager;
+import com.adrian.gestionfct.dto.AsignacionRequest;
+import com.adrian.gestionfct.dto.FctRowView;
+import com.adrian.gestionfct.dto.PropuestaColocacion;
+import com.adrian.gestionfct.dto.ResultadoAsignacion;
+import com.adrian.gestionfct.dto.VersionDatos;
+import com.adrian.gestionfct.eventos.CambioDatos;
 import com.adrian.gestionfct.exception.OperacionNoPermitidaException;
 import com.adrian.gestionfct.exception.ValidacionException;
 import com.adrian.gestionfct.modelo.*;
 import com.adrian.gestionfct.services.*;
+import com.adrian.gestionfct.view.BusquedaIncremental;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
+import com.adrian.gestionfct.view.DialogoConflicto;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.OyenteCambios;
+import com.adrian.gestionfct.view.Refrescable;
 
+import jakarta.annotation.PostConstruct;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -38,24 +63,30 @@ import javafx.scene.layout.VBox;
  * @author Adrián Iglesias Rino
  */
 @Controller
-public class AsignarFCTController implements Initializable {
+public class AsignarFCTController implements Initializable, Refrescable, OyenteCambios {
 
     // ============== COMPONENTES FXML ==============
-    @FXML private TableView<FCT> tablaFCTs;
-    @FXML private TableColumn<FCT, Long> colId;
-    @FXML private TableColumn<FCT, String> colEstudiante;
-    @FXML private TableColumn<FCT, String> colEmpresa;
-    @FXML private TableColumn<FCT, String> colTutor;
-    @FXML private TableColumn<FCT, String> colPeriodo;
-    @FXML private TableColumn<FCT, String> colEstado;
-    @FXML private TableColumn<FCT, String> colProgreso;
+    @FXML private TableView<FctRowView> tablaFCTs;
+    @FXML private TableColumn<FctRowView, Long> colId;
+    @FXML private TableColumn<FctRowView, String> colEstudiante;
+    @FXML private TableColumn<FctRowView, String> colEmpresa;
+    @FXML private TableColumn<FctRowView, String> colTutor;
+    @FXML private TableColumn<FctRowView, String> colPeriodo;
+    @FXML private TableColumn<FctRowView, String> colEstado;
+    @FXML private TableColumn<FctRowView, String> colProgreso;
 
     @FXML private ComboBox<EstadoFCT> cmbFiltroEstado;
     @FXML private ComboBox<CursoAcademico> cmbFiltroCurso;
     @FXML private TextField txtBuscar;
     @FXML private Label lblContador;
+    @FXML private Label lblPagina;
+    @FXML private Button btnPaginaAnterior;
+    @FXML private Button btnPaginaSiguiente;
 
     @FXML private Button btnNuevaAsignacion;
+    @FXML private Button btnAsignarGrupo;
+    @FXML private Button btnPropuestaAutomatica;
+    @FXML private Button btnPlazas;
     @FXML private Button btnEditar;
     @FXML private Button btnFinalizar;
     @FXML private Button btnCancelar;
@@ -81,64 +112,113 @@ public class AsignarFCTController implements Initializable {
     @Autowired
     private CursoAcademicoService cursoAcademicoService;
 
+    @Autowired
+    private ColocacionService colocacionService;
+
+    @Autowired
+    private PlazasEmpresaService plazasService;
+
+    @Autowired
+    private CargadorDatos cargadorDatos;
+
+    @Value("${gestionfct.busqueda.retardo-ms:300}")
+    private long retardoBusquedaMs;
+
     @Lazy
     @Autowired
     private StageManager stageManager;
 
     // ============== DATOS ==============
-    private ObservableList<FCT> listaFCTs = FXCollections.observableArrayList();
-    private List<FCT> todasLasFCTs;
+    private CargaCancelable cargaTabla;
+    private CargaCancelable cargaCursos;
+    private CargaCancelable cargaSeleccion;
+    private BusquedaIncremental<FctRowView> busqueda;
+    private Page<FctRowView> pagina;
+    /** Versión de la tabla de FCT cuando se pidió la página mostrada. */
+    private VersionDatos versionCargada;
+    private int paginaActual = 0;
+    private Sort ordenActual = ORDEN_POR_DEFECTO;
+
+    private static final int TAMANO_PAGINA = 50;
+    private static final Sort ORDEN_POR_DEFECTO = Sort.by("id");
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    @PostConstruct
+    private void crearCargas() {
+        cargaTabla = cargadorDatos.nuevaCarga();
+        busqueda = new BusquedaIncremental<>(retardoBusquedaMs,
+            BusquedaIncremental.Criterio.prefijos(FctRowView::claveEstudiante, FctRowView::claveEmpresa));
+        cargaCursos = cargadorDatos.nuevaCarga();
+        cargaSeleccion = cargadorDatos.nuevaCarga();
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         configurarTabla();
         configurarFiltros();
         configurarEventos();
-        cargarDatos();
+    }
+
+    /**
+     * La vista se conserva entre visitas. Al volver se enseña la página que tenía, si sus
+     * filas se conservan, y solo se recarga si la versión de las FCT ha cambiado.
+     */
+    @Override
+    public void refrescar() {
+        if (!busqueda.restaurar() || versionCargada == null) {
+            cargarDatos();
+            return;
+        }
+        actualizarContador();
+        VersionDatos conocida = versionCargada;
+        cargaTabla.ejecutar(fctService::obtenerVersion, version -> {
+            if (!version.equals(conocida)) {
+                cargarDatos();
+            }
+        }, e -> mostrarError("Error al cargar datos", e.getMessage()));
+    }
+
+    @Override
+    public void alOcultar() {
+        cargaTabla.cancelar();
+        cargaSeleccion.cancelar();
+        busqueda.retener();
     }
 
     // ============== CONFIGURACIÓN ==============
     private void configurarTabla() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        
-        colEstudiante.setCellValueFactory(cellData -> {
-            Estudiante est = cellData.getValue().getEstudiante();
-            return new SimpleStringProperty(est != null ? est.getNombreCompleto() : "N/A");
-        });
-        
-        colEmpresa.setCellValueFactory(cellData -> {
-            Empresa emp = cellData.getValue().getEmpresa();
-            return new SimpleStringProperty(emp != null ? emp.getNombre() : "N/A");
-        });
-        
-        colTutor.setCellValueFactory(cellData -> {
-            TutorEmpresa tutor = cellData.getValue().getTutorEmpresa();
-            return new SimpleStringProperty(tutor != null ? tutor.getNombreCompleto() : "N/A");
-        });
-        
-        colPeriodo.setCellValueFactory(cellData -> {
-            Periodo periodo = cellData.getValue().getPeriodo();
-            return new SimpleStringProperty(periodo != null ? periodo.getNombre() : "N/A");
-        });
-        
+        // Las filas ya vienen unidas y formateadas desde la consulta
+        colId.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        colEstudiante.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().estudiante()));
+        colEmpresa.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().empresa()));
+        colTutor.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().tutor()));
+        colPeriodo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().periodo()));
         colEstado.setCellValueFactory(cellData -> {
-            EstadoFCT estado = cellData.getValue().getEstado();
+            EstadoFCT estado = cellData.getValue().estado();
             return new SimpleStringProperty(estado != null ? estado.name() : "N/A");
         });
-        
-        // Columna de progreso
-        colProgreso.setCellValueFactory(cellData -> {
-            FCT fct = cellData.getValue();
-            int realizadas = fct.getHorasRealizadas() != null ? fct.getHorasRealizadas() : 0;
-            int totales = fct.getHorasTotales() != null ? fct.getHorasTotales() : 0;
-            double porcentaje = totales > 0 ? (realizadas * 100.0 / totales) : 0;
-            return new SimpleStringProperty(String.format("%d/%d h (%.0f%%)", realizadas, totales, porcentaje));
+        colProgreso.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().progreso()));
+
+        // Propiedad de la entidad por la que ordena cada columna (el orden se aplica en SQL)
+        colId.setUserData("id");
+        colEstudiante.setUserData("estudiante.apellidos");
+        colEmpresa.setUserData("empresa.nombre");
+        colTutor.setUserData("tutorEmpresa.apellidos");
+        colPeriodo.setUserData("periodo.nombre");
+        colEstado.setUserData("estado");
+        colProgreso.setUserData("horasRealizadas");
+        tablaFCTs.setSortPolicy(tabla -> {
+            Sort orden = construirOrden();
+            if (!orden.equals(ordenActual)) {
+                ordenActual = orden;
+                aplicarFiltros();
+            }
+            return true;
         });
 
         // Estilo condicional para estado
-        colEstado.setCellFactory(column -> new TableCell<FCT, String>() {
+        colEstado.setCellFactory(column -> new TableCell<FctRowView, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -157,7 +237,7 @@ public class AsignarFCTController implements Initializable {
             }
         });
 
-        tablaFCTs.setItems(listaFCTs);
+        tablaFCTs.setItems(busqueda.getFilas());
         tablaFCTs.setPlaceholder(new Label("No hay asignaciones FCT para mostrar"));
     }
 
@@ -168,10 +248,10 @@ public class AsignarFCTController implements Initializable {
         cmbFiltroEstado.setOnAction(e -> aplicarFiltros());
 
         // Filtro de curso académico
-        List<CursoAcademico> cursos = cursoAcademicoService.findAll();
-        cmbFiltroCurso.setItems(FXCollections.observableArrayList(cursos));
         cmbFiltroCurso.setPromptText("Todos los cursos");
         cmbFiltroCurso.setOnAction(e -> aplicarFiltros());
+        cargaCursos.rellenar(cmbFiltroCurso, cursoAcademicoService::findAll, () -> { },
+            e -> mostrarError("Error al cargar cursos", e.getMessage()));
     }
 
     private void configurarEventos() {
@@ -182,8 +262,8 @@ public class AsignarFCTController implements Initializable {
             }
         });
 
-        // Búsqueda en tiempo real
-        txtBuscar.textProperty().addListener((obs, oldVal, newVal) -> aplicarFiltros());
+        // Búsqueda en tiempo real: se lanza al dejar de escribir y, si basta, se filtra en memoria
+        busqueda.escuchar(txtBuscar, this::aplicarFiltros, this::actualizarContador);
 
         // Habilitar/deshabilitar botones según selección
         tablaFCTs.getSelectionModel().selectedItemProperty().addListener((obs, oldSel, newSel) -> {
@@ -192,7 +272,7 @@ public class AsignarFCTController implements Initializable {
             btnVerDetalles.setDisable(!haySeleccion);
             
             // Finalizar y Cancelar solo para FCTs activas
-            boolean esActiva = haySeleccion && newSel.getEstado() == EstadoFCT.ACTIVA;
+            boolean esActiva = haySeleccion && newSel.estado() == EstadoFCT.ACTIVA;
             btnFinalizar.setDisable(!esActiva);
             btnCancelar.setDisable(!esActiva);
         });
@@ -205,50 +285,99 @@ public class AsignarFCTController implements Initializable {
     }
 
     // ============== CARGA DE DATOS ==============
+    /**
+     * Carga la página actual en segundo plano. Filtros, orden y paginación se resuelven
+     * en la base de datos; si llega otra petición antes de terminar, esta se descarta.
+     */
     private void cargarDatos() {
-        try {
-            todasLasFCTs = fctService.findAll();
-            aplicarFiltros();
-        } catch (Exception e) {
-            mostrarError("Error al cargar datos", e.getMessage());
-        }
+        // Los filtros se leen aquí, en el hilo de JavaFX, no dentro de la tarea
+        EstadoFCT estado = cmbFiltroEstado.getValue();
+        CursoAcademico curso = cmbFiltroCurso.getValue();
+        String texto = txtBuscar.getText();
+        PageRequest peticion = PageRequest.of(paginaActual, TAMANO_PAGINA, ordenActual);
+
+        busqueda.invalidar();
+        cargaTabla.ejecutar(tablaFCTs, () -> {
+            // La versión se lee antes que las filas: un cambio entre medias se detectará
+            // en la siguiente comprobación en lugar de perderse
+            VersionDatos version = fctService.obtenerVersion();
+            return new PaginaCargada(fctService.buscarFilas(estado, curso, texto, peticion), version);
+        }, cargada -> {
+            Page<FctRowView> resultado = cargada.pagina();
+            // Si la página ha quedado vacía (p. ej. tras eliminar), retroceder a la última con datos
+            if (resultado.isEmpty() && paginaActual > 0) {
+                paginaActual = Math.max(resultado.getTotalPages() - 1, 0);
+                cargarDatos();
+                return;
+            }
+            // Solo se guardan los datos de paginación: las filas las conserva la búsqueda,
+            // que las suelta mientras la vista está oculta
+            pagina = new PageImpl<>(List.of(), resultado.getPageable(), resultado.getTotalElements());
+            versionCargada = cargada.version();
+            busqueda.cargar(texto, resultado.getContent(), resultado.getTotalPages() <= 1);
+            actualizarContador();
+        }, e -> mostrarError("Error al cargar datos", e.getMessage()));
+    }
+
+    private record PaginaCargada(Page<FctRowView> pagina, VersionDatos version) {
     }
 
     private void aplicarFiltros() {
-        if (todasLasFCTs == null) return;
-
-        String busqueda = txtBuscar.getText().toLowerCase().trim();
-        EstadoFCT estadoFiltro = cmbFiltroEstado.getValue();
-        CursoAcademico cursoFiltro = cmbFiltroCurso.getValue();
-
-        List<FCT> filtradas = todasLasFCTs.stream()
-            .filter(fct -> {
-                // Filtro por estado
-                if (estadoFiltro != null && fct.getEstado() != estadoFiltro) return false;
-                
-                // Filtro por curso académico
-                if (cursoFiltro != null && !cursoFiltro.equals(fct.getCursoAcademico())) return false;
-                
-                // Filtro por búsqueda (estudiante o empresa)
-                if (!busqueda.isEmpty()) {
-                    String nombreEstudiante = fct.getEstudiante() != null ? 
-                        fct.getEstudiante().getNombreCompleto().toLowerCase() : "";
-                    String nombreEmpresa = fct.getEmpresa() != null ? 
-                        fct.getEmpresa().getNombre().toLowerCase() : "";
-                    return nombreEstudiante.contains(busqueda) || nombreEmpresa.contains(busqueda);
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
+        paginaActual = 0;
+        cargarDatos();
+    }
 
-        listaFCTs.setAll(filtradas);
-        actualizarContador();
+    private Sort construirOrden() {
+        List<Sort.Order> ordenes = new ArrayList<>();
+        for (TableColumn<FctRowView, ?> columna : tablaFCTs.getSortOrder()) {
+            if (columna.getUserData() instanceof String propiedad) {
+                ordenes.add(columna.getSortType() == TableColumn.SortType.ASCENDING
+                    ? Sort.Order.asc(propiedad) : Sort.Order.desc(propiedad));
+            }
+        }
+        return ordenes.isEmpty() ? ORDEN_POR_DEFECTO : Sort.by(ordenes);
     }
 
     private void actualizarContador() {
-        int total = todasLasFCTs != null ? todasLasFCTs.size() : 0;
-        int mostradas = listaFCTs.size();
-        lblContador.setText(String.format("Mostrando %d de %d asignaciones", mostradas, total));
+        // Si están todas las coincidencias, el total es lo que queda tras filtrar en memoria
+        int visibles = busqueda.getFilas().size();
+        long total = busqueda.isCompleta() ? visibles : pagina.getTotalElements();
+        lblContador.setText(String.format("Mostrando %d de %d asignaciones", visibles, total));
+        lblPagina.setText(String.format("Página %d de %d", pagina.getNumber() + 1, Math.max(pagina.getTotalPages(), 1)));
+        btnPaginaAnterior.setDisable(!pagina.hasPrevious());
+        btnPaginaSiguiente.setDisable(!pagina.hasNext());
+    }
+
+    // ============== CAMBIOS ==============
+    /**
+     * Al guardar o eliminar una FCT, aquí o en otra pantalla, solo se toca su fila. Una
+     * fila nueva se añade al final de la página hasta la siguiente carga.
+     */
+    @Override
+    public void alCambiar(CambioDatos cambio) {
+        if (!cambio.es(FCT.class)) {
+            return;
+        }
+        boolean aplicado = switch (cambio.tipo()) {
+            case ALTA -> busqueda.anadir(cambio.fila(FctRowView.class));
+            case MODIFICACION -> busqueda.sustituir(fila -> fila.id().equals(cambio.id()), cambio.fila(FctRowView.class));
+            case BAJA -> busqueda.quitar(fila -> fila.id().equals(cambio.id()));
+        };
+        if (!aplicado) {
+            return;
+        }
+        if (busqueda.getFilas().isEmpty() && paginaActual > 0) {
+            // Se ha quitado la última fila de la página: retroceder
+            cargarDatos();
+            return;
+        }
+        long diferencia = switch (cambio.tipo()) {
+            case ALTA -> 1;
+            case BAJA -> -1;
+            default -> 0;
+        };
+        pagina = new PageImpl<>(List.of(), pagina.getPageable(), pagina.getTotalElements() + diferencia);
+        actualizarContador();
     }
 
     // ============== ACCIONES ==============
@@ -257,24 +386,51 @@ public class AsignarFCTController implements Initializable {
         mostrarDialogoAsignacion(null);
     }
 
+    @FXML
+    private void handleAsignarGrupo(ActionEvent event) {
+        mostrarDialogoAsignacionGrupo();
+    }
+
+    @FXML
+    private void handlePropuestaAutomatica(ActionEvent event) {
+        mostrarDialogoPropuesta();
+    }
+
+    @FXML
+    private void handlePlazas(ActionEvent event) {
+        mostrarDialogoPlazas();
+    }
+
+    /**
+     * Carga en segundo plano la entidad completa de la fila seleccionada (la tabla solo
+     * guarda proyecciones) y ejecuta la acción con ella en el hilo de JavaFX.
+     */
+    private void conSeleccionada(Consumer<FCT> accion) {
+        FctRowView fila = tablaFCTs.getSelectionModel().getSelectedItem();
+        if (fila == null) return;
+        cargaSeleccion.ejecutar(() -> fctService.findByIdParaListado(fila.id()),
+            fct -> fct.ifPresent(accion),
+            e -> mostrarError("Error al cargar la asignación", e.getMessage()));
+    }
+
     @FXML
     private void handleEditar(ActionEvent event) {
-        FCT seleccionada = tablaFCTs.getSelectionModel().getSelectedItem();
-        if (seleccionada != null) {
+        conSeleccionada(seleccionada -> {
             if (seleccionada.getEstado() != EstadoFCT.ACTIVA) {
                 mostrarAdvertencia("No editable", 
                     "Solo se pueden editar asignaciones en estado ACTIVA.");
                 return;
             }
             mostrarDialogoAsignacion(seleccionada);
-        }
+        });
     }
 
     @FXML
     private void handleFinalizar(ActionEvent event) {
-        FCT seleccionada = tablaFCTs.getSelectionModel().getSelectedItem();
-        if (seleccionada == null) return;
+        conSeleccionada(this::confirmarFinalizacion);
+    }
 
+    private void confirmarFinalizacion(FCT seleccionada) {
         Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION);
         confirmacion.setTitle("Finalizar FCT");
         confirmacion.setHeaderText("¿Finalizar esta asignación?");
@@ -286,10 +442,10 @@ public class AsignarFCTController implements Initializable {
             if (response == ButtonType.OK) {
                 try {
                     seleccionada.finalizar();
-                    fctService.update(seleccionada);
-                    cargarDatos();
-                    mostrarExito("FCT Finalizada", 
-                        "La asignación ha sido marcada como finalizada correctamente.");
+                    if (DialogoConflicto.guardar(seleccionada, FCT.CAMPOS_EDITABLES, fctService::update).isPresent()) {
+                        mostrarExito("FCT Finalizada", 
+                            "La asignación ha sido marcada como finalizada correctamente.");
+                    }
                 } catch (Exception e) {
                     mostrarError("Error", e.getMessage());
                 }
@@ -299,9 +455,10 @@ public class AsignarFCTController implements Initializable {
 
     @FXML
     private void handleCancelar(ActionEvent event) {
-        FCT seleccionada = tablaFCTs.getSelectionModel().getSelectedItem();
-        if (seleccionada == null) return;
+        conSeleccionada(this::confirmarCancelacion);
+    }
 
+    private void confirmarCancelacion(FCT seleccionada) {
         // Pedir motivo de cancelación
         TextInputDialog dialog = new TextInputDialog();
         dialog.setTitle("Cancelar FCT");
@@ -316,10 +473,10 @@ public class AsignarFCTController implements Initializable {
                         (seleccionada.getObservaciones() != null ? seleccionada.getObservaciones() + "\n" : "") +
                         "CANCELACIÓN: " + motivo
                     );
-                    fctService.update(seleccionada);
-                    cargarDatos();
-                    mostrarExito("FCT Cancelada", 
-                        "La asignación ha sido cancelada correctamente.");
+                    if (DialogoConflicto.guardar(seleccionada, FCT.CAMPOS_EDITABLES, fctService::update).isPresent()) {
+                        mostrarExito("FCT Cancelada", 
+                            "La asignación ha sido cancelada correctamente.");
+                    }
                 } catch (Exception e) {
                     mostrarError("Error", e.getMessage());
                 }
@@ -329,9 +486,10 @@ public class AsignarFCTController implements Initializable {
 
     @FXML
     private void handleVerDetalles(ActionEvent event) {
-        FCT seleccionada = tablaFCTs.getSelectionModel().getSelectedItem();
-        if (seleccionada == null) return;
+        conSeleccionada(this::mostrarDetalles);
+    }
 
+    private void mostrarDetalles(FCT seleccionada) {
         Alert detalles = new Alert(Alert.AlertType.INFORMATION);
         detalles.setTitle("Detalles de FCT");
         detalles.setHeaderText("Asignación #" + seleccionada.getId());
@@ -377,6 +535,22 @@ public class AsignarFCTController implements Initializable {
         aplicarFiltros();
     }
 
+    @FXML
+    private void handlePaginaAnterior(ActionEvent event) {
+        if (paginaActual > 0) {
+            paginaActual--;
+            cargarDatos();
+        }
+    }
+
+    @FXML
+    private void handlePaginaSiguiente(ActionEvent event) {
+        if (pagina != null && pagina.hasNext()) {
+            paginaActual++;
+            cargarDatos();
+        }
+    }
+
     @FXML
     private void handleVolver(ActionEvent event) {
         stageManager.switchScene(FxmlView.MENU_ADMIN);
@@ -399,17 +573,20 @@ public class AsignarFCTController implements Initializable {
         grid.setVgap(10);
         grid.setPadding(new Insets(20, 150, 10, 10));
 
+        // Las opciones de los combos se cargan en segundo plano mientras el diálogo ya está visible
+        CargaCancelable cargaEstudiantes = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaEmpresas = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaTutores = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaPeriodos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaPlazas = cargadorDatos.nuevaCarga();
+
         // ComboBox de Estudiantes
         ComboBox<Estudiante> cmbEstudiante = new ComboBox<>();
-        cmbEstudiante.setItems(FXCollections.observableArrayList(
-            estudianteService.obtenerActivos()));
         cmbEstudiante.setPromptText("Seleccionar estudiante *");
         cmbEstudiante.setPrefWidth(300);
 
         // ComboBox de Empresas
         ComboBox<Empresa> cmbEmpresa = new ComboBox<>();
-        cmbEmpresa.setItems(FXCollections.observableArrayList(
-            empresaService.findActivas()));
         cmbEmpresa.setPromptText("Seleccionar empresa *");
         cmbEmpresa.setPrefWidth(300);
 
@@ -420,8 +597,6 @@ public class AsignarFCTController implements Initializable {
 
         // ComboBox de Periodos
         ComboBox<Periodo> cmbPeriodo = new ComboBox<>();
-        cmbPeriodo.setItems(FXCollections.observableArrayList(
-            periodoService.findActivos()));
         cmbPeriodo.setPromptText("Seleccionar periodo *");
         cmbPeriodo.setPrefWidth(300);
 
@@ -436,28 +611,35 @@ public class AsignarFCTController implements Initializable {
         txtObservaciones.setPrefRowCount(3);
         txtObservaciones.setPrefWidth(300);
 
-        // Actualizar tutores cuando cambia la empresa
+        Consumer<Throwable> errorOpciones = e -> mostrarError("Error al cargar opciones", e.getMessage());
+
+        // Actualizar tutores cuando cambia la empresa (un cambio rápido cancela la carga anterior)
         cmbEmpresa.setOnAction(e -> {
             Empresa empresaSeleccionada = cmbEmpresa.getValue();
             if (empresaSeleccionada != null) {
-                List<TutorEmpresa> tutores = tutorEmpresaService.findByEmpresa(empresaSeleccionada);
-                cmbTutor.setItems(FXCollections.observableArrayList(tutores));
+                cargaTutores.rellenar(cmbTutor, () -> tutorEmpresaService.findByEmpresa(empresaSeleccionada),
+                    () -> { }, errorOpciones);
             } else {
+                cargaTutores.cancelar();
                 cmbTutor.getItems().clear();
             }
         });
 
+        // Las plazas libres de cada empresa dependen del periodo
+        cmbPeriodo.setOnAction(e -> cargarPlazasLibres(cargaPlazas, cmbPeriodo.getValue(), cmbEmpresa));
+
         // Si es edición, cargar datos
         if (!esNueva) {
             cmbEstudiante.setValue(fct.getEstudiante());
             cmbEstudiante.setDisable(true); // No permitir cambiar estudiante
             cmbEmpresa.setValue(fct.getEmpresa());
             // Cargar tutores de la empresa
-            List<TutorEmpresa> tutores = tutorEmpresaService.findByEmpresa(fct.getEmpresa());
-            cmbTutor.setItems(FXCollections.observableArrayList(tutores));
             cmbTutor.setValue(fct.getTutorEmpresa());
+            cargaTutores.rellenar(cmbTutor, () -> tutorEmpresaService.findByEmpresa(fct.getEmpresa()),
+                () -> { }, errorOpciones);
             cmbPeriodo.setValue(fct.getPeriodo());
             cmbPeriodo.setDisable(true); // No permitir cambiar periodo
+            cargarPlazasLibres(cargaPlazas, fct.getPeriodo(), cmbEmpresa);
             spnHoras.getValueFactory().setValue(
                 fct.getHorasRealizadas() != null ? fct.getHorasRealizadas() : 0);
             txtObservaciones.setText(fct.getObservaciones());
@@ -480,6 +662,19 @@ public class AsignarFCTController implements Initializable {
 
         dialog.getDialogPane().setContent(grid);
 
+        if (esNueva) {
+            cargaEstudiantes.rellenar(cmbEstudiante, estudianteService::obtenerActivos, () -> { }, errorOpciones);
+            cargaPeriodos.rellenar(cmbPeriodo, periodoService::findActivos, () -> { }, errorOpciones);
+        }
+        cargaEmpresas.rellenar(cmbEmpresa, empresaService::findActivas, () -> { }, errorOpciones);
+        dialog.setOnHidden(e -> {
+            cargaEstudiantes.cancelar();
+            cargaEmpresas.cancelar();
+            cargaTutores.cancelar();
+            cargaPeriodos.cancelar();
+            cargaPlazas.cancelar();
+        });
+
         // Convertir resultado
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == btnGuardar) {
@@ -536,16 +731,511 @@ public class AsignarFCTController implements Initializable {
         Optional<FCT> resultado = dialog.showAndWait();
         resultado.ifPresent(f -> {
             try {
-                fctService.save(f);
-                cargarDatos();
-                mostrarExito(esNueva ? "Asignación creada" : "Asignación actualizada",
-                    "La asignación FCT se ha guardado correctamente.");
+                if (DialogoConflicto.guardar(f, FCT.CAMPOS_EDITABLES, fctService::save).isPresent()) {
+                    mostrarExito(esNueva ? "Asignación creada" : "Asignación actualizada",
+                        "La asignación FCT se ha guardado correctamente.");
+                }
             } catch (Exception e) {
                 mostrarError("Error al guardar", e.getMessage());
             }
         });
     }
 
+    // ============== DIÁLOGO DE ASIGNACIÓN EN BLOQUE ==============
+    /**
+     * Estudiantes de un grupo y cuáles de ellos tienen ya FCT en el periodo elegido.
+     */
+    private record EstudiantesGrupo(List<Estudiante> estudiantes, Set<Long> yaAsignados) {
+    }
+
+    private record AsignacionGrupo(Periodo periodo, List<AsignacionRequest> peticiones) {
+    }
+
+    /**
+     * Asigna la misma empresa y tutor a los estudiantes elegidos de un ciclo y grupo, con
+     * una sola llamada a {@link FCTService#asignarEnBloque(List, Periodo)}.
+     */
+    private void mostrarDialogoAsignacionGrupo() {
+        Dialog<AsignacionGrupo> dialog = new Dialog<>();
+        dialog.setTitle("Asignar Grupo");
+        dialog.setHeaderText("Asignar FCT a los estudiantes de un grupo");
+
+        ButtonType btnAsignar = new ButtonType("Asignar", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(btnAsignar, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+
+        CargaCancelable cargaCiclos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaGrupos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaPeriodos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaEmpresas = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaTutores = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaEstudiantes = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaPlazas = cargadorDatos.nuevaCarga();
+
+        ComboBox<String> cmbCiclo = new ComboBox<>();
+        cmbCiclo.setPromptText("Seleccionar ciclo *");
+        cmbCiclo.setPrefWidth(300);
+
+        ComboBox<String> cmbGrupo = new ComboBox<>();
+        cmbGrupo.setPromptText("Seleccionar grupo *");
+        cmbGrupo.setPrefWidth(300);
+
+        ComboBox<Periodo> cmbPeriodo = new ComboBox<>();
+        cmbPeriodo.setPromptText("Seleccionar periodo *");
+        cmbPeriodo.setPrefWidth(300);
+
+        ComboBox<Empresa> cmbEmpresa = new ComboBox<>();
+        cmbEmpresa.setPromptText("Seleccionar empresa *");
+        cmbEmpresa.setPrefWidth(300);
+
+        ComboBox<TutorEmpresa> cmbTutor = new ComboBox<>();
+        cmbTutor.setPromptText("Seleccionar tutor *");
+        cmbTutor.setPrefWidth(300);
+
+        // Los estudiantes que ya tienen FCT en el periodo se muestran, pero no se pueden elegir
+        ListView<Estudiante> lstEstudiantes = new ListView<>();
+        lstEstudiantes.setPrefHeight(220);
+        MultipleSelectionModel<Estudiante> seleccion = lstEstudiantes.getSelectionModel();
+        seleccion.setSelectionMode(SelectionMode.MULTIPLE);
+        Label lblSeleccion = new Label("Elija ciclo, grupo y periodo");
+        Set<Long> yaAsignados = new HashSet<>();
+        Runnable actualizarSeleccion = () -> lblSeleccion.setText(
+            seleccion.getSelectedItems().size() + " de "
+                + lstEstudiantes.getItems().size() + " estudiantes seleccionados");
+        // Ctrl+A y la selección por rangos también marcan las celdas deshabilitadas
+        Runnable desmarcarAsignados = () -> List.copyOf(seleccion.getSelectedIndices()).stream()
+            .filter(i -> yaAsignados.contains(lstEstudiantes.getItems().get(i).getId()))
+            .forEach(seleccion::clearSelection);
+
+        lstEstudiantes.setCellFactory(lista -> new ListCell<>() {
+            @Override
+            protected void updateItem(Estudiante estudiante, boolean empty) {
+                super.updateItem(estudiante, empty);
+                if (empty || estudiante == null) {
+                    setText(null);
+                    setDisable(false);
+                } else {
+                    boolean asignado = yaAsignados.contains(estudiante.getId());
+                    setText(estudiante.getNombreCompleto() + (asignado ? " (ya tiene FCT en el periodo)" : ""));
+                    setDisable(asignado);
+                }
+            }
+        });
+        seleccion.getSelectedItems().addListener((ListChangeListener<Estudiante>) cambio -> {
+            if (seleccion.getSelectedItems().stream()
+                    .anyMatch(estudiante -> yaAsignados.contains(estudiante.getId()))) {
+                // No se cambia la selección mientras se está notificando un cambio de ella
+                Platform.runLater(desmarcarAsignados);
+            }
+            actualizarSeleccion.run();
+        });
+
+        Consumer<Throwable> errorOpciones = e -> mostrarError("Error al cargar opciones", e.getMessage());
+
+        // Estudiantes del grupo y los que ya tienen FCT en el periodo: dos consultas para todo el grupo
+        Runnable cargarEstudiantes = () -> {
+            String ciclo = cmbCiclo.getValue();
+            String grupo = cmbGrupo.getValue();
+            Periodo periodo = cmbPeriodo.getValue();
+            if (ciclo == null || grupo == null || periodo == null) {
+                cargaEstudiantes.cancelar();
+                lstEstudiantes.getItems().clear();
+                return;
+            }
+            // Hasta que llegue la nueva lista no se puede elegir nadie: los ya asignados que se
+            // conocen son los del periodo anterior
+            yaAsignados.clear();
+            lstEstudiantes.getItems().clear();
+            cargaEstudiantes.ejecutar(() -> {
+                List<Estudiante> estudiantes = estudianteService.obtenerActivosPorCicloYGrupo(ciclo, grupo);
+                return new EstudiantesGrupo(estudiantes, fctService.estudiantesConFct(periodo,
+                    estudiantes.stream().map(Estudiante::getId).toList()));
+            }, cargado -> {
+                yaAsignados.clear();
+                yaAsignados.addAll(cargado.yaAsignados());
+                lstEstudiantes.getItems().setAll(cargado.estudiantes());
+                for (int i = 0; i < cargado.estudiantes().size(); i++) {
+                    if (!yaAsignados.contains(cargado.estudiantes().get(i).getId())) {
+                        seleccion.select(i);
+                    }
+                }
+                actualizarSeleccion.run();
+            }, e -> mostrarError("Error al cargar los estudiantes", e.getMessage()));
+        };
+
+        cmbCiclo.setOnAction(e -> {
+            String ciclo = cmbCiclo.getValue();
+            cmbGrupo.getItems().clear();
+            if (ciclo != null) {
+                cargaGrupos.rellenar(cmbGrupo, () -> estudianteService.obtenerGrupos(ciclo), () -> { }, errorOpciones);
+            } else {
+                cargaGrupos.cancelar();
+            }
+            cargarEstudiantes.run();
+        });
+        cmbGrupo.setOnAction(e -> cargarEstudiantes.run());
+        cmbPeriodo.setOnAction(e -> {
+            cargarEstudiantes.run();
+            cargarPlazasLibres(cargaPlazas, cmbPeriodo.getValue(), cmbEmpresa);
+        });
+        cmbEmpresa.setOnAction(e -> {
+            Empresa empresaSeleccionada = cmbEmpresa.getValue();
+            if (empresaSeleccionada != null) {
+                cargaTutores.rellenar(cmbTutor, () -> tutorEmpresaService.findByEmpresa(empresaSeleccionada),
+                    () -> { }, errorOpciones);
+            } else {
+                cargaTutores.cancelar();
+                cmbTutor.getItems().clear();
+            }
+        });
+
+        grid.add(new Label("Ciclo: *"), 0, 0);
+        grid.add(cmbCiclo, 1, 0);
+        grid.add(new Label("Grupo: *"), 0, 1);
+        grid.add(cmbGrupo, 1, 1);
+        grid.add(new Label("Periodo: *"), 0, 2);
+        grid.add(cmbPeriodo, 1, 2);
+        grid.add(new Label("Empresa: *"), 0, 3);
+        grid.add(cmbEmpresa, 1, 3);
+        grid.add(new Label("Tutor empresa: *"), 0, 4);
+        grid.add(cmbTutor, 1, 4);
+        grid.add(new Label("Estudiantes:"), 0, 5);
+        grid.add(new VBox(5, lstEstudiantes, lblSeleccion), 1, 5);
+
+        dialog.getDialogPane().setContent(grid);
+
+        cargaCiclos.rellenar(cmbCiclo, estudianteService::obtenerCiclos, () -> { }, errorOpciones);
+        cargaPeriodos.rellenar(cmbPeriodo, periodoService::findActivos, () -> { }, errorOpciones);
+        cargaEmpresas.rellenar(cmbEmpresa, empresaService::findActivas, () -> { }, errorOpciones);
+        dialog.setOnHidden(e -> {
+            cargaCiclos.cancelar();
+            cargaGrupos.cancelar();
+            cargaPeriodos.cancelar();
+            cargaEmpresas.cancelar();
+            cargaTutores.cancelar();
+            cargaEstudiantes.cancelar();
+            cargaPlazas.cancelar();
+        });
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton != btnAsignar) {
+                return null;
+            }
+            try {
+                if (cmbPeriodo.getValue() == null) {
+                    throw new ValidacionException("periodo", "es obligatorio");
+                }
+                if (cmbEmpresa.getValue() == null) {
+                    throw new ValidacionException("empresa", "es obligatoria");
+                }
+                if (cmbTutor.getValue() == null) {
+                    throw new ValidacionException("tutor", "es obligatorio");
+                }
+                List<AsignacionRequest> peticiones = seleccion.getSelectedItems().stream()
+                    .filter(estudiante -> !yaAsignados.contains(estudiante.getId()))
+                    .map(estudiante -> new AsignacionRequest(estudiante, cmbEmpresa.getValue(), cmbTutor.getValue()))
+                    .toList();
+                if (peticiones.isEmpty()) {
+                    throw new ValidacionException("estudiantes", "seleccione al menos uno");
+                }
+                return new AsignacionGrupo(cmbPeriodo.getValue(), peticiones);
+            } catch (ValidacionException e) {
+                mostrarError("Error de validación", e.getMessage());
+                return null;
+            }
+        });
+
+        dialog.showAndWait().ifPresent(asignacion -> {
+            try {
+                ResultadoAsignacion resultado = fctService.asignarEnBloque(asignacion.peticiones(), asignacion.periodo());
+                mostrarResultadoAsignacion(resultado);
+            } catch (Exception e) {
+                mostrarError("Error al asignar", e.getMessage());
+            }
+        });
+    }
+
+    // ============== DIÁLOGO DE COLOCACIÓN AUTOMÁTICA ==============
+    /**
+     * Calcula con {@link ColocacionService} una colocación de los estudiantes sin FCT del
+     * periodo, la muestra para revisarla y, si se acepta, la aplica como asignación en bloque.
+     */
+    private void mostrarDialogoPropuesta() {
+        Dialog<PropuestaColocacion> dialog = new Dialog<>();
+        dialog.setTitle("Propuesta Automática");
+        dialog.setHeaderText("Colocar en empresas a los estudiantes sin FCT en el periodo");
+
+        ButtonType btnAplicar = new ButtonType("Aplicar", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(btnAplicar, ButtonType.CANCEL);
+
+        CargaCancelable cargaPeriodos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaCiclos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaPropuesta = cargadorDatos.nuevaCarga();
+
+        ComboBox<Periodo> cmbPeriodo = new ComboBox<>();
+        cmbPeriodo.setPromptText("Seleccionar periodo *");
+        cmbPeriodo.setPrefWidth(300);
+
+        // Sin ciclo elegido se colocan todos
+        ComboBox<String> cmbCiclo = new ComboBox<>();
+        cmbCiclo.setPromptText("Todos los ciclos");
+        cmbCiclo.setPrefWidth(300);
+
+        Button btnCalcular = new Button("Calcular");
+        btnCalcular.getStyleClass().add("btn-primary");
+
+        TableView<PropuestaColocacion.Colocacion> tabla = new TableView<>();
+        tabla.setPrefSize(720, 360);
+        tabla.setPlaceholder(new Label("Elija un periodo y pulse Calcular"));
+        TableColumn<PropuestaColocacion.Colocacion, String> colAlumno = new TableColumn<>("Estudiante");
+        colAlumno.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().estudiante().toString()));
+        colAlumno.setPrefWidth(220);
+        TableColumn<PropuestaColocacion.Colocacion, String> colEmpresaPropuesta = new TableColumn<>("Empresa");
+        colEmpresaPropuesta.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().empresa().getNombre()));
+        colEmpresaPropuesta.setPrefWidth(200);
+        TableColumn<PropuestaColocacion.Colocacion, String> colTutorPropuesta = new TableColumn<>("Tutor");
+        colTutorPropuesta.setCellValueFactory(
+            c -> new SimpleStringProperty(c.getValue().tutorEmpresa().getNombreCompleto()));
+        colTutorPropuesta.setPrefWidth(180);
+        TableColumn<PropuestaColocacion.Colocacion, String> colPreferencia = new TableColumn<>("Preferencia");
+        colPreferencia.setCellValueFactory(c -> new SimpleStringProperty(
+            c.getValue().preferencia() < 0 ? "-" : String.valueOf(c.getValue().preferencia() + 1)));
+        colPreferencia.setPrefWidth(90);
+        tabla.getColumns().addAll(List.of(colAlumno, colEmpresaPropuesta, colTutorPropuesta, colPreferencia));
+
+        Label lblResumen = new Label();
+        SimpleObjectProperty<PropuestaColocacion> propuesta = new SimpleObjectProperty<>();
+        dialog.getDialogPane().lookupButton(btnAplicar).disableProperty()
+            .bind(propuesta.isNull().or(btnCalcular.disabledProperty()));
+
+        // Cambiar el periodo o el ciclo deja la propuesta anterior sin validez
+        Runnable descartar = () -> {
+            cargaPropuesta.cancelar();
+            propuesta.set(null);
+            tabla.getItems().clear();
+            lblResumen.setText("");
+            btnCalcular.setDisable(false);
+        };
+        cmbPeriodo.setOnAction(e -> descartar.run());
+        cmbCiclo.setOnAction(e -> descartar.run());
+
+        btnCalcular.setOnAction(e -> {
+            Periodo periodo = cmbPeriodo.getValue();
+            if (periodo == null) {
+                mostrarError("Error de validación", "El periodo es obligatorio");
+                return;
+            }
+            String ciclo = cmbCiclo.getValue();
+            descartar.run();
+            btnCalcular.setDisable(true);
+            cargaPropuesta.ejecutar(tabla, () -> colocacionService.proponer(periodo, ciclo), calculada -> {
+                btnCalcular.setDisable(false);
+                propuesta.set(calculada);
+                tabla.getItems().setAll(calculada.colocaciones());
+                String resumen = calculada.colocaciones().size() + " estudiantes colocados";
+                if (!calculada.sinPlaza().isEmpty()) {
+                    resumen += ", " + calculada.sinPlaza().size() + " sin empresa compatible con plazas: "
+                        + calculada.sinPlaza().stream().map(Estudiante::getNombreCompleto)
+                            .collect(Collectors.joining(", "));
+                }
+                lblResumen.setText(resumen);
+            }, error -> {
+                btnCalcular.setDisable(false);
+                mostrarError("Error al calcular la propuesta", error.getMessage());
+            });
+        });
+        lblResumen.setWrapText(true);
+        lblResumen.setMaxWidth(720);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+        grid.add(new Label("Periodo: *"), 0, 0);
+        grid.add(cmbPeriodo, 1, 0);
+        grid.add(new Label("Ciclo:"), 0, 1);
+        grid.add(new HBox(10, cmbCiclo, btnCalcular), 1, 1);
+
+        dialog.getDialogPane().setContent(new VBox(10, grid, tabla, lblResumen));
+
+        Consumer<Throwable> errorOpciones = e -> mostrarError("Error al cargar opciones", e.getMessage());
+        cargaPeriodos.rellenar(cmbPeriodo, periodoService::findActivos, () -> { }, errorOpciones);
+        cargaCiclos.rellenar(cmbCiclo, estudianteService::obtenerCiclos, () -> { }, errorOpciones);
+        dialog.setOnHidden(e -> {
+            cargaPeriodos.cancelar();
+            cargaCiclos.cancelar();
+            cargaPropuesta.cancelar();
+        });
+
+        dialog.setResultConverter(dialogButton -> dialogButton == btnAplicar ? propuesta.get() : null);
+
+        dialog.showAndWait().ifPresent(aceptada -> {
+            try {
+                mostrarResultadoAsignacion(colocacionService.aplicar(aceptada));
+            } catch (Exception e) {
+                mostrarError("Error al aplicar la propuesta", e.getMessage());
+            }
+        });
+    }
+
+    private void mostrarResultadoAsignacion(ResultadoAsignacion resultado) {
+        String creadas = "Se han creado " + resultado.creadas().size() + " asignaciones.";
+        if (resultado.conflictos().isEmpty()) {
+            mostrarExito("Asignación en bloque", creadas);
+            return;
+        }
+        String detalle = resultado.conflictos().stream()
+            .map(conflicto -> "• " + (conflicto.peticion().estudiante() != null
+                ? conflicto.peticion().estudiante().getNombreCompleto() : "Sin estudiante")
+                + ": " + conflicto.motivo())
+            .collect(Collectors.joining("\n"));
+        mostrarAdvertencia("Asignación en bloque", creadas + "\nNo se han podido crear:\n" + detalle);
+    }
+
+    // ============== PLAZAS POR EMPRESA ==============
+    /**
+     * Carga las plazas libres de las empresas en el periodo y las muestra en el combo.
+     */
+    private void cargarPlazasLibres(CargaCancelable carga, Periodo periodo, ComboBox<Empresa> cmbEmpresa) {
+        if (periodo == null) {
+            carga.cancelar();
+            mostrarPlazasLibres(cmbEmpresa, Map.of());
+            return;
+        }
+        carga.ejecutar(() -> plazasService.libresPorEmpresa(periodo), libres -> mostrarPlazasLibres(cmbEmpresa, libres),
+            e -> mostrarError("Error al cargar las plazas", e.getMessage()));
+    }
+
+    /**
+     * Muestra junto a cada empresa las plazas que le quedan y no deja elegir las completas.
+     * Las empresas sin cupo en el periodo (sin límite) se muestran sin más.
+     */
+    private void mostrarPlazasLibres(ComboBox<Empresa> cmbEmpresa, Map<Long, Integer> libres) {
+        cmbEmpresa.setCellFactory(lista -> new CeldaEmpresa(libres, true));
+        cmbEmpresa.setButtonCell(new CeldaEmpresa(libres, false));
+    }
+
+    private static final class CeldaEmpresa extends ListCell<Empresa> {
+        private final Map<Long, Integer> libres;
+        private final boolean enLista;
+
+        private CeldaEmpresa(Map<Long, Integer> libres, boolean enLista) {
+            this.libres = libres;
+            this.enLista = enLista;
+        }
+
+        @Override
+        protected void updateItem(Empresa empresa, boolean empty) {
+            super.updateItem(empresa, empty);
+            Integer quedan = empty || empresa == null ? null : libres.get(empresa.getId());
+            if (empty || empresa == null) {
+                setText(null);
+            } else if (quedan == null) {
+                setText(empresa.toString());
+            } else {
+                setText(empresa + (quedan <= 0 ? " — completa"
+                    : " — " + quedan + (quedan == 1 ? " plaza libre" : " plazas libres")));
+            }
+            // La celda del botón no se deshabilita: la empresa ya elegida al editar puede estar completa
+            setDisable(enLista && quedan != null && quedan <= 0);
+        }
+    }
+
+    /**
+     * Define las plazas que ofrece una empresa en un periodo, o las deja sin límite.
+     */
+    private void mostrarDialogoPlazas() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Plazas por Empresa");
+        dialog.setHeaderText("Plazas que ofrece una empresa en un periodo");
+
+        ButtonType btnGuardar = new ButtonType("Guardar", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(btnGuardar, ButtonType.CANCEL);
+
+        CargaCancelable cargaPeriodos = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaEmpresas = cargadorDatos.nuevaCarga();
+        CargaCancelable cargaActuales = cargadorDatos.nuevaCarga();
+
+        ComboBox<Periodo> cmbPeriodo = new ComboBox<>();
+        cmbPeriodo.setPromptText("Seleccionar periodo *");
+        cmbPeriodo.setPrefWidth(300);
+
+        ComboBox<Empresa> cmbEmpresa = new ComboBox<>();
+        cmbEmpresa.setPromptText("Seleccionar empresa *");
+        cmbEmpresa.setPrefWidth(300);
+
+        Spinner<Integer> spnPlazas = new Spinner<>(0, 500, 0);
+        spnPlazas.setEditable(true);
+        CheckBox chkSinLimite = new CheckBox("Sin límite");
+        chkSinLimite.setSelected(true);
+        spnPlazas.disableProperty().bind(chkSinLimite.selectedProperty());
+        Label lblOcupadas = new Label();
+
+        Runnable cargarActuales = () -> {
+            Periodo periodo = cmbPeriodo.getValue();
+            Empresa empresa = cmbEmpresa.getValue();
+            if (periodo == null || empresa == null) {
+                cargaActuales.cancelar();
+                lblOcupadas.setText("");
+                return;
+            }
+            // Al abrirlas se recuentan, por si alguna devolución de plazas se perdió
+            cargaActuales.ejecutar(() -> plazasService.recalcular(empresa, periodo), actuales -> {
+                chkSinLimite.setSelected(actuales.isEmpty());
+                actuales.ifPresent(plazas -> spnPlazas.getValueFactory().setValue(plazas.getPlazas()));
+                lblOcupadas.setText(actuales.map(plazas -> plazas.getOcupadas() + " plazas ocupadas")
+                    .orElse("Sin límite de plazas en este periodo"));
+            }, e -> mostrarError("Error al cargar las plazas", e.getMessage()));
+        };
+        cmbPeriodo.setOnAction(e -> cargarActuales.run());
+        cmbEmpresa.setOnAction(e -> cargarActuales.run());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+        grid.add(new Label("Periodo: *"), 0, 0);
+        grid.add(cmbPeriodo, 1, 0);
+        grid.add(new Label("Empresa: *"), 0, 1);
+        grid.add(cmbEmpresa, 1, 1);
+        grid.add(new Label("Plazas:"), 0, 2);
+        grid.add(new HBox(10, spnPlazas, chkSinLimite), 1, 2);
+        grid.add(lblOcupadas, 1, 3);
+        dialog.getDialogPane().setContent(grid);
+
+        Consumer<Throwable> errorOpciones = e -> mostrarError("Error al cargar opciones", e.getMessage());
+        cargaPeriodos.rellenar(cmbPeriodo, periodoService::findActivos, () -> { }, errorOpciones);
+        cargaEmpresas.rellenar(cmbEmpresa, empresaService::findActivas, () -> { }, errorOpciones);
+        dialog.setOnHidden(e -> {
+            cargaPeriodos.cancelar();
+            cargaEmpresas.cancelar();
+            cargaActuales.cancelar();
+        });
+
+        dialog.showAndWait().filter(boton -> boton == btnGuardar).ifPresent(boton -> {
+            try {
+                if (cmbPeriodo.getValue() == null) {
+                    throw new ValidacionException("periodo", "es obligatorio");
+                }
+                if (cmbEmpresa.getValue() == null) {
+                    throw new ValidacionException("empresa", "es obligatoria");
+                }
+                if (chkSinLimite.isSelected()) {
+                    plazasService.quitar(cmbEmpresa.getValue(), cmbPeriodo.getValue());
+                } else {
+                    plazasService.definir(cmbEmpresa.getValue(), cmbPeriodo.getValue(), spnPlazas.getValue());
+                }
+                mostrarExito("Plazas guardadas", "Las plazas de la empresa se han guardado correctamente.");
+            } catch (Exception e) {
+                mostrarError("Error al guardar las plazas", e.getMessage());
+            }
+        });
+    }
+
     // ============== UTILIDADES ==============
     private void mostrarError(String titulo, String mensaje) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -1,33 +1,48 @@
 package com.adrian.gestionfct.controller;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 
 import com.adrian.gestionfct.config.StageManager;
+import com.adrian.gestionfct.dto.EmpresaRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
 import com.adrian.gestionfct.exception.DuplicadoException;
 import com.adrian.gestionfct.exception.OperacionNoPermitidaException;
 import com.adrian.gestionfct.exception.ValidacionException;
 import com.adrian.gestionfct.modelo.Empresa;
 import com.adrian.gestionfct.services.EmpresaService;
 import com.adrian.gestionfct.services.FCTService;
+import com.adrian.gestionfct.view.BusquedaIncremental;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
+import com.adrian.gestionfct.view.DialogoConflicto;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.OyenteCambios;
+import com.adrian.gestionfct.view.Refrescable;
 
+import jakarta.annotation.PostConstruct;
+
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 
@@ -38,21 +53,24 @@ import javafx.scene.layout.HBox;
  * @author Adrián Iglesias Rino
  */
 @Controller
-public class EmpresaController implements Initializable {
+public class EmpresaController implements Initializable, Refrescable, OyenteCambios {
 
     // ============== COMPONENTES FXML ==============
-    @FXML private TableView<Empresa> tablaEmpresas;
-    @FXML private TableColumn<Empresa, Long> colId;
-    @FXML private TableColumn<Empresa, String> colNombre;
-    @FXML private TableColumn<Empresa, String> colNif;
-    @FXML private TableColumn<Empresa, String> colEmail;
-    @FXML private TableColumn<Empresa, String> colTelefono;
-    @FXML private TableColumn<Empresa, String> colLocalidad;
-    @FXML private TableColumn<Empresa, String> colEstado;
+    @FXML private TableView<EmpresaRowView> tablaEmpresas;
+    @FXML private TableColumn<EmpresaRowView, Long> colId;
+    @FXML private TableColumn<EmpresaRowView, String> colNombre;
+    @FXML private TableColumn<EmpresaRowView, String> colNif;
+    @FXML private TableColumn<EmpresaRowView, String> colEmail;
+    @FXML private TableColumn<EmpresaRowView, String> colTelefono;
+    @FXML private TableColumn<EmpresaRowView, String> colLocalidad;
+    @FXML private TableColumn<EmpresaRowView, String> colEstado;
 
     @FXML private TextField txtBuscar;
     @FXML private ComboBox<String> cmbFiltroEstado;
     @FXML private Label lblContador;
+    @FXML private Label lblPagina;
+    @FXML private Button btnPaginaAnterior;
+    @FXML private Button btnPaginaSiguiente;
     @FXML private Label lblTitulo;
 
     @FXML private Button btnNueva;
@@ -68,42 +86,98 @@ public class EmpresaController implements Initializable {
     @Autowired
     private FCTService fctService;
 
+    @Autowired
+    private CargadorDatos cargadorDatos;
+
+    @Value("${gestionfct.busqueda.retardo-ms:300}")
+    private long retardoBusquedaMs;
+
     @Lazy
     @Autowired
     private StageManager stageManager;
 
     // ============== DATOS ==============
-    private ObservableList<Empresa> listaEmpresas = FXCollections.observableArrayList();
-    private List<Empresa> todasLasEmpresas;
+    private CargaCancelable cargaTabla;
+    private CargaCancelable cargaSeleccion;
+    private BusquedaIncremental<EmpresaRowView> busqueda;
+    private Page<EmpresaRowView> pagina;
+    private int paginaActual = 0;
+    private Sort ordenActual = ORDEN_POR_DEFECTO;
+
+    private static final int TAMANO_PAGINA = 50;
+    private static final Sort ORDEN_POR_DEFECTO = Sort.by("nombre");
 
     // ============== REGEX PARA VALIDACIONES ==============
     private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
     private static final String NIF_REGEX = "^[A-Z]\\d{7}[A-Z0-9]$|^\\d{8}[A-Z]$";
 
+    /** Empresa seleccionada junto con el número de FCT que tiene asociadas. */
+    private record EmpresaConFcts(Empresa empresa, long numFcts) {
+    }
+
+    @PostConstruct
+    private void crearCargas() {
+        cargaTabla = cargadorDatos.nuevaCarga();
+        busqueda = new BusquedaIncremental<>(retardoBusquedaMs,
+            BusquedaIncremental.Criterio.prefijos(EmpresaRowView::claveBusqueda));
+        cargaSeleccion = cargadorDatos.nuevaCarga();
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         configurarTabla();
         configurarFiltros();
         configurarEventos();
+    }
+
+    /**
+     * La vista se conserva entre visitas. Al volver se enseña la página que tenía, si sus
+     * filas se conservan, y se recarga en segundo plano con los filtros que tuviera.
+     */
+    @Override
+    public void refrescar() {
+        if (busqueda.restaurar()) {
+            actualizarContador();
+        }
         cargarDatos();
     }
 
+    @Override
+    public void alOcultar() {
+        cargaTabla.cancelar();
+        cargaSeleccion.cancelar();
+        busqueda.retener();
+    }
+
     // ============== CONFIGURACIÓN ==============
     private void configurarTabla() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colNombre.setCellValueFactory(new PropertyValueFactory<>("nombre"));
-        colNif.setCellValueFactory(new PropertyValueFactory<>("nif"));
-        colEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-        colTelefono.setCellValueFactory(new PropertyValueFactory<>("telefono"));
-        colLocalidad.setCellValueFactory(new PropertyValueFactory<>("localidad"));
-        
-        colEstado.setCellValueFactory(cellData -> {
-            Boolean activa = cellData.getValue().getActiva();
-            return new SimpleStringProperty(activa != null && activa ? "Activa" : "Inactiva");
+        colId.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        colNombre.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nombre()));
+        colNif.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nif()));
+        colEmail.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().email()));
+        colTelefono.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().telefono()));
+        colLocalidad.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().localidad()));
+        colEstado.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().estado()));
+
+        // Propiedad de la entidad por la que ordena cada columna (el orden se aplica en SQL)
+        colId.setUserData("id");
+        colNombre.setUserData("nombre");
+        colNif.setUserData("nif");
+        colEmail.setUserData("email");
+        colTelefono.setUserData("telefono");
+        colLocalidad.setUserData("localidad");
+        colEstado.setUserData("activa");
+        tablaEmpresas.setSortPolicy(tabla -> {
+            Sort orden = construirOrden();
+            if (!orden.equals(ordenActual)) {
+                ordenActual = orden;
+                aplicarFiltros();
+            }
+            return true;
         });
 
         // Estilo condicional para estado
-        colEstado.setCellFactory(column -> new TableCell<Empresa, String>() {
+        colEstado.setCellFactory(column -> new TableCell<EmpresaRowView, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -121,7 +195,7 @@ public class EmpresaController implements Initializable {
             }
         });
 
-        tablaEmpresas.setItems(listaEmpresas);
+        tablaEmpresas.setItems(busqueda.getFilas());
         tablaEmpresas.setPlaceholder(new Label("No hay empresas para mostrar"));
     }
 
@@ -142,8 +216,8 @@ public class EmpresaController implements Initializable {
         // Enter en búsqueda
         txtBuscar.setOnAction(e -> aplicarFiltros());
 
-        // Listener para búsqueda en tiempo real
-        txtBuscar.textProperty().addListener((obs, oldVal, newVal) -> aplicarFiltros());
+        // Búsqueda en tiempo real: se lanza al dejar de escribir y, si basta, se filtra en memoria
+        busqueda.escuchar(txtBuscar, this::aplicarFiltros, this::actualizarContador);
 
         // Habilitar/deshabilitar botones según selección
         tablaEmpresas.getSelectionModel().selectedItemProperty().addListener((obs, oldSel, newSel) -> {
@@ -160,45 +234,90 @@ public class EmpresaController implements Initializable {
     }
 
     // ============== CARGA DE DATOS ==============
+    /**
+     * Carga la página actual en segundo plano. Filtros, orden y paginación se resuelven
+     * en la base de datos; si llega otra petición antes de terminar, esta se descarta.
+     */
     private void cargarDatos() {
-        try {
-            todasLasEmpresas = empresaService.findAll();
-            aplicarFiltros();
-        } catch (Exception e) {
-            mostrarError("Error al cargar empresas", e.getMessage());
-        }
+        // Los filtros se leen aquí, en el hilo de JavaFX, no dentro de la tarea
+        String filtroEstado = cmbFiltroEstado.getValue();
+        Boolean activa = "Activas".equals(filtroEstado) ? Boolean.TRUE
+            : "Inactivas".equals(filtroEstado) ? Boolean.FALSE : null;
+        String texto = txtBuscar.getText();
+        PageRequest peticion = PageRequest.of(paginaActual, TAMANO_PAGINA, ordenActual);
+
+        busqueda.invalidar();
+        cargaTabla.ejecutar(tablaEmpresas, () -> empresaService.buscarFilas(activa, texto, peticion), resultado -> {
+            // Si la página ha quedado vacía (p. ej. tras eliminar), retroceder a la última con datos
+            if (resultado.isEmpty() && paginaActual > 0) {
+                paginaActual = Math.max(resultado.getTotalPages() - 1, 0);
+                cargarDatos();
+                return;
+            }
+            // Solo se guardan los datos de paginación: las filas las conserva la búsqueda,
+            // que las suelta mientras la vista está oculta
+            pagina = new PageImpl<>(List.of(), resultado.getPageable(), resultado.getTotalElements());
+            busqueda.cargar(texto, resultado.getContent(), resultado.getTotalPages() <= 1);
+            actualizarContador();
+        }, e -> mostrarError("Error al cargar empresas", e.getMessage()));
     }
 
     private void aplicarFiltros() {
-        if (todasLasEmpresas == null) return;
-
-        String busqueda = txtBuscar.getText().toLowerCase().trim();
-        String filtroEstado = cmbFiltroEstado.getValue();
-
-        List<Empresa> filtradas = todasLasEmpresas.stream()
-            .filter(emp -> {
-                // Filtro por estado
-                if ("Activas".equals(filtroEstado) && !Boolean.TRUE.equals(emp.getActiva())) return false;
-                if ("Inactivas".equals(filtroEstado) && Boolean.TRUE.equals(emp.getActiva())) return false;
-                
-                // Filtro por búsqueda
-                if (!busqueda.isEmpty()) {
-                    return emp.getNombre().toLowerCase().contains(busqueda) ||
-                           (emp.getNif() != null && emp.getNif().toLowerCase().contains(busqueda)) ||
-                           (emp.getLocalidad() != null && emp.getLocalidad().toLowerCase().contains(busqueda));
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
+        paginaActual = 0;
+        cargarDatos();
+    }
 
-        listaEmpresas.setAll(filtradas);
-        actualizarContador();
+    private Sort construirOrden() {
+        List<Sort.Order> ordenes = new ArrayList<>();
+        for (TableColumn<EmpresaRowView, ?> columna : tablaEmpresas.getSortOrder()) {
+            if (columna.getUserData() instanceof String propiedad) {
+                ordenes.add(columna.getSortType() == TableColumn.SortType.ASCENDING
+                    ? Sort.Order.asc(propiedad) : Sort.Order.desc(propiedad));
+            }
+        }
+        return ordenes.isEmpty() ? ORDEN_POR_DEFECTO : Sort.by(ordenes);
     }
 
     private void actualizarContador() {
-        int total = todasLasEmpresas != null ? todasLasEmpresas.size() : 0;
-        int mostradas = listaEmpresas.size();
-        lblContador.setText(String.format("Mostrando %d de %d empresas", mostradas, total));
+        // Si están todas las coincidencias, el total es lo que queda tras filtrar en memoria
+        int visibles = busqueda.getFilas().size();
+        long total = busqueda.isCompleta() ? visibles : pagina.getTotalElements();
+        lblContador.setText(String.format("Mostrando %d de %d empresas", visibles, total));
+        lblPagina.setText(String.format("Página %d de %d", pagina.getNumber() + 1, Math.max(pagina.getTotalPages(), 1)));
+        btnPaginaAnterior.setDisable(!pagina.hasPrevious());
+        btnPaginaSiguiente.setDisable(!pagina.hasNext());
+    }
+
+    // ============== CAMBIOS ==============
+    /**
+     * Al guardar o eliminar una empresa, aquí o en otra pantalla, solo se toca su fila. Una
+     * fila nueva se añade al final de la página hasta la siguiente carga.
+     */
+    @Override
+    public void alCambiar(CambioDatos cambio) {
+        if (!cambio.es(Empresa.class)) {
+            return;
+        }
+        boolean aplicado = switch (cambio.tipo()) {
+            case ALTA -> busqueda.anadir(cambio.fila(EmpresaRowView.class));
+            case MODIFICACION -> busqueda.sustituir(fila -> fila.id().equals(cambio.id()), cambio.fila(EmpresaRowView.class));
+            case BAJA -> busqueda.quitar(fila -> fila.id().equals(cambio.id()));
+        };
+        if (!aplicado) {
+            return;
+        }
+        if (busqueda.getFilas().isEmpty() && paginaActual > 0) {
+            // Se ha quitado la última fila de la página: retroceder
+            cargarDatos();
+            return;
+        }
+        long diferencia = switch (cambio.tipo()) {
+            case ALTA -> 1;
+            case BAJA -> -1;
+            default -> 0;
+        };
+        pagina = new PageImpl<>(List.of(), pagina.getPageable(), pagina.getTotalElements() + diferencia);
+        actualizarContador();
     }
 
     // ============== ACCIONES CRUD ==============
@@ -207,21 +326,34 @@ public class EmpresaController implements Initializable {
         mostrarDialogoEmpresa(null);
     }
 
+    /**
+     * Carga en segundo plano la entidad completa de la fila seleccionada (la tabla solo
+     * guarda proyecciones) junto con su número de FCT, y ejecuta la acción en el hilo de JavaFX.
+     */
+    private void conSeleccionada(Consumer<EmpresaConFcts> accion) {
+        EmpresaRowView fila = tablaEmpresas.getSelectionModel().getSelectedItem();
+        if (fila == null) return;
+        cargaSeleccion.ejecutar(() -> empresaService.findById(fila.id())
+                .map(empresa -> new EmpresaConFcts(empresa, fctService.contarPorEmpresa(empresa))),
+            empresa -> empresa.ifPresent(accion),
+            e -> mostrarError("Error al cargar la empresa", e.getMessage()));
+    }
+
     @FXML
     private void handleEditar(ActionEvent event) {
-        Empresa seleccionada = tablaEmpresas.getSelectionModel().getSelectedItem();
-        if (seleccionada != null) {
-            mostrarDialogoEmpresa(seleccionada);
-        }
+        conSeleccionada(seleccionada -> mostrarDialogoEmpresa(seleccionada.empresa()));
     }
 
     @FXML
     private void handleEliminar(ActionEvent event) {
-        Empresa seleccionada = tablaEmpresas.getSelectionModel().getSelectedItem();
-        if (seleccionada == null) return;
+        conSeleccionada(this::confirmarEliminacion);
+    }
+
+    private void confirmarEliminacion(EmpresaConFcts datos) {
+        Empresa seleccionada = datos.empresa();
 
         // Verificar si tiene FCTs asociadas
-        if (!fctService.findByEmpresa(seleccionada).isEmpty()) {
+        if (datos.numFcts() > 0) {
             mostrarError("No se puede eliminar", 
                 "La empresa tiene FCTs asociadas. Debe eliminarlas o reasignarlas primero.");
             return;
@@ -237,7 +369,6 @@ public class EmpresaController implements Initializable {
             if (response == ButtonType.OK) {
                 try {
                     empresaService.delete(seleccionada);
-                    cargarDatos();
                     mostrarExito("Empresa eliminada", 
                         "La empresa '" + seleccionada.getNombre() + "' ha sido eliminada correctamente.");
                 } catch (Exception e) {
@@ -253,8 +384,11 @@ public class EmpresaController implements Initializable {
     }
 
     private void verDetalles() {
-        Empresa seleccionada = tablaEmpresas.getSelectionModel().getSelectedItem();
-        if (seleccionada == null) return;
+        conSeleccionada(this::mostrarDetalles);
+    }
+
+    private void mostrarDetalles(EmpresaConFcts datos) {
+        Empresa seleccionada = datos.empresa();
 
         Alert detalles = new Alert(Alert.AlertType.INFORMATION);
         detalles.setTitle("Detalles de Empresa");
@@ -285,9 +419,7 @@ public class EmpresaController implements Initializable {
         if (seleccionada.getObservaciones() != null) 
             sb.append("\nObservaciones: ").append(seleccionada.getObservaciones());
 
-        // Contar FCTs
-        int numFcts = fctService.findByEmpresa(seleccionada).size();
-        sb.append("\n\nFCTs asociadas: ").append(numFcts);
+        sb.append("\n\nFCTs asociadas: ").append(datos.numFcts());
 
         detalles.setContentText(sb.toString());
         detalles.showAndWait();
@@ -300,6 +432,22 @@ public class EmpresaController implements Initializable {
         aplicarFiltros();
     }
 
+    @FXML
+    private void handlePaginaAnterior(ActionEvent event) {
+        if (paginaActual > 0) {
+            paginaActual--;
+            cargarDatos();
+        }
+    }
+
+    @FXML
+    private void handlePaginaSiguiente(ActionEvent event) {
+        if (pagina != null && pagina.hasNext()) {
+            paginaActual++;
+            cargarDatos();
+        }
+    }
+
     @FXML
     private void handleVolver(ActionEvent event) {
         stageManager.switchScene(FxmlView.MENU_ADMIN);
@@ -446,10 +594,9 @@ public class EmpresaController implements Initializable {
         Optional<Empresa> resultado = dialog.showAndWait();
         resultado.ifPresent(emp -> {
             try {
-                empresaService.save(emp);
-                cargarDatos();
-                mostrarExito(esNueva ? "Empresa creada" : "Empresa actualizada",
-                    "La empresa '" + emp.getNombre() + "' se ha guardado correctamente.");
+                DialogoConflicto.guardar(emp, Empresa.CAMPOS_EDITABLES, empresaService::save).ifPresent(guardada ->
+                    mostrarExito(esNueva ? "Empresa creada" : "Empresa actualizada",
+                        "La empresa '" + guardada.getNombre() + "' se ha guardado correctamente."));
             } catch (Exception e) {
                 mostrarError("Error al guardar", e.getMessage());
             }
@@ -1,9 +1,21 @@
 package com.adrian.gestionfct.controller;
 
+import com.adrian.gestionfct.dto.EstudianteRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
 import com.adrian.gestionfct.modelo.Estudiante;
 import com.adrian.gestionfct.services.EstudianteService;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
+import com.adrian.gestionfct.view.DialogoConflicto;
+import com.adrian.gestionfct.view.FilasRetenidas;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.OyenteCambios;
+import com.adrian.gestionfct.view.Refrescable;
 import com.adrian.gestionfct.config.StageManager;
+import jakarta.annotation.PostConstruct;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -11,7 +23,6 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -21,17 +32,20 @@ import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Controller
-public class EstudianteController implements Initializable {
+public class EstudianteController implements Initializable, Refrescable, OyenteCambios {
 
-    @FXML private TableView<Estudiante> tableEstudiantes;
-    @FXML private TableColumn<Estudiante, Long> colId;
-    @FXML private TableColumn<Estudiante, String> colNombre;
-    @FXML private TableColumn<Estudiante, String> colApellidos;
-    @FXML private TableColumn<Estudiante, String> colEmail;
-    @FXML private TableColumn<Estudiante, String> colCiclo;
-    @FXML private TableColumn<Estudiante, String> colGrupo;
+    @FXML private TableView<EstudianteRowView> tableEstudiantes;
+    @FXML private TableColumn<EstudianteRowView, Long> colId;
+    @FXML private TableColumn<EstudianteRowView, String> colNombre;
+    @FXML private TableColumn<EstudianteRowView, String> colApellidos;
+    @FXML private TableColumn<EstudianteRowView, String> colEmail;
+    @FXML private TableColumn<EstudianteRowView, String> colCiclo;
+    @FXML private TableColumn<EstudianteRowView, String> colGrupo;
     
     @FXML private TextField txtBuscar;
     @FXML private Button btnBuscar;
@@ -48,12 +62,23 @@ public class EstudianteController implements Initializable {
     @Autowired
     private EstudianteService estudianteService;
     
-    private ObservableList<Estudiante> listaEstudiantes = FXCollections.observableArrayList();
+    @Autowired
+    private CargadorDatos cargadorDatos;
+    
+    private CargaCancelable cargaTabla;
+    private CargaCancelable cargaSeleccion;
+    private ObservableList<EstudianteRowView> listaEstudiantes = FXCollections.observableArrayList();
+    private final FilasRetenidas<EstudianteRowView> filasRetenidas = new FilasRetenidas<>(listaEstudiantes);
+
+    @PostConstruct
+    private void crearCargas() {
+        cargaTabla = cargadorDatos.nuevaCarga();
+        cargaSeleccion = cargadorDatos.nuevaCarga();
+    }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         configurarTabla();
-        cargarEstudiantes();
         
         // Doble click para editar
         tableEstudiantes.setOnMouseClicked(event -> {
@@ -63,21 +88,89 @@ public class EstudianteController implements Initializable {
         });
     }
 
+    /**
+     * La vista se conserva entre visitas: al volver se enseñan las últimas filas, si se
+     * conservan, y se repite en segundo plano la búsqueda que hubiera.
+     */
+    @Override
+    public void refrescar() {
+        filasRetenidas.restaurar();
+        String busqueda = txtBuscar.getText().trim();
+        if (busqueda.isEmpty()) {
+            cargarEstudiantes();
+        } else {
+            mostrarFilas(busqueda, () -> estudianteService.buscarFilasPorNombreOApellidos(busqueda), resultados -> { });
+        }
+    }
+
+    @Override
+    public void alOcultar() {
+        cargaTabla.cancelar();
+        cargaSeleccion.cancelar();
+        filasRetenidas.retener();
+    }
+
+    /**
+     * Al guardar o eliminar un estudiante solo se toca su fila, sin volver a cargar la tabla.
+     */
+    @Override
+    public void alCambiar(CambioDatos cambio) {
+        if (!cambio.es(Estudiante.class)) {
+            return;
+        }
+        switch (cambio.tipo()) {
+            case ALTA -> filasRetenidas.anadir(cambio.fila(EstudianteRowView.class));
+            case MODIFICACION -> {
+                EstudianteRowView fila = cambio.fila(EstudianteRowView.class);
+                // Un estudiante que no estaba en la tabla viene de otro puesto: se añade si
+                // habría salido en la búsqueda mostrada
+                if (!filasRetenidas.sustituir(f -> f.id().equals(cambio.id()), fila)) {
+                    filasRetenidas.anadir(fila);
+                }
+            }
+            case BAJA -> filasRetenidas.quitar(fila -> fila.id().equals(cambio.id()));
+        }
+    }
+
     private void configurarTabla() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colNombre.setCellValueFactory(new PropertyValueFactory<>("nombre"));
-        colApellidos.setCellValueFactory(new PropertyValueFactory<>("apellidos"));
-        colEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-        colCiclo.setCellValueFactory(new PropertyValueFactory<>("ciclo"));
-        colGrupo.setCellValueFactory(new PropertyValueFactory<>("grupo"));
+        colId.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        colNombre.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nombre()));
+        colApellidos.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().apellidos()));
+        colEmail.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().email()));
+        colCiclo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().ciclo()));
+        colGrupo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().grupo()));
         
         tableEstudiantes.setItems(listaEstudiantes);
     }
 
     private void cargarEstudiantes() {
-        listaEstudiantes.clear();
-        List<Estudiante> estudiantes = estudianteService.obtenerTodos();
-        listaEstudiantes.addAll(estudiantes);
+        mostrarFilas("", estudianteService::obtenerFilas, estudiantes -> { });
+    }
+
+    /**
+     * Consulta las filas en segundo plano y las vuelca en la tabla; una búsqueda nueva
+     * descarta la que siguiera en curso.
+     *
+     * @param busqueda texto buscado, para decidir si se añaden los estudiantes que lleguen
+     *                 después
+     */
+    private void mostrarFilas(String busqueda, Callable<List<EstudianteRowView>> consulta,
+            Consumer<List<EstudianteRowView>> despues) {
+        Predicate<EstudianteRowView> filtro = coincidenCon(busqueda);
+        cargaTabla.ejecutar(tableEstudiantes, consulta, estudiantes -> {
+            filasRetenidas.cargar(estudiantes, filtro);
+            despues.accept(estudiantes);
+        }, e -> mostrarError("Error al cargar estudiantes", e.getMessage()));
+    }
+
+    /**
+     * Reproduce en memoria la búsqueda por clave (sin el DNI, que no viene en la fila: un
+     * estudiante encontrado solo por el DNI no se añade y sale al volver a buscar).
+     */
+    private static Predicate<EstudianteRowView> coincidenCon(String busqueda) {
+        List<String> terminos = ClaveBusqueda.terminos(busqueda);
+        return fila -> ClaveBusqueda.contienePrefijos(ClaveBusqueda.de(fila.nombre(), fila.apellidos(), fila.email()),
+                terminos);
     }
 
     @FXML
@@ -88,13 +181,11 @@ public class EstudianteController implements Initializable {
             return;
         }
         
-        listaEstudiantes.clear();
-        List<Estudiante> resultados = estudianteService.buscarPorNombreOApellidos(busqueda);
-        listaEstudiantes.addAll(resultados);
-        
-        if (resultados.isEmpty()) {
-            mostrarInfo("Sin resultados", "No se encontraron estudiantes con ese criterio.");
-        }
+        mostrarFilas(busqueda, () -> estudianteService.buscarFilasPorNombreOApellidos(busqueda), resultados -> {
+            if (resultados.isEmpty()) {
+                mostrarInfo("Sin resultados", "No se encontraron estudiantes con ese criterio.");
+            }
+        });
     }
 
     @FXML
@@ -112,7 +203,6 @@ public class EstudianteController implements Initializable {
             try {
                 estudianteService.guardar(estudiante);
                 mostrarExito("Estudiante creado", "El estudiante se ha creado correctamente.");
-                cargarEstudiantes();
             } catch (Exception e) {
                 mostrarError("Error al crear", "No se pudo crear el estudiante: " + e.getMessage());
             }
@@ -121,22 +211,30 @@ public class EstudianteController implements Initializable {
 
     @FXML
     private void handleEditar(ActionEvent event) {
-        Estudiante seleccionado = tableEstudiantes.getSelectionModel().getSelectedItem();
+        EstudianteRowView fila = tableEstudiantes.getSelectionModel().getSelectedItem();
         
-        if (seleccionado == null) {
+        if (fila == null) {
             mostrarAdvertencia("Ningún estudiante seleccionado", 
                 "Por favor, selecciona un estudiante de la tabla.");
             return;
         }
         
+        // La tabla solo guarda proyecciones: la entidad se carga en segundo plano
+        cargaSeleccion.ejecutar(() -> estudianteService.obtenerPorId(fila.id()),
+            estudiante -> estudiante.ifPresent(this::editarEstudiante),
+            e -> mostrarError("Error al cargar el estudiante", e.getMessage()));
+    }
+
+    private void editarEstudiante(Estudiante seleccionado) {
         Dialog<Estudiante> dialog = crearDialogoEstudiante(seleccionado);
         Optional<Estudiante> resultado = dialog.showAndWait();
         
         resultado.ifPresent(estudiante -> {
             try {
-                estudianteService.guardar(estudiante);
-                mostrarExito("Estudiante actualizado", "Los datos se han actualizado correctamente.");
-                cargarEstudiantes();
+                if (DialogoConflicto.guardar(estudiante, Estudiante.CAMPOS_EDITABLES,
+                        estudianteService::guardar).isPresent()) {
+                    mostrarExito("Estudiante actualizado", "Los datos se han actualizado correctamente.");
+                }
             } catch (Exception e) {
                 mostrarError("Error al actualizar", "No se pudo actualizar el estudiante: " + e.getMessage());
             }
@@ -145,7 +243,7 @@ public class EstudianteController implements Initializable {
 
     @FXML
     private void handleEliminar(ActionEvent event) {
-        Estudiante seleccionado = tableEstudiantes.getSelectionModel().getSelectedItem();
+        EstudianteRowView seleccionado = tableEstudiantes.getSelectionModel().getSelectedItem();
         
         if (seleccionado == null) {
             mostrarAdvertencia("Ningún estudiante seleccionado", 
@@ -157,15 +255,14 @@ public class EstudianteController implements Initializable {
         confirmacion.setTitle("Confirmar eliminación");
         confirmacion.setHeaderText("¿Eliminar estudiante?");
         confirmacion.setContentText("¿Estás seguro de eliminar a " + 
-            seleccionado.getNombre() + " " + seleccionado.getApellidos() + "?");
+            seleccionado.nombreCompleto() + "?");
         
         Optional<ButtonType> resultado = confirmacion.showAndWait();
         
         if (resultado.isPresent() && resultado.get() == ButtonType.OK) {
             try {
-                estudianteService.eliminar(seleccionado.getId());
+                estudianteService.eliminar(seleccionado.id());
                 mostrarExito("Estudiante eliminado", "El estudiante se ha eliminado correctamente.");
-                cargarEstudiantes();
             } catch (Exception e) {
                 mostrarError("Error al eliminar", "No se pudo eliminar el estudiante: " + e.getMessage());
             }
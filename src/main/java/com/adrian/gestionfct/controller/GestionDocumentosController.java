@@ -3,31 +3,55 @@ package com.adrian.gestionfct.controller;
 import java.io.File;
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 
 import com.adrian.gestionfct.config.StageManager;
+import com.adrian.gestionfct.dto.CoincidenciaContenido;
+import com.adrian.gestionfct.dto.DocumentoRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
 import com.adrian.gestionfct.exception.ValidacionException;
 import com.adrian.gestionfct.modelo.*;
 import com.adrian.gestionfct.services.*;
+import com.adrian.gestionfct.view.BusquedaIncremental;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.OyenteCambios;
+import com.adrian.gestionfct.view.Refrescable;
+import com.adrian.gestionfct.view.Transferencias;
 
+import jakarta.annotation.PostConstruct;
+
+import javafx.application.HostServices;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 import javafx.stage.FileChooser;
 
 /**
@@ -37,24 +61,32 @@ import javafx.stage.FileChooser;
  * @author Adrián Iglesias Rino
  */
 @Controller
-public class GestionDocumentosController implements Initializable {
+public class GestionDocumentosController implements Initializable, Refrescable, OyenteCambios {
 
     // ============== COMPONENTES FXML ==============
-    @FXML private TableView<Documento> tablaDocumentos;
-    @FXML private TableColumn<Documento, Long> colId;
-    @FXML private TableColumn<Documento, String> colNombre;
-    @FXML private TableColumn<Documento, String> colTipo;
-    @FXML private TableColumn<Documento, String> colFCT;
-    @FXML private TableColumn<Documento, String> colFecha;
-    @FXML private TableColumn<Documento, String> colTamano;
-    @FXML private TableColumn<Documento, String> colAutor;
+    @FXML private TableView<DocumentoRowView> tablaDocumentos;
+    @FXML private TableColumn<DocumentoRowView, Long> colId;
+    @FXML private TableColumn<DocumentoRowView, String> colNombre;
+    @FXML private TableColumn<DocumentoRowView, String> colTipo;
+    @FXML private TableColumn<DocumentoRowView, String> colFCT;
+    @FXML private TableColumn<DocumentoRowView, String> colFecha;
+    @FXML private TableColumn<DocumentoRowView, String> colTamano;
+    @FXML private TableColumn<DocumentoRowView, String> colAutor;
+    @FXML private TableColumn<DocumentoRowView, Long> colCoincidencia;
 
     @FXML private ComboBox<TipoDocumento> cmbFiltroTipo;
     @FXML private ComboBox<FCT> cmbFiltroFCT;
     @FXML private TextField txtBuscar;
+    @FXML private CheckBox chkContenido;
     @FXML private Label lblContador;
+    @FXML private Label lblPagina;
+    @FXML private Button btnPaginaAnterior;
+    @FXML private Button btnPaginaSiguiente;
+
+    @FXML private ListView<Task<?>> listaTransferencias;
 
     @FXML private Button btnSubir;
+    @FXML private Button btnAbrir;
     @FXML private Button btnDescargar;
     @FXML private Button btnEliminar;
     @FXML private Button btnVerDetalles;
@@ -70,59 +102,108 @@ public class GestionDocumentosController implements Initializable {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private CargadorDatos cargadorDatos;
+
+    @Autowired
+    private Transferencias transferencias;
+
+    /** Solo existe al arrancar como aplicación JavaFX (no en los tests). */
+    @Autowired
+    private ObjectProvider<HostServices> hostServices;
+
+    @Value("${gestionfct.busqueda.retardo-ms:300}")
+    private long retardoBusquedaMs;
+
     @Lazy
     @Autowired
     private StageManager stageManager;
 
     // ============== DATOS ==============
-    private ObservableList<Documento> listaDocumentos = FXCollections.observableArrayList();
-    private List<Documento> todosLosDocumentos;
+    private CargaCancelable cargaTabla;
+    private CargaCancelable cargaFCTs;
+    private CargaCancelable cargaSeleccion;
+    private BusquedaIncremental<DocumentoRowView> busqueda;
+    private Page<DocumentoRowView> pagina;
+    private int paginaActual = 0;
+    private Sort ordenActual = ORDEN_POR_DEFECTO;
+    /** Fragmentos resaltados de la última búsqueda en el contenido, por documento. */
+    private final Map<Long, List<CoincidenciaContenido.Trozo>> fragmentos = new HashMap<>();
+
+    private static final int TAMANO_PAGINA = 50;
+    private static final Sort ORDEN_POR_DEFECTO = Sort.by(Sort.Direction.DESC, "fechaSubida");
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
+    @PostConstruct
+    private void crearCargas() {
+        cargaTabla = cargadorDatos.nuevaCarga();
+        busqueda = new BusquedaIncremental<>(retardoBusquedaMs,
+            BusquedaIncremental.Criterio.subcadena(DocumentoRowView::claveBusqueda));
+        cargaFCTs = cargadorDatos.nuevaCarga();
+        cargaSeleccion = cargadorDatos.nuevaCarga();
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         configurarTabla();
         configurarFiltros();
         configurarEventos();
+        configurarTransferencias();
+    }
+
+    /**
+     * La vista se conserva entre visitas. Al volver se enseña la página que tenía, si sus
+     * filas se conservan, y se recarga en segundo plano con los filtros que tuviera.
+     */
+    @Override
+    public void refrescar() {
+        if (busqueda.restaurar()) {
+            actualizarContador();
+        }
         cargarDatos();
     }
 
+    @Override
+    public void alOcultar() {
+        cargaTabla.cancelar();
+        cargaSeleccion.cancelar();
+        busqueda.retener();
+    }
+
     // ============== CONFIGURACIÓN ==============
     private void configurarTabla() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colNombre.setCellValueFactory(new PropertyValueFactory<>("nombre"));
-        
+        // Las filas ya vienen unidas y formateadas desde la consulta
+        colId.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        colNombre.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nombre()));
         colTipo.setCellValueFactory(cellData -> {
-            TipoDocumento tipo = cellData.getValue().getTipo();
+            TipoDocumento tipo = cellData.getValue().tipo();
             return new SimpleStringProperty(tipo != null ? tipo.name() : "N/A");
         });
-        
-        colFCT.setCellValueFactory(cellData -> {
-            FCT fct = cellData.getValue().getFct();
-            if (fct != null && fct.getEstudiante() != null) {
-                return new SimpleStringProperty(fct.getEstudiante().getNombreCompleto());
+        colFCT.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().estudiante()));
+        colFecha.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().fechaSubida()));
+        colTamano.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().tamano()));
+        colAutor.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().autor()));
+
+        // Propiedad de la entidad por la que ordena cada columna (el orden se aplica en SQL)
+        colId.setUserData("id");
+        colNombre.setUserData("nombre");
+        colTipo.setUserData("tipo");
+        colFCT.setUserData("fct.estudiante.apellidos");
+        colFecha.setUserData("fechaSubida");
+        colTamano.setUserData("tamano");
+        colAutor.setUserData("autor.apellidos");
+        tablaDocumentos.setSortPolicy(tabla -> {
+            Sort orden = construirOrden();
+            if (!orden.equals(ordenActual)) {
+                ordenActual = orden;
+                aplicarFiltros();
             }
-            return new SimpleStringProperty("N/A");
-        });
-        
-        colFecha.setCellValueFactory(cellData -> {
-            return new SimpleStringProperty(
-                cellData.getValue().getFechaSubida().format(DATE_FORMATTER)
-            );
-        });
-        
-        colTamano.setCellValueFactory(cellData -> {
-            return new SimpleStringProperty(cellData.getValue().getTamanoFormateado());
-        });
-        
-        colAutor.setCellValueFactory(cellData -> {
-            Usuario autor = cellData.getValue().getAutor();
-            return new SimpleStringProperty(autor != null ? autor.getNombreCompleto() : "N/A");
+            return true;
         });
 
         // Estilo para columna tipo
-        colTipo.setCellFactory(column -> new TableCell<Documento, String>() {
+        colTipo.setCellFactory(column -> new TableCell<DocumentoRowView, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -142,7 +223,31 @@ public class GestionDocumentosController implements Initializable {
             }
         });
 
-        tablaDocumentos.setItems(listaDocumentos);
+        // Fragmento del texto con las palabras buscadas (solo al buscar en el contenido)
+        colCoincidencia.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        colCoincidencia.setCellFactory(column -> new TableCell<DocumentoRowView, Long>() {
+            @Override
+            protected void updateItem(Long id, boolean empty) {
+                super.updateItem(id, empty);
+                List<CoincidenciaContenido.Trozo> fragmento = empty || id == null ? null : fragmentos.get(id);
+                if (fragmento == null) {
+                    setGraphic(null);
+                    return;
+                }
+                TextFlow texto = new TextFlow();
+                for (CoincidenciaContenido.Trozo trozo : fragmento) {
+                    Text parte = new Text(trozo.texto());
+                    if (trozo.resaltado()) {
+                        parte.setStyle("-fx-font-weight: bold; -fx-fill: #c0392b;");
+                    }
+                    texto.getChildren().add(parte);
+                }
+                texto.prefWidthProperty().bind(column.widthProperty().subtract(10));
+                setGraphic(texto);
+            }
+        });
+
+        tablaDocumentos.setItems(busqueda.getFilas());
         tablaDocumentos.setPlaceholder(new Label("No hay documentos para mostrar"));
     }
 
@@ -153,10 +258,13 @@ public class GestionDocumentosController implements Initializable {
         cmbFiltroTipo.setOnAction(e -> aplicarFiltros());
 
         // Filtro de FCT
-        List<FCT> fcts = fctService.findAll();
-        cmbFiltroFCT.setItems(FXCollections.observableArrayList(fcts));
         cmbFiltroFCT.setPromptText("Todas las FCT");
         cmbFiltroFCT.setOnAction(e -> aplicarFiltros());
+
+        // Buscar el texto en el contenido de los archivos en vez de en nombre y descripción
+        chkContenido.setOnAction(e -> aplicarFiltros());
+        cargaFCTs.rellenar(cmbFiltroFCT, fctService::findAllParaListado, () -> { },
+            e -> mostrarError("Error al cargar las FCT", e.getMessage()));
     }
 
     private void configurarEventos() {
@@ -167,66 +275,138 @@ public class GestionDocumentosController implements Initializable {
             }
         });
 
-        // Búsqueda en tiempo real
-        txtBuscar.textProperty().addListener((obs, oldVal, newVal) -> aplicarFiltros());
+        // Búsqueda en tiempo real: se lanza al dejar de escribir y, si basta, se filtra en memoria
+        busqueda.escuchar(txtBuscar, this::aplicarFiltros, this::actualizarContador);
 
         // Habilitar/deshabilitar botones según selección
         tablaDocumentos.getSelectionModel().selectedItemProperty().addListener((obs, oldSel, newSel) -> {
             boolean haySeleccion = newSel != null;
+            btnAbrir.setDisable(!haySeleccion);
             btnDescargar.setDisable(!haySeleccion);
             btnEliminar.setDisable(!haySeleccion);
             btnVerDetalles.setDisable(!haySeleccion);
         });
 
         // Estado inicial de botones
+        btnAbrir.setDisable(true);
         btnDescargar.setDisable(true);
         btnEliminar.setDisable(true);
         btnVerDetalles.setDisable(true);
     }
 
+    private void configurarTransferencias() {
+        // Las descargas siguen en marcha aunque se cambie de pantalla; la lista solo ocupa
+        // sitio mientras haya alguna
+        listaTransferencias.setItems(transferencias.getActivas());
+        listaTransferencias.setCellFactory(lista -> Transferencias.celda());
+        listaTransferencias.visibleProperty().bind(Bindings.isNotEmpty(transferencias.getActivas()));
+        listaTransferencias.managedProperty().bind(listaTransferencias.visibleProperty());
+    }
+
     // ============== CARGA DE DATOS ==============
+    /**
+     * Carga la página actual en segundo plano. Filtros, orden y paginación se resuelven
+     * en la base de datos; si llega otra petición antes de terminar, esta se descarta.
+     */
     private void cargarDatos() {
-        try {
-            todosLosDocumentos = documentoService.findAll();
-            aplicarFiltros();
-        } catch (Exception e) {
-            mostrarError("Error al cargar datos", e.getMessage());
+        // Los filtros se leen aquí, en el hilo de JavaFX, no dentro de la tarea
+        TipoDocumento tipo = cmbFiltroTipo.getValue();
+        FCT fct = cmbFiltroFCT.getValue();
+        String texto = txtBuscar.getText();
+        boolean enContenido = chkContenido.isSelected() && texto != null && !texto.isBlank();
+        colCoincidencia.setVisible(enContenido);
+
+        busqueda.invalidar();
+        if (enContenido) {
+            // Por relevancia: el orden de las columnas no se aplica
+            PageRequest peticion = PageRequest.of(paginaActual, TAMANO_PAGINA);
+            cargaTabla.ejecutar(tablaDocumentos, () -> documentoService.buscarEnContenido(tipo, fct, texto, peticion),
+                resultado -> {
+                    fragmentos.clear();
+                    for (CoincidenciaContenido coincidencia : resultado) {
+                        fragmentos.put(coincidencia.fila().id(), coincidencia.fragmento());
+                    }
+                    // Las filas no se pueden volver a filtrar en memoria por su clave: no contiene el texto
+                    mostrarPagina(texto, resultado.map(CoincidenciaContenido::fila), false);
+                }, e -> mostrarError("Error al buscar en el contenido", e.getMessage()));
+            return;
         }
+        PageRequest peticion = PageRequest.of(paginaActual, TAMANO_PAGINA, ordenActual);
+        cargaTabla.ejecutar(tablaDocumentos, () -> documentoService.buscarFilas(tipo, fct, texto, peticion),
+            resultado -> mostrarPagina(texto, resultado, resultado.getTotalPages() <= 1),
+            e -> mostrarError("Error al cargar datos", e.getMessage()));
+    }
+
+    private void mostrarPagina(String texto, Page<DocumentoRowView> resultado, boolean completa) {
+        // Si la página ha quedado vacía (p. ej. tras eliminar), retroceder a la última con datos
+        if (resultado.isEmpty() && paginaActual > 0) {
+            paginaActual = Math.max(resultado.getTotalPages() - 1, 0);
+            cargarDatos();
+            return;
+        }
+        // Solo se guardan los datos de paginación: las filas las conserva la búsqueda,
+        // que las suelta mientras la vista está oculta
+        pagina = new PageImpl<>(List.of(), resultado.getPageable(), resultado.getTotalElements());
+        busqueda.cargar(texto, resultado.getContent(), completa);
+        actualizarContador();
     }
 
     private void aplicarFiltros() {
-        if (todosLosDocumentos == null) return;
-
-        String busqueda = txtBuscar.getText().toLowerCase().trim();
-        TipoDocumento tipoFiltro = cmbFiltroTipo.getValue();
-        FCT fctFiltro = cmbFiltroFCT.getValue();
-
-        List<Documento> filtrados = todosLosDocumentos.stream()
-            .filter(doc -> {
-                // Filtro por tipo
-                if (tipoFiltro != null && doc.getTipo() != tipoFiltro) return false;
-                
-                // Filtro por FCT
-                if (fctFiltro != null && !fctFiltro.equals(doc.getFct())) return false;
-                
-                // Filtro por búsqueda
-                if (!busqueda.isEmpty()) {
-                    return doc.getNombre().toLowerCase().contains(busqueda) ||
-                           (doc.getDescripcion() != null && 
-                            doc.getDescripcion().toLowerCase().contains(busqueda));
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
+        paginaActual = 0;
+        cargarDatos();
+    }
 
-        listaDocumentos.setAll(filtrados);
-        actualizarContador();
+    private Sort construirOrden() {
+        List<Sort.Order> ordenes = new ArrayList<>();
+        for (TableColumn<DocumentoRowView, ?> columna : tablaDocumentos.getSortOrder()) {
+            if (columna.getUserData() instanceof String propiedad) {
+                ordenes.add(columna.getSortType() == TableColumn.SortType.ASCENDING
+                    ? Sort.Order.asc(propiedad) : Sort.Order.desc(propiedad));
+            }
+        }
+        return ordenes.isEmpty() ? ORDEN_POR_DEFECTO : Sort.by(ordenes);
     }
 
     private void actualizarContador() {
-        int total = todosLosDocumentos != null ? todosLosDocumentos.size() : 0;
-        int mostrados = listaDocumentos.size();
-        lblContador.setText(String.format("Mostrando %d de %d documentos", mostrados, total));
+        // Si están todas las coincidencias, el total es lo que queda tras filtrar en memoria
+        int visibles = busqueda.getFilas().size();
+        long total = busqueda.isCompleta() ? visibles : pagina.getTotalElements();
+        lblContador.setText(String.format("Mostrando %d de %d documentos", visibles, total));
+        lblPagina.setText(String.format("Página %d de %d", pagina.getNumber() + 1, Math.max(pagina.getTotalPages(), 1)));
+        btnPaginaAnterior.setDisable(!pagina.hasPrevious());
+        btnPaginaSiguiente.setDisable(!pagina.hasNext());
+    }
+
+    // ============== CAMBIOS ==============
+    /**
+     * Al guardar o eliminar un documento, aquí o en otra pantalla, solo se toca su fila. Una
+     * fila nueva se añade al final de la página hasta la siguiente carga.
+     */
+    @Override
+    public void alCambiar(CambioDatos cambio) {
+        if (!cambio.es(Documento.class)) {
+            return;
+        }
+        boolean aplicado = switch (cambio.tipo()) {
+            case ALTA -> busqueda.anadir(cambio.fila(DocumentoRowView.class));
+            case MODIFICACION -> busqueda.sustituir(fila -> fila.id().equals(cambio.id()), cambio.fila(DocumentoRowView.class));
+            case BAJA -> busqueda.quitar(fila -> fila.id().equals(cambio.id()));
+        };
+        if (!aplicado) {
+            return;
+        }
+        if (busqueda.getFilas().isEmpty() && paginaActual > 0) {
+            // Se ha quitado la última fila de la página: retroceder
+            cargarDatos();
+            return;
+        }
+        long diferencia = switch (cambio.tipo()) {
+            case ALTA -> 1;
+            case BAJA -> -1;
+            default -> 0;
+        };
+        pagina = new PageImpl<>(List.of(), pagina.getPageable(), pagina.getTotalElements() + diferencia);
+        actualizarContador();
     }
 
     // ============== ACCIONES ==============
@@ -235,48 +415,96 @@ public class GestionDocumentosController implements Initializable {
         mostrarDialogoSubida();
     }
 
+    /**
+     * Carga en segundo plano la entidad completa de la fila seleccionada (la tabla solo
+     * guarda proyecciones) y ejecuta la acción en el hilo de JavaFX.
+     */
+    private void conSeleccionado(Consumer<Documento> accion) {
+        DocumentoRowView fila = tablaDocumentos.getSelectionModel().getSelectedItem();
+        if (fila == null) return;
+        cargaSeleccion.ejecutar(() -> documentoService.findByIdConDetalle(fila.id()),
+            documento -> documento.ifPresent(accion),
+            e -> mostrarError("Error al cargar el documento", e.getMessage()));
+    }
+
     @FXML
     private void handleDescargar(ActionEvent event) {
-        Documento seleccionado = tablaDocumentos.getSelectionModel().getSelectedItem();
-        if (seleccionado == null) return;
+        conSeleccionado(this::mostrarDescarga);
+    }
 
-        // Simulación de descarga (en un entorno real se abriría el archivo)
-        mostrarInfo("Descarga", 
-            "Documento: " + seleccionado.getNombre() + "\n" +
-            "Ruta: " + seleccionado.getRuta() + "\n\n" +
-            "En un entorno real, aquí se abriría o descargaría el archivo.");
+    /**
+     * Copia el archivo en segundo plano, con su progreso en la lista de transferencias. Si se
+     * cancela, lo copiado se queda en "nombre.part" y al descargarlo otra vez al mismo
+     * destino se continúa desde ahí.
+     */
+    private void mostrarDescarga(Documento seleccionado) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Guardar documento");
+        fileChooser.setInitialFileName(seleccionado.getNombre());
+        File destino = fileChooser.showSaveDialog(tablaDocumentos.getScene().getWindow());
+        if (destino == null) return;
+
+        transferencias.lanzar(seleccionado.getNombre(), progreso -> {
+                documentoService.descargar(seleccionado, destino.toPath(), progreso);
+                return destino;
+            },
+            archivo -> mostrarExito("Descarga completada",
+                "El documento se ha guardado en:\n" + archivo.getAbsolutePath()),
+            e -> mostrarError("Error al descargar", e.getMessage()));
+    }
+
+    @FXML
+    private void handleAbrir(ActionEvent event) {
+        conSeleccionado(this::abrir);
+    }
+
+    /**
+     * Abre el documento con el programa del sistema directamente desde el almacén, sin
+     * descargarlo antes.
+     */
+    private void abrir(Documento seleccionado) {
+        HostServices servicios = hostServices.getIfAvailable();
+        if (servicios == null) {
+            mostrarError("No disponible", "No se pueden abrir archivos desde esta instalación.");
+            return;
+        }
+        cargaSeleccion.ejecutar(() -> documentoService.paraAbrir(seleccionado),
+            archivo -> servicios.showDocument(archivo.toUri().toString()),
+            e -> mostrarError("Error al abrir el documento", e.getMessage()));
     }
 
     @FXML
     private void handleEliminar(ActionEvent event) {
-        Documento seleccionado = tablaDocumentos.getSelectionModel().getSelectedItem();
+        DocumentoRowView seleccionado = tablaDocumentos.getSelectionModel().getSelectedItem();
         if (seleccionado == null) return;
 
         Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION);
         confirmacion.setTitle("Confirmar eliminación");
         confirmacion.setHeaderText("¿Eliminar documento?");
-        confirmacion.setContentText("Se eliminará el documento: " + seleccionado.getNombre() + 
+        confirmacion.setContentText("Se eliminará el documento: " + seleccionado.nombre() + 
                                    "\n\nEsta acción no se puede deshacer.");
 
         confirmacion.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    documentoService.delete(seleccionado);
-                    cargarDatos();
-                    mostrarExito("Documento eliminado", 
-                        "El documento ha sido eliminado correctamente.");
-                } catch (Exception e) {
-                    mostrarError("Error al eliminar", e.getMessage());
-                }
+                // Un canal propio: otra carga no debe cancelar el borrado (ni la purga del
+                // archivo, que se hace al confirmarse) a medias
+                cargadorDatos.nuevaCarga().ejecutar(() -> {
+                        documentoService.deleteById(seleccionado.id());
+                        return null;
+                    },
+                    sinResultado -> mostrarExito("Documento eliminado",
+                        "El documento ha sido eliminado correctamente."),
+                    e -> mostrarError("Error al eliminar", e.getMessage()));
             }
         });
     }
 
     @FXML
     private void handleVerDetalles(ActionEvent event) {
-        Documento seleccionado = tablaDocumentos.getSelectionModel().getSelectedItem();
-        if (seleccionado == null) return;
+        conSeleccionado(this::mostrarDetalles);
+    }
 
+    private void mostrarDetalles(Documento seleccionado) {
         Alert detalles = new Alert(Alert.AlertType.INFORMATION);
         detalles.setTitle("Detalles del Documento");
         detalles.setHeaderText(seleccionado.getNombre());
@@ -300,7 +528,7 @@ public class GestionDocumentosController implements Initializable {
         sb.append("Fecha subida: ").append(seleccionado.getFechaSubida().format(DATE_FORMATTER)).append("\n");
         sb.append("Autor: ").append(seleccionado.getAutor() != null ? 
             seleccionado.getAutor().getNombreCompleto() : "N/A").append("\n");
-        sb.append("Ruta: ").append(seleccionado.getRuta()).append("\n");
+        sb.append("Archivo: ").append(documentoService.ubicacion(seleccionado)).append("\n");
 
         if (seleccionado.getDescripcion() != null && !seleccionado.getDescripcion().isEmpty()) {
             sb.append("\n═══ DESCRIPCIÓN ═══\n");
@@ -315,21 +543,48 @@ public class GestionDocumentosController implements Initializable {
     @FXML
     private void handleLimpiarFiltros(ActionEvent event) {
         txtBuscar.clear();
+        chkContenido.setSelected(false);
         cmbFiltroTipo.setValue(null);
         cmbFiltroFCT.setValue(null);
         aplicarFiltros();
     }
 
+    @FXML
+    private void handlePaginaAnterior(ActionEvent event) {
+        if (paginaActual > 0) {
+            paginaActual--;
+            cargarDatos();
+        }
+    }
+
+    @FXML
+    private void handlePaginaSiguiente(ActionEvent event) {
+        if (pagina != null && pagina.hasNext()) {
+            paginaActual++;
+            cargarDatos();
+        }
+    }
+
     @FXML
     private void handleVolver(ActionEvent event) {
         stageManager.switchScene(FxmlView.MENU_ADMIN);
     }
 
     // ============== DIÁLOGO DE SUBIDA ==============
+    /**
+     * Documento pendiente de subir con el archivo que lo contiene.
+     */
+    private record Subida(Documento documento, File archivo) {
+    }
+
+    /**
+     * Pide uno o varios archivos y los sube en segundo plano, cada uno como un documento
+     * con la misma FCT, tipo y descripción.
+     */
     private void mostrarDialogoSubida() {
-        Dialog<Documento> dialog = new Dialog<>();
-        dialog.setTitle("Subir Documento");
-        dialog.setHeaderText("Subir nuevo documento a una FCT");
+        Dialog<List<Subida>> dialog = new Dialog<>();
+        dialog.setTitle("Subir Documentos");
+        dialog.setHeaderText("Subir documentos a una FCT");
 
         ButtonType btnGuardar = new ButtonType("Subir", ButtonBar.ButtonData.OK_DONE);
         dialog.getDialogPane().getButtonTypes().addAll(btnGuardar, ButtonType.CANCEL);
@@ -341,35 +596,38 @@ public class GestionDocumentosController implements Initializable {
 
         // Selector de archivo
         TextField txtArchivo = new TextField();
-        txtArchivo.setPromptText("Seleccionar archivo...");
+        txtArchivo.setPromptText("Seleccionar archivos...");
         txtArchivo.setEditable(false);
         txtArchivo.setPrefWidth(250);
         
         Button btnSeleccionar = new Button("Examinar...");
-        final File[] archivoSeleccionado = {null};
+        List<File> archivosSeleccionados = new ArrayList<>();
         
         btnSeleccionar.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Seleccionar documento");
+            fileChooser.setTitle("Seleccionar documentos");
             fileChooser.getExtensionFilters().addAll(
                 new FileChooser.ExtensionFilter("Todos los archivos", "*.*"),
                 new FileChooser.ExtensionFilter("PDF", "*.pdf"),
                 new FileChooser.ExtensionFilter("Documentos", "*.doc", "*.docx"),
                 new FileChooser.ExtensionFilter("Imágenes", "*.png", "*.jpg", "*.jpeg")
             );
-            File file = fileChooser.showOpenDialog(null);
-            if (file != null) {
-                archivoSeleccionado[0] = file;
-                txtArchivo.setText(file.getName());
+            List<File> files = fileChooser.showOpenMultipleDialog(null);
+            if (files != null) {
+                archivosSeleccionados.clear();
+                archivosSeleccionados.addAll(files);
+                txtArchivo.setText(files.size() == 1 ? files.get(0).getName() : files.size() + " archivos");
             }
         });
 
         // ComboBox de FCT
         ComboBox<FCT> cmbFCT = new ComboBox<>();
-        List<FCT> fctsActivas = fctService.findActivas();
-        cmbFCT.setItems(FXCollections.observableArrayList(fctsActivas));
         cmbFCT.setPromptText("Seleccionar FCT *");
         cmbFCT.setPrefWidth(300);
+        CargaCancelable cargaFCTsActivas = cargadorDatos.nuevaCarga();
+        cargaFCTsActivas.rellenar(cmbFCT, fctService::findActivasParaListado, () -> { },
+            e -> mostrarError("Error al cargar las FCT", e.getMessage()));
+        dialog.setOnHidden(e -> cargaFCTsActivas.cancelar());
 
         // ComboBox de tipo
         ComboBox<TipoDocumento> cmbTipo = new ComboBox<>();
@@ -383,7 +641,7 @@ public class GestionDocumentosController implements Initializable {
         txtDescripcion.setPrefRowCount(3);
         txtDescripcion.setPrefWidth(300);
 
-        grid.add(new Label("Archivo: *"), 0, 0);
+        grid.add(new Label("Archivos: *"), 0, 0);
         grid.add(txtArchivo, 1, 0);
         grid.add(btnSeleccionar, 2, 0);
         grid.add(new Label("FCT: *"), 0, 1);
@@ -399,7 +657,7 @@ public class GestionDocumentosController implements Initializable {
             if (dialogButton == btnGuardar) {
                 try {
                     // Validaciones
-                    if (archivoSeleccionado[0] == null) {
+                    if (archivosSeleccionados.isEmpty()) {
                         throw new ValidacionException("archivo", "es obligatorio");
                     }
                     if (cmbFCT.getValue() == null) {
@@ -414,18 +672,15 @@ public class GestionDocumentosController implements Initializable {
                         throw new ValidacionException("sesión", "No hay usuario activo");
                     }
 
-                    // Crear documento
-                    Documento doc = new Documento(
-                        archivoSeleccionado[0].getName(),
-                        archivoSeleccionado[0].getAbsolutePath(),
-                        cmbTipo.getValue(),
-                        cmbFCT.getValue(),
-                        autor
-                    );
-                    doc.setTamano(archivoSeleccionado[0].length());
-                    doc.setDescripcion(txtDescripcion.getText().trim());
-
-                    return doc;
+                    // Un documento por archivo (la ruta y el tamaño los pone el almacén al copiarlo)
+                    List<Subida> subidas = new ArrayList<>();
+                    for (File archivo : archivosSeleccionados) {
+                        Documento doc = new Documento(archivo.getName(), null, cmbTipo.getValue(),
+                            cmbFCT.getValue(), autor);
+                        doc.setDescripcion(txtDescripcion.getText().trim());
+                        subidas.add(new Subida(doc, archivo));
+                    }
+                    return subidas;
                 } catch (ValidacionException e) {
                     mostrarError("Error de validación", e.getMessage());
                     return null;
@@ -434,17 +689,43 @@ public class GestionDocumentosController implements Initializable {
             return null;
         });
 
-        Optional<Documento> resultado = dialog.showAndWait();
-        resultado.ifPresent(doc -> {
-            try {
-                documentoService.save(doc);
-                cargarDatos();
-                mostrarExito("Documento subido", 
-                    "El documento '" + doc.getNombre() + "' se ha subido correctamente.");
-            } catch (Exception e) {
-                mostrarError("Error al subir", e.getMessage());
+        dialog.showAndWait().ifPresent(this::subir);
+    }
+
+    /**
+     * Lanza las subidas en la lista de transferencias (unas pocas a la vez, el resto espera)
+     * y avisa cuando han terminado todas. Un archivo que falle o se cancele se puede volver
+     * a subir: la copia continúa desde donde se quedó.
+     */
+    private void subir(List<Subida> subidas) {
+        int[] pendientes = { subidas.size() };
+        List<String> fallidos = new ArrayList<>();
+        Runnable alAcabarUna = () -> {
+            if (--pendientes[0] > 0) return;
+            if (fallidos.isEmpty()) {
+                mostrarExito(subidas.size() == 1 ? "Documento subido" : "Documentos subidos",
+                    subidas.size() == 1
+                        ? "El documento '" + subidas.get(0).documento().getNombre() + "' se ha subido correctamente."
+                        : "Se han subido " + subidas.size() + " documentos correctamente.");
+            } else {
+                mostrarError("Error al subir",
+                    "No se han podido subir:\n" + String.join("\n", fallidos)
+                        + "\n\nAl volver a subirlos se continuará desde donde se quedaron.");
             }
-        });
+        };
+        for (Subida subida : subidas) {
+            transferencias.lanzar(subida.archivo().getName(),
+                progreso -> documentoService.subir(subida.documento(), subida.archivo().toPath(), progreso),
+                doc -> alAcabarUna.run(),
+                e -> {
+                    fallidos.add(subida.archivo().getName() + ": " + e.getMessage());
+                    alAcabarUna.run();
+                },
+                () -> {
+                    fallidos.add(subida.archivo().getName() + ": cancelada");
+                    alAcabarUna.run();
+                });
+        }
     }
 
     // ============== UTILIDADES ==============
@@ -463,12 +744,4 @@ public class GestionDocumentosController implements Initializable {
         alert.setContentText(mensaje);
         alert.showAndWait();
     }
-
-    private void mostrarInfo(String titulo, String mensaje) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(titulo);
-        alert.setHeaderText(null);
-        alert.setContentText(mensaje);
-        alert.showAndWait();
-    }
 }
@@ -12,6 +12,7 @@ import com.adrian.gestionfct.config.StageManager;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.services.UsuarioService;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.Refrescable;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -27,7 +28,7 @@ import javafx.scene.control.TextField;
  * Gestiona la autenticación y redirige al panel correspondiente según el rol.
  */
 @Controller
-public class LoginController implements Initializable {
+public class LoginController implements Initializable, Refrescable {
 
 	@FXML
 	private TextField txtEmail;
@@ -56,6 +57,18 @@ public class LoginController implements Initializable {
 		}
 	}
 
+	/**
+	 * La pantalla de login se conserva entre sesiones: al volver a ella no debe quedar
+	 * la contraseña anterior ni su mensaje.
+	 */
+	@Override
+	public void refrescar() {
+		txtPassword.clear();
+		if (lblMensaje != null) {
+			lblMensaje.setText("");
+		}
+	}
+
 	/**
 	 * Maneja el evento de login. Autentica al usuario y redirige según su rol.
 	 */
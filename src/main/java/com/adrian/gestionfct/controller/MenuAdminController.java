@@ -1,8 +1,6 @@
 package com.adrian.gestionfct.controller;
 
 import java.io.IOException;
-import java.net.URL;
-import java.util.ResourceBundle;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -13,12 +11,15 @@ import com.adrian.gestionfct.modelo.EstadoFCT;
 import com.adrian.gestionfct.modelo.Rol;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.services.*;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.Refrescable;
 
+import jakarta.annotation.PostConstruct;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 
@@ -26,7 +27,7 @@ import javafx.scene.control.Label;
  * Controlador del panel de Administración.
  */
 @Controller
-public class MenuAdminController implements Initializable {
+public class MenuAdminController implements Refrescable {
 
 	@FXML
 	private Label lblUsuario;
@@ -55,12 +56,30 @@ public class MenuAdminController implements Initializable {
 	@Autowired
 	private FCTService fctService;
 
+	@Autowired
+	private CargadorDatos cargadorDatos;
+
 	@Lazy
 	@Autowired
 	private StageManager stageManager;
 
+	private CargaCancelable cargaEstadisticas;
+
+	/** Contadores del panel, calculados juntos en una sola tarea. */
+	private record Estadisticas(long estudiantes, long empresas, long fctsActivas, long docentes) {
+	}
+
+	@PostConstruct
+	private void crearCargas() {
+		cargaEstadisticas = cargadorDatos.nuevaCarga();
+	}
+
+	/**
+	 * El menú se conserva entre visitas, así que el usuario y las estadísticas se ponen
+	 * al día cada vez que se muestra.
+	 */
 	@Override
-	public void initialize(URL location, ResourceBundle resources) {
+	public void refrescar() {
 		// Mostrar usuario actual
 		Usuario usuario = usuarioService.getUsuarioActual();
 		if (usuario != null && lblUsuario != null) {
@@ -72,22 +91,24 @@ public class MenuAdminController implements Initializable {
 	}
 
 	private void cargarEstadisticas() {
-		try {
+		cargaEstadisticas.ejecutar(() -> new Estadisticas(
+				estudianteService.contarTodos(),
+				empresaService.contar(),
+				fctService.contarPorEstado(EstadoFCT.ACTIVA),
+				usuarioService.contarPorRol(Rol.DOCENTE)), estadisticas -> {
 			if (lblTotalEstudiantes != null) {
-				lblTotalEstudiantes.setText(String.valueOf(estudianteService.obtenerTodos().size()));
+				lblTotalEstudiantes.setText(String.valueOf(estadisticas.estudiantes()));
 			}
 			if (lblTotalEmpresas != null) {
-				lblTotalEmpresas.setText(String.valueOf(empresaService.findAll().size()));
+				lblTotalEmpresas.setText(String.valueOf(estadisticas.empresas()));
 			}
 			if (lblFCTActivas != null) {
-				lblFCTActivas.setText(String.valueOf(fctService.findByEstado(EstadoFCT.ACTIVA).size()));
+				lblFCTActivas.setText(String.valueOf(estadisticas.fctsActivas()));
 			}
 			if (lblTotalDocentes != null) {
-				lblTotalDocentes.setText(String.valueOf(usuarioService.findByRol(Rol.DOCENTE).size()));
+				lblTotalDocentes.setText(String.valueOf(estadisticas.docentes()));
 			}
-		} catch (Exception e) {
-			System.err.println("Error cargando estadísticas: " + e.getMessage());
-		}
+		}, e -> System.err.println("Error cargando estadísticas: " + e.getMessage()));
 	}
 
 	@FXML
@@ -140,6 +161,11 @@ public class MenuAdminController implements Initializable {
 		mostrarEnDesarrollo("Gestión de Periodos FCT");
 	}
 
+	@FXML
+	private void handleMonitorRendimiento(ActionEvent event) {
+		stageManager.switchScene(FxmlView.MONITOR_RENDIMIENTO);
+	}
+
 	@FXML
 	private void handleLogout(ActionEvent event) throws IOException {
 		usuarioService.logout();
@@ -1,8 +1,6 @@
 package com.adrian.gestionfct.controller;
 
 import java.io.IOException;
-import java.net.URL;
-import java.util.ResourceBundle;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -12,18 +10,18 @@ import com.adrian.gestionfct.config.StageManager;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.services.UsuarioService;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.Refrescable;
 
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
 
 /**
  * Controlador del panel de Docente.
  */
 @Controller
-public class MenuDocenteController implements Initializable {
+public class MenuDocenteController implements Refrescable {
 
 	@FXML
 	private Label lblBienvenida;
@@ -36,7 +34,7 @@ public class MenuDocenteController implements Initializable {
 	private StageManager stageManager;
 
 	@Override
-	public void initialize(URL location, ResourceBundle resources) {
+	public void refrescar() {
 		Usuario usuario = usuarioService.getUsuarioActual();
 		if (usuario != null && lblBienvenida != null) {
 			lblBienvenida.setText("Bienvenido/a, " + usuario.getNombreCompleto());
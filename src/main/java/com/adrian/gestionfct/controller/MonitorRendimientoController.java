@@ -0,0 +1,186 @@
+package com.adrian.gestionfct.controller;
+
+import java.net.URL;
+import java.time.format.DateTimeFormatter;
+import java.util.ResourceBundle;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Controller;
+
+import com.adrian.gestionfct.config.StageManager;
+import com.adrian.gestionfct.dto.AlertaNMasUno;
+import com.adrian.gestionfct.dto.EstadisticaCache;
+import com.adrian.gestionfct.dto.EstadisticaMetodo;
+import com.adrian.gestionfct.dto.ResumenHibernate;
+import com.adrian.gestionfct.monitor.MonitorConsultas;
+import com.adrian.gestionfct.services.CacheService;
+import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.Refrescable;
+
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.*;
+
+/**
+ * Controlador del panel de rendimiento: sentencias SQL por método de servicio,
+ * sospechas de N+1 y estado de las cachés de datos de referencia.
+ */
+@Controller
+public class MonitorRendimientoController implements Initializable, Refrescable {
+
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("dd/MM HH:mm:ss");
+
+    // ============== COMPONENTES FXML ==============
+    @FXML private Label lblSentencias;
+    @FXML private Label lblConsultas;
+    @FXML private Label lblEntidades;
+    @FXML private Label lblColecciones;
+    @FXML private Label lblConsultaLenta;
+    @FXML private Label lblUmbral;
+
+    @FXML private TableView<EstadisticaMetodo> tablaMetodos;
+    @FXML private TableColumn<EstadisticaMetodo, String> colMetodo;
+    @FXML private TableColumn<EstadisticaMetodo, Long> colLlamadas;
+    @FXML private TableColumn<EstadisticaMetodo, Long> colSentencias;
+    @FXML private TableColumn<EstadisticaMetodo, String> colSentenciasPorLlamada;
+    @FXML private TableColumn<EstadisticaMetodo, Long> colEntidades;
+    @FXML private TableColumn<EstadisticaMetodo, Long> colColecciones;
+    @FXML private TableColumn<EstadisticaMetodo, String> colTiempoMedio;
+    @FXML private TableColumn<EstadisticaMetodo, Long> colNMasUno;
+
+    @FXML private TableView<AlertaNMasUno> tablaAlertas;
+    @FXML private TableColumn<AlertaNMasUno, String> colAlertaMomento;
+    @FXML private TableColumn<AlertaNMasUno, String> colAlertaMetodo;
+    @FXML private TableColumn<AlertaNMasUno, Integer> colAlertaRepeticiones;
+    @FXML private TableColumn<AlertaNMasUno, String> colAlertaSentencia;
+
+    @FXML private TableView<EstadisticaCache> tablaCaches;
+    @FXML private TableColumn<EstadisticaCache, String> colCacheNombre;
+    @FXML private TableColumn<EstadisticaCache, Long> colCacheEntradas;
+    @FXML private TableColumn<EstadisticaCache, Long> colCacheAciertos;
+    @FXML private TableColumn<EstadisticaCache, Long> colCacheFallos;
+    @FXML private TableColumn<EstadisticaCache, String> colCachePorcentaje;
+    @FXML private TableColumn<EstadisticaCache, Long> colCacheDesalojos;
+
+    // ============== SERVICIOS ==============
+    @Autowired
+    private MonitorConsultas monitorConsultas;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Lazy
+    @Autowired
+    private StageManager stageManager;
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        configurarTablas();
+    }
+
+    @Override
+    public void refrescar() {
+        cargarDatos();
+    }
+
+    // ============== CONFIGURACIÓN ==============
+    private void configurarTablas() {
+        colMetodo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().metodo()));
+        colLlamadas.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().llamadas()));
+        colSentencias.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().sentencias()));
+        colSentenciasPorLlamada.setCellValueFactory(cellData -> new SimpleStringProperty(
+                String.format("%.1f", cellData.getValue().sentenciasPorLlamada())));
+        colEntidades.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().entidadesCargadas()));
+        colColecciones.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().coleccionesCargadas()));
+        colTiempoMedio.setCellValueFactory(cellData -> new SimpleStringProperty(
+                String.format("%.1f ms", cellData.getValue().tiempoMedioMs())));
+        colNMasUno.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().sospechasNMasUno()));
+
+        colAlertaMomento.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue().momento().format(FORMATO_HORA)));
+        colAlertaMetodo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().metodo()));
+        colAlertaRepeticiones.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().repeticiones()));
+        colAlertaSentencia.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().sentencia()));
+
+        colCacheNombre.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nombre()));
+        colCacheEntradas.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().entradas()));
+        colCacheAciertos.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().aciertos()));
+        colCacheFallos.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().fallos()));
+        colCachePorcentaje.setCellValueFactory(cellData -> new SimpleStringProperty(
+                String.format("%.0f %%", cellData.getValue().porcentajeAciertos())));
+        colCacheDesalojos.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().desalojos()));
+
+        // Métodos con sospechas de N+1 resaltados
+        tablaMetodos.setRowFactory(tabla -> new TableRow<EstadisticaMetodo>() {
+            @Override
+            protected void updateItem(EstadisticaMetodo item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null || item.sospechasNMasUno() == 0) {
+                    setStyle("");
+                } else {
+                    setStyle("-fx-background-color: #f8d7da;");
+                }
+            }
+        });
+    }
+
+    // ============== CARGA DE DATOS ==============
+    private void cargarDatos() {
+        ResumenHibernate resumen = monitorConsultas.obtenerResumenHibernate();
+        lblSentencias.setText(String.valueOf(resumen.sentenciasPreparadas()));
+        lblConsultas.setText(String.valueOf(resumen.consultas()));
+        lblEntidades.setText(String.valueOf(resumen.entidadesCargadas()));
+        lblColecciones.setText(String.valueOf(resumen.coleccionesCargadas()));
+        lblConsultaLenta.setText(resumen.consultaMasLenta() == null ? "-"
+                : resumen.tiempoConsultaMasLentaMs() + " ms: " + resumen.consultaMasLenta());
+        lblUmbral.setText("Se marca como N+1 una sentencia repetida más de "
+                + monitorConsultas.getUmbralNMasUno() + " veces en una llamada a un servicio.");
+
+        tablaMetodos.setItems(FXCollections.observableArrayList(monitorConsultas.obtenerEstadisticas()));
+        tablaAlertas.setItems(FXCollections.observableArrayList(monitorConsultas.obtenerAlertas()));
+        tablaCaches.setItems(FXCollections.observableArrayList(cacheService.obtenerEstadisticas()));
+    }
+
+    // ============== MANEJADORES DE EVENTOS ==============
+    @FXML
+    private void handleActualizar(ActionEvent event) {
+        cargarDatos();
+    }
+
+    @FXML
+    private void handleReiniciar(ActionEvent event) {
+        monitorConsultas.reiniciar();
+        cargarDatos();
+    }
+
+    @FXML
+    private void handleEscribirLog(ActionEvent event) {
+        monitorConsultas.registrarResumen();
+        mostrarExito("Resumen registrado", "El resumen de consultas por método se ha escrito en el log.");
+    }
+
+    @FXML
+    private void handleVaciarCaches(ActionEvent event) {
+        cacheService.vaciarTodas();
+        cargarDatos();
+    }
+
+    @FXML
+    private void handleVolver(ActionEvent event) {
+        stageManager.switchScene(FxmlView.MENU_ADMIN);
+    }
+
+    // ============== UTILIDADES ==============
+    private void mostrarExito(String titulo, String mensaje) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Éxito");
+        alert.setHeaderText(titulo);
+        alert.setContentText(mensaje);
+        alert.showAndWait();
+    }
+}
@@ -3,6 +3,7 @@ package com.adrian.gestionfct.controller;
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.regex.Matcher;
@@ -13,11 +14,18 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 
 import com.adrian.gestionfct.config.StageManager;
+import com.adrian.gestionfct.eventos.CambioDatos;
 import com.adrian.gestionfct.modelo.Rol;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.services.UsuarioService;
+import com.adrian.gestionfct.view.CargaCancelable;
+import com.adrian.gestionfct.view.CargadorDatos;
+import com.adrian.gestionfct.view.FilasRetenidas;
 import com.adrian.gestionfct.view.FxmlView;
+import com.adrian.gestionfct.view.OyenteCambios;
+import com.adrian.gestionfct.view.Refrescable;
 
+import jakarta.annotation.PostConstruct;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -48,7 +56,7 @@ import javafx.util.Callback;
  * Usuario con Rol como enum.
  */
 @Controller
-public class UserController implements Initializable {
+public class UserController implements Initializable, Refrescable, OyenteCambios {
 
 	@FXML
 	private Button btnLogout;
@@ -117,7 +125,18 @@ public class UserController implements Initializable {
 	@Autowired
 	private UsuarioService usuarioService;
 
+	@Autowired
+	private CargadorDatos cargadorDatos;
+
+	private CargaCancelable cargaTabla;
+
 	private ObservableList<Usuario> listaUsuarios = FXCollections.observableArrayList();
+	private final FilasRetenidas<Usuario> filasRetenidas = new FilasRetenidas<>(listaUsuarios);
+
+	@PostConstruct
+	private void crearCargas() {
+		cargaTabla = cargadorDatos.nuevaCarga();
+	}
 
 	@FXML
 	private void exit(ActionEvent event) {
@@ -186,7 +205,6 @@ public class UserController implements Initializable {
 		}
 
 		limpiarCampos();
-		cargarUsuarios();
 	}
 
 	@FXML
@@ -206,7 +224,6 @@ public class UserController implements Initializable {
 
 		if (action.isPresent() && action.get() == ButtonType.OK) {
 			usuarioService.deleteInBatch(seleccionados);
-			cargarUsuarios();
 		}
 	}
 
@@ -287,10 +304,48 @@ public class UserController implements Initializable {
 		tablaUsuarios.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
 		configurarColumnas();
+		tablaUsuarios.setItems(listaUsuarios);
+	}
 
+	/**
+	 * Enseña los últimos usuarios cargados, si se conservan, y los revalida en segundo plano.
+	 */
+	@Override
+	public void refrescar() {
+		filasRetenidas.restaurar();
 		cargarUsuarios();
 	}
 
+	@Override
+	public void alOcultar() {
+		cargaTabla.cancelar();
+		filasRetenidas.retener();
+	}
+
+	/**
+	 * Al guardar o eliminar un usuario solo se toca su fila, sin volver a cargar la tabla.
+	 */
+	@Override
+	public void alCambiar(CambioDatos cambio) {
+		if (!cambio.es(Usuario.class)) {
+			return;
+		}
+		switch (cambio.tipo()) {
+		case ALTA -> filasRetenidas.anadir(cambio.fila(Usuario.class));
+		case MODIFICACION -> {
+			Usuario usuario = cambio.fila(Usuario.class);
+			// La sincronización repite los cambios recientes: si la fila ya está al día no se
+			// toca, para no perder la selección. Un usuario que no estaba viene de otro puesto.
+			boolean alDia = listaUsuarios.stream().anyMatch(u -> u.getId().equals(cambio.id())
+					&& Objects.equals(u.getFechaModificacion(), usuario.getFechaModificacion()));
+			if (!alDia && !filasRetenidas.sustituir(u -> u.getId().equals(cambio.id()), usuario)) {
+				filasRetenidas.anadir(usuario);
+			}
+		}
+		case BAJA -> filasRetenidas.quitar(u -> u.getId().equals(cambio.id()));
+		}
+	}
+
 	private void configurarColumnas() {
 		colId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		colNombre.setCellValueFactory(new PropertyValueFactory<>("nombre"));
@@ -345,9 +400,8 @@ public class UserController implements Initializable {
 	};
 
 	private void cargarUsuarios() {
-		listaUsuarios.clear();
-		listaUsuarios.addAll(usuarioService.findAll());
-		tablaUsuarios.setItems(listaUsuarios);
+		cargaTabla.ejecutar(tablaUsuarios, usuarioService::findAll, filasRetenidas::cargar,
+				e -> mostrarAlerta(AlertType.ERROR, "Error al cargar usuarios", e.getMessage()));
 	}
 
 	private boolean validar(String campo, String valor, String patron) {
@@ -0,0 +1,10 @@
+package com.adrian.gestionfct.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sentencia con la misma forma repetida muchas veces dentro de una sola llamada
+ * a un servicio; casi siempre es una relación perezosa recorrida en un bucle.
+ */
+public record AlertaNMasUno(LocalDateTime momento, String metodo, String sentencia, int repeticiones) {
+}
@@ -0,0 +1,12 @@
+package com.adrian.gestionfct.dto;
+
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.Estudiante;
+import com.adrian.gestionfct.modelo.TutorEmpresa;
+
+/**
+ * Una de las asignaciones de una asignación en bloque: el estudiante y la empresa y el
+ * tutor que se le asignan. El periodo es común a todo el bloque.
+ */
+public record AsignacionRequest(Estudiante estudiante, Empresa empresa, TutorEmpresa tutorEmpresa) {
+}
@@ -0,0 +1,7 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * FCT que tiene un tutor de empresa, para repartir la carga al colocar estudiantes.
+ */
+public record CargaTutor(Long tutorId, Long fcts) {
+}
@@ -0,0 +1,14 @@
+package com.adrian.gestionfct.dto;
+
+import java.util.List;
+
+/**
+ * Documento encontrado al buscar en el contenido: su fila de la tabla, la relevancia y un
+ * fragmento del texto alrededor de las palabras buscadas, partido en trozos normales y
+ * resaltados.
+ */
+public record CoincidenciaContenido(DocumentoRowView fila, double relevancia, List<Trozo> fragmento) {
+
+    public record Trozo(String texto, boolean resaltado) {
+    }
+}
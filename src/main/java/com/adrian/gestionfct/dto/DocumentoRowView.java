@@ -0,0 +1,43 @@
+package com.adrian.gestionfct.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.modelo.TipoDocumento;
+
+/**
+ * Fila de solo lectura de la tabla de documentos.
+ * Contiene únicamente las columnas que se muestran, ya unidas y formateadas.
+ *
+ * La clave de búsqueda es el nombre y la descripción normalizados, separados por un
+ * salto de línea para que un texto no pueda coincidir a caballo entre los dos campos.
+ */
+public record DocumentoRowView(Long id, String nombre, TipoDocumento tipo, String estudiante, String fechaSubida,
+        String tamano, String autor, String descripcion, Long fctId, String claveBusqueda) {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    /**
+     * Constructor usado por las consultas JPQL ({@code SELECT new ...}).
+     */
+    public DocumentoRowView(Long id, String nombre, TipoDocumento tipo, String estudianteNombre,
+            String estudianteApellidos, LocalDateTime fechaSubida, Long tamano, String autorNombre,
+            String autorApellidos, String descripcion, Long fctId) {
+        this(id, nombre, tipo, estudianteNombre + " " + estudianteApellidos,
+                fechaSubida != null ? fechaSubida.format(DATE_FORMATTER) : "",
+                Documento.formatearTamano(tamano), autorNombre + " " + autorApellidos, descripcion, fctId,
+                ClaveBusqueda.normalizar(nombre) + "\n" + ClaveBusqueda.normalizar(descripcion));
+    }
+
+    /**
+     * Construye la fila a partir de un documento con FCT, estudiante y autor ya cargados.
+     */
+    public static DocumentoRowView de(Documento documento) {
+        return new DocumentoRowView(documento.getId(), documento.getNombre(), documento.getTipo(),
+                documento.getFct().getEstudiante().getNombre(), documento.getFct().getEstudiante().getApellidos(),
+                documento.getFechaSubida(), documento.getTamano(), documento.getAutor().getNombre(),
+                documento.getAutor().getApellidos(), documento.getDescripcion(), documento.getFct().getId());
+    }
+}
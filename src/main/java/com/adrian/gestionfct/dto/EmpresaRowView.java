@@ -0,0 +1,24 @@
+package com.adrian.gestionfct.dto;
+
+import com.adrian.gestionfct.modelo.Empresa;
+
+/**
+ * Fila de solo lectura de la tabla de empresas.
+ * Incluye la clave de búsqueda guardada para poder afinar la búsqueda en memoria.
+ */
+public record EmpresaRowView(Long id, String nombre, String nif, String email, String telefono, String localidad,
+        Boolean activa, String claveBusqueda) {
+
+    public static EmpresaRowView de(Empresa empresa) {
+        return new EmpresaRowView(empresa.getId(), empresa.getNombre(), empresa.getNif(), empresa.getEmail(),
+                empresa.getTelefono(), empresa.getLocalidad(), empresa.getActiva(), empresa.getClaveBusqueda());
+    }
+
+    public boolean isActiva() {
+        return Boolean.TRUE.equals(activa);
+    }
+
+    public String estado() {
+        return isActiva() ? "Activa" : "Inactiva";
+    }
+}
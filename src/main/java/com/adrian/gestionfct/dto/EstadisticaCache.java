@@ -0,0 +1,15 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * Contadores de una caché de datos de referencia.
+ */
+public record EstadisticaCache(String nombre, long entradas, long aciertos, long fallos, long desalojos) {
+
+    /**
+     * Porcentaje de consultas servidas desde la caché (0 si aún no ha habido consultas).
+     */
+    public double porcentajeAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : aciertos * 100.0 / total;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * Consultas acumuladas por un método de servicio desde el último reinicio de contadores.
+ * Las entidades y colecciones cargadas incluyen también las cargas perezosas
+ * que se producen mientras el método está en ejecución.
+ */
+public record EstadisticaMetodo(String metodo, long llamadas, long sentencias, long entidadesCargadas,
+        long coleccionesCargadas, long tiempoTotalMs, long sospechasNMasUno) {
+
+    public double sentenciasPorLlamada() {
+        return llamadas == 0 ? sentencias : (double) sentencias / llamadas;
+    }
+
+    public double tiempoMedioMs() {
+        return llamadas == 0 ? 0 : (double) tiempoTotalMs / llamadas;
+    }
+}
@@ -0,0 +1,19 @@
+package com.adrian.gestionfct.dto;
+
+import com.adrian.gestionfct.modelo.Estudiante;
+
+/**
+ * Fila de solo lectura de la tabla de estudiantes.
+ */
+public record EstudianteRowView(Long id, String nombre, String apellidos, String email, String ciclo,
+        String grupo) {
+
+    public static EstudianteRowView de(Estudiante estudiante) {
+        return new EstudianteRowView(estudiante.getId(), estudiante.getNombre(), estudiante.getApellidos(),
+                estudiante.getEmail(), estudiante.getCiclo(), estudiante.getGrupo());
+    }
+
+    public String nombreCompleto() {
+        return nombre + " " + apellidos;
+    }
+}
@@ -0,0 +1,42 @@
+package com.adrian.gestionfct.dto;
+
+import com.adrian.gestionfct.modelo.EstadoFCT;
+import com.adrian.gestionfct.modelo.FCT;
+
+/**
+ * Fila de solo lectura de la tabla de asignaciones FCT.
+ * Contiene únicamente las columnas que se muestran, ya unidas y formateadas, y las claves
+ * de búsqueda del estudiante y de la empresa para poder afinar la búsqueda en memoria.
+ */
+public record FctRowView(Long id, String estudiante, String empresa, String tutor, String periodo,
+        EstadoFCT estado, String progreso, Long cursoAcademicoId, String claveEstudiante, String claveEmpresa) {
+
+    /**
+     * Constructor usado por las consultas JPQL ({@code SELECT new ...}).
+     */
+    public FctRowView(Long id, String estudianteNombre, String estudianteApellidos, String empresa,
+            String tutorNombre, String tutorApellidos, String periodo, EstadoFCT estado,
+            Integer horasRealizadas, Integer horasTotales, Long cursoAcademicoId, String claveEstudiante,
+            String claveEmpresa) {
+        this(id, estudianteNombre + " " + estudianteApellidos, empresa, tutorNombre + " " + tutorApellidos,
+                periodo, estado, formatearProgreso(horasRealizadas, horasTotales), cursoAcademicoId,
+                claveEstudiante, claveEmpresa);
+    }
+
+    /**
+     * Construye la fila a partir de una FCT con sus asociaciones ya cargadas.
+     */
+    public static FctRowView de(FCT fct) {
+        return new FctRowView(fct.getId(), fct.getEstudiante().getNombreCompleto(), fct.getEmpresa().getNombre(),
+                fct.getTutorEmpresa().getNombreCompleto(), fct.getPeriodo().getNombre(), fct.getEstado(),
+                formatearProgreso(fct.getHorasRealizadas(), fct.getHorasTotales()), fct.getCursoAcademico().getId(),
+                fct.getEstudiante().getClaveBusqueda(), fct.getEmpresa().getClaveBusqueda());
+    }
+
+    public static String formatearProgreso(Integer horasRealizadas, Integer horasTotales) {
+        int realizadas = horasRealizadas != null ? horasRealizadas : 0;
+        int totales = horasTotales != null ? horasTotales : 0;
+        double porcentaje = totales > 0 ? (realizadas * 100.0 / totales) : 0;
+        return String.format("%d/%d h (%.0f%%)", realizadas, totales, porcentaje);
+    }
+}
@@ -0,0 +1,7 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * Empresa y periodo en los que una FCT ocupa plaza.
+ */
+public record PlazaFct(Long empresaId, Long periodoId) {
+}
@@ -0,0 +1,31 @@
+package com.adrian.gestionfct.dto;
+
+import java.util.List;
+
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.Estudiante;
+import com.adrian.gestionfct.modelo.Periodo;
+import com.adrian.gestionfct.modelo.TutorEmpresa;
+
+/**
+ * Colocación calculada para un periodo, pendiente de revisar: los estudiantes colocados
+ * con su empresa y su tutor, y los que no caben en ninguna empresa compatible.
+ */
+public record PropuestaColocacion(Periodo periodo, List<Colocacion> colocaciones, List<Estudiante> sinPlaza) {
+
+    /**
+     * @param preferencia posición de la empresa en las preferencias del estudiante; -1 si no la pidió
+     */
+    public record Colocacion(Estudiante estudiante, Empresa empresa, TutorEmpresa tutorEmpresa, int preferencia) {
+    }
+
+    /**
+     * Las colocaciones como peticiones de una asignación en bloque.
+     */
+    public List<AsignacionRequest> peticiones() {
+        return colocaciones.stream()
+                .map(colocacion -> new AsignacionRequest(colocacion.estudiante(), colocacion.empresa(),
+                        colocacion.tutorEmpresa()))
+                .toList();
+    }
+}
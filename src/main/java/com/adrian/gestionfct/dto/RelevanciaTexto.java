@@ -0,0 +1,7 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * Documento cuyo texto coincide con una búsqueda y su relevancia según MySQL.
+ */
+public record RelevanciaTexto(Long documentoId, Double relevancia) {
+}
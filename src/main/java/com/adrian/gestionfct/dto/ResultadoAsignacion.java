@@ -0,0 +1,13 @@
+package com.adrian.gestionfct.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una asignación en bloque: las FCT creadas, ya como filas de la tabla, y
+ * las peticiones que no se pudieron crear con el motivo de cada una.
+ */
+public record ResultadoAsignacion(List<FctRowView> creadas, List<Conflicto> conflictos) {
+
+    public record Conflicto(AsignacionRequest peticion, String motivo) {
+    }
+}
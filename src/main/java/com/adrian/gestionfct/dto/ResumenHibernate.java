@@ -0,0 +1,9 @@
+package com.adrian.gestionfct.dto;
+
+/**
+ * Contadores globales de las estadísticas de Hibernate.
+ */
+public record ResumenHibernate(long sentenciasPreparadas, long consultas, long entidadesCargadas,
+        long coleccionesCargadas, long aciertosCacheConsultas, String consultaMasLenta,
+        long tiempoConsultaMasLentaMs) {
+}
@@ -0,0 +1,10 @@
+package com.adrian.gestionfct.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Huella de una tabla: número de filas y fecha de la última modificación.
+ * Dos huellas iguales indican que no ha habido altas, bajas ni ediciones entre medias.
+ */
+public record VersionDatos(Long filas, LocalDateTime ultimaModificacion) {
+}
@@ -0,0 +1,47 @@
+package com.adrian.gestionfct.eventos;
+
+/**
+ * Aviso de que se ha guardado o eliminado una entidad.
+ *
+ * Lo publican los servicios después de cada escritura, con la fila ya preparada para las
+ * tablas, de modo que las pantallas abiertas actualizan solo esa fila en lugar de volver
+ * a consultar la lista entera. Los cambios hechos desde otros puestos los publica
+ * {@code SincronizadorDatos} como modificaciones y bajas: no se sabe si la fila es nueva
+ * para esta pantalla.
+ *
+ * @param entidad clase de la entidad modificada
+ * @param tipo    alta, modificación o baja
+ * @param id      identificador de la entidad
+ * @param fila    fila de tabla (row view o la propia entidad); null en las bajas
+ */
+public record CambioDatos(Class<?> entidad, Tipo tipo, Long id, Object fila) {
+
+    public enum Tipo {
+        ALTA, MODIFICACION, BAJA
+    }
+
+    /**
+     * Cambio de una entidad recién guardada.
+     *
+     * @param nueva true si no tenía id antes de guardarse
+     */
+    public static CambioDatos guardado(Class<?> entidad, boolean nueva, Long id, Object fila) {
+        return new CambioDatos(entidad, nueva ? Tipo.ALTA : Tipo.MODIFICACION, id, fila);
+    }
+
+    public static CambioDatos modificacion(Class<?> entidad, Long id, Object fila) {
+        return new CambioDatos(entidad, Tipo.MODIFICACION, id, fila);
+    }
+
+    public static CambioDatos baja(Class<?> entidad, Long id) {
+        return new CambioDatos(entidad, Tipo.BAJA, id, null);
+    }
+
+    public boolean es(Class<?> clase) {
+        return entidad == clase;
+    }
+
+    public <R> R fila(Class<R> tipoFila) {
+        return tipoFila.cast(fila);
+    }
+}
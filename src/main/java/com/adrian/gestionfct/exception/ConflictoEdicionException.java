@@ -0,0 +1,39 @@
+package com.adrian.gestionfct.exception;
+
+import java.util.List;
+
+import com.adrian.gestionfct.modelo.CamposEditables.Diferencia;
+
+/**
+ * Excepción lanzada cuando otro usuario ha guardado la misma fila mientras se editaba
+ * y los dos han cambiado algún campo con valores distintos.
+ *
+ * Lleva la fila tal como está ahora en la base de datos, ya con los cambios propios que
+ * no chocaban, para que el usuario decida qué valor se queda en cada conflicto.
+ */
+public class ConflictoEdicionException extends GestionFCTException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object actual;
+    private final List<Diferencia> conflictos;
+
+    public ConflictoEdicionException(Object actual, List<Diferencia> conflictos) {
+        super("GFCT-409", "Otro usuario ha modificado el registro mientras lo editaba: "
+                + String.join(", ", conflictos.stream().map(Diferencia::campo).toList()));
+        this.actual = actual;
+        this.conflictos = List.copyOf(conflictos);
+    }
+
+    /**
+     * Fila guardada por el otro usuario, con los cambios propios que se pudieron fusionar.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getActual() {
+        return (T) actual;
+    }
+
+    public List<Diferencia> getConflictos() {
+        return conflictos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.adrian.gestionfct.modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Aviso de que una fila ha cambiado, para que los demás puestos vacíen sus cachés y
+ * pongan al día sus pantallas. Los añaden los servicios al guardar o borrar; cada puesto
+ * los lee en orden de id a partir del último que vio (ver V7__avisos_cambio.sql).
+ */
+@Entity
+@Table(name = "avisos_cambio", indexes = @Index(name = "idx_avisos_cambio_fecha", columnList = "fecha"))
+public class AvisoCambio {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/** Nombre de la tabla cambiada. */
+	@Column(nullable = false, length = 50)
+	private String tabla;
+
+	/** Fila cambiada; null si el cambio afecta a varias. */
+	@Column(name = "registro_id")
+	private Long registroId;
+
+	/** Identificador del puesto que hizo el cambio. */
+	@Column(nullable = false, length = 36)
+	private String origen;
+
+	@Column(insertable = false, updatable = false)
+	private LocalDateTime fecha;
+
+	protected AvisoCambio() {
+	}
+
+	public AvisoCambio(String tabla, Long registroId, String origen) {
+		this.tabla = tabla;
+		this.registroId = registroId;
+		this.origen = origen;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getTabla() {
+		return tabla;
+	}
+
+	public Long getRegistroId() {
+		return registroId;
+	}
+
+	public String getOrigen() {
+		return origen;
+	}
+
+	public LocalDateTime getFecha() {
+		return fecha;
+	}
+}
@@ -0,0 +1,47 @@
+package com.adrian.gestionfct.modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de una fila eliminada (lápida), para que los demás puestos la quiten de sus
+ * tablas al sincronizar. Las filas las insertan los disparadores de V6 al borrar de
+ * cualquiera de las tablas sincronizadas, también en los borrados en cascada.
+ */
+@Entity
+@Table(name = "bajas", indexes = @Index(name = "idx_bajas_fecha_baja", columnList = "fecha_baja"))
+public class Baja {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/** Nombre de la tabla de la que se borró la fila. */
+	@Column(nullable = false, length = 50)
+	private String tabla;
+
+	@Column(name = "registro_id", nullable = false)
+	private Long registroId;
+
+	@Column(name = "fecha_baja", nullable = false, insertable = false, updatable = false)
+	private LocalDateTime fechaBaja;
+
+	protected Baja() {
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getTabla() {
+		return tabla;
+	}
+
+	public Long getRegistroId() {
+		return registroId;
+	}
+
+	public LocalDateTime getFechaBaja() {
+		return fechaBaja;
+	}
+}
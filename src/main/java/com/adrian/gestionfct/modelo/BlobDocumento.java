@@ -0,0 +1,48 @@
+package com.adrian.gestionfct.modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Contenido de uno o varios documentos en el almacén gestionado, identificado por su SHA-256.
+ *
+ * Las filas se crean con BlobDocumentoRepository.register al subir un archivo y el
+ * contador {@code referencias} lo mantienen los disparadores de documentos (ver
+ * V11__blobs_documento.sql), así que la entidad es de solo lectura.
+ */
+@Entity
+@Table(name = "blobs_documento", indexes = @Index(name = "idx_blobs_documento_referencias", columnList = "referencias"))
+public class BlobDocumento {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, updatable = false)
+    private Long tamano;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer referencias;
+
+    @Column(name = "fecha_creacion", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    protected BlobDocumento() {
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public Long getTamano() {
+        return tamano;
+    }
+
+    public Integer getReferencias() {
+        return referencias;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+}
@@ -0,0 +1,117 @@
+package com.adrian.gestionfct.modelo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Campos que el usuario puede editar en una entidad, para fusionar dos ediciones hechas
+ * a la vez sobre la misma fila.
+ *
+ * La fusión es a tres bandas: los valores con que se cargó la edición propia, la edición
+ * propia y la fila tal como la ha dejado el otro usuario. Un campo que solo ha cambiado
+ * una de las dos ediciones se queda con ese cambio; si lo han cambiado las dos con
+ * valores distintos, hay conflicto y decide el usuario.
+ */
+public final class CamposEditables<T extends Editable> {
+
+	/**
+	 * @param clave  valor con el que se compara (el id en las relaciones)
+	 * @param texto  valor para mostrarlo al usuario
+	 * @param copiar copia el campo de la primera entidad a la segunda
+	 */
+	public record Campo<T>(String nombre, Function<T, Object> clave, Function<T, String> texto,
+			BiConsumer<T, T> copiar) {
+	}
+
+	/**
+	 * Campo que han cambiado las dos ediciones, con el valor de cada una.
+	 */
+	public record Diferencia(String campo, String mio, String suyo) {
+	}
+
+	private final List<Campo<T>> campos;
+
+	@SafeVarargs
+	public CamposEditables(Campo<T>... campos) {
+		this.campos = List.of(campos);
+	}
+
+	public static <T, V> Campo<T> campo(String nombre, Function<T, V> leer, BiConsumer<T, V> escribir) {
+		// Un texto vacío cuenta como sin valor: los formularios guardan "" donde la fila tenía null
+		return new Campo<>(nombre, entidad -> {
+			V valor = leer.apply(entidad);
+			return "".equals(valor) ? null : valor;
+		}, entidad -> Objects.toString(leer.apply(entidad), ""),
+				(desde, hacia) -> escribir.accept(hacia, leer.apply(desde)));
+	}
+
+	/**
+	 * Relación con otra entidad: se compara por id y se muestra con {@code texto}.
+	 */
+	public static <T, V> Campo<T> relacion(String nombre, Function<T, V> leer, Function<V, Long> id,
+			Function<V, String> texto, BiConsumer<T, V> escribir) {
+		return new Campo<>(nombre, entidad -> {
+			V valor = leer.apply(entidad);
+			return valor != null ? id.apply(valor) : null;
+		}, entidad -> {
+			V valor = leer.apply(entidad);
+			return valor != null ? texto.apply(valor) : "";
+		}, (desde, hacia) -> escribir.accept(hacia, leer.apply(desde)));
+	}
+
+	/**
+	 * Valores actuales de los campos, para recordarlos al cargar la entidad.
+	 */
+	public Map<String, Object> valores(T entidad) {
+		Map<String, Object> valores = new HashMap<>();
+		for (Campo<T> campo : campos) {
+			valores.put(campo.nombre(), campo.clave().apply(entidad));
+		}
+		return valores;
+	}
+
+	/**
+	 * Aplica sobre {@code actual} (la fila recién leída) los campos que cambió la edición
+	 * {@code mia} desde que se cargó.
+	 *
+	 * @return los campos en conflicto, que se quedan con el valor de {@code actual}; vacía
+	 *         si la fusión es completa
+	 */
+	public List<Diferencia> fusionar(T mia, T actual) {
+		Map<String, Object> base = mia.getValoresCargados();
+		List<Diferencia> conflictos = new ArrayList<>();
+		for (Campo<T> campo : campos) {
+			Object mio = campo.clave().apply(mia);
+			Object suyo = campo.clave().apply(actual);
+			if (Objects.equals(mio, suyo)) {
+				continue;
+			}
+			boolean cambiadoPorMi = base == null || !Objects.equals(base.get(campo.nombre()), mio);
+			boolean cambiadoPorOtro = base == null || !Objects.equals(base.get(campo.nombre()), suyo);
+			if (cambiadoPorMi && cambiadoPorOtro) {
+				conflictos.add(new Diferencia(campo.nombre(), campo.texto().apply(mia), campo.texto().apply(actual)));
+			} else if (cambiadoPorMi) {
+				campo.copiar().accept(mia, actual);
+			}
+		}
+		return conflictos;
+	}
+
+	/**
+	 * Resuelve los conflictos a favor de la edición propia: copia esos campos de
+	 * {@code mia} a {@code actual}.
+	 */
+	public void imponer(Collection<Diferencia> conflictos, T mia, T actual) {
+		for (Campo<T> campo : campos) {
+			if (conflictos.stream().anyMatch(diferencia -> diferencia.campo().equals(campo.nombre()))) {
+				campo.copiar().accept(mia, actual);
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.adrian.gestionfct.modelo;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Construye la clave de búsqueda normalizada que guardan estudiantes, empresas y
+ * tutores en la columna clave_busqueda (con índice FULLTEXT).
+ *
+ * La clave se forma con los campos de búsqueda sin tildes, en minúsculas y partidos
+ * en palabras, de modo que "Martínez" y "martinez" generan la misma entrada.
+ */
+public final class ClaveBusqueda {
+
+	/** Longitud de la columna clave_busqueda. */
+	public static final int LONGITUD_MAXIMA = 500;
+
+	/**
+	 * Palabras más cortas no entran en el índice FULLTEXT de InnoDB
+	 * (innodb_ft_min_token_size), así que no se pueden exigir en la consulta.
+	 */
+	private static final int LONGITUD_MINIMA_PALABRA = 3;
+
+	private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+	private ClaveBusqueda() {
+	}
+
+	/**
+	 * Normaliza los valores indicados y los une en una sola clave sin palabras repetidas.
+	 * Los valores nulos se ignoran.
+	 */
+	public static String de(String... valores) {
+		Set<String> palabras = new LinkedHashSet<>();
+		for (String valor : valores) {
+			palabras.addAll(palabras(valor));
+		}
+		String clave = String.join(" ", palabras);
+		return clave.length() > LONGITUD_MAXIMA ? clave.substring(0, LONGITUD_MAXIMA) : clave;
+	}
+
+	/**
+	 * Divide un texto en palabras normalizadas (sin tildes, en minúsculas y sin signos).
+	 */
+	public static List<String> palabras(String texto) {
+		if (texto == null || texto.isBlank()) {
+			return List.of();
+		}
+		return Arrays.stream(SEPARADORES.split(normalizar(texto)))
+				.filter(palabra -> !palabra.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Quita tildes y pasa a minúsculas, conservando espacios y signos.
+	 * Devuelve una cadena vacía si el texto es nulo.
+	 */
+	public static String normalizar(String texto) {
+		if (texto == null || texto.isEmpty()) {
+			return "";
+		}
+		String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return sinTildes.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Traduce el texto escrito por el usuario a una consulta FULLTEXT en modo booleano
+	 * en la que todas las palabras son obligatorias y se buscan como prefijo
+	 * ("mart lop" -> "+mart* +lop*"). Devuelve null si el texto no tiene palabras.
+	 *
+	 * Las palabras demasiado cortas para estar indexadas ("de", "la") se descartan,
+	 * salvo que sean lo único escrito: en ese caso sirven como prefijo de otras más largas.
+	 *
+	 * Como la consulta se construye solo a partir de palabras normalizadas, no puede
+	 * contener operadores del modo booleano introducidos por el usuario.
+	 */
+	public static String consultaPrefijos(String texto) {
+		List<String> terminos = terminos(texto);
+		if (terminos.isEmpty()) {
+			return null;
+		}
+		return terminos.stream()
+				.map(termino -> "+" + termino + "*")
+				.collect(Collectors.joining(" "));
+	}
+
+	/**
+	 * Prefijos que exige {@link #consultaPrefijos(String)} para ese texto, sin repetir.
+	 */
+	public static List<String> terminos(String texto) {
+		List<String> palabras = palabras(texto);
+		List<String> indexables = palabras.stream()
+				.filter(palabra -> palabra.length() >= LONGITUD_MINIMA_PALABRA)
+				.collect(Collectors.toList());
+		if (!indexables.isEmpty()) {
+			palabras = indexables;
+		}
+		return palabras.stream().distinct().collect(Collectors.toList());
+	}
+
+	/**
+	 * Reproduce en memoria la consulta FULLTEXT: cada término debe ser prefijo de alguna
+	 * palabra indexable de la clave. Una lista de términos vacía coincide con todo.
+	 */
+	public static boolean contienePrefijos(String clave, List<String> terminos) {
+		if (terminos.isEmpty()) {
+			return true;
+		}
+		if (clave == null || clave.isEmpty()) {
+			return false;
+		}
+		for (String termino : terminos) {
+			if (!contienePrefijo(clave, termino)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indica si los términos nuevos son al menos tan restrictivos como los anteriores:
+	 * cada término anterior es prefijo de alguno nuevo, así que todo lo que encuentran los
+	 * nuevos ya lo encontraban los anteriores.
+	 */
+	public static boolean refina(List<String> anteriores, List<String> nuevos) {
+		for (String anterior : anteriores) {
+			if (nuevos.stream().noneMatch(nuevo -> nuevo.startsWith(anterior))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Busca el prefijo al principio de cada palabra de la clave sin partirla en una lista.
+	 */
+	private static boolean contienePrefijo(String clave, String prefijo) {
+		int inicio = 0;
+		while (inicio < clave.length()) {
+			int fin = clave.indexOf(' ', inicio);
+			if (fin < 0) {
+				fin = clave.length();
+			}
+			if (fin - inicio >= LONGITUD_MINIMA_PALABRA && clave.startsWith(prefijo, inicio)
+					&& prefijo.length() <= fin - inicio) {
+				return true;
+			}
+			inicio = fin + 1;
+		}
+		return false;
+	}
+}
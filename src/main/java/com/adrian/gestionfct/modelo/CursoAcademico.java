@@ -12,7 +12,10 @@ import java.util.List;
 public class CursoAcademico {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cursos_academicos_ids")
+    @TableGenerator(name = "cursos_academicos_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+            valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "cursos_academicos",
+            allocationSize = GeneradorIds.TAMANO_BLOQUE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 9)
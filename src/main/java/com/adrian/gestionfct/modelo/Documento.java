@@ -3,15 +3,24 @@ package com.adrian.gestionfct.modelo;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 /**
  * Entidad Documento - Representa un archivo subido al sistema.
  */
 @Entity
-@Table(name = "documentos")
+@Table(name = "documentos", indexes = {
+		@Index(name = "idx_documentos_fct_tipo", columnList = "fct_id, tipo"),
+		@Index(name = "idx_documentos_fecha_subida", columnList = "fecha_subida"),
+		@Index(name = "idx_documentos_fecha_modificacion", columnList = "fecha_modificacion") })
 public class Documento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "documentos_ids")
+    @TableGenerator(name = "documentos_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+            valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "documentos",
+            allocationSize = GeneradorIds.TAMANO_BLOQUE)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -20,9 +29,17 @@ public class Documento {
     @Column(name = "nombre_almacenado", nullable = false, length = 255)
     private String nombreAlmacenado;
 
+    /**
+     * Ruta del archivo relativa al almacén de documentos; en los documentos subidos antes
+     * del almacén (sin hash), la ruta absoluta del archivo original.
+     */
     @Column(nullable = false, length = 500)
     private String ruta;
 
+    /** SHA-256 del contenido en el almacén (ver AlmacenDocumentos). */
+    @Column(length = 64, updatable = false)
+    private String hash;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TipoDocumento tipo;
@@ -39,6 +56,14 @@ public class Documento {
     @Column(name = "fecha_subida", nullable = false)
     private LocalDateTime fechaSubida;
 
+    /**
+     * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+     * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+     */
+    @Generated(event = EventType.UPDATE)
+    @Column(name = "fecha_modificacion", insertable = false, updatable = false)
+    private LocalDateTime fechaModificacion;
+
     // ============== RELACIONES ==============
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fct_id", nullable = false)
@@ -94,6 +119,14 @@ public class Documento {
         this.ruta = ruta;
     }
 
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
     public TipoDocumento getTipo() {
         return tipo;
     }
@@ -134,6 +167,10 @@ public class Documento {
         this.fechaSubida = fechaSubida;
     }
 
+    public LocalDateTime getFechaModificacion() {
+        return fechaModificacion;
+    }
+
     public FCT getFct() {
         return fct;
     }
@@ -160,6 +197,10 @@ public class Documento {
     }
 
     public String getTamanoFormateado() {
+        return formatearTamano(tamano);
+    }
+
+    public static String formatearTamano(Long tamano) {
         if (tamano == null)
             return "0 B";
         if (tamano < 1024)
@@ -0,0 +1,23 @@
+package com.adrian.gestionfct.modelo;
+
+import java.util.Map;
+
+/**
+ * Entidad con versión que recuerda cómo estaba al leerla de la base de datos.
+ *
+ * Si al guardarla otro usuario ya la ha cambiado (la versión no coincide), esos valores
+ * permiten saber qué campos tocó cada uno y fusionar las dos ediciones (ver
+ * {@link CamposEditables}).
+ */
+public interface Editable {
+
+	Long getId();
+
+	Long getVersion();
+
+	/**
+	 * Valores de los campos editables al cargarla o guardarla por última vez; null si la
+	 * entidad no viene de la base de datos.
+	 */
+	Map<String, Object> getValoresCargados();
+}
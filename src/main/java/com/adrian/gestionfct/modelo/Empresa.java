@@ -1,18 +1,43 @@
 package com.adrian.gestionfct.modelo;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 /**
  * Entidad Empresa - Representa una empresa colaboradora donde se realizan FCT.
  */
 @Entity
-@Table(name = "empresas")
-public class Empresa {
+@Table(name = "empresas", indexes = {
+		@Index(name = "idx_empresas_activa_nombre", columnList = "activa, nombre"),
+		@Index(name = "idx_empresas_fecha_modificacion", columnList = "fecha_modificacion") })
+public class Empresa implements Editable {
+
+	/** Campos que fusiona FusionEdiciones al guardar (ver FCT). */
+	public static final CamposEditables<Empresa> CAMPOS_EDITABLES = new CamposEditables<>(
+			CamposEditables.campo("Nombre", Empresa::getNombre, Empresa::setNombre),
+			CamposEditables.campo("NIF", Empresa::getNif, Empresa::setNif),
+			CamposEditables.campo("Dirección", Empresa::getDireccion, Empresa::setDireccion),
+			CamposEditables.campo("Localidad", Empresa::getLocalidad, Empresa::setLocalidad),
+			CamposEditables.campo("Código postal", Empresa::getCodigoPostal, Empresa::setCodigoPostal),
+			CamposEditables.campo("Provincia", Empresa::getProvincia, Empresa::setProvincia),
+			CamposEditables.campo("Teléfono", Empresa::getTelefono, Empresa::setTelefono),
+			CamposEditables.campo("Email", Empresa::getEmail, Empresa::setEmail),
+			CamposEditables.campo("Persona de contacto", Empresa::getPersonaContacto, Empresa::setPersonaContacto),
+			CamposEditables.campo("Sector", Empresa::getSector, Empresa::setSector),
+			CamposEditables.campo("Activa", Empresa::getActiva, Empresa::setActiva),
+			CamposEditables.campo("Observaciones", Empresa::getObservaciones, Empresa::setObservaciones));
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "empresas_ids")
+	@TableGenerator(name = "empresas_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "empresas",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(nullable = false, length = 200)
@@ -48,6 +73,25 @@ public class Empresa {
 	@Column(nullable = false)
 	private Boolean activa = true;
 
+	/** Clave normalizada para la búsqueda FULLTEXT; se recalcula al guardar. */
+	@Column(name = "clave_busqueda", length = ClaveBusqueda.LONGITUD_MAXIMA)
+	private String claveBusqueda;
+
+	/**
+	 * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+	 * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+	 */
+	@Generated(event = EventType.UPDATE)
+	@Column(name = "fecha_modificacion", insertable = false, updatable = false)
+	private LocalDateTime fechaModificacion;
+
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	@Transient
+	private Map<String, Object> valoresCargados;
+
 	@Column(length = 1000)
 	private String observaciones;
 
@@ -72,6 +116,7 @@ public class Empresa {
 		this.email = email;
 	}
 
+	@Override
 	public Long getId() {
 		return id;
 	}
@@ -210,6 +255,37 @@ public class Empresa {
 		return sb.toString();
 	}
 
+	public LocalDateTime getFechaModificacion() {
+		return fechaModificacion;
+	}
+
+	@Override
+	public Long getVersion() {
+		return version;
+	}
+
+	@Override
+	public Map<String, Object> getValoresCargados() {
+		return valoresCargados;
+	}
+
+	@PostLoad
+	@PostPersist
+	@PostUpdate
+	void recordarValores() {
+		this.valoresCargados = CAMPOS_EDITABLES.valores(this);
+	}
+
+	public String getClaveBusqueda() {
+		return claveBusqueda;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void actualizarClaveBusqueda() {
+		this.claveBusqueda = ClaveBusqueda.de(nombre, nif, localidad);
+	}
+
 	@Override
 	public String toString() {
 		return nombre + " (" + nif + ")";
@@ -2,18 +2,48 @@ package com.adrian.gestionfct.modelo;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 /**
  * Entidad Estudiante - Alumno que realiza la Formación en Centro de Trabajo.
  */
 @Entity
-@Table(name = "estudiantes")
-public class Estudiante {
+@Table(name = "estudiantes", indexes = {
+		@Index(name = "idx_estudiantes_email", columnList = "email"),
+		@Index(name = "idx_estudiantes_dni", columnList = "dni"),
+		@Index(name = "idx_estudiantes_apellidos", columnList = "apellidos"),
+		@Index(name = "idx_estudiantes_ciclo_grupo", columnList = "ciclo, grupo"),
+		@Index(name = "idx_estudiantes_fecha_modificacion", columnList = "fecha_modificacion") })
+public class Estudiante implements Editable {
+
+	/** Campos que fusiona FusionEdiciones al guardar (ver FCT). */
+	public static final CamposEditables<Estudiante> CAMPOS_EDITABLES = new CamposEditables<>(
+			CamposEditables.campo("Nombre", Estudiante::getNombre, Estudiante::setNombre),
+			CamposEditables.campo("Apellidos", Estudiante::getApellidos, Estudiante::setApellidos),
+			CamposEditables.campo("DNI", Estudiante::getDni, Estudiante::setDni),
+			CamposEditables.campo("Fecha de nacimiento", Estudiante::getFechaNacimiento,
+					Estudiante::setFechaNacimiento),
+			CamposEditables.campo("Teléfono", Estudiante::getTelefono, Estudiante::setTelefono),
+			CamposEditables.campo("Email", Estudiante::getEmail, Estudiante::setEmail),
+			CamposEditables.campo("Dirección", Estudiante::getDireccion, Estudiante::setDireccion),
+			CamposEditables.campo("Ciclo", Estudiante::getCiclo, Estudiante::setCiclo),
+			CamposEditables.campo("Grupo", Estudiante::getGrupo, Estudiante::setGrupo),
+			CamposEditables.campo("Curso", Estudiante::getCursoActual, Estudiante::setCursoActual),
+			CamposEditables.campo("Activo", Estudiante::getActivo, Estudiante::setActivo),
+			CamposEditables.relacion("Profesor tutor", Estudiante::getProfesorTutor, Usuario::getId,
+					Usuario::getNombreCompleto, Estudiante::setProfesorTutor));
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "estudiantes_ids")
+	@TableGenerator(name = "estudiantes_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "estudiantes",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(nullable = false, length = 100)
@@ -49,6 +79,25 @@ public class Estudiante {
 	@Column(nullable = false)
 	private Boolean activo = true;
 
+	/** Clave normalizada para la búsqueda FULLTEXT; se recalcula al guardar. */
+	@Column(name = "clave_busqueda", length = ClaveBusqueda.LONGITUD_MAXIMA)
+	private String claveBusqueda;
+
+	/**
+	 * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+	 * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+	 */
+	@Generated(event = EventType.UPDATE)
+	@Column(name = "fecha_modificacion", insertable = false, updatable = false)
+	private LocalDateTime fechaModificacion;
+
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	@Transient
+	private Map<String, Object> valoresCargados;
+
 	@OneToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "usuario_id", unique = true)
 	private Usuario usuario;
@@ -77,6 +126,7 @@ public class Estudiante {
 		this.grupo = grupo;
 	}
 
+	@Override
 	public Long getId() {
 		return id;
 	}
@@ -210,6 +260,37 @@ public class Estudiante {
 				.anyMatch(fct -> fct.getPeriodo().equals(periodo) && fct.getEstado() != EstadoFCT.CANCELADA);
 	}
 
+	public LocalDateTime getFechaModificacion() {
+		return fechaModificacion;
+	}
+
+	@Override
+	public Long getVersion() {
+		return version;
+	}
+
+	@Override
+	public Map<String, Object> getValoresCargados() {
+		return valoresCargados;
+	}
+
+	@PostLoad
+	@PostPersist
+	@PostUpdate
+	void recordarValores() {
+		this.valoresCargados = CAMPOS_EDITABLES.valores(this);
+	}
+
+	public String getClaveBusqueda() {
+		return claveBusqueda;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void actualizarClaveBusqueda() {
+		this.claveBusqueda = ClaveBusqueda.de(nombre, apellidos, dni, email);
+	}
+
 	@Override
 	public String toString() {
 		return getNombreCompleto() + " (" + grupo + ")";
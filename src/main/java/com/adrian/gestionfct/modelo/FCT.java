@@ -5,6 +5,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 /**
  * Entidad FCT - Formación en Centro de Trabajo. Es la entidad CENTRAL del
@@ -12,11 +16,40 @@ import java.util.List;
  */
 @Entity
 @Table(name = "fcts", uniqueConstraints = @UniqueConstraint(columnNames = { "estudiante_id",
-		"periodo_id" }, name = "uk_estudiante_periodo"))
-public class FCT {
+		"periodo_id" }, name = "uk_estudiante_periodo"), indexes = {
+				@Index(name = "idx_fcts_estado", columnList = "estado"),
+				@Index(name = "idx_fcts_curso_estado", columnList = "curso_academico_id, estado"),
+				@Index(name = "idx_fcts_fecha_modificacion", columnList = "fecha_modificacion") })
+@NamedEntityGraph(name = FCT.GRAFO_LISTADO, attributeNodes = { @NamedAttributeNode("estudiante"),
+		@NamedAttributeNode("empresa"), @NamedAttributeNode(value = "tutorEmpresa", subgraph = "tutorEmpresa"),
+		@NamedAttributeNode(value = "periodo", subgraph = "periodo"), @NamedAttributeNode("cursoAcademico") }, subgraphs = {
+				@NamedSubgraph(name = "tutorEmpresa", attributeNodes = @NamedAttributeNode("empresa")),
+				@NamedSubgraph(name = "periodo", attributeNodes = @NamedAttributeNode("cursoAcademico")) })
+public class FCT implements Editable {
+
+	/** Campos de la FCT que se pueden fusionar si dos usuarios la editan a la vez. */
+	public static final CamposEditables<FCT> CAMPOS_EDITABLES = new CamposEditables<>(
+			CamposEditables.campo("Estado", FCT::getEstado, FCT::setEstado),
+			CamposEditables.campo("Fecha de inicio", FCT::getFechaInicio, FCT::setFechaInicio),
+			CamposEditables.campo("Fecha de fin", FCT::getFechaFin, FCT::setFechaFin),
+			CamposEditables.campo("Horas realizadas", FCT::getHorasRealizadas, FCT::setHorasRealizadas),
+			CamposEditables.campo("Horas totales", FCT::getHorasTotales, FCT::setHorasTotales),
+			CamposEditables.campo("Observaciones", FCT::getObservaciones, FCT::setObservaciones),
+			CamposEditables.relacion("Empresa", FCT::getEmpresa, Empresa::getId, Empresa::getNombre,
+					FCT::setEmpresa),
+			CamposEditables.relacion("Tutor de empresa", FCT::getTutorEmpresa, TutorEmpresa::getId,
+					TutorEmpresa::getNombreCompleto, FCT::setTutorEmpresa));
+
+	/**
+	 * Grafo con todas las asociaciones que muestran las tablas y diálogos de FCT.
+	 */
+	public static final String GRAFO_LISTADO = "FCT.listado";
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "fcts_ids")
+	@TableGenerator(name = "fcts_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "fcts",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Enumerated(EnumType.STRING)
@@ -41,9 +74,25 @@ public class FCT {
 	@Column(name = "fecha_creacion")
 	private LocalDateTime fechaCreacion;
 
-	@Column(name = "fecha_modificacion")
+	/**
+	 * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+	 * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+	 */
+	@Generated(event = EventType.UPDATE)
+	@Column(name = "fecha_modificacion", insertable = false, updatable = false)
 	private LocalDateTime fechaModificacion;
 
+	/**
+	 * Control de versiones optimista: guardar con una versión que ya no es la última falla
+	 * y el servicio fusiona la edición con la del otro usuario.
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	@Transient
+	private Map<String, Object> valoresCargados;
+
 	// ============== RELACIONES ==============
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "estudiante_id", nullable = false)
@@ -71,7 +120,6 @@ public class FCT {
 	// ============== CONSTRUCTORES ==============
 	public FCT() {
 		this.fechaCreacion = LocalDateTime.now();
-		this.fechaModificacion = LocalDateTime.now();
 	}
 
 	public FCT(Estudiante estudiante, Empresa empresa, TutorEmpresa tutorEmpresa, Periodo periodo) {
@@ -87,6 +135,7 @@ public class FCT {
 	}
 
 	// ============== GETTERS Y SETTERS ==============
+	@Override
 	public Long getId() {
 		return id;
 	}
@@ -101,7 +150,6 @@ public class FCT {
 
 	public void setEstado(EstadoFCT estado) {
 		this.estado = estado;
-		this.fechaModificacion = LocalDateTime.now();
 	}
 
 	public LocalDate getFechaInicio() {
@@ -156,8 +204,21 @@ public class FCT {
 		return fechaModificacion;
 	}
 
-	public void setFechaModificacion(LocalDateTime fechaModificacion) {
-		this.fechaModificacion = fechaModificacion;
+	@Override
+	public Long getVersion() {
+		return version;
+	}
+
+	@Override
+	public Map<String, Object> getValoresCargados() {
+		return valoresCargados;
+	}
+
+	@PostLoad
+	@PostPersist
+	@PostUpdate
+	void recordarValores() {
+		this.valoresCargados = CAMPOS_EDITABLES.valores(this);
 	}
 
 	public Estudiante getEstudiante() {
@@ -230,12 +291,10 @@ public class FCT {
 
 	public void finalizar() {
 		this.estado = EstadoFCT.FINALIZADA;
-		this.fechaModificacion = LocalDateTime.now();
 	}
 
 	public void cancelar() {
 		this.estado = EstadoFCT.CANCELADA;
-		this.fechaModificacion = LocalDateTime.now();
 	}
 
 	@Override
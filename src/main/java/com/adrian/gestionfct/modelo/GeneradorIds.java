@@ -0,0 +1,29 @@
+package com.adrian.gestionfct.modelo;
+
+/**
+ * Generación de ids por bloques, compartida por las entidades que inserta la aplicación.
+ *
+ * Cada entidad reserva bloques de {@link #TAMANO_BLOQUE} ids en la tabla
+ * generadores_id (V8), con una transacción aparte y un SELECT ... FOR UPDATE, así que
+ * varios puestos pueden reservar a la vez sin repetir ids. Con el optimizador pooled-lo
+ * (ver application.properties) la fila guarda el primer id del siguiente bloque libre.
+ *
+ * A diferencia de IDENTITY, Hibernate conoce el id antes del INSERT y puede agruparlos
+ * en lotes JDBC. Las tablas conservan AUTO_INCREMENT solo por compatibilidad: cualquier
+ * INSERT hecho fuera de Hibernate debe tomar antes su id de generadores_id.
+ */
+public final class GeneradorIds {
+
+	public static final String TABLA = "generadores_id";
+	public static final String COLUMNA_TABLA = "tabla";
+	public static final String COLUMNA_SIGUIENTE = "siguiente";
+
+	/**
+	 * Ids que reserva cada puesto de una vez. Un bloque mayor ahorra reservas en las cargas
+	 * masivas; los ids no usados de un bloque se pierden al cerrar la aplicación.
+	 */
+	public static final int TAMANO_BLOQUE = 50;
+
+	private GeneradorIds() {
+	}
+}
@@ -9,11 +9,14 @@ import java.util.List;
  * Entidad Periodo - Define los rangos temporales de las prácticas FCT.
  */
 @Entity
-@Table(name = "periodos")
+@Table(name = "periodos", indexes = @Index(name = "idx_periodos_activo", columnList = "activo"))
 public class Periodo {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "periodos_ids")
+	@TableGenerator(name = "periodos_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "periodos",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(nullable = false, length = 100)
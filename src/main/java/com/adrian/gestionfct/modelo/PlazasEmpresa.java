@@ -0,0 +1,71 @@
+package com.adrian.gestionfct.modelo;
+
+import jakarta.persistence.*;
+
+/**
+ * Plazas que ofrece una empresa en un periodo y cuántas ocupan ya sus FCT.
+ *
+ * El contador {@code ocupadas} no se modifica a través de la entidad: lo cambian los
+ * UPDATE condicionales de PlazasEmpresaRepository, que son los que impiden pasarse del
+ * cupo cuando varios puestos asignan a la vez (ver V9__plazas_empresa.sql).
+ */
+@Entity
+@Table(name = "plazas_empresa", uniqueConstraints = @UniqueConstraint(name = "uk_plazas_empresa_periodo",
+		columnNames = { "empresa_id", "periodo_id" }))
+public class PlazasEmpresa {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "plazas_empresa_ids")
+	@TableGenerator(name = "plazas_empresa_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "plazas_empresa",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "empresa_id", nullable = false)
+	private Empresa empresa;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "periodo_id", nullable = false)
+	private Periodo periodo;
+
+	@Column(nullable = false)
+	private Integer plazas;
+
+	@Column(nullable = false, updatable = false)
+	private Integer ocupadas = 0;
+
+	protected PlazasEmpresa() {
+	}
+
+	public PlazasEmpresa(Empresa empresa, Periodo periodo, int plazas, int ocupadas) {
+		this.empresa = empresa;
+		this.periodo = periodo;
+		this.plazas = plazas;
+		this.ocupadas = ocupadas;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Empresa getEmpresa() {
+		return empresa;
+	}
+
+	public Periodo getPeriodo() {
+		return periodo;
+	}
+
+	public Integer getPlazas() {
+		return plazas;
+	}
+
+	public Integer getOcupadas() {
+		return ocupadas;
+	}
+
+	public int getLibres() {
+		return Math.max(0, plazas - ocupadas);
+	}
+}
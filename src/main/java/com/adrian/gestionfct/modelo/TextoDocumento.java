@@ -0,0 +1,74 @@
+package com.adrian.gestionfct.modelo;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Texto extraído del archivo de un documento, para buscar en su contenido.
+ *
+ * La fila la crea IndexadorContenidos una sola vez por documento (el contenido de un
+ * documento no cambia; solo se rehace la que quedó en ERROR) y se borra con él por la clave ajena (ver V12__textos_documento.sql).
+ * {@code claveBusqueda} es el texto normalizado con {@link ClaveBusqueda}, con índice
+ * FULLTEXT; {@code texto} es el original, del que se sacan los fragmentos resaltados.
+ */
+@Entity
+@Table(name = "textos_documento")
+public class TextoDocumento {
+
+	public enum Estado {
+		/** Con texto indexado. */
+		EXTRAIDO,
+		/** Formato sin texto (imagen, escaneado sin OCR, otro tipo de archivo). */
+		SIN_TEXTO,
+		/** No se pudo leer (archivo dañado, cifrado o no disponible). */
+		ERROR
+	}
+
+	@Id
+	@Column(name = "documento_id")
+	private Long documentoId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private Estado estado;
+
+	@Column(columnDefinition = "MEDIUMTEXT")
+	private String texto;
+
+	@Column(name = "clave_busqueda", columnDefinition = "MEDIUMTEXT")
+	private String claveBusqueda;
+
+	@Column(name = "fecha_extraccion", nullable = false)
+	private LocalDateTime fechaExtraccion;
+
+	protected TextoDocumento() {
+	}
+
+	public TextoDocumento(Long documentoId, Estado estado, String texto) {
+		this.documentoId = documentoId;
+		this.estado = estado;
+		this.texto = texto;
+		this.claveBusqueda = texto != null ? String.join(" ", ClaveBusqueda.palabras(texto)) : null;
+		this.fechaExtraccion = LocalDateTime.now();
+	}
+
+	public Long getDocumentoId() {
+		return documentoId;
+	}
+
+	public Estado getEstado() {
+		return estado;
+	}
+
+	public String getTexto() {
+		return texto;
+	}
+
+	public String getClaveBusqueda() {
+		return claveBusqueda;
+	}
+
+	public LocalDateTime getFechaExtraccion() {
+		return fechaExtraccion;
+	}
+}
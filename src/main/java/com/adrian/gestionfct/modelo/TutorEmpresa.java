@@ -1,18 +1,27 @@
 package com.adrian.gestionfct.modelo;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 /**
  * Entidad TutorEmpresa - Persona de la empresa que tutoriza al estudiante.
  */
 @Entity
-@Table(name = "tutores_empresa")
+@Table(name = "tutores_empresa", indexes = {
+		@Index(name = "idx_tutores_empresa_activo", columnList = "empresa_id, activo"),
+		@Index(name = "idx_tutores_empresa_fecha_modificacion", columnList = "fecha_modificacion") })
 public class TutorEmpresa {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "tutores_empresa_ids")
+	@TableGenerator(name = "tutores_empresa_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "tutores_empresa",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(nullable = false, length = 100)
@@ -36,6 +45,18 @@ public class TutorEmpresa {
 	@Column(nullable = false)
 	private Boolean activo = true;
 
+	/** Clave normalizada para la búsqueda FULLTEXT; se recalcula al guardar. */
+	@Column(name = "clave_busqueda", length = ClaveBusqueda.LONGITUD_MAXIMA)
+	private String claveBusqueda;
+
+	/**
+	 * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+	 * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+	 */
+	@Generated(event = EventType.UPDATE)
+	@Column(name = "fecha_modificacion", insertable = false, updatable = false)
+	private LocalDateTime fechaModificacion;
+
 	@OneToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "usuario_id", unique = true)
 	private Usuario usuario;
@@ -159,6 +180,20 @@ public class TutorEmpresa {
 		return fcts.stream().anyMatch(fct -> fct.getEstado() == EstadoFCT.ACTIVA);
 	}
 
+	public LocalDateTime getFechaModificacion() {
+		return fechaModificacion;
+	}
+
+	public String getClaveBusqueda() {
+		return claveBusqueda;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void actualizarClaveBusqueda() {
+		this.claveBusqueda = ClaveBusqueda.de(nombre, apellidos, dni, email);
+	}
+
 	@Override
 	public String toString() {
 		return getNombreCompleto() + " - " + empresa.getNombre();
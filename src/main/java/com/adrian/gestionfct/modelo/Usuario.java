@@ -3,17 +3,25 @@ package com.adrian.gestionfct.modelo;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 /**
  * Entidad Usuario - Gestiona el acceso al sistema.
  * 
  * Cada usuario tiene un rol que determina sus permisos y a qué panel accede.
  */
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+		@Index(name = "idx_usuarios_rol_activo", columnList = "rol, activo"),
+		@Index(name = "idx_usuarios_fecha_modificacion", columnList = "fecha_modificacion") })
 public class Usuario {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "usuarios_ids")
+	@TableGenerator(name = "usuarios_ids", table = GeneradorIds.TABLA, pkColumnName = GeneradorIds.COLUMNA_TABLA,
+			valueColumnName = GeneradorIds.COLUMNA_SIGUIENTE, pkColumnValue = "usuarios",
+			allocationSize = GeneradorIds.TAMANO_BLOQUE)
 	private Long id;
 
 	@Column(nullable = false, length = 100)
@@ -44,6 +52,14 @@ public class Usuario {
 	@Column(name = "ultimo_acceso")
 	private LocalDateTime ultimoAcceso;
 
+	/**
+	 * La pone MySQL al insertar y en cada UPDATE, con el reloj del servidor (V6). Solo se
+	 * relee tras un UPDATE: releerla tras el INSERT impediría agrupar las inserciones en lotes.
+	 */
+	@Generated(event = EventType.UPDATE)
+	@Column(name = "fecha_modificacion", insertable = false, updatable = false)
+	private LocalDateTime fechaModificacion;
+
 	public Usuario() {
 		this.fechaCreacion = LocalDateTime.now();
 	}
@@ -137,6 +153,10 @@ public class Usuario {
 		this.ultimoAcceso = ultimoAcceso;
 	}
 
+	public LocalDateTime getFechaModificacion() {
+		return fechaModificacion;
+	}
+
 	public String getNombreCompleto() {
 		return nombre + " " + apellidos;
 	}
@@ -0,0 +1,22 @@
+package com.adrian.gestionfct.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Recibe de Hibernate cada sentencia antes de prepararla y se la pasa al monitor.
+ * No modifica el SQL.
+ */
+public class InspectorSentencias implements StatementInspector {
+
+    private final MonitorConsultas monitor;
+
+    public InspectorSentencias(MonitorConsultas monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        monitor.registrarSentencia(sql);
+        return sql;
+    }
+}
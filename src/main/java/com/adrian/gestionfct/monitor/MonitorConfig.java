@@ -0,0 +1,25 @@
+package com.adrian.gestionfct.monitor;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Activa las estadísticas de Hibernate y registra {@link InspectorSentencias}, solo con
+ * {@code gestionfct.monitor.activo}: sin el monitor, las estadísticas serían un coste
+ * en cada consulta que nadie mira.
+ */
+@Configuration
+public class MonitorConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gestionfct.monitor.activo", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer monitorHibernateCustomizer(MonitorConsultas monitor) {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+            propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new InspectorSentencias(monitor));
+        };
+    }
+}
@@ -0,0 +1,304 @@
+package com.adrian.gestionfct.monitor;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.adrian.gestionfct.dto.AlertaNMasUno;
+import com.adrian.gestionfct.dto.EstadisticaMetodo;
+import com.adrian.gestionfct.dto.ResumenHibernate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Lleva la cuenta de las sentencias SQL que lanza cada método de servicio.
+ *
+ * {@link MonitorServiciosAspect} abre una unidad de trabajo al entrar en el servicio más
+ * externo y la cierra al salir; {@link InspectorSentencias} avisa de cada sentencia que
+ * prepara Hibernate. Si una misma forma de sentencia (sin valores literales) se repite más
+ * veces que el umbral dentro de una unidad, se registra como sospecha de N+1. Las entidades
+ * y colecciones cargadas las cuenta {@link OyenteCargas} en el hilo de la unidad: los
+ * contadores de las estadísticas de Hibernate suman también las cargas de los demás hilos
+ * (CargadorDatos, la sincronización, el indexador) y solo se usan para el resumen global.
+ *
+ * Las sentencias lanzadas fuera de cualquier servicio (cargas perezosas desde la vista)
+ * se acumulan en {@link #FUERA_DE_SERVICIOS}.
+ */
+@Component
+public class MonitorConsultas {
+
+    private static final Logger LOG = getLogger(MonitorConsultas.class);
+
+    public static final String FUERA_DE_SERVICIOS = "(fuera de servicios)";
+
+    private static final int MAX_ALERTAS = 100;
+
+    private static final Pattern CADENAS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern LISTAS_IN = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    @Value("${gestionfct.monitor.activo:true}")
+    private boolean activo;
+
+    @Value("${gestionfct.monitor.umbral-n-mas-uno:5}")
+    private int umbralNMasUno;
+
+    @Lazy
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ThreadLocal<UnidadTrabajo> unidadActual = new ThreadLocal<>();
+    private final Map<String, Acumulado> porMetodo = new ConcurrentHashMap<>();
+    private final Deque<AlertaNMasUno> alertas = new ArrayDeque<>();
+
+    /**
+     * Registra {@link OyenteCargas} en Hibernate. Se hace al arrancar y no al configurar
+     * JPA porque el registro de oyentes solo existe una vez creada la SessionFactory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void escucharCargas() {
+        if (!activo) {
+            return;
+        }
+        OyenteCargas oyente = new OyenteCargas(this);
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_LOAD, oyente);
+        registro.appendListeners(EventType.INIT_COLLECTION, oyente);
+    }
+
+    // ============== UNIDADES DE TRABAJO ==============
+
+    /**
+     * Abre una unidad de trabajo para el método indicado. Las llamadas anidadas a otros
+     * servicios se cuentan dentro de la unidad más externa.
+     */
+    void iniciar(String metodo) {
+        if (!activo) {
+            return;
+        }
+        UnidadTrabajo unidad = unidadActual.get();
+        if (unidad != null) {
+            unidad.profundidad++;
+            return;
+        }
+        unidadActual.set(new UnidadTrabajo(metodo));
+    }
+
+    /**
+     * Cierra la unidad de trabajo abierta por {@link #iniciar(String)} y acumula sus contadores.
+     */
+    void finalizar() {
+        UnidadTrabajo unidad = unidadActual.get();
+        if (unidad == null) {
+            return;
+        }
+        if (unidad.profundidad > 0) {
+            unidad.profundidad--;
+            return;
+        }
+        unidadActual.remove();
+
+        long tiempoMs = (System.nanoTime() - unidad.inicioNanos) / 1_000_000;
+
+        int sospechas = 0;
+        for (Map.Entry<String, Integer> forma : unidad.formas.entrySet()) {
+            if (forma.getValue() > umbralNMasUno) {
+                sospechas++;
+                registrarAlerta(new AlertaNMasUno(LocalDateTime.now(), unidad.metodo, forma.getKey(), forma.getValue()));
+            }
+        }
+        porMetodo.computeIfAbsent(unidad.metodo, m -> new Acumulado())
+                .sumar(unidad.sentencias, unidad.entidades, unidad.colecciones, tiempoMs, sospechas);
+    }
+
+    /**
+     * Anota una sentencia preparada por Hibernate en la unidad de trabajo del hilo actual.
+     */
+    void registrarSentencia(String sql) {
+        if (!activo) {
+            return;
+        }
+        UnidadTrabajo unidad = unidadActual.get();
+        if (unidad == null) {
+            porMetodo.computeIfAbsent(FUERA_DE_SERVICIOS, m -> new Acumulado()).sumarSentencia();
+            return;
+        }
+        unidad.sentencias++;
+        unidad.formas.merge(forma(sql), 1, Integer::sum);
+    }
+
+    /**
+     * Anota una entidad cargada en la unidad de trabajo del hilo actual.
+     */
+    void registrarEntidad() {
+        UnidadTrabajo unidad = unidadActual.get();
+        if (unidad != null) {
+            unidad.entidades++;
+        }
+    }
+
+    /**
+     * Anota una colección inicializada en la unidad de trabajo del hilo actual.
+     */
+    void registrarColeccion() {
+        UnidadTrabajo unidad = unidadActual.get();
+        if (unidad != null) {
+            unidad.colecciones++;
+        }
+    }
+
+    private void registrarAlerta(AlertaNMasUno alerta) {
+        LOG.warn("Posible N+1 en {}: {} veces la sentencia [{}]", alerta.metodo(), alerta.repeticiones(),
+                alerta.sentencia());
+        synchronized (alertas) {
+            if (alertas.size() == MAX_ALERTAS) {
+                alertas.removeLast();
+            }
+            alertas.addFirst(alerta);
+        }
+    }
+
+    /**
+     * Reduce una sentencia SQL a su forma: sin literales y con las listas IN de
+     * cualquier tamaño reducidas a una, para que las repeticiones se agrupen.
+     */
+    static String forma(String sql) {
+        String forma = CADENAS.matcher(sql).replaceAll("?");
+        forma = NUMEROS.matcher(forma).replaceAll("?");
+        forma = LISTAS_IN.matcher(forma).replaceAll("(?)");
+        return ESPACIOS.matcher(forma).replaceAll(" ").trim().toLowerCase();
+    }
+
+    // ============== CONSULTA ==============
+
+    /**
+     * Contadores por método, de más a menos sentencias.
+     */
+    public List<EstadisticaMetodo> obtenerEstadisticas() {
+        List<EstadisticaMetodo> resultado = new ArrayList<>();
+        porMetodo.forEach((metodo, acumulado) -> resultado.add(acumulado.comoEstadistica(metodo)));
+        resultado.sort(Comparator.comparingLong(EstadisticaMetodo::sentencias).reversed());
+        return resultado;
+    }
+
+    /**
+     * Últimas sospechas de N+1, de la más reciente a la más antigua.
+     */
+    public List<AlertaNMasUno> obtenerAlertas() {
+        synchronized (alertas) {
+            return new ArrayList<>(alertas);
+        }
+    }
+
+    public ResumenHibernate obtenerResumenHibernate() {
+        Statistics stats = estadisticas();
+        return new ResumenHibernate(stats.getPrepareStatementCount(), stats.getQueryExecutionCount(),
+                stats.getEntityLoadCount(), stats.getCollectionFetchCount(), stats.getQueryCacheHitCount(),
+                stats.getQueryExecutionMaxTimeQueryString(), stats.getQueryExecutionMaxTime());
+    }
+
+    public int getUmbralNMasUno() {
+        return umbralNMasUno;
+    }
+
+    /**
+     * Pone a cero los contadores propios y los de Hibernate.
+     */
+    public void reiniciar() {
+        porMetodo.clear();
+        synchronized (alertas) {
+            alertas.clear();
+        }
+        estadisticas().clear();
+    }
+
+    /**
+     * Escribe en el log el resumen por método. Se llama al cerrar la aplicación
+     * y desde el panel de rendimiento.
+     */
+    @PreDestroy
+    public void registrarResumen() {
+        if (!activo || porMetodo.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Resumen de consultas por método de servicio:");
+        for (EstadisticaMetodo e : obtenerEstadisticas()) {
+            sb.append(String.format("%n  %-60s llamadas=%d sentencias=%d (%.1f/llamada) entidades=%d "
+                    + "colecciones=%d tiempo=%dms N+1=%d", e.metodo(), e.llamadas(), e.sentencias(),
+                    e.sentenciasPorLlamada(), e.entidadesCargadas(), e.coleccionesCargadas(), e.tiempoTotalMs(),
+                    e.sospechasNMasUno()));
+        }
+        LOG.info(sb.toString());
+    }
+
+    private Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // ============== ESTRUCTURAS INTERNAS ==============
+
+    private static final class UnidadTrabajo {
+        private final String metodo;
+        private final long inicioNanos = System.nanoTime();
+        private final Map<String, Integer> formas = new HashMap<>();
+        private int profundidad;
+        private long sentencias;
+        private long entidades;
+        private long colecciones;
+
+        private UnidadTrabajo(String metodo) {
+            this.metodo = metodo;
+        }
+    }
+
+    private static final class Acumulado {
+        private long llamadas;
+        private long sentencias;
+        private long entidades;
+        private long colecciones;
+        private long tiempoMs;
+        private long sospechas;
+
+        synchronized void sumar(long sentencias, long entidades, long colecciones, long tiempoMs, int sospechas) {
+            this.llamadas++;
+            this.sentencias += sentencias;
+            this.entidades += entidades;
+            this.colecciones += colecciones;
+            this.tiempoMs += tiempoMs;
+            this.sospechas += sospechas;
+        }
+
+        synchronized void sumarSentencia() {
+            this.sentencias++;
+        }
+
+        synchronized EstadisticaMetodo comoEstadistica(String metodo) {
+            return new EstadisticaMetodo(metodo, llamadas, sentencias, entidades, colecciones, tiempoMs, sospechas);
+        }
+    }
+}
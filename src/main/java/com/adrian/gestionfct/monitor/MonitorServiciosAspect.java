@@ -0,0 +1,29 @@
+package com.adrian.gestionfct.monitor;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delimita una unidad de trabajo del monitor por cada llamada pública a un servicio.
+ */
+@Aspect
+@Component
+public class MonitorServiciosAspect {
+
+    @Autowired
+    private MonitorConsultas monitor;
+
+    @Around("within(com.adrian.gestionfct.services..*) && execution(public * *(..))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        monitor.iniciar(joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            monitor.finalizar();
+        }
+    }
+}
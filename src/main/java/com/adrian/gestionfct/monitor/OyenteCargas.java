@@ -0,0 +1,30 @@
+package com.adrian.gestionfct.monitor;
+
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Recibe de Hibernate cada entidad cargada y cada colección inicializada, en el hilo que
+ * las carga, y se lo pasa al monitor. A diferencia de los contadores de las estadísticas,
+ * que son de todo el proceso, así cada unidad de trabajo cuenta solo sus propias cargas.
+ */
+public class OyenteCargas implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private final MonitorConsultas monitor;
+
+    public OyenteCargas(MonitorConsultas monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent evento) {
+        monitor.registrarEntidad();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent evento) {
+        monitor.registrarColeccion();
+    }
+}
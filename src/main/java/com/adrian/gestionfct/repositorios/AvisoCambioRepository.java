@@ -0,0 +1,31 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.adrian.gestionfct.modelo.AvisoCambio;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AvisoCambioRepository extends JpaRepository<AvisoCambio, Long> {
+
+    @Query("SELECT a FROM AvisoCambio a WHERE a.id > :desde ORDER BY a.id")
+    List<AvisoCambio> findAfter(@Param("desde") long desde, Pageable pageable);
+
+    @Query("SELECT a FROM AvisoCambio a WHERE a.id IN :ids")
+    List<AvisoCambio> findByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM AvisoCambio a")
+    long findLastId();
+
+    @Modifying
+    @Query("DELETE FROM AvisoCambio a WHERE a.fecha < :limite")
+    int deleteOlderThan(@Param("limite") LocalDateTime limite);
+}
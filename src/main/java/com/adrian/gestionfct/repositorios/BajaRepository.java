@@ -0,0 +1,24 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.adrian.gestionfct.modelo.Baja;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BajaRepository extends JpaRepository<Baja, Long> {
+
+    @Query("SELECT b FROM Baja b WHERE b.fechaBaja >= :desde AND b.tabla IN :tablas")
+    List<Baja> findModifiedSince(@Param("desde") LocalDateTime desde, @Param("tablas") Collection<String> tablas);
+
+    @Modifying
+    @Query("DELETE FROM Baja b WHERE b.fechaBaja < :limite")
+    int deleteOlderThan(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,40 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.adrian.gestionfct.modelo.BlobDocumento;
+
+import jakarta.persistence.LockModeType;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tanto el alta como la purga bloquean la fila del contenido hasta el final de la
+ * transacción: una subida del mismo archivo y su purga nunca se cruzan (ver AlmacenDocumentos).
+ */
+@Repository
+public interface BlobDocumentoRepository extends JpaRepository<BlobDocumento, String> {
+
+    /**
+     * Registra el contenido si no existía. Con la fila ya creada no cambia nada, pero la
+     * bloquea igualmente.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO blobs_documento (hash, tamano) VALUES (:hash, :tamano) "
+            + "ON DUPLICATE KEY UPDATE hash = hash", nativeQuery = true)
+    int register(@Param("hash") String hash, @Param("tamano") long tamano);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobDocumento b WHERE b.referencias = 0")
+    List<BlobDocumento> findUnreferencedForUpdate();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobDocumento b WHERE b.hash = :hash")
+    Optional<BlobDocumento> findByHashForUpdate(@Param("hash") String hash);
+}
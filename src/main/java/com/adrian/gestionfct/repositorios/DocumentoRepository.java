@@ -1,17 +1,28 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.adrian.gestionfct.dto.DocumentoRowView;
 import com.adrian.gestionfct.modelo.Documento;
 import com.adrian.gestionfct.modelo.FCT;
 import com.adrian.gestionfct.modelo.TipoDocumento;
 import com.adrian.gestionfct.modelo.Usuario;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DocumentoRepository extends JpaRepository<Documento, Long> {
+public interface DocumentoRepository extends JpaRepository<Documento, Long>, JpaSpecificationExecutor<Documento> {
 
     List<Documento> findByFct(FCT fct);
 
@@ -20,4 +31,57 @@ public interface DocumentoRepository extends JpaRepository<Documento, Long> {
     List<Documento> findByTipo(TipoDocumento tipo);
 
     List<Documento> findByFctAndTipo(FCT fct, TipoDocumento tipo);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "ORDER BY d.fechaSubida DESC")
+    List<DocumentoRowView> findAllRows();
+
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "WHERE d.id = :id")
+    Optional<DocumentoRowView> findRowById(@Param("id") Long id);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "WHERE d.id IN :ids")
+    List<DocumentoRowView> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Filas de los documentos modificados desde la fecha dada. Con las dos siguientes (los
+     * documentos cuyo estudiante o autor ha cambiado) dan todas las filas que hay que poner
+     * al día; como en FCTRepository, una consulta por tabla para que cada una use su índice
+     * de fecha_modificacion.
+     */
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "WHERE d.fechaModificacion >= :desde")
+    List<DocumentoRowView> findModifiedSince(@Param("desde") LocalDateTime desde);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "WHERE e.fechaModificacion >= :desde")
+    List<DocumentoRowView> findRowsWithStudentModifiedSince(@Param("desde") LocalDateTime desde);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.DocumentoRowView(d.id, d.nombre, d.tipo, e.nombre, e.apellidos, "
+            + "d.fechaSubida, d.tamano, a.nombre, a.apellidos, d.descripcion, f.id) "
+            + "FROM Documento d JOIN d.fct f JOIN f.estudiante e JOIN d.autor a "
+            + "WHERE a.fechaModificacion >= :desde")
+    List<DocumentoRowView> findRowsWithAuthorModifiedSince(@Param("desde") LocalDateTime desde);
+
+    @EntityGraph(attributePaths = { "fct", "fct.estudiante", "fct.empresa", "autor" })
+    @Query("SELECT d FROM Documento d WHERE d.id = :id")
+    Optional<Documento> findByIdForDetail(@Param("id") Long id);
+
+    /**
+     * Búsqueda paginada con filtros en SQL; cada página trae FCT, estudiante y autor en la misma SELECT.
+     */
+    @Override
+    @EntityGraph(attributePaths = { "fct", "fct.estudiante", "autor" })
+    Page<Documento> findAll(Specification<Documento> spec, Pageable pageable);
 }
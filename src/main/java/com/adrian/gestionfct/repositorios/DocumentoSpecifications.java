@@ -0,0 +1,48 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.modelo.FCT;
+import com.adrian.gestionfct.modelo.TipoDocumento;
+
+/**
+ * Filtros de búsqueda de documentos que se traducen a SQL.
+ * Cada método devuelve null cuando el filtro no aplica.
+ */
+public final class DocumentoSpecifications {
+
+    /** Escape de los comodines en los LIKE: la barra invertida no vale igual en todas las bases. */
+    private static final char ESCAPE = '!';
+
+    private DocumentoSpecifications() {
+    }
+
+    public static Specification<Documento> deTipo(TipoDocumento tipo) {
+        if (tipo == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("tipo"), tipo);
+    }
+
+    public static Specification<Documento> deFct(FCT fct) {
+        if (fct == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("fct").get("id"), fct.getId());
+    }
+
+    /**
+     * Busca el texto en el nombre o en la descripción del documento. Un % o un _ escritos
+     * por el usuario se buscan tal cual ("informe_final", "100%"), no como comodines.
+     */
+    public static Specification<Documento> conTexto(String texto) {
+        if (texto == null || texto.isBlank()) return null;
+        String patron = "%" + escaparLike(texto.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.<String>get("nombre")), patron, ESCAPE),
+            cb.like(cb.lower(root.<String>get("descripcion")), patron, ESCAPE));
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace(String.valueOf(ESCAPE), "" + ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+    }
+}
@@ -1,15 +1,21 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.adrian.gestionfct.dto.EmpresaRowView;
 import com.adrian.gestionfct.modelo.Empresa;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
+public interface EmpresaRepository extends JpaRepository<Empresa, Long>, JpaSpecificationExecutor<Empresa> {
 
     Optional<Empresa> findByNif(String nif);
 
@@ -17,9 +23,21 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
 
     List<Empresa> findByActivaTrue();
 
-    List<Empresa> findByNombreContainingIgnoreCase(String nombre);
+    /**
+     * Búsqueda sobre el índice FULLTEXT de clave_busqueda (nombre, NIF y localidad).
+     */
+    @Query("SELECT e FROM Empresa e WHERE coincide_texto(e.claveBusqueda, :consulta) > 0 ORDER BY e.nombre")
+    List<Empresa> buscarPorClave(@Param("consulta") String consulta, Pageable pageable);
 
     boolean existsByNif(String nif);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.EmpresaRowView(e.id, e.nombre, e.nif, e.email, e.telefono, "
+            + "e.localidad, e.activa, e.claveBusqueda) FROM Empresa e ORDER BY e.nombre")
+    List<EmpresaRowView> findAllRows();
+
+    @Query("SELECT new com.adrian.gestionfct.dto.EmpresaRowView(e.id, e.nombre, e.nif, e.email, e.telefono, "
+            + "e.localidad, e.activa, e.claveBusqueda) FROM Empresa e WHERE e.fechaModificacion >= :desde")
+    List<EmpresaRowView> findModifiedSince(@Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,32 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+import com.adrian.gestionfct.modelo.Empresa;
+
+/**
+ * Filtros de búsqueda de empresas que se traducen a SQL.
+ * Cada método devuelve null cuando el filtro no aplica.
+ */
+public final class EmpresaSpecifications {
+
+    private EmpresaSpecifications() {
+    }
+
+    public static Specification<Empresa> conActiva(Boolean activa) {
+        if (activa == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("activa"), activa);
+    }
+
+    /**
+     * Busca el texto en el nombre, el NIF o la localidad de la empresa
+     * a través del índice FULLTEXT de la clave de búsqueda.
+     */
+    public static Specification<Empresa> conTexto(String texto) {
+        String consulta = ClaveBusqueda.consultaPrefijos(texto);
+        if (consulta == null) return null;
+        return (root, query, cb) -> cb.gt(cb.function(FuncionesBusqueda.COINCIDE_TEXTO, Double.class,
+                root.<String>get("claveBusqueda"), cb.literal(consulta)), 0);
+    }
+}
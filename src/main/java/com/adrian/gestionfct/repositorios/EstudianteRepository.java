@@ -1,13 +1,16 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.adrian.gestionfct.dto.EstudianteRowView;
 import com.adrian.gestionfct.modelo.Estudiante;
 import com.adrian.gestionfct.modelo.Usuario;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +31,25 @@ public interface EstudianteRepository extends JpaRepository<Estudiante, Long> {
 
     List<Estudiante> findByCicloAndGrupo(String ciclo, String grupo);
 
+    // Ciclos y grupos para la asignación en bloque (idx_estudiantes_ciclo_grupo)
+
+    @Query("SELECT DISTINCT e.ciclo FROM Estudiante e WHERE e.activo = true ORDER BY e.ciclo")
+    List<String> findCiclosActivos();
+
+    @Query("SELECT DISTINCT e.grupo FROM Estudiante e WHERE e.ciclo = :ciclo AND e.activo = true ORDER BY e.grupo")
+    List<String> findGruposActivosByCiclo(@Param("ciclo") String ciclo);
+
+    /**
+     * Estudiantes activos del curso (y del ciclo, si se indica) que aún no tienen FCT en el
+     * periodo: los candidatos de la colocación automática.
+     */
+    @Query("SELECT e FROM Estudiante e WHERE e.activo = true "
+            + "AND (:curso IS NULL OR e.cursoActual = :curso) AND (:ciclo IS NULL OR e.ciclo = :ciclo) "
+            + "AND NOT EXISTS (SELECT f.id FROM FCT f WHERE f.estudiante = e AND f.periodo.id = :periodoId) "
+            + "ORDER BY e.apellidos, e.nombre")
+    List<Estudiante> findSinFctEnPeriodo(@Param("periodoId") Long periodoId, @Param("curso") Integer curso,
+            @Param("ciclo") String ciclo);
+
     boolean existsByDni(String dni);
     
     Optional<Estudiante> findByEmail(String email);
@@ -35,8 +57,26 @@ public interface EstudianteRepository extends JpaRepository<Estudiante, Long> {
     boolean existsByEmail(String email);
 
 
-    @Query("SELECT e FROM Estudiante e WHERE LOWER(e.nombre) LIKE LOWER(CONCAT('%', :busqueda, '%')) OR LOWER(e.apellidos) LIKE LOWER(CONCAT('%', :busqueda, '%'))")
-    List<Estudiante> buscarPorNombreOApellidos(@Param("busqueda") String busqueda);
+    /**
+     * Búsqueda sobre el índice FULLTEXT de clave_busqueda.
+     * La consulta se genera con {@link com.adrian.gestionfct.modelo.ClaveBusqueda#consultaPrefijos(String)}.
+     */
+    @Query("SELECT e FROM Estudiante e WHERE coincide_texto(e.claveBusqueda, :consulta) > 0 "
+            + "ORDER BY e.apellidos, e.nombre")
+    List<Estudiante> buscarPorClave(@Param("consulta") String consulta, Pageable pageable);
 
     List<Estudiante> findAllByOrderByApellidosAsc();
+
+    @Query("SELECT new com.adrian.gestionfct.dto.EstudianteRowView(e.id, e.nombre, e.apellidos, e.email, e.ciclo, "
+            + "e.grupo) FROM Estudiante e ORDER BY e.apellidos")
+    List<EstudianteRowView> findAllRows();
+
+    @Query("SELECT new com.adrian.gestionfct.dto.EstudianteRowView(e.id, e.nombre, e.apellidos, e.email, e.ciclo, "
+            + "e.grupo) FROM Estudiante e WHERE coincide_texto(e.claveBusqueda, :consulta) > 0 "
+            + "ORDER BY e.apellidos, e.nombre")
+    List<EstudianteRowView> buscarFilasPorClave(@Param("consulta") String consulta, Pageable pageable);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.EstudianteRowView(e.id, e.nombre, e.apellidos, e.email, e.ciclo, "
+            + "e.grupo) FROM Estudiante e WHERE e.fechaModificacion >= :desde")
+    List<EstudianteRowView> findModifiedSince(@Param("desde") LocalDateTime desde);
 }
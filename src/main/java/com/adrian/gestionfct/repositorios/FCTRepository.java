@@ -1,14 +1,28 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.adrian.gestionfct.dto.CargaTutor;
+import com.adrian.gestionfct.dto.FctRowView;
+import com.adrian.gestionfct.dto.PlazaFct;
+import com.adrian.gestionfct.dto.VersionDatos;
 import com.adrian.gestionfct.modelo.*;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface FCTRepository extends JpaRepository<FCT, Long> {
+public interface FCTRepository extends JpaRepository<FCT, Long>, JpaSpecificationExecutor<FCT> {
 
     List<FCT> findByEstudiante(Estudiante estudiante);
 
@@ -27,4 +41,123 @@ public interface FCTRepository extends JpaRepository<FCT, Long> {
     List<FCT> findByCursoAcademicoAndEstado(CursoAcademico cursoAcademico, EstadoFCT estado);
 
     boolean existsByEstudianteAndPeriodo(Estudiante estudiante, Periodo periodo);
+
+    /**
+     * Cuáles de los estudiantes dados tienen ya FCT en el periodo; una sola consulta sobre
+     * uk_estudiante_periodo para todo un grupo.
+     */
+    @Query("SELECT f.estudiante.id FROM FCT f WHERE f.periodo.id = :periodoId AND f.estudiante.id IN :estudianteIds")
+    List<Long> findEstudiantesConFct(@Param("periodoId") Long periodoId,
+            @Param("estudianteIds") Collection<Long> estudianteIds);
+
+    long countByEstado(EstadoFCT estado);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.CargaTutor(f.tutorEmpresa.id, count(f)) FROM FCT f "
+            + "WHERE f.estado = :estado GROUP BY f.tutorEmpresa.id")
+    List<CargaTutor> countByTutorEmpresaAndEstado(@Param("estado") EstadoFCT estado);
+
+    long countByEmpresa(Empresa empresa);
+
+    /** FCT que ocupan plaza (las no canceladas) de una empresa en un periodo. */
+    @Query("SELECT count(f) FROM FCT f WHERE f.empresa.id = :empresaId AND f.periodo.id = :periodoId "
+            + "AND f.estado <> com.adrian.gestionfct.modelo.EstadoFCT.CANCELADA")
+    long countOcupandoPlaza(@Param("empresaId") Long empresaId, @Param("periodoId") Long periodoId);
+
+    /** Empresa y periodo de la plaza que ocupa la FCT; vacío si está cancelada. */
+    @Query("SELECT new com.adrian.gestionfct.dto.PlazaFct(f.empresa.id, f.periodo.id) FROM FCT f "
+            + "WHERE f.id = :id AND f.estado <> com.adrian.gestionfct.modelo.EstadoFCT.CANCELADA")
+    Optional<PlazaFct> findPlazaById(@Param("id") Long id);
+
+    boolean existsByEmpresa(Empresa empresa);
+
+    /**
+     * Número de filas y última modificación de la tabla: si no cambian, los datos ya
+     * cargados de las FCT siguen al día (una inserción o un borrado cambian el número,
+     * una edición la fecha).
+     */
+    @Query("SELECT new com.adrian.gestionfct.dto.VersionDatos(count(f), max(f.fechaModificacion)) FROM FCT f")
+    VersionDatos obtenerVersion();
+
+    // Consultas de listado: traen estudiante, empresa, tutor, periodo y curso en la misma SELECT
+
+    @EntityGraph(FCT.GRAFO_LISTADO)
+    @Query("SELECT f FROM FCT f ORDER BY f.id")
+    List<FCT> findAllForListing();
+
+    @EntityGraph(FCT.GRAFO_LISTADO)
+    @Query("SELECT f FROM FCT f WHERE f.estado = :estado ORDER BY f.id")
+    List<FCT> findByEstadoForListing(@Param("estado") EstadoFCT estado);
+
+    @EntityGraph(FCT.GRAFO_LISTADO)
+    @Query("SELECT f FROM FCT f WHERE f.id = :id")
+    Optional<FCT> findByIdForListing(@Param("id") Long id);
+
+    /**
+     * Búsqueda paginada con filtros en SQL; cada página trae sus asociaciones en la misma SELECT.
+     */
+    @Override
+    @EntityGraph(FCT.GRAFO_LISTADO)
+    Page<FCT> findAll(Specification<FCT> spec, Pageable pageable);
+
+    // Proyecciones de solo lectura para las tablas
+
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "ORDER BY f.id")
+    List<FctRowView> findAllRows();
+
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE f.id = :id")
+    Optional<FctRowView> findRowById(@Param("id") Long id);
+
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE p.id = :periodoId AND e.id IN :estudianteIds ORDER BY f.id")
+    List<FctRowView> findRowsByPeriodoAndEstudiantes(@Param("periodoId") Long periodoId,
+            @Param("estudianteIds") Collection<Long> estudianteIds);
+
+    /**
+     * Filas de las FCT modificadas desde la fecha dada. Con las tres siguientes (las FCT
+     * cuyo estudiante, empresa o tutor ha cambiado) dan todas las filas que hay que poner
+     * al día. Es una consulta por tabla y no una con OR, que no podría usar ningún índice
+     * y recorrería todas las FCT en cada pasada: así cada una parte del índice de
+     * fecha_modificacion de su tabla (V5 y V6). SincronizacionService las une por id.
+     */
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE f.fechaModificacion >= :desde")
+    List<FctRowView> findModifiedSince(@Param("desde") LocalDateTime desde);
+
+    /** Filas de las FCT cuyo estudiante se ha modificado desde la fecha dada. */
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE e.fechaModificacion >= :desde")
+    List<FctRowView> findRowsWithStudentModifiedSince(@Param("desde") LocalDateTime desde);
+
+    /** Filas de las FCT cuya empresa se ha modificado desde la fecha dada. */
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE emp.fechaModificacion >= :desde")
+    List<FctRowView> findRowsWithCompanyModifiedSince(@Param("desde") LocalDateTime desde);
+
+    /** Filas de las FCT cuyo tutor se ha modificado desde la fecha dada. */
+    @Query("SELECT new com.adrian.gestionfct.dto.FctRowView(f.id, e.nombre, e.apellidos, emp.nombre, "
+            + "t.nombre, t.apellidos, p.nombre, f.estado, f.horasRealizadas, f.horasTotales, f.cursoAcademico.id, "
+            + "e.claveBusqueda, emp.claveBusqueda) "
+            + "FROM FCT f JOIN f.estudiante e JOIN f.empresa emp JOIN f.tutorEmpresa t JOIN f.periodo p "
+            + "WHERE t.fechaModificacion >= :desde")
+    List<FctRowView> findRowsWithTutorModifiedSince(@Param("desde") LocalDateTime desde);
 }
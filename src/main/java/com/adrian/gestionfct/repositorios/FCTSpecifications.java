@@ -0,0 +1,51 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+import com.adrian.gestionfct.modelo.CursoAcademico;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.EstadoFCT;
+import com.adrian.gestionfct.modelo.Estudiante;
+import com.adrian.gestionfct.modelo.FCT;
+
+import jakarta.persistence.criteria.Join;
+
+/**
+ * Filtros de búsqueda de FCT que se traducen a SQL.
+ * Cada método devuelve null cuando el filtro no aplica, de modo que se pueden
+ * combinar libremente con {@link Specification#and(Specification)}.
+ */
+public final class FCTSpecifications {
+
+    private FCTSpecifications() {
+    }
+
+    public static Specification<FCT> conEstado(EstadoFCT estado) {
+        if (estado == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("estado"), estado);
+    }
+
+    public static Specification<FCT> deCursoAcademico(CursoAcademico curso) {
+        if (curso == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("cursoAcademico").get("id"), curso.getId());
+    }
+
+    /**
+     * Busca el texto en la clave de búsqueda del estudiante o de la empresa,
+     * sin distinguir tildes ni mayúsculas.
+     */
+    public static Specification<FCT> conTexto(String texto) {
+        String consulta = ClaveBusqueda.consultaPrefijos(texto);
+        if (consulta == null) return null;
+        return (root, query, cb) -> {
+            Join<FCT, Estudiante> estudiante = root.join("estudiante");
+            Join<FCT, Empresa> empresa = root.join("empresa");
+            return cb.or(
+                cb.gt(cb.function(FuncionesBusqueda.COINCIDE_TEXTO, Double.class,
+                        estudiante.<String>get("claveBusqueda"), cb.literal(consulta)), 0),
+                cb.gt(cb.function(FuncionesBusqueda.COINCIDE_TEXTO, Double.class,
+                        empresa.<String>get("claveBusqueda"), cb.literal(consulta)), 0));
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registra en Hibernate la función coincide_texto, que se traduce a
+ * MATCH(columna) AGAINST(consulta IN BOOLEAN MODE) de MySQL para poder usar el
+ * índice FULLTEXT de clave_busqueda desde JPQL y desde las Specifications.
+ *
+ * Devuelve la relevancia, así que se usa como {@code coincide_texto(e.claveBusqueda, :consulta) > 0}.
+ * Se da de alta en META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class FuncionesBusqueda implements FunctionContributor {
+
+    public static final String COINCIDE_TEXTO = "coincide_texto";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                COINCIDE_TEXTO,
+                "match(?1) against(?2 in boolean mode)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -1,5 +1,6 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -20,5 +21,6 @@ public interface PeriodoRepository extends JpaRepository<Periodo, Long> {
 
     List<Periodo> findByCursoAcademicoAndCurso(CursoAcademico cursoAcademico, Integer curso);
 
+    @EntityGraph(attributePaths = "cursoAcademico")
     List<Periodo> findByActivoTrue();
 }
@@ -0,0 +1,52 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.adrian.gestionfct.modelo.PlazasEmpresa;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Los contadores de plazas se cambian solo con UPDATE condicionales: la condición se
+ * evalúa sobre la fila bloqueada, así que de dos reservas simultáneas de la última plaza
+ * solo una actualiza la fila y la otra recibe 0.
+ */
+@Repository
+public interface PlazasEmpresaRepository extends JpaRepository<PlazasEmpresa, Long> {
+
+    List<PlazasEmpresa> findByPeriodoId(Long periodoId);
+
+    Optional<PlazasEmpresa> findByEmpresaIdAndPeriodoId(Long empresaId, Long periodoId);
+
+    @Modifying
+    @Query("UPDATE PlazasEmpresa p SET p.ocupadas = p.ocupadas + :plazas "
+            + "WHERE p.empresa.id = :empresaId AND p.periodo.id = :periodoId AND p.ocupadas + :plazas <= p.plazas")
+    int reserve(@Param("empresaId") Long empresaId, @Param("periodoId") Long periodoId, @Param("plazas") int plazas);
+
+    @Modifying
+    @Query("UPDATE PlazasEmpresa p SET p.ocupadas = p.ocupadas - :plazas "
+            + "WHERE p.empresa.id = :empresaId AND p.periodo.id = :periodoId AND p.ocupadas >= :plazas")
+    int release(@Param("empresaId") Long empresaId, @Param("periodoId") Long periodoId, @Param("plazas") int plazas);
+
+    @Modifying
+    @Query("UPDATE PlazasEmpresa p SET p.plazas = :plazas "
+            + "WHERE p.empresa.id = :empresaId AND p.periodo.id = :periodoId AND p.ocupadas <= :plazas")
+    int updatePlazas(@Param("empresaId") Long empresaId, @Param("periodoId") Long periodoId,
+            @Param("plazas") int plazas);
+
+    /**
+     * Vuelve a contar las plazas ocupadas con las FCT no canceladas, sin pasar del cupo. La
+     * subconsulta de un UPDATE bloquea en InnoDB las filas que cuenta, así que ninguna FCT
+     * de la empresa en el periodo se confirma entre la cuenta y la escritura.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE plazas_empresa p SET p.ocupadas = LEAST(p.plazas, (SELECT COUNT(*) FROM fcts f "
+            + "WHERE f.empresa_id = p.empresa_id AND f.periodo_id = p.periodo_id AND f.estado <> 'CANCELADA')) "
+            + "WHERE p.empresa_id = :empresaId AND p.periodo_id = :periodoId", nativeQuery = true)
+    int recount(@Param("empresaId") Long empresaId, @Param("periodoId") Long periodoId);
+}
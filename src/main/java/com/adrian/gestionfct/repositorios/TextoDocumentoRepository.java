@@ -0,0 +1,44 @@
+package com.adrian.gestionfct.repositorios;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.adrian.gestionfct.dto.RelevanciaTexto;
+import com.adrian.gestionfct.modelo.TextoDocumento;
+import com.adrian.gestionfct.modelo.TipoDocumento;
+
+import java.util.List;
+
+@Repository
+public interface TextoDocumentoRepository extends JpaRepository<TextoDocumento, Long> {
+
+    /**
+     * Documentos sin texto extraído todavía o cuya extracción falló, del más antiguo al
+     * más nuevo.
+     */
+    @Query("SELECT d.id FROM Documento d WHERE NOT EXISTS "
+            + "(SELECT 1 FROM TextoDocumento t WHERE t.documentoId = d.id "
+            + "AND t.estado <> com.adrian.gestionfct.modelo.TextoDocumento.Estado.ERROR) ORDER BY d.id")
+    List<Long> findDocumentIdsToIndex();
+
+    /**
+     * Documentos cuyo texto contiene todos los términos de la consulta (en modo booleano,
+     * ver ClaveBusqueda.consultaPrefijos), del más relevante al menos. Los filtros nulos
+     * no se aplican.
+     */
+    @Query(value = "SELECT new com.adrian.gestionfct.dto.RelevanciaTexto(t.documentoId, "
+            + "coincide_texto(t.claveBusqueda, :consulta)) "
+            + "FROM TextoDocumento t JOIN Documento d ON d.id = t.documentoId "
+            + "WHERE coincide_texto(t.claveBusqueda, :consulta) > 0 "
+            + "AND (:tipo IS NULL OR d.tipo = :tipo) AND (:fctId IS NULL OR d.fct.id = :fctId) "
+            + "ORDER BY coincide_texto(t.claveBusqueda, :consulta) DESC, t.documentoId DESC",
+            countQuery = "SELECT COUNT(t) FROM TextoDocumento t JOIN Documento d ON d.id = t.documentoId "
+            + "WHERE coincide_texto(t.claveBusqueda, :consulta) > 0 "
+            + "AND (:tipo IS NULL OR d.tipo = :tipo) AND (:fctId IS NULL OR d.fct.id = :fctId)")
+    Page<RelevanciaTexto> searchByContent(@Param("consulta") String consulta, @Param("tipo") TipoDocumento tipo,
+            @Param("fctId") Long fctId, Pageable pageable);
+}
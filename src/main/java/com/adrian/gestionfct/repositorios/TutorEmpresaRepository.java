@@ -1,12 +1,17 @@
 package com.adrian.gestionfct.repositorios;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.adrian.gestionfct.modelo.Empresa;
 import com.adrian.gestionfct.modelo.TutorEmpresa;
 import com.adrian.gestionfct.modelo.Usuario;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,13 +20,29 @@ public interface TutorEmpresaRepository extends JpaRepository<TutorEmpresa, Long
 
     Optional<TutorEmpresa> findByUsuario(Usuario usuario);
 
+    @Query("SELECT t FROM TutorEmpresa t WHERE t.fechaModificacion >= :desde")
+    List<TutorEmpresa> findModifiedSince(@Param("desde") LocalDateTime desde);
+
+    @EntityGraph(attributePaths = "empresa")
     List<TutorEmpresa> findByEmpresa(Empresa empresa);
 
     List<TutorEmpresa> findByActivoTrue();
 
+    @EntityGraph(attributePaths = "empresa")
+    @Query("SELECT t FROM TutorEmpresa t WHERE t.activo = true AND t.empresa.activa = true")
+    List<TutorEmpresa> findActivosDeEmpresasActivas();
+
     List<TutorEmpresa> findByEmpresaAndActivoTrue(Empresa empresa);
 
     Optional<TutorEmpresa> findByDni(String dni);
 
     boolean existsByDni(String dni);
+
+    /**
+     * Búsqueda sobre el índice FULLTEXT de clave_busqueda (nombre, apellidos, DNI y email).
+     */
+    @EntityGraph(attributePaths = "empresa")
+    @Query("SELECT t FROM TutorEmpresa t WHERE coincide_texto(t.claveBusqueda, :consulta) > 0 "
+            + "ORDER BY t.apellidos, t.nombre")
+    List<TutorEmpresa> buscarPorClave(@Param("consulta") String consulta, Pageable pageable);
 }
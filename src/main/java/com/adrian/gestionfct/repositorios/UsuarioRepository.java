@@ -1,11 +1,14 @@
 package com.adrian.gestionfct.repositorios;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.adrian.gestionfct.modelo.Rol;
 import com.adrian.gestionfct.modelo.Usuario;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +26,9 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     List<Usuario> findByRolAndActivoTrue(Rol rol);
 
     boolean existsByEmail(String email);
+
+    long countByRol(Rol rol);
+
+    @Query("SELECT u FROM Usuario u WHERE u.fechaModificacion >= :desde")
+    List<Usuario> findModifiedSince(@Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,632 @@
+package com.adrian.gestionfct.services;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.exception.OperacionNoPermitidaException;
+import com.adrian.gestionfct.modelo.BlobDocumento;
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.modelo.FCT;
+import com.adrian.gestionfct.repositorios.BlobDocumentoRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Almacén gestionado de los archivos de los documentos, direccionado por contenido.
+ *
+ * Cada archivo se guarda una sola vez con su SHA-256 como nombre, repartido en dos niveles
+ * de carpetas ({@code ab/cd/abcd...}); los documentos con el mismo contenido (el mismo
+ * convenio subido para toda una clase) comparten el archivo. La subida va en dos pasos:
+ * {@link #preparar} copia el archivo a una carpeta temporal del almacén calculando el hash
+ * durante la copia, sin transacción abierta; {@link #incorporar} lo mueve a su sitio y da
+ * de alta el documento en una transacción corta. El documento solo llega a la base de
+ * datos con el archivo completo y comprobado.
+ *
+ * La copia va por bloques y, tras cada uno, se apunta en un archivo de marca hasta dónde
+ * está copiado y escrito en disco. Una subida interrumpida (cancelada, cortada la red o
+ * cerrada la aplicación) continúa desde el último bloque apuntado al subir otra vez el
+ * mismo archivo sin cambios.
+ *
+ * Los archivos del almacén son de solo lectura: {@link #paraAbrir} los enlaza en vez de
+ * copiarlos y un programa que guardase encima del enlace cambiaría el contenido de todos
+ * los documentos que lo comparten.
+ *
+ * Los documentos que usan cada contenido los cuentan los disparadores de V11. Tras cada
+ * baja se purgan los contenidos que se han quedado sin documentos. La fila del contenido
+ * se bloquea tanto al incorporarlo como al purgarlo, así que una subida del mismo archivo
+ * nunca encuentra el archivo a medio borrar.
+ *
+ * Con {@code gestionfct.documentos.paquetes.activos} los contenidos pequeños (los
+ * formularios escaneados, que son la mayoría) se guardan en {@link PaquetesDocumentos} en
+ * vez de en un archivo cada uno; los grandes siguen sueltos. Los que ya estaban sueltos se
+ * pasan a los paquetes con {@link #empaquetarSueltos()}. Al leer se busca primero en los
+ * paquetes y después suelto.
+ *
+ * Si varios puestos comparten la base de datos, el directorio debe ser una carpeta
+ * compartida por todos. Los paquetes, en cambio, los escribe un solo proceso: se bloquean
+ * al arrancar y, si otro puesto ya los tiene activos en la misma carpeta, la aplicación no
+ * arranca (hay que dejar {@code paquetes.activos} solo en uno, o en ninguno).
+ */
+@Service
+public class AlmacenDocumentos {
+
+    private static final String TEMPORALES = "tmp";
+    /** Bytes que se copian entre dos marcas de una subida. */
+    static final long BLOQUE_SUBIDA = 4L * 1024 * 1024;
+    private static final int BUFFER_SUBIDA = 1024 * 1024;
+    /** Días que se guardan las subidas interrumpidas para continuarlas. */
+    private static final int DIAS_TEMPORALES = 7;
+    private static final String ABIERTOS = "abiertos";
+    private static final String PAQUETES = "paquetes";
+
+    private static final Logger LOG = getLogger(AlmacenDocumentos.class);
+
+    @Autowired
+    private BlobDocumentoRepository blobRepository;
+
+    private final Path directorio;
+    /** Enlaces para abrir los documentos con el visor del sistema, de este puesto. */
+    private final Path abiertos;
+    private final TransactionTemplate transaccionPropia;
+    /** Claves de las subidas en curso en este puesto: cada una escribe en su propio temporal. */
+    private final Set<String> subiendo = ConcurrentHashMap.newKeySet();
+    /** Null si los paquetes no están activos. */
+    private final PaquetesDocumentos paquetes;
+    /** Los contenidos de hasta este tamaño van a los paquetes. */
+    private final long maximoEmpaquetado;
+
+    public AlmacenDocumentos(@Value("${gestionfct.documentos.directorio}") String directorio,
+            @Value("${gestionfct.documentos.paquetes.activos:false}") boolean paquetesActivos,
+            @Value("${gestionfct.documentos.paquetes.max-kb-documento:1024}") long maxKbDocumento,
+            @Value("${gestionfct.documentos.paquetes.max-mb-paquete:512}") long maxMbPaquete,
+            PlatformTransactionManager transactionManager) {
+        this.directorio = Path.of(directorio).toAbsolutePath();
+        this.abiertos = this.directorio.resolve(ABIERTOS).resolve(puesto().replaceAll("[^A-Za-z0-9._-]", "_"));
+        // La purga se lanza al confirmarse otra transacción y necesita la suya
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maximoEmpaquetado = maxKbDocumento * 1024;
+        try {
+            this.paquetes = paquetesActivos
+                    ? new PaquetesDocumentos(this.directorio.resolve(PAQUETES), maxMbPaquete * 1024 * 1024)
+                    : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron abrir los paquetes de documentos: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        if (paquetes != null) {
+            paquetes.close();
+        }
+    }
+
+    /**
+     * Archivo copiado a la carpeta temporal del almacén, pendiente de incorporar.
+     */
+    public record ArchivoPreparado(Path temporal, String hash, long tamano) {
+    }
+
+    /**
+     * Copia el archivo a la carpeta temporal del almacén y calcula su SHA-256 a la vez, o
+     * continúa la copia si una subida anterior del mismo archivo se quedó a medias. Al
+     * terminar se relee la copia del disco y se compara su hash con el de lo leído del
+     * original.
+     *
+     * @throws IOException si falla la copia; lo copiado hasta el último bloque apuntado se
+     *                     conserva para continuar
+     */
+    public ArchivoPreparado preparar(Path origen, CopiaArchivos.Progreso progreso) throws IOException {
+        BasicFileAttributes atributos = Files.readAttributes(origen, BasicFileAttributes.class);
+        long tamano = atributos.size();
+        FileTime modificado = atributos.lastModifiedTime();
+        String clave = claveSubida(origen, tamano, modificado);
+        if (!subiendo.add(clave)) {
+            throw new OperacionNoPermitidaException("subir " + origen.getFileName(), "ya se está subiendo");
+        }
+        try {
+            Path temporales = Files.createDirectories(directorio.resolve(TEMPORALES));
+            Path temporal = temporales.resolve(clave + ".part");
+            Path marca = marcaDe(temporal);
+            String hash = copiarPorBloques(origen, tamano, temporal, marca, progreso);
+
+            if (!Files.getLastModifiedTime(origen).equals(modificado) || Files.size(origen) != tamano) {
+                Files.deleteIfExists(marca);
+                Files.deleteIfExists(temporal);
+                throw new IOException("El archivo ha cambiado mientras se subía");
+            }
+            if (!hash.equals(CopiaArchivos.sha256(temporal))) {
+                Files.deleteIfExists(marca);
+                Files.deleteIfExists(temporal);
+                throw new IOException("La copia no coincide con el original");
+            }
+            // La marca se queda hasta descartar(): si falla el alta, la próxima subida
+            // solo tiene que volver a comprobar la copia
+            return new ArchivoPreparado(temporal, hash, tamano);
+        } finally {
+            subiendo.remove(clave);
+        }
+    }
+
+    private String copiarPorBloques(Path origen, long tamano, Path temporal, Path marca,
+            CopiaArchivos.Progreso progreso) throws IOException {
+        MessageDigest sha = CopiaArchivos.nuevoSha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SUBIDA);
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+                FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            // Lo ya apuntado se relee del temporal para seguir el hash; lo escrito después
+            // de la última marca puede estar incompleto y se descarta
+            long posicion = Math.min(leerMarca(marca), Math.min(salida.size(), tamano));
+            CopiaArchivos.actualizar(sha, salida, 0, posicion);
+            salida.truncate(posicion);
+            progreso.avance(posicion, tamano);
+
+            while (posicion < tamano) {
+                long finBloque = Math.min(posicion + BLOQUE_SUBIDA, tamano);
+                while (posicion < finBloque) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), finBloque - posicion));
+                    if (entrada.read(buffer, posicion) < 0) {
+                        throw new IOException("El archivo ha cambiado mientras se subía");
+                    }
+                    buffer.flip();
+                    sha.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        posicion += salida.write(buffer, posicion);
+                    }
+                }
+                salida.force(false);
+                apuntarMarca(marca, posicion);
+                progreso.avance(posicion, tamano);
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /**
+     * Identifica la subida de un archivo concreto en un puesto, para encontrar su temporal
+     * si se interrumpe. Si el archivo cambia, la clave cambia y se empieza de cero.
+     */
+    private static String claveSubida(Path origen, long tamano, FileTime modificado) {
+        String identidad = puesto() + "|" + origen.toAbsolutePath() + "|" + tamano + "|" + modificado.toMillis();
+        MessageDigest sha = CopiaArchivos.nuevoSha256();
+        return HexFormat.of().formatHex(sha.digest(identidad.getBytes(StandardCharsets.UTF_8))).substring(0, 32);
+    }
+
+    private static String puesto() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "local";
+        }
+    }
+
+    private static Path marcaDe(Path temporal) {
+        return temporal.resolveSibling(temporal.getFileName().toString().replace(".part", ".marca"));
+    }
+
+    private static long leerMarca(Path marca) {
+        try {
+            return Long.parseLong(Files.readString(marca).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Sustituye la marca de una vez, para que un corte nunca deje una marca a medio escribir.
+     */
+    private static void apuntarMarca(Path marca, long posicion) throws IOException {
+        Path nueva = marca.resolveSibling(marca.getFileName() + ".nueva");
+        Files.writeString(nueva, Long.toString(posicion));
+        Files.move(nueva, marca, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Registra el contenido, lo mueve a su sitio (o lo añade a los paquetes) si no estaba
+     * ya y ejecuta {@code alta} (el guardado del documento) en la misma transacción. Si la
+     * transacción se deshace, el archivo (o la entrada del paquete) que se haya puesto
+     * aquí se quita también: la fila del contenido desaparece con ella y la purga, que
+     * parte de las filas, no lo encontraría nunca.
+     */
+    @Transactional
+    public <T> T incorporar(ArchivoPreparado archivo, Supplier<T> alta) {
+        blobRepository.register(archivo.hash(), archivo.tamano());
+        Path destino = ubicacion(archivo.hash());
+        try {
+            boolean yaEsta = Files.exists(destino);
+            if (!yaEsta && empaquetable(archivo.tamano())) {
+                if (!paquetes.contiene(archivo.hash())) {
+                    paquetes.anadir(archivo.hash(), archivo.temporal());
+                    deshacerAlFallar(archivo.hash(), true);
+                }
+            } else if (!yaEsta) {
+                Files.createDirectories(destino.getParent());
+                Files.move(archivo.temporal(), destino, StandardCopyOption.ATOMIC_MOVE);
+                deshacerAlFallar(archivo.hash(), false);
+                soloLectura(destino);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return alta.get();
+    }
+
+    private void deshacerAlFallar(String hash, boolean empaquetado) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == STATUS_ROLLED_BACK) {
+                    quitarIncorporado(hash, empaquetado);
+                }
+            }
+        });
+    }
+
+    /**
+     * Quita el contenido puesto por una incorporación deshecha, salvo que otra subida del
+     * mismo contenido lo haya registrado entretanto. La consulta bloquea la fila (o el
+     * hueco donde iría), así que esa subida espera a que se haya quitado y lo vuelve a poner.
+     */
+    private void quitarIncorporado(String hash, boolean empaquetado) {
+        try {
+            transaccionPropia.executeWithoutResult(estado -> {
+                if (blobRepository.findByHashForUpdate(hash).isPresent()) {
+                    return;
+                }
+                if (empaquetado) {
+                    paquetes.quitar(hash);
+                } else {
+                    try {
+                        borrarArchivo(ubicacion(hash));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("No se pudo quitar el contenido {} de una subida deshecha", hash, e);
+        }
+    }
+
+    private boolean empaquetable(long tamano) {
+        return paquetes != null && tamano <= maximoEmpaquetado;
+    }
+
+    /**
+     * Tras dar de alta el documento, borra su marca y la copia temporal si no llegó a
+     * moverse (el contenido ya estaba en el almacén o se ha añadido a los paquetes).
+     */
+    public void descartar(ArchivoPreparado archivo) {
+        try {
+            Files.deleteIfExists(marcaDe(archivo.temporal()));
+            Files.deleteIfExists(archivo.temporal());
+        } catch (IOException e) {
+            // Se queda en tmp hasta la limpieza; no afecta a ningún documento
+        }
+    }
+
+    /**
+     * Ruta del archivo con ese contenido, relativa al almacén, para {@code Documento.ruta}.
+     */
+    public String rutaRelativa(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    public Path ubicacion(String hash) {
+        return directorio.resolve(rutaRelativa(hash));
+    }
+
+    /**
+     * Archivo del documento: el del almacén (el paquete si está empaquetado) o, en los
+     * documentos anteriores al almacén, la ruta original que se guardó al subirlos.
+     */
+    public Path ubicacion(Documento documento) {
+        if (documento.getHash() == null) {
+            return Path.of(documento.getRuta());
+        }
+        Path paquete = paquetes != null ? paquetes.paqueteDe(documento.getHash()) : null;
+        return paquete != null ? paquete : ubicacion(documento.getHash());
+    }
+
+    /**
+     * Abre el contenido del documento para leerlo, esté en un paquete o suelto.
+     *
+     * @throws java.nio.file.NoSuchFileException si no está en el almacén
+     */
+    public PaquetesDocumentos.Lectura abrir(Documento documento) throws IOException {
+        if (paquetes != null && documento.getHash() != null) {
+            Optional<PaquetesDocumentos.Lectura> empaquetado = paquetes.abrir(documento.getHash());
+            if (empaquetado.isPresent()) {
+                return empaquetado.get();
+            }
+        }
+        FileChannel canal = FileChannel.open(ubicacion(documento), StandardOpenOption.READ);
+        return new PaquetesDocumentos.Lectura(canal, 0, canal.size());
+    }
+
+    /**
+     * Tras borrar documentos (uno a uno, con su FCT o al quitarlos de ella) purga los
+     * contenidos que se han quedado sin referencias.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiar(CambioDatos cambio) {
+        if (cambio.es(FCT.class) || (cambio.es(Documento.class) && cambio.tipo() == CambioDatos.Tipo.BAJA)) {
+            purgar();
+        }
+    }
+
+    /**
+     * Borra los contenidos sin documentos.
+     *
+     * @return cuántos se han borrado
+     */
+    public int purgar() {
+        int total = transaccionPropia.execute(estado -> {
+            int purgados = 0;
+            for (BlobDocumento blob : blobRepository.findUnreferencedForUpdate()) {
+                // Una subida que esperaba el bloqueo puede haberle dado un documento
+                if (blob.getReferencias() > 0) {
+                    continue;
+                }
+                // El archivo se borra con la fila aún bloqueada: si la transacción falla,
+                // la fila sigue a 0 y se purga la próxima vez
+                try {
+                    borrarArchivo(ubicacion(blob.getHash()));
+                } catch (IOException e) {
+                    continue;
+                }
+                if (paquetes != null) {
+                    paquetes.quitar(blob.getHash());
+                }
+                blobRepository.delete(blob);
+                purgados++;
+            }
+            return purgados;
+        });
+        if (total > 0 && paquetes != null) {
+            paquetes.compactarEnSegundoPlano();
+        }
+        return total;
+    }
+
+    /**
+     * Resultado de pasar los archivos sueltos a los paquetes.
+     */
+    public record Empaquetado(int empaquetados, long bytes, int omitidos) {
+    }
+
+    /**
+     * Pasa a los paquetes los contenidos sueltos que caben en ellos (los subidos antes de
+     * activarlos). Cada uno se comprueba contra su hash antes de añadirlo y se mueve con
+     * su fila bloqueada, como al incorporarlo o purgarlo; los que no tienen documentos se
+     * dejan para la purga. Se puede interrumpir y repetir: lo ya empaquetado no se vuelve
+     * a copiar.
+     */
+    public Empaquetado empaquetarSueltos() throws IOException {
+        if (paquetes == null) {
+            throw new OperacionNoPermitidaException("empaquetar los documentos",
+                    "los paquetes no están activos (gestionfct.documentos.paquetes.activos)");
+        }
+        List<Path> sueltos;
+        try (Stream<Path> rutas = Files.walk(directorio, 3)) {
+            sueltos = rutas.filter(Files::isRegularFile)
+                    .filter(ruta -> ruta.getFileName().toString().matches("[0-9a-f]{64}"))
+                    .filter(ruta -> ruta.equals(ubicacion(ruta.getFileName().toString())))
+                    .toList();
+        }
+        int empaquetados = 0;
+        int omitidos = 0;
+        long bytes = 0;
+        for (Path suelto : sueltos) {
+            long tamano = Files.size(suelto);
+            if (!empaquetable(tamano)) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(transaccionPropia.execute(estado -> empaquetar(suelto)))) {
+                empaquetados++;
+                bytes += tamano;
+            } else {
+                omitidos++;
+            }
+        }
+        return new Empaquetado(empaquetados, bytes, omitidos);
+    }
+
+    private boolean empaquetar(Path suelto) {
+        String hash = suelto.getFileName().toString();
+        Optional<BlobDocumento> blob = blobRepository.findByHashForUpdate(hash);
+        if (blob.isEmpty() || blob.get().getReferencias() == 0) {
+            return false;
+        }
+        try {
+            if (!hash.equals(CopiaArchivos.sha256(suelto))) {
+                LOG.warn("El contenido de {} no coincide con su hash; se deja suelto", suelto);
+                return false;
+            }
+            paquetes.anadir(hash, suelto);
+        } catch (IOException e) {
+            LOG.warn("No se pudo empaquetar {}", suelto, e);
+            return false;
+        }
+        try {
+            borrarArchivo(suelto);
+        } catch (IOException e) {
+            // Abierto en Windows: ya se lee del paquete y se borra al repetir la migración
+        }
+        return true;
+    }
+
+    /**
+     * Archivo para abrir el documento con el visor del sistema, que elige el programa por
+     * la extensión. Los archivos del almacén no la tienen: se abre un enlace duro con el
+     * nombre original, sin copiar el contenido (un enlace simbólico si el sistema de
+     * archivos no admite los duros, y una copia solo como último recurso). El contenido es
+     * de solo lectura, así que el enlace también: para cambiar el documento hay que
+     * guardarlo con otro nombre y subirlo.
+     */
+    public Path paraAbrir(Documento documento) throws IOException {
+        Path archivo = ubicacion(documento);
+        if (documento.getHash() == null) {
+            return archivo;
+        }
+        Path enlace = abiertos.resolve(documento.getHash())
+                .resolve(documento.getNombre().replaceAll("[\\\\/:*?\"<>|]", "_"));
+        boolean suelto = archivo.equals(ubicacion(documento.getHash()));
+        if (suelto) {
+            // Los subidos antes de protegerlos, o desprotegidos al borrar un enlace
+            soloLectura(archivo);
+        }
+        if (Files.exists(enlace)) {
+            return enlace;
+        }
+        Files.createDirectories(enlace.getParent());
+        if (!suelto) {
+            // Empaquetado: no hay archivo propio que enlazar
+            try (PaquetesDocumentos.Lectura lectura = abrir(documento)) {
+                CopiaArchivos.copiarDesde(lectura.canal(), lectura.posicion(), lectura.tamano(), enlace, 0,
+                        CopiaArchivos.Progreso.NINGUNO);
+            }
+            soloLectura(enlace);
+            return enlace;
+        }
+        try {
+            Files.createLink(enlace, archivo);
+        } catch (UnsupportedOperationException | IOException e) {
+            try {
+                Files.createSymbolicLink(enlace, archivo);
+            } catch (UnsupportedOperationException | IOException e2) {
+                Files.copy(archivo, enlace);
+                soloLectura(enlace);
+            }
+        }
+        return enlace;
+    }
+
+    /**
+     * Al arrancar borra los enlaces abiertos por este puesto en sesiones anteriores (los de
+     * otros puestos pueden seguir abiertos) y las subidas interrumpidas hace más de
+     * {@value #DIAS_TEMPORALES} días. Lo que no se pueda borrar (en Windows, un archivo que
+     * un visor tiene abierto) se queda para la próxima vez.
+     */
+    @PostConstruct
+    void limpiar() {
+        borrarAbiertos();
+        // Los de antes de separarlos por puesto: una carpeta por id de documento
+        Path todos = directorio.resolve(ABIERTOS);
+        borrar(todos, ruta -> todos.relativize(ruta).getName(0).toString().matches("\\d+"));
+        FileTime limite = FileTime.from(Instant.now().minus(DIAS_TEMPORALES, ChronoUnit.DAYS));
+        borrar(directorio.resolve(TEMPORALES), ruta -> {
+            try {
+                return Files.isRegularFile(ruta) && Files.getLastModifiedTime(ruta).compareTo(limite) < 0;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Borra los enlaces de este puesto, cada uno en la carpeta de su contenido. En Windows
+     * el solo lectura es del archivo y no del nombre: para borrar un enlace duro se le
+     * quita también al contenido, así que después se le vuelve a poner.
+     */
+    private void borrarAbiertos() {
+        if (!Files.isDirectory(abiertos)) {
+            return;
+        }
+        try (DirectoryStream<Path> carpetas = Files.newDirectoryStream(abiertos)) {
+            for (Path carpeta : carpetas) {
+                borrar(carpeta, ruta -> true);
+                try {
+                    Files.deleteIfExists(carpeta);
+                } catch (IOException e) {
+                    // Queda algún enlace abierto
+                }
+                String hash = carpeta.getFileName().toString();
+                if (hash.matches("[0-9a-f]{64}") && Files.exists(ubicacion(hash))) {
+                    soloLectura(ubicacion(hash));
+                }
+            }
+        } catch (IOException e) {
+            // Se reintenta en el próximo arranque
+        }
+    }
+
+    private static void soloLectura(Path archivo) {
+        if (!archivo.toFile().setReadOnly()) {
+            LOG.warn("No se pudo proteger contra escritura {}", archivo);
+        }
+    }
+
+    /**
+     * Borra el archivo aunque sea de solo lectura (en Windows no se puede sin quitárselo).
+     */
+    private static void borrarArchivo(Path archivo) throws IOException {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (AccessDeniedException e) {
+            archivo.toFile().setWritable(true);
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    private static void borrar(Path carpeta, Predicate<Path> filtro) {
+        if (!Files.isDirectory(carpeta)) {
+            return;
+        }
+        try (Stream<Path> rutas = Files.walk(carpeta)) {
+            rutas.sorted(Comparator.reverseOrder()).filter(ruta -> !ruta.equals(carpeta)).filter(filtro)
+                    .forEach(ruta -> {
+                        try {
+                            borrarArchivo(ruta);
+                        } catch (IOException e) {
+                            // En uso o carpeta con archivos que se conservan
+                        }
+                    });
+        } catch (IOException e) {
+            // Se reintenta en el próximo arranque
+        }
+    }
+}
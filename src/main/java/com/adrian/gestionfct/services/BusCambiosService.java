@@ -0,0 +1,101 @@
+package com.adrian.gestionfct.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.adrian.gestionfct.modelo.AvisoCambio;
+import com.adrian.gestionfct.repositorios.AvisoCambioRepository;
+
+import jakarta.persistence.Table;
+
+/**
+ * Bus de avisos entre los puestos que comparten la base de datos.
+ *
+ * Los servicios llaman a {@link #avisar(Class, Long)} en cada escritura; si hay una
+ * transacción en curso el aviso se confirma con ella, así que nunca se ve un aviso de un
+ * cambio deshecho. Los demás puestos leen los avisos por rango de id con
+ * {@link #leer(long, Collection)} y descartan los que llevan su propio origen.
+ */
+@Service
+public class BusCambiosService {
+
+    /** Avisos leídos como máximo por consulta. */
+    public static final int LOTE = 500;
+
+    /** Identifica a este puesto mientras la aplicación está abierta. */
+    private final String origen = UUID.randomUUID().toString();
+
+    @Autowired
+    private AvisoCambioRepository avisoCambioRepository;
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    /**
+     * Registra que ha cambiado una fila de la entidad dada (o varias, con id null).
+     */
+    @Transactional
+    public void avisar(Class<?> entidad, Long id) {
+        avisoCambioRepository.save(new AvisoCambio(tabla(entidad), id, origen));
+    }
+
+    /**
+     * Registra el cambio de varias filas de la misma entidad.
+     */
+    @Transactional
+    public void avisar(Class<?> entidad, Collection<Long> ids) {
+        String tabla = tabla(entidad);
+        avisoCambioRepository.saveAll(ids.stream().map(id -> new AvisoCambio(tabla, id, origen)).toList());
+    }
+
+    /**
+     * Último id escrito; un puesto que arranca empieza a leer a partir de él.
+     */
+    @Transactional(readOnly = true)
+    public long ultimoId() {
+        return avisoCambioRepository.findLastId();
+    }
+
+    /**
+     * Hasta {@link #LOTE} avisos con id mayor que {@code desde}, más los que se hayan
+     * confirmado entre los ids pendientes, ordenados por id.
+     */
+    @Transactional(readOnly = true)
+    public List<AvisoCambio> leer(long desde, Collection<Long> pendientes) {
+        List<AvisoCambio> avisos = new ArrayList<>(avisoCambioRepository.findAfter(desde, PageRequest.of(0, LOTE)));
+        if (!pendientes.isEmpty()) {
+            avisos.addAll(avisoCambioRepository.findByIds(pendientes));
+            avisos.sort(Comparator.comparing(AvisoCambio::getId));
+        }
+        return avisos;
+    }
+
+    /**
+     * Borra los avisos anteriores a la fecha dada.
+     */
+    @Transactional
+    public int purgarAnteriores(LocalDateTime limite) {
+        return avisoCambioRepository.deleteOlderThan(limite);
+    }
+
+    /**
+     * Nombre de la tabla de una entidad, el mismo que usan las lápidas de bajas.
+     */
+    public static String tabla(Class<?> entidad) {
+        Table tabla = entidad.getAnnotation(Table.class);
+        if (tabla == null || tabla.name().isEmpty()) {
+            throw new IllegalArgumentException("La entidad " + entidad.getSimpleName() + " no declara su tabla");
+        }
+        return tabla.name();
+    }
+}
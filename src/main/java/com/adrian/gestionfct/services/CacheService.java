@@ -0,0 +1,64 @@
+package com.adrian.gestionfct.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import com.adrian.gestionfct.dto.EstadisticaCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consulta y vaciado de las cachés definidas en {@link com.adrian.gestionfct.config.CacheConfig}.
+ */
+@Service
+public class CacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Devuelve los aciertos, fallos, desalojos y tamaño de cada caché.
+     */
+    public List<EstadisticaCache> obtenerEstadisticas() {
+        List<EstadisticaCache> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache instanceof CaffeineCache caffeine) {
+                CacheStats stats = caffeine.getNativeCache().stats();
+                estadisticas.add(new EstadisticaCache(nombre, caffeine.getNativeCache().estimatedSize(),
+                        stats.hitCount(), stats.missCount(), stats.evictionCount()));
+            }
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Vacía todas las cachés; la siguiente consulta vuelve a la base de datos.
+     */
+    public void vaciarTodas() {
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Vacía las cachés indicadas.
+     */
+    public void vaciar(Collection<String> nombres) {
+        for (String nombre : nombres) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
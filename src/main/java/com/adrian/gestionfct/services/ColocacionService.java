@@ -0,0 +1,154 @@
+package com.adrian.gestionfct.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.adrian.gestionfct.dto.CargaTutor;
+import com.adrian.gestionfct.dto.PropuestaColocacion;
+import com.adrian.gestionfct.dto.ResultadoAsignacion;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.EstadoFCT;
+import com.adrian.gestionfct.modelo.Estudiante;
+import com.adrian.gestionfct.modelo.Periodo;
+import com.adrian.gestionfct.modelo.TutorEmpresa;
+import com.adrian.gestionfct.repositorios.EstudianteRepository;
+import com.adrian.gestionfct.repositorios.FCTRepository;
+import com.adrian.gestionfct.repositorios.TutorEmpresaRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Colocación automática de los estudiantes sin FCT de un periodo.
+ *
+ * Reúne los datos (estudiantes pendientes, tutores activos con su carga y sectores de las
+ * empresas), los pasa a {@link OptimizadorColocacion} y devuelve una propuesta que se
+ * revisa antes de aplicarla con la asignación en bloque.
+ */
+@Service
+public class ColocacionService {
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    @Autowired
+    private TutorEmpresaRepository tutorEmpresaRepository;
+
+    @Autowired
+    private FCTRepository fctRepository;
+
+    @Autowired
+    private FCTService fctService;
+
+    @Autowired
+    private PlazasEmpresaService plazasService;
+
+    /** Estudiantes con FCT activa que puede llevar a la vez un tutor de empresa. */
+    @Value("${gestionfct.colocacion.max-alumnos-tutor:5}")
+    private int maxAlumnosTutor;
+
+    /** Palabras del sector de la empresa que la hacen compatible con cada ciclo. */
+    @Value("#{${gestionfct.colocacion.sectores:{:}}}")
+    private Map<String, String> sectoresPorCiclo = Map.of();
+
+    public PropuestaColocacion proponer(Periodo periodo, String ciclo) {
+        return proponer(periodo, ciclo, Map.of());
+    }
+
+    /**
+     * Calcula la colocación de los estudiantes sin FCT en el periodo.
+     *
+     * @param ciclo        solo los estudiantes de ese ciclo; null para todos
+     * @param preferencias empresas que prefiere cada estudiante (por id), en orden
+     */
+    @Transactional(readOnly = true)
+    public PropuestaColocacion proponer(Periodo periodo, String ciclo, Map<Long, List<Long>> preferencias) {
+        List<Estudiante> estudiantes = estudianteRepository.findSinFctEnPeriodo(periodo.getId(), periodo.getCurso(),
+                ciclo);
+        List<TutorEmpresa> tutores = tutorEmpresaRepository.findActivosDeEmpresasActivas();
+        Map<Long, Long> cargas = fctRepository.countByTutorEmpresaAndEstado(EstadoFCT.ACTIVA).stream()
+                .collect(Collectors.toMap(CargaTutor::tutorId, CargaTutor::fcts));
+
+        Map<Long, Estudiante> estudiantesPorId = estudiantes.stream()
+                .collect(Collectors.toMap(Estudiante::getId, Function.identity()));
+        Map<Long, TutorEmpresa> tutoresPorId = new HashMap<>();
+        Map<Long, Empresa> empresasPorId = new LinkedHashMap<>();
+        Map<Long, Integer> plazasPorEmpresa = new HashMap<>();
+        List<OptimizadorColocacion.Tutor> entradaTutores = new ArrayList<>();
+        for (TutorEmpresa tutor : tutores) {
+            int carga = cargas.getOrDefault(tutor.getId(), 0L).intValue();
+            int libres = Math.max(0, maxAlumnosTutor - carga);
+            Empresa empresa = tutor.getEmpresa();
+            tutoresPorId.put(tutor.getId(), tutor);
+            empresasPorId.putIfAbsent(empresa.getId(), empresa);
+            plazasPorEmpresa.merge(empresa.getId(), libres, Integer::sum);
+            entradaTutores.add(new OptimizadorColocacion.Tutor(tutor.getId(), empresa.getId(), libres, carga));
+        }
+
+        Set<String> ciclos = estudiantes.stream().map(Estudiante::getCiclo).collect(Collectors.toSet());
+        // Una empresa sin cupo en el periodo admite tantos como dejen libres sus tutores
+        Map<Long, Integer> cupos = plazasService.libresPorEmpresa(periodo);
+        List<OptimizadorColocacion.Puesto> puestos = empresasPorId.values().stream()
+                .map(empresa -> new OptimizadorColocacion.Puesto(empresa.getId(),
+                        Math.min(plazasPorEmpresa.get(empresa.getId()),
+                                cupos.getOrDefault(empresa.getId(), Integer.MAX_VALUE)),
+                        ciclosCompatibles(empresa, ciclos)))
+                .toList();
+        List<OptimizadorColocacion.Alumno> alumnos = estudiantes.stream()
+                .map(estudiante -> new OptimizadorColocacion.Alumno(estudiante.getId(), estudiante.getCiclo(),
+                        preferencias.getOrDefault(estudiante.getId(), List.of())))
+                .toList();
+
+        OptimizadorColocacion.Resultado resultado = OptimizadorColocacion.resolver(alumnos, puestos, entradaTutores);
+
+        List<PropuestaColocacion.Colocacion> colocaciones = resultado.asignaciones().stream()
+                .map(asignacion -> new PropuestaColocacion.Colocacion(estudiantesPorId.get(asignacion.alumnoId()),
+                        empresasPorId.get(asignacion.empresaId()), tutoresPorId.get(asignacion.tutorId()),
+                        asignacion.preferencia()))
+                .sorted((a, b) -> a.estudiante().getNombreCompleto()
+                        .compareToIgnoreCase(b.estudiante().getNombreCompleto()))
+                .toList();
+        List<Estudiante> sinPlaza = resultado.sinPlaza().stream().map(estudiantesPorId::get).toList();
+        return new PropuestaColocacion(periodo, colocaciones, sinPlaza);
+    }
+
+    /**
+     * Crea las FCT de la propuesta en una sola transacción. Si otro puesto ha ocupado
+     * plazas mientras tanto, las colocaciones que ya no caben vuelven como conflictos.
+     */
+    public ResultadoAsignacion aplicar(PropuestaColocacion propuesta) {
+        return fctService.asignarEnBloque(propuesta.peticiones(), propuesta.periodo());
+    }
+
+    /**
+     * Ciclos a los que puede acoger la empresa según su sector. Una empresa sin sector, o un
+     * ciclo sin palabras configuradas, no descarta a nadie.
+     */
+    private Set<String> ciclosCompatibles(Empresa empresa, Set<String> ciclos) {
+        String sector = ClaveBusqueda.normalizar(empresa.getSector());
+        if (sector.isBlank()) {
+            return ciclos;
+        }
+        Set<String> compatibles = new HashSet<>();
+        for (String ciclo : ciclos) {
+            String palabras = sectoresPorCiclo.get(ciclo);
+            if (palabras == null || Arrays.stream(palabras.split(","))
+                    .map(palabra -> ClaveBusqueda.normalizar(palabra.trim()))
+                    .anyMatch(palabra -> !palabra.isEmpty() && sector.contains(palabra))) {
+                compatibles.add(ciclo);
+            }
+        }
+        return compatibles;
+    }
+}
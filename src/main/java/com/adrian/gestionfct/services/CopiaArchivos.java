@@ -0,0 +1,131 @@
+package com.adrian.gestionfct.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Copias de archivos por canales de NIO, sin pasar el contenido por el heap.
+ *
+ * {@link FileChannel#transferTo} deja la copia al sistema operativo (copy_file_range o
+ * sendfile en Linux). Se copia por bloques para informar del progreso y para que una
+ * cancelación corte la copia: al interrumpir el hilo, el canal se cierra con
+ * ClosedByInterruptException y lo copiado se queda en el destino para continuar después.
+ */
+public final class CopiaArchivos {
+
+    /** Bytes por llamada a transferTo: cada bloque es un aviso de progreso. */
+    static final long BLOQUE = 8L * 1024 * 1024;
+
+    private static final int BUFFER_HASH = 1024 * 1024;
+
+    /**
+     * Recibe los bytes copiados hasta el momento (desde el principio del archivo) y el total.
+     */
+    @FunctionalInterface
+    public interface Progreso {
+        void avance(long copiados, long total);
+
+        Progreso NINGUNO = (copiados, total) -> { };
+    }
+
+    private CopiaArchivos() {
+    }
+
+    /**
+     * Copia {@code origen} en {@code destino} a partir del byte {@code desde}. Lo que ya
+     * hubiera en el destino antes de esa posición se conserva, así que una copia
+     * interrumpida se continúa pasando su tamaño actual.
+     *
+     * @return tamaño final del destino
+     */
+    public static long copiarDesde(Path origen, Path destino, long desde, Progreso progreso) throws IOException {
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ)) {
+            return copiarDesde(entrada, 0, entrada.size(), destino, desde, progreso);
+        }
+    }
+
+    /**
+     * Como {@link #copiarDesde(Path, Path, long, Progreso)}, pero el origen son los bytes
+     * [{@code inicio}, {@code inicio + tamano}) de {@code entrada} (un contenido dentro de
+     * un paquete). {@code desde} y el progreso cuentan desde {@code inicio}.
+     */
+    public static long copiarDesde(FileChannel entrada, long inicio, long tamano, Path destino, long desde,
+            Progreso progreso) throws IOException {
+        try (FileChannel salida = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long hecho = Math.min(desde, tamano);
+            salida.truncate(hecho);
+            salida.position(hecho);
+            copiarRango(entrada, inicio + hecho, inicio + tamano, salida,
+                    (copiados, total) -> progreso.avance(copiados - inicio, tamano));
+            return salida.size();
+        }
+    }
+
+    /**
+     * Copia los bytes [{@code desde}, {@code hasta}) de {@code origen} en la posición actual
+     * de {@code destino}.
+     *
+     * @return bytes copiados
+     */
+    public static long copiarRango(FileChannel origen, long desde, long hasta, WritableByteChannel destino,
+            Progreso progreso) throws IOException {
+        long total = origen.size();
+        long posicion = desde;
+        progreso.avance(posicion, total);
+        while (posicion < hasta) {
+            long copiados = origen.transferTo(posicion, Math.min(BLOQUE, hasta - posicion), destino);
+            if (copiados <= 0) {
+                // El origen se ha acortado mientras se copiaba
+                throw new IOException("El archivo de origen terminó en el byte " + posicion + " de " + hasta);
+            }
+            posicion += copiados;
+            progreso.avance(posicion, total);
+        }
+        return posicion - desde;
+    }
+
+    /**
+     * SHA-256 del archivo en hexadecimal, leído por bloques con un buffer fuera del heap.
+     */
+    public static String sha256(Path archivo) throws IOException {
+        MessageDigest sha = nuevoSha256();
+        try (FileChannel entrada = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            actualizar(sha, entrada, 0, entrada.size());
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /**
+     * Pasa por el hash los bytes [{@code desde}, {@code hasta}) del canal.
+     */
+    public static void actualizar(MessageDigest sha, FileChannel canal, long desde, long hasta) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_HASH);
+        long posicion = desde;
+        while (posicion < hasta) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), hasta - posicion));
+            int leidos = canal.read(buffer, posicion);
+            if (leidos < 0) {
+                throw new IOException("El archivo terminó en el byte " + posicion + " de " + hasta);
+            }
+            buffer.flip();
+            sha.update(buffer);
+            posicion += leidos;
+        }
+    }
+
+    static MessageDigest nuevoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.adrian.gestionfct.config.CacheConfig;
 import com.adrian.gestionfct.modelo.CursoAcademico;
 import com.adrian.gestionfct.repositorios.CursoAcademicoRepository;
 
@@ -16,26 +19,44 @@ public class CursoAcademicoService {
     @Autowired
     private CursoAcademicoRepository cursoAcademicoRepository;
 
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @CacheEvict(cacheNames = { CacheConfig.CURSOS_ACADEMICOS, CacheConfig.CURSO_ACTIVO,
+            CacheConfig.PERIODOS_ACTIVOS }, allEntries = true)
     public CursoAcademico save(CursoAcademico cursoAcademico) {
-        return cursoAcademicoRepository.save(cursoAcademico);
+        CursoAcademico guardado = cursoAcademicoRepository.save(cursoAcademico);
+        busCambios.avisar(CursoAcademico.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.CURSOS_ACADEMICOS, CacheConfig.CURSO_ACTIVO,
+            CacheConfig.PERIODOS_ACTIVOS }, allEntries = true)
     public CursoAcademico update(CursoAcademico cursoAcademico) {
-        return cursoAcademicoRepository.save(cursoAcademico);
+        CursoAcademico guardado = cursoAcademicoRepository.save(cursoAcademico);
+        busCambios.avisar(CursoAcademico.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.CURSOS_ACADEMICOS, CacheConfig.CURSO_ACTIVO,
+            CacheConfig.PERIODOS_ACTIVOS }, allEntries = true)
     public void delete(CursoAcademico cursoAcademico) {
         cursoAcademicoRepository.delete(cursoAcademico);
+        busCambios.avisar(CursoAcademico.class, cursoAcademico.getId());
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.CURSOS_ACADEMICOS, CacheConfig.CURSO_ACTIVO,
+            CacheConfig.PERIODOS_ACTIVOS }, allEntries = true)
     public void deleteById(Long id) {
         cursoAcademicoRepository.deleteById(id);
+        busCambios.avisar(CursoAcademico.class, id);
     }
 
     public Optional<CursoAcademico> findById(Long id) {
         return cursoAcademicoRepository.findById(id);
     }
 
+    @Cacheable(CacheConfig.CURSOS_ACADEMICOS)
     public List<CursoAcademico> findAll() {
         return cursoAcademicoRepository.findAll();
     }
@@ -44,6 +65,7 @@ public class CursoAcademicoService {
         return cursoAcademicoRepository.findByNombre(nombre);
     }
 
+    @Cacheable(CacheConfig.CURSO_ACTIVO)
     public Optional<CursoAcademico> findActivo() {
         return cursoAcademicoRepository.findByActivoTrue();
     }
@@ -56,6 +78,8 @@ public class CursoAcademicoService {
      * Activa un curso académico y desactiva los demás.
      */
     @Transactional
+    @CacheEvict(cacheNames = { CacheConfig.CURSOS_ACADEMICOS, CacheConfig.CURSO_ACTIVO,
+            CacheConfig.PERIODOS_ACTIVOS }, allEntries = true)
     public void activarCurso(CursoAcademico cursoActivar) {
         // Desactivar todos los cursos
         List<CursoAcademico> todos = cursoAcademicoRepository.findAll();
@@ -66,5 +90,7 @@ public class CursoAcademicoService {
         // Activar el seleccionado
         cursoActivar.setActivo(true);
         cursoAcademicoRepository.save(cursoActivar);
+        // Cambian todos los cursos, pero a los demás puestos les basta un aviso de la tabla
+        busCambios.avisar(CursoAcademico.class, cursoActivar.getId());
     }
 }
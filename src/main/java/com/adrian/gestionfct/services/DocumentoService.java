@@ -1,16 +1,39 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.adrian.gestionfct.dto.CoincidenciaContenido;
+import com.adrian.gestionfct.dto.DocumentoRowView;
+import com.adrian.gestionfct.dto.RelevanciaTexto;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.exception.GestionFCTException;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
 import com.adrian.gestionfct.modelo.Documento;
 import com.adrian.gestionfct.modelo.FCT;
+import com.adrian.gestionfct.modelo.TextoDocumento;
 import com.adrian.gestionfct.modelo.TipoDocumento;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.repositorios.DocumentoRepository;
+import com.adrian.gestionfct.repositorios.DocumentoSpecifications;
+import com.adrian.gestionfct.repositorios.TextoDocumentoRepository;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DocumentoService {
@@ -18,30 +41,192 @@ public class DocumentoService {
     @Autowired
     private DocumentoRepository documentoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @Autowired
+    private AlmacenDocumentos almacen;
+
+    @Autowired
+    private TextoDocumentoRepository textoRepository;
+
+    /** Caracteres aproximados del fragmento de texto de cada resultado. */
+    private static final int LONGITUD_FRAGMENTO = 240;
+
+    // Cada escritura publica un CambioDatos con la fila ya unida, para que las tablas
+    // abiertas actualicen solo esa fila, y deja un aviso para los demás puestos
+
     public Documento save(Documento documento) {
-        return documentoRepository.save(documento);
+        boolean nuevo = documento.getId() == null;
+        Documento guardado = documentoRepository.save(documento);
+        busCambios.avisar(Documento.class, guardado.getId());
+        documentoRepository.findRowById(guardado.getId()).ifPresent(fila ->
+                eventos.publishEvent(CambioDatos.guardado(Documento.class, nuevo, guardado.getId(), fila)));
+        return guardado;
+    }
+
+    /**
+     * Copia el archivo al almacén de documentos y da de alta el documento cuando la copia
+     * está completa y comprobada. Si otro documento tiene ya el mismo contenido, los dos
+     * comparten el archivo. Si la subida se interrumpe, al subir otra vez el mismo archivo
+     * se continúa desde el último bloque copiado.
+     */
+    public Documento subir(Documento documento, Path archivo, CopiaArchivos.Progreso progreso) {
+        AlmacenDocumentos.ArchivoPreparado preparado;
+        try {
+            if (documento.getContentType() == null) {
+                documento.setContentType(Files.probeContentType(archivo));
+            }
+            preparado = almacen.preparar(archivo, progreso);
+        } catch (IOException e) {
+            throw new GestionFCTException("No se pudo copiar el archivo " + archivo.getFileName()
+                    + " al almacén de documentos: " + e.getMessage(), e);
+        }
+        Documento guardado = almacen.incorporar(preparado, () -> {
+            documento.setHash(preparado.hash());
+            documento.setRuta(almacen.rutaRelativa(preparado.hash()));
+            documento.setTamano(preparado.tamano());
+            return save(documento);
+        });
+        almacen.descartar(preparado);
+        return guardado;
+    }
+
+    /**
+     * Archivo del documento en este puesto.
+     */
+    public Path ubicacion(Documento documento) {
+        return almacen.ubicacion(documento);
+    }
+
+    /**
+     * Copia el archivo del documento a {@code destino}. Se escribe en {@code destino.part}
+     * y se renombra al terminar; si quedó una parte de una descarga interrumpida, se
+     * continúa desde donde se cortó y se comprueba el archivo completo con el hash del
+     * contenido: si no coincide, se descarga de nuevo entero. Sin hash (documentos de antes
+     * del almacén por contenido) no se puede comprobar y se descarga siempre entero.
+     */
+    public void descargar(Documento documento, Path destino, CopiaArchivos.Progreso progreso) {
+        Path parcial = destino.resolveSibling(destino.getFileName() + ".part");
+        try (PaquetesDocumentos.Lectura origen = almacen.abrir(documento)) {
+            long desde = documento.getHash() != null && Files.exists(parcial) ? Files.size(parcial) : 0;
+            CopiaArchivos.copiarDesde(origen.canal(), origen.posicion(), origen.tamano(), parcial, desde, progreso);
+            if (desde > 0 && !documento.getHash().equals(CopiaArchivos.sha256(parcial))) {
+                CopiaArchivos.copiarDesde(origen.canal(), origen.posicion(), origen.tamano(), parcial, 0, progreso);
+            }
+            Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            throw new GestionFCTException("GFCT-404", "El archivo de '" + documento.getNombre()
+                    + "' no está disponible en " + almacen.ubicacion(documento));
+        } catch (IOException e) {
+            throw new GestionFCTException("No se pudo descargar '" + documento.getNombre() + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archivo para abrir el documento con el visor del sistema sin copiarlo (ver
+     * {@link AlmacenDocumentos#paraAbrir}).
+     */
+    public Path paraAbrir(Documento documento) {
+        try {
+            Path archivo = almacen.paraAbrir(documento);
+            if (!Files.isRegularFile(archivo)) {
+                throw new GestionFCTException("GFCT-404", "El archivo de '" + documento.getNombre()
+                        + "' no está disponible en " + archivo);
+            }
+            return archivo;
+        } catch (IOException e) {
+            throw new GestionFCTException("No se pudo abrir '" + documento.getNombre() + "': " + e.getMessage(), e);
+        }
     }
 
     public Documento update(Documento documento) {
-        return documentoRepository.save(documento);
+        return save(documento);
     }
 
+    // Al borrar un documento su texto sale del índice de contenido con él (clave ajena
+    // en cascada) y, si aún no se había extraído, IndexadorContenidos lo quita de la cola
+
     public void delete(Documento documento) {
         documentoRepository.delete(documento);
+        busCambios.avisar(Documento.class, documento.getId());
+        eventos.publishEvent(CambioDatos.baja(Documento.class, documento.getId()));
     }
 
     public void deleteById(Long id) {
         documentoRepository.deleteById(id);
+        busCambios.avisar(Documento.class, id);
+        eventos.publishEvent(CambioDatos.baja(Documento.class, id));
     }
 
     public Optional<Documento> findById(Long id) {
         return documentoRepository.findById(id);
     }
 
+    /**
+     * Busca una página de filas aplicando los filtros y el orden en la base de datos.
+     * Los filtros nulos o vacíos se ignoran.
+     */
+    public Page<DocumentoRowView> buscarFilas(TipoDocumento tipo, FCT fct, String texto, Pageable pageable) {
+        Specification<Documento> spec = Specification.where(DocumentoSpecifications.deTipo(tipo))
+                .and(DocumentoSpecifications.deFct(fct))
+                .and(DocumentoSpecifications.conTexto(texto));
+        return documentoRepository.findAll(spec, pageable).map(DocumentoRowView::de);
+    }
+
+    /**
+     * Busca en el texto de los documentos (ver {@link IndexadorContenidos}): todas las
+     * palabras deben aparecer, como prefijo de alguna del texto y sin importar tildes ni
+     * mayúsculas. Los resultados van del más relevante al menos, con un fragmento del
+     * texto donde aparecen las palabras resaltadas. Los filtros nulos se ignoran.
+     */
+    @Transactional(readOnly = true)
+    public Page<CoincidenciaContenido> buscarEnContenido(TipoDocumento tipo, FCT fct, String texto,
+            Pageable pageable) {
+        String consulta = ClaveBusqueda.consultaPrefijos(texto);
+        if (consulta == null) {
+            return Page.empty(pageable);
+        }
+        Page<RelevanciaTexto> relevancias = textoRepository.searchByContent(consulta, tipo,
+                fct != null ? fct.getId() : null, pageable);
+        List<Long> ids = relevancias.map(RelevanciaTexto::documentoId).getContent();
+        Map<Long, DocumentoRowView> filas = documentoRepository.findRowsByIds(ids).stream()
+                .collect(Collectors.toMap(DocumentoRowView::id, Function.identity()));
+        Map<Long, TextoDocumento> textos = textoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TextoDocumento::getDocumentoId, Function.identity()));
+        List<String> terminos = ClaveBusqueda.terminos(texto);
+        List<CoincidenciaContenido> coincidencias = relevancias.getContent().stream()
+                // Borrados entre una consulta y otra
+                .filter(relevancia -> filas.containsKey(relevancia.documentoId())
+                        && textos.containsKey(relevancia.documentoId()))
+                .map(relevancia -> new CoincidenciaContenido(filas.get(relevancia.documentoId()),
+                        relevancia.relevancia(), Resaltador.fragmento(
+                                textos.get(relevancia.documentoId()).getTexto(), terminos, LONGITUD_FRAGMENTO)))
+                .toList();
+        return new PageImpl<>(coincidencias, pageable, relevancias.getTotalElements());
+    }
+
+    /**
+     * Obtiene un documento con su FCT, estudiante, empresa y autor ya cargados.
+     */
+    public Optional<Documento> findByIdConDetalle(Long id) {
+        return documentoRepository.findByIdForDetail(id);
+    }
+
     public List<Documento> findAll() {
         return documentoRepository.findAll();
     }
 
+    /**
+     * Obtiene las filas de solo lectura de la tabla de documentos.
+     */
+    public List<DocumentoRowView> findAllRows() {
+        return documentoRepository.findAllRows();
+    }
+
     public List<Documento> findByFct(FCT fct) {
         return documentoRepository.findByFct(fct);
     }
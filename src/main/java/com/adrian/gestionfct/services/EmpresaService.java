@@ -1,10 +1,22 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.adrian.gestionfct.config.CacheConfig;
+import com.adrian.gestionfct.dto.EmpresaRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
 import com.adrian.gestionfct.modelo.Empresa;
 import com.adrian.gestionfct.repositorios.EmpresaRepository;
+import com.adrian.gestionfct.repositorios.EmpresaSpecifications;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,23 +24,58 @@ import java.util.Optional;
 @Service
 public class EmpresaService {
 
+    private static final int MAX_RESULTADOS_BUSQUEDA = 200;
+
     @Autowired
     private EmpresaRepository empresaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @Autowired
+    private FusionEdiciones fusion;
+
+    // Cada escritura publica un CambioDatos con la fila de la tabla, para que las
+    // pantallas abiertas actualicen solo esa fila, y deja un aviso para los demás puestos.
+    // Las ediciones concurrentes de la misma empresa se fusionan en FusionEdiciones
+
+    @CacheEvict(cacheNames = { CacheConfig.EMPRESAS_ACTIVAS, CacheConfig.TUTORES_ACTIVOS,
+            CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public Empresa save(Empresa empresa) {
-        return empresaRepository.save(empresa);
+        return fusion.guardar(empresa, Empresa.CAMPOS_EDITABLES, empresaRepository::findById, this::guardar);
     }
 
+    private Empresa guardar(Empresa empresa) {
+        boolean nueva = empresa.getId() == null;
+        Empresa guardada = empresaRepository.save(empresa);
+        busCambios.avisar(Empresa.class, guardada.getId());
+        eventos.publishEvent(CambioDatos.guardado(Empresa.class, nueva, guardada.getId(), EmpresaRowView.de(guardada)));
+        return guardada;
+    }
+
+    @CacheEvict(cacheNames = { CacheConfig.EMPRESAS_ACTIVAS, CacheConfig.TUTORES_ACTIVOS,
+            CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public Empresa update(Empresa empresa) {
-        return empresaRepository.save(empresa);
+        return save(empresa);
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.EMPRESAS_ACTIVAS, CacheConfig.TUTORES_ACTIVOS,
+            CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void delete(Empresa empresa) {
         empresaRepository.delete(empresa);
+        busCambios.avisar(Empresa.class, empresa.getId());
+        eventos.publishEvent(CambioDatos.baja(Empresa.class, empresa.getId()));
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.EMPRESAS_ACTIVAS, CacheConfig.TUTORES_ACTIVOS,
+            CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void deleteById(Long id) {
         empresaRepository.deleteById(id);
+        busCambios.avisar(Empresa.class, id);
+        eventos.publishEvent(CambioDatos.baja(Empresa.class, id));
     }
 
     public Optional<Empresa> findById(Long id) {
@@ -39,6 +86,24 @@ public class EmpresaService {
         return empresaRepository.findAll();
     }
 
+    /**
+     * Obtiene las filas de solo lectura de la tabla de empresas.
+     */
+    public List<EmpresaRowView> findAllRows() {
+        return empresaRepository.findAllRows();
+    }
+
+    /**
+     * Busca una página de filas aplicando los filtros y el orden en la base de datos.
+     * Los filtros nulos o vacíos se ignoran.
+     */
+    public Page<EmpresaRowView> buscarFilas(Boolean activa, String texto, Pageable pageable) {
+        Specification<Empresa> spec = Specification.where(EmpresaSpecifications.conActiva(activa))
+                .and(EmpresaSpecifications.conTexto(texto));
+        return empresaRepository.findAll(spec, pageable).map(EmpresaRowView::de);
+    }
+
+    @Cacheable(CacheConfig.EMPRESAS_ACTIVAS)
     public List<Empresa> findActivas() {
         return empresaRepository.findByActivaTrue();
     }
@@ -47,8 +112,19 @@ public class EmpresaService {
         return empresaRepository.findByNif(nif);
     }
 
+    /**
+     * Busca empresas por nombre, NIF o localidad sin distinguir tildes ni mayúsculas.
+     */
     public List<Empresa> buscarPorNombre(String nombre) {
-        return empresaRepository.findByNombreContainingIgnoreCase(nombre);
+        String consulta = ClaveBusqueda.consultaPrefijos(nombre);
+        if (consulta == null) {
+            return List.of();
+        }
+        return empresaRepository.buscarPorClave(consulta, PageRequest.of(0, MAX_RESULTADOS_BUSQUEDA));
+    }
+
+    public long contar() {
+        return empresaRepository.count();
     }
 
     public boolean existeNif(String nif) {
@@ -59,7 +135,13 @@ public class EmpresaService {
         return empresaRepository.existsByEmail(email);
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.EMPRESAS_ACTIVAS, CacheConfig.TUTORES_ACTIVOS,
+            CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void deleteInBatch(List<Empresa> empresas) {
+        // Los ids se copian antes: la lista puede ser la selección de la tabla que se va a tocar
+        List<Long> ids = empresas.stream().map(Empresa::getId).toList();
         empresaRepository.deleteAll(empresas);
+        busCambios.avisar(Empresa.class, ids);
+        ids.forEach(id -> eventos.publishEvent(CambioDatos.baja(Empresa.class, id)));
     }
 }
@@ -1,49 +1,118 @@
 package com.adrian.gestionfct.services;
 
+import com.adrian.gestionfct.dto.EstudianteRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
 import com.adrian.gestionfct.modelo.Estudiante;
 import com.adrian.gestionfct.repositorios.EstudianteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class EstudianteService {
 
+    private static final int MAX_RESULTADOS_BUSQUEDA = 200;
+
     @Autowired
     private EstudianteRepository estudianteRepository;
 
-    // CRUD básico
-    @Transactional
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @Autowired
+    private FusionEdiciones fusion;
+
+    // CRUD básico (los cambios se avisan a las tablas abiertas al confirmar la transacción;
+    // el aviso para los demás puestos se confirma con el propio cambio)
+    // Las ediciones concurrentes del mismo estudiante se fusionan en FusionEdiciones
     public Estudiante guardar(Estudiante estudiante) {
         validar(estudiante);
-        return estudianteRepository.save(estudiante);
+        return fusion.guardar(estudiante, Estudiante.CAMPOS_EDITABLES, estudianteRepository::findById,
+                this::guardarValidado);
+    }
+
+    private Estudiante guardarValidado(Estudiante estudiante) {
+        boolean nuevo = estudiante.getId() == null;
+        Estudiante guardado = estudianteRepository.save(estudiante);
+        busCambios.avisar(Estudiante.class, guardado.getId());
+        eventos.publishEvent(CambioDatos.guardado(Estudiante.class, nuevo, guardado.getId(),
+                EstudianteRowView.de(guardado)));
+        return guardado;
     }
 
     @Transactional
     public void eliminar(Long id) {
         estudianteRepository.deleteById(id);
+        busCambios.avisar(Estudiante.class, id);
+        eventos.publishEvent(CambioDatos.baja(Estudiante.class, id));
     }
 
     public List<Estudiante> obtenerTodos() {
         return estudianteRepository.findAllByOrderByApellidosAsc();
     }
 
+    public long contarTodos() {
+        return estudianteRepository.count();
+    }
+
     public Optional<Estudiante> obtenerPorId(Long id) {
         return estudianteRepository.findById(id);
     }
 
-    // Búsquedas
+    // Filas de solo lectura para la tabla
+    public List<EstudianteRowView> obtenerFilas() {
+        return estudianteRepository.findAllRows();
+    }
+
+    public List<EstudianteRowView> buscarFilasPorNombreOApellidos(String busqueda) {
+        String consulta = ClaveBusqueda.consultaPrefijos(busqueda);
+        if (consulta == null) {
+            return obtenerFilas();
+        }
+        return estudianteRepository.buscarFilasPorClave(consulta, PageRequest.of(0, MAX_RESULTADOS_BUSQUEDA));
+    }
+
+    // Búsquedas (sin distinguir tildes ni mayúsculas; también por DNI y email)
     public List<Estudiante> buscarPorNombreOApellidos(String busqueda) {
-        return estudianteRepository.buscarPorNombreOApellidos(busqueda);
+        String consulta = ClaveBusqueda.consultaPrefijos(busqueda);
+        if (consulta == null) {
+            return List.of();
+        }
+        return estudianteRepository.buscarPorClave(consulta, PageRequest.of(0, MAX_RESULTADOS_BUSQUEDA));
     }
 
     public List<Estudiante> obtenerPorCiclo(String ciclo) {
         return estudianteRepository.findByCiclo(ciclo);
     }
 
+    /**
+     * Estudiantes activos de un grupo, ordenados por apellidos.
+     */
+    public List<Estudiante> obtenerActivosPorCicloYGrupo(String ciclo, String grupo) {
+        return estudianteRepository.findByCicloAndGrupo(ciclo, grupo).stream()
+                .filter(estudiante -> Boolean.TRUE.equals(estudiante.getActivo()))
+                .sorted(Comparator.comparing(Estudiante::getApellidos).thenComparing(Estudiante::getNombre))
+                .toList();
+    }
+
+    public List<String> obtenerCiclos() {
+        return estudianteRepository.findCiclosActivos();
+    }
+
+    public List<String> obtenerGrupos(String ciclo) {
+        return estudianteRepository.findGruposActivosByCiclo(ciclo);
+    }
+
     // Validaciones
     public void validar(Estudiante estudiante) {
         if (estudiante.getNombre() == null || estudiante.getNombre().trim().isEmpty()) {
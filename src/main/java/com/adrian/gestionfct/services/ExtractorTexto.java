@@ -0,0 +1,319 @@
+package com.adrian.gestionfct.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadView;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+/**
+ * Saca el texto de los archivos de los documentos para indexarlo: PDF (con PDFBox), DOCX
+ * (el XML del cuerpo, sin más dependencias) y texto plano. El formato se decide por la
+ * extensión del nombre y, si no la tiene, por el tipo de contenido.
+ *
+ * Un PDF escaneado no tiene texto y devuelve una cadena vacía. PDFBox lee el PDF por
+ * trozos directamente del archivo (o del tramo del paquete), sin cargarlo entero en
+ * memoria, y la extracción se para al llegar a {@value #LONGITUD_MAXIMA} caracteres.
+ */
+public final class ExtractorTexto {
+
+    /** Caracteres de texto que se guardan por documento. */
+    static final int LONGITUD_MAXIMA = 1_000_000;
+
+    private static final String CUERPO_DOCX = "word/document.xml";
+    private static final String NS_WORD = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    public enum Formato {
+        PDF, DOCX, TEXTO
+    }
+
+    private ExtractorTexto() {
+    }
+
+    /**
+     * Formato del que se sabe sacar el texto, o null si no es ninguno.
+     */
+    public static Formato formato(String nombre, String contentType) {
+        String extension = nombre != null && nombre.lastIndexOf('.') >= 0
+                ? nombre.substring(nombre.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT) : "";
+        String tipo = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (extension.equals("pdf") || tipo.equals("application/pdf")) {
+            return Formato.PDF;
+        }
+        if (extension.equals("docx") || tipo.equals(
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document")) {
+            return Formato.DOCX;
+        }
+        if (extension.equals("txt") || extension.equals("csv") || tipo.startsWith("text/")) {
+            return Formato.TEXTO;
+        }
+        return null;
+    }
+
+    /**
+     * Texto del contenido, recortado a {@value #LONGITUD_MAXIMA} caracteres.
+     */
+    public static String extraer(Formato formato, PaquetesDocumentos.Lectura lectura) throws IOException {
+        if (formato == Formato.PDF) {
+            return pdf(lectura);
+        }
+        try (InputStream entrada = lectura.flujo()) {
+            String texto = formato == Formato.DOCX
+                    ? docx(entrada)
+                    : texto(entrada.readNBytes(LONGITUD_MAXIMA * 4), entrada.read() >= 0);
+            return texto.length() > LONGITUD_MAXIMA ? texto.substring(0, LONGITUD_MAXIMA) : texto;
+        }
+    }
+
+    private static String pdf(PaquetesDocumentos.Lectura lectura) throws IOException {
+        TextoLimitado texto = new TextoLimitado();
+        try (PDDocument pdf = Loader.loadPDF(new TramoCanal(lectura))) {
+            new PDFTextStripper().writeText(pdf, texto);
+        } catch (TextoLimitado.Completo e) {
+            // Ya hay todo el texto que se guarda: el resto de páginas no se procesa
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Junta el texto hasta {@value #LONGITUD_MAXIMA} caracteres y entonces corta la
+     * extracción con {@link Completo}.
+     */
+    private static final class TextoLimitado extends Writer {
+
+        private static final class Completo extends IOException {
+            Completo() {
+                super("Texto completo");
+            }
+        }
+
+        private final StringBuilder texto = new StringBuilder();
+
+        @Override
+        public void write(char[] caracteres, int desde, int cuantos) throws IOException {
+            int caben = Math.min(cuantos, LONGITUD_MAXIMA - texto.length());
+            texto.append(caracteres, desde, caben);
+            if (caben < cuantos || texto.length() == LONGITUD_MAXIMA) {
+                throw new Completo();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return texto.toString();
+        }
+    }
+
+    /**
+     * El contenido de una {@link PaquetesDocumentos.Lectura} (el archivo suelto o su tramo
+     * del paquete) para PDFBox, leído por páginas de {@value #PAGINA} bytes según lo pide.
+     * Cerrarlo no cierra el canal: es de la lectura.
+     */
+    private static final class TramoCanal implements RandomAccessRead {
+
+        private static final int PAGINA = 64 * 1024;
+
+        private final PaquetesDocumentos.Lectura lectura;
+        private final byte[] pagina = new byte[PAGINA];
+        /** Posición en el contenido del primer byte de la página y cuántos tiene. */
+        private long inicioPagina;
+        private int enPagina;
+        private long posicion;
+        private boolean cerrado;
+
+        TramoCanal(PaquetesDocumentos.Lectura lectura) {
+            this.lectura = lectura;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!cargar()) {
+                return -1;
+            }
+            return pagina[(int) (posicion++ - inicioPagina)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cuantos) throws IOException {
+            if (cuantos == 0) {
+                return 0;
+            }
+            if (!cargar()) {
+                return -1;
+            }
+            int n = (int) Math.min(cuantos, inicioPagina + enPagina - posicion);
+            System.arraycopy(pagina, (int) (posicion - inicioPagina), destino, desde, n);
+            posicion += n;
+            return n;
+        }
+
+        /**
+         * Deja en la página el byte de la posición actual.
+         *
+         * @return false si no quedan bytes
+         */
+        private boolean cargar() throws IOException {
+            comprobarAbierto();
+            if (posicion >= inicioPagina && posicion < inicioPagina + enPagina) {
+                return true;
+            }
+            if (posicion >= lectura.tamano()) {
+                return false;
+            }
+            inicioPagina = posicion;
+            enPagina = 0;
+            ByteBuffer buffer = ByteBuffer.wrap(pagina, 0, (int) Math.min(PAGINA, lectura.tamano() - posicion));
+            while (buffer.hasRemaining()) {
+                int n = lectura.canal().read(buffer, lectura.posicion() + inicioPagina + buffer.position());
+                if (n < 0) {
+                    throw new IOException("El archivo del documento es más corto de lo esperado");
+                }
+            }
+            enPagina = buffer.position();
+            return true;
+        }
+
+        @Override
+        public long getPosition() throws IOException {
+            comprobarAbierto();
+            return posicion;
+        }
+
+        @Override
+        public void seek(long nueva) throws IOException {
+            comprobarAbierto();
+            if (nueva < 0) {
+                throw new IOException("Posición no válida: " + nueva);
+            }
+            posicion = Math.min(nueva, lectura.tamano());
+        }
+
+        @Override
+        public long length() throws IOException {
+            comprobarAbierto();
+            return lectura.tamano();
+        }
+
+        @Override
+        public boolean isEOF() throws IOException {
+            comprobarAbierto();
+            return posicion >= lectura.tamano();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return cerrado;
+        }
+
+        @Override
+        public RandomAccessReadView createView(long inicio, long longitud) throws IOException {
+            comprobarAbierto();
+            return new RandomAccessReadView(this, inicio, longitud);
+        }
+
+        @Override
+        public void close() {
+            cerrado = true;
+        }
+
+        private void comprobarAbierto() throws IOException {
+            if (cerrado) {
+                throw new IOException("La lectura del PDF está cerrada");
+            }
+        }
+    }
+
+    /**
+     * Lee los textos ({@code w:t}) del cuerpo del documento, con un salto de línea por
+     * párrafo y un espacio por tabulación o salto.
+     */
+    static String docx(InputStream entrada) throws IOException {
+        ZipInputStream zip = new ZipInputStream(entrada);
+        ZipEntry elemento;
+        while ((elemento = zip.getNextEntry()) != null) {
+            if (elemento.getName().equals(CUERPO_DOCX)) {
+                return textoWord(zip);
+            }
+        }
+        throw new IOException("No es un documento de Word: falta " + CUERPO_DOCX);
+    }
+
+    private static String textoWord(InputStream xml) throws IOException {
+        XMLInputFactory fabrica = XMLInputFactory.newFactory();
+        // Sin DTD ni entidades externas: el archivo lo ha subido un usuario
+        fabrica.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        fabrica.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        StringBuilder texto = new StringBuilder();
+        try {
+            XMLStreamReader lector = fabrica.createXMLStreamReader(xml, StandardCharsets.UTF_8.name());
+            boolean enTexto = false;
+            while (lector.hasNext() && texto.length() < LONGITUD_MAXIMA) {
+                int evento = lector.next();
+                if (evento == XMLStreamConstants.START_ELEMENT && NS_WORD.equals(lector.getNamespaceURI())) {
+                    switch (lector.getLocalName()) {
+                        case "t" -> enTexto = true;
+                        case "tab", "br", "cr" -> texto.append(' ');
+                        default -> { }
+                    }
+                } else if (evento == XMLStreamConstants.END_ELEMENT && NS_WORD.equals(lector.getNamespaceURI())) {
+                    switch (lector.getLocalName()) {
+                        case "t" -> enTexto = false;
+                        case "p" -> texto.append('\n');
+                        default -> { }
+                    }
+                } else if (enTexto && evento == XMLStreamConstants.CHARACTERS) {
+                    texto.append(lector.getText());
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("El documento de Word está dañado: " + e.getMessage(), e);
+        }
+        return texto.toString();
+    }
+
+    /**
+     * UTF-8 si lo es; si no, Windows-1252 (los .txt guardados con el Bloc de notas antiguo).
+     *
+     * @param recortado true si el archivo sigue después de {@code bytes}: un carácter
+     *                  partido al final no hace que deje de ser UTF-8
+     */
+    static String texto(byte[] bytes, boolean recortado) {
+        CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer texto = CharBuffer.allocate(bytes.length);
+        CoderResult resultado = utf8.decode(ByteBuffer.wrap(bytes), texto, !recortado);
+        if (resultado.isError()) {
+            return new String(bytes, Charset.forName("windows-1252"));
+        }
+        String leido = texto.flip().toString();
+        return leido.startsWith("\uFEFF") ? leido.substring(1) : leido;
+    }
+}
@@ -1,13 +1,35 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.adrian.gestionfct.dto.AsignacionRequest;
+import com.adrian.gestionfct.dto.FctRowView;
+import com.adrian.gestionfct.dto.PlazaFct;
+import com.adrian.gestionfct.dto.ResultadoAsignacion;
+import com.adrian.gestionfct.dto.VersionDatos;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.exception.OperacionNoPermitidaException;
 import com.adrian.gestionfct.modelo.*;
 import com.adrian.gestionfct.repositorios.FCTRepository;
+import com.adrian.gestionfct.repositorios.FCTSpecifications;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class FCTService {
@@ -15,20 +37,57 @@ public class FCTService {
     @Autowired
     private FCTRepository fctRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @Autowired
+    private PlazasEmpresaService plazasService;
+
+    @Autowired
+    private FusionEdiciones fusion;
+
+    // Cada escritura publica un CambioDatos con la fila ya unida, para que las tablas
+    // abiertas actualicen solo esa fila, y deja un aviso para los demás puestos. Las FCT
+    // no canceladas ocupan una plaza de su empresa en el periodo (ver PlazasEmpresaService)
+
+    /**
+     * Guarda la FCT. Si otro usuario la ha guardado mientras tanto, fusiona las dos
+     * ediciones o lanza {@link com.adrian.gestionfct.exception.ConflictoEdicionException}.
+     */
     public FCT save(FCT fct) {
-        return fctRepository.save(fct);
+        return fusion.guardar(fct, FCT.CAMPOS_EDITABLES, fctRepository::findByIdForListing, this::guardar);
+    }
+
+    private FCT guardar(FCT fct) {
+        boolean nueva = fct.getId() == null;
+        cambiarPlaza(nueva ? null : fctRepository.findPlazaById(fct.getId()).orElse(null), plazaDe(fct));
+        FCT guardada = fctRepository.save(fct);
+        busCambios.avisar(FCT.class, guardada.getId());
+        publicarGuardado(guardada, nueva);
+        return guardada;
     }
 
     public FCT update(FCT fct) {
-        return fctRepository.save(fct);
+        return save(fct);
     }
 
+    @Transactional
     public void delete(FCT fct) {
+        fctRepository.findPlazaById(fct.getId()).ifPresent(plaza -> cambiarPlaza(plaza, null));
         fctRepository.delete(fct);
+        busCambios.avisar(FCT.class, fct.getId());
+        eventos.publishEvent(CambioDatos.baja(FCT.class, fct.getId()));
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        fctRepository.findPlazaById(id).ifPresent(plaza -> cambiarPlaza(plaza, null));
         fctRepository.deleteById(id);
+        busCambios.avisar(FCT.class, id);
+        eventos.publishEvent(CambioDatos.baja(FCT.class, id));
     }
 
     public Optional<FCT> findById(Long id) {
@@ -39,6 +98,61 @@ public class FCTService {
         return fctRepository.findAll();
     }
 
+    /**
+     * Obtiene todas las FCT con sus asociaciones ya cargadas, listas para
+     * mostrarse en tablas sin consultas adicionales por fila.
+     */
+    public List<FCT> findAllParaListado() {
+        return fctRepository.findAllForListing();
+    }
+
+    /**
+     * Obtiene las FCT activas con sus asociaciones ya cargadas.
+     */
+    public List<FCT> findActivasParaListado() {
+        return fctRepository.findByEstadoForListing(EstadoFCT.ACTIVA);
+    }
+
+    /**
+     * Obtiene una FCT con sus asociaciones ya cargadas.
+     */
+    public Optional<FCT> findByIdParaListado(Long id) {
+        return fctRepository.findByIdForListing(id);
+    }
+
+    /**
+     * Obtiene las filas de solo lectura de la tabla de asignaciones.
+     */
+    public List<FctRowView> findAllRows() {
+        return fctRepository.findAllRows();
+    }
+
+    /**
+     * Obtiene la fila de la tabla de asignaciones de una FCT.
+     */
+    public Optional<FctRowView> findRowById(Long id) {
+        return fctRepository.findRowById(id);
+    }
+
+    /**
+     * Busca una página de filas aplicando los filtros y el orden en la base de datos.
+     * Los filtros nulos o vacíos se ignoran.
+     */
+    public Page<FctRowView> buscarFilas(EstadoFCT estado, CursoAcademico curso, String texto, Pageable pageable) {
+        Specification<FCT> spec = Specification.where(FCTSpecifications.conEstado(estado))
+                .and(FCTSpecifications.deCursoAcademico(curso))
+                .and(FCTSpecifications.conTexto(texto));
+        return fctRepository.findAll(spec, pageable).map(FctRowView::de);
+    }
+
+    /**
+     * Versión de los datos de FCT, para comprobar con una consulta mínima si lo que
+     * muestra una pantalla ha cambiado.
+     */
+    public VersionDatos obtenerVersion() {
+        return fctRepository.obtenerVersion();
+    }
+
     public List<FCT> findByEstudiante(Estudiante estudiante) {
         return fctRepository.findByEstudiante(estudiante);
     }
@@ -75,6 +189,21 @@ public class FCTService {
         return fctRepository.findByCursoAcademicoAndEstado(cursoAcademico, estado);
     }
 
+    public long contarPorEstado(EstadoFCT estado) {
+        return fctRepository.countByEstado(estado);
+    }
+
+    public long contarPorEmpresa(Empresa empresa) {
+        return fctRepository.countByEmpresa(empresa);
+    }
+
+    /**
+     * Verifica si una empresa tiene alguna FCT asociada sin cargar la lista.
+     */
+    public boolean existenFctsDeEmpresa(Empresa empresa) {
+        return fctRepository.existsByEmpresa(empresa);
+    }
+
     /**
      * Verifica si un estudiante ya tiene una FCT asignada en un periodo.
      */
@@ -87,6 +216,126 @@ public class FCTService {
      */
     public FCT crearAsignacion(Estudiante estudiante, Empresa empresa, TutorEmpresa tutorEmpresa, Periodo periodo) {
         FCT fct = new FCT(estudiante, empresa, tutorEmpresa, periodo);
-        return fctRepository.save(fct);
+        return save(fct);
+    }
+
+    /**
+     * Estudiantes, de entre los dados, que ya tienen FCT en el periodo.
+     */
+    public Set<Long> estudiantesConFct(Periodo periodo, Collection<Long> estudianteIds) {
+        if (estudianteIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(fctRepository.findEstudiantesConFct(periodo.getId(), estudianteIds));
+    }
+
+    /**
+     * Crea las FCT de varios estudiantes en un mismo periodo, en una sola transacción.
+     *
+     * Los duplicados se comprueban con una única consulta para todo el bloque y las filas
+     * se insertan por lotes JDBC (los ids se reservan por bloques, ver GeneradorIds). Las
+     * peticiones incompletas, de estudiantes que ya tienen FCT en el periodo o que no caben
+     * en las plazas de su empresa no se crean y se devuelven como conflictos; el resto se
+     * crea igualmente.
+     *
+     * @throws OperacionNoPermitidaException si otro usuario asigna a alguno de los
+     *         estudiantes mientras tanto; entonces no se crea ninguna
+     */
+    @Transactional
+    public ResultadoAsignacion asignarEnBloque(List<AsignacionRequest> peticiones, Periodo periodo) {
+        List<Long> estudianteIds = peticiones.stream()
+                .filter(peticion -> peticion.estudiante() != null)
+                .map(peticion -> peticion.estudiante().getId())
+                .toList();
+        Set<Long> yaAsignados = estudiantesConFct(periodo, estudianteIds);
+
+        List<AsignacionRequest> validas = new ArrayList<>();
+        List<ResultadoAsignacion.Conflicto> conflictos = new ArrayList<>();
+        Set<Long> enElBloque = new HashSet<>();
+        for (AsignacionRequest peticion : peticiones) {
+            String motivo = null;
+            if (peticion.estudiante() == null || peticion.empresa() == null || peticion.tutorEmpresa() == null) {
+                motivo = "Faltan el estudiante, la empresa o el tutor";
+            } else if (yaAsignados.contains(peticion.estudiante().getId())) {
+                motivo = "Ya tiene una FCT asignada en este periodo";
+            } else if (!enElBloque.add(peticion.estudiante().getId())) {
+                motivo = "Está repetido en el bloque";
+            }
+            if (motivo != null) {
+                conflictos.add(new ResultadoAsignacion.Conflicto(peticion, motivo));
+            } else {
+                validas.add(peticion);
+            }
+        }
+        validas = reservarPlazas(validas, periodo, conflictos);
+        if (validas.isEmpty()) {
+            return new ResultadoAsignacion(List.of(), conflictos);
+        }
+
+        // Con los ids por bloques, los INSERT salen en lotes JDBC al hacer flush
+        List<FCT> nuevas = validas.stream()
+                .map(peticion -> new FCT(peticion.estudiante(), peticion.empresa(), peticion.tutorEmpresa(), periodo))
+                .toList();
+        try {
+            fctRepository.saveAll(nuevas);
+            fctRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // uk_estudiante_periodo: alguien ha asignado a uno de ellos después de la comprobación
+            throw new OperacionNoPermitidaException("asignación en bloque",
+                    "otro usuario acaba de asignar FCT a alguno de estos estudiantes; vuelva a intentarlo");
+        }
+
+        // Las filas creadas, con sus ids, en una sola consulta
+        List<FctRowView> creadas = fctRepository.findRowsByPeriodoAndEstudiantes(periodo.getId(),
+                nuevas.stream().map(fct -> fct.getEstudiante().getId()).toList());
+        busCambios.avisar(FCT.class, creadas.stream().map(FctRowView::id).toList());
+        creadas.forEach(fila -> eventos.publishEvent(CambioDatos.guardado(FCT.class, true, fila.id(), fila)));
+        return new ResultadoAsignacion(creadas, conflictos);
+    }
+
+    /**
+     * Reserva las plazas de cada empresa para las peticiones del bloque. Las que no caben
+     * pasan a conflictos; si después se deshace la transacción, las plazas se devuelven.
+     */
+    private List<AsignacionRequest> reservarPlazas(List<AsignacionRequest> peticiones, Periodo periodo,
+            List<ResultadoAsignacion.Conflicto> conflictos) {
+        Map<Long, List<AsignacionRequest>> porEmpresa = peticiones.stream()
+                .collect(Collectors.groupingBy(peticion -> peticion.empresa().getId(), TreeMap::new,
+                        Collectors.toList()));
+        List<AsignacionRequest> conPlaza = new ArrayList<>();
+        porEmpresa.forEach((empresaId, deLaEmpresa) -> {
+            int reservadas = plazasService.reservar(empresaId, periodo.getId(), deLaEmpresa.size());
+            conPlaza.addAll(deLaEmpresa.subList(0, reservadas));
+            deLaEmpresa.subList(reservadas, deLaEmpresa.size()).forEach(peticion -> conflictos.add(
+                    new ResultadoAsignacion.Conflicto(peticion, "La empresa no tiene más plazas en el periodo")));
+        });
+        return conPlaza;
+    }
+
+    private static PlazaFct plazaDe(FCT fct) {
+        return fct.getEstado() == EstadoFCT.CANCELADA ? null
+                : new PlazaFct(fct.getEmpresa().getId(), fct.getPeriodo().getId());
+    }
+
+    /**
+     * Ocupa la plaza nueva y libera la anterior si la FCT cambia de empresa, se cancela o
+     * se borra. La nueva se reserva antes de guardar, para fallar sin tocar nada si no cabe.
+     */
+    private void cambiarPlaza(PlazaFct anterior, PlazaFct nueva) {
+        if (Objects.equals(anterior, nueva)) {
+            return;
+        }
+        if (nueva != null) {
+            plazasService.reservarUna(nueva.empresaId(), nueva.periodoId());
+        }
+        if (anterior != null) {
+            plazasService.liberar(anterior.empresaId(), anterior.periodoId(), 1);
+        }
+    }
+
+    private void publicarGuardado(FCT fct, boolean nueva) {
+        // La fila se consulta por id: la entidad guardada puede traer sus asociaciones sin cargar
+        fctRepository.findRowById(fct.getId())
+                .ifPresent(fila -> eventos.publishEvent(CambioDatos.guardado(FCT.class, nueva, fct.getId(), fila)));
     }
 }
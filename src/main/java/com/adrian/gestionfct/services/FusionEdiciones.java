@@ -0,0 +1,77 @@
+package com.adrian.gestionfct.services;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.adrian.gestionfct.exception.ConflictoEdicionException;
+import com.adrian.gestionfct.exception.EntidadNoEncontradaException;
+import com.adrian.gestionfct.modelo.CamposEditables;
+import com.adrian.gestionfct.modelo.Editable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Guardado de ediciones con control de versiones optimista.
+ *
+ * Si otro usuario ha guardado la fila desde que se cargó, se relee y se fusionan las dos
+ * ediciones campo a campo: lo que solo cambió uno se conserva y se vuelve a intentar. Si
+ * los dos cambiaron el mismo campo se lanza {@link ConflictoEdicionException} para que
+ * decida el usuario. Cada intento va en su propia transacción, de modo que el que falla
+ * deshace también lo que hiciera el servicio (plazas, avisos) antes de repetirse.
+ */
+@Service
+public class FusionEdiciones {
+
+    /** Intentos de guardar antes de rendirse si la fila no deja de cambiar. */
+    static final int MAX_INTENTOS = 3;
+
+    private final TransactionTemplate transaccion;
+
+    public FusionEdiciones(PlatformTransactionManager gestorTransacciones) {
+        this.transaccion = new TransactionTemplate(gestorTransacciones);
+    }
+
+    /**
+     * @param editada entidad editada por el usuario, cargada antes de editarla
+     * @param campos  campos que se pueden fusionar
+     * @param releer  lee la fila actual por id, con las relaciones que muestra el conflicto
+     * @param guardar guarda la entidad; se ejecuta dentro de la transacción del intento
+     * @return la entidad guardada
+     * @throws ConflictoEdicionException si las dos ediciones cambian el mismo campo
+     */
+    public <T extends Editable> T guardar(T editada, CamposEditables<T> campos, Function<Long, Optional<T>> releer,
+            UnaryOperator<T> guardar) {
+        T aGuardar = editada;
+        for (int intento = 1;; intento++) {
+            try {
+                T candidata = aGuardar;
+                return transaccion.execute(estado -> guardar.apply(candidata));
+            } catch (OptimisticLockingFailureException e) {
+                if (editada.getId() == null || intento == MAX_INTENTOS) {
+                    throw e;
+                }
+            }
+            T mia = aGuardar;
+            // La relectura y la fusión en una transacción: los textos del conflicto pueden
+            // recorrer relaciones perezosas de la fila actual
+            Fusion<T> fusion = transaccion.execute(estado -> {
+                T actual = releer.apply(mia.getId())
+                        .orElseThrow(() -> new EntidadNoEncontradaException(
+                                mia.getClass().getSimpleName(), mia.getId()));
+                return new Fusion<>(actual, campos.fusionar(mia, actual));
+            });
+            if (!fusion.conflictos().isEmpty()) {
+                throw new ConflictoEdicionException(fusion.actual(), fusion.conflictos());
+            }
+            aGuardar = fusion.actual();
+        }
+    }
+
+    private record Fusion<T>(T actual, List<CamposEditables.Diferencia> conflictos) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.adrian.gestionfct.services;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.modelo.TextoDocumento;
+import com.adrian.gestionfct.repositorios.DocumentoRepository;
+import com.adrian.gestionfct.repositorios.TextoDocumentoRepository;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Extrae en segundo plano el texto de los documentos y lo guarda en textos_documento,
+ * cuyo índice FULLTEXT es el que usa la búsqueda por contenido.
+ *
+ * Cada documento nuevo se encola al confirmarse su alta; al arrancar se encolan los que
+ * aún no tienen texto (subidos con la aplicación cerrada en este puesto, o cuya extracción
+ * se cortó), así que el índice se pone al día solo. Los que quedaron en ERROR también se
+ * vuelven a intentar al arrancar: el fallo puede ser pasajero (almacén en red no
+ * disponible, archivo bloqueado). Un documento borrado antes de
+ * extraerse se quita de la cola, y su texto se borra con él por la clave ajena.
+ *
+ * Un solo hilo, de baja prioridad: extraer un PDF grande no debe quitar CPU a las
+ * pantallas.
+ */
+@Service
+public class IndexadorContenidos {
+
+    private static final Logger LOG = getLogger(IndexadorContenidos.class);
+
+    @Autowired
+    private DocumentoRepository documentoRepository;
+
+    @Autowired
+    private TextoDocumentoRepository textoRepository;
+
+    @Autowired
+    private AlmacenDocumentos almacen;
+
+    /** Archivos más grandes no se leen: se guardan como sin texto. */
+    @Value("${gestionfct.documentos.contenido.max-mb:50}")
+    private long maxMb;
+
+    private final ExecutorService extractor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "indexado-contenidos");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        return hilo;
+    });
+    /** Documentos encolados y aún sin procesar. */
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ponerAlDia() {
+        extractor.execute(() -> textoRepository.findDocumentIdsToIndex().forEach(this::encolar));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiar(CambioDatos cambio) {
+        if (!cambio.es(Documento.class)) {
+            return;
+        }
+        if (cambio.tipo() == CambioDatos.Tipo.ALTA) {
+            encolar(cambio.id());
+        } else if (cambio.tipo() == CambioDatos.Tipo.BAJA) {
+            pendientes.remove(cambio.id());
+        }
+    }
+
+    /**
+     * Documentos que faltan por indexar en este puesto.
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    private void encolar(Long id) {
+        if (pendientes.add(id)) {
+            extractor.execute(() -> {
+                if (pendientes.contains(id)) {
+                    try {
+                        indexar(id);
+                    } finally {
+                        pendientes.remove(id);
+                    }
+                }
+            });
+        }
+    }
+
+    private void indexar(Long id) {
+        Optional<TextoDocumento> previo = textoRepository.findById(id);
+        if (previo.isPresent() && previo.get().getEstado() != TextoDocumento.Estado.ERROR) {
+            return;
+        }
+        Optional<Documento> documento = documentoRepository.findById(id);
+        if (documento.isEmpty()) {
+            return;
+        }
+        try {
+            textoRepository.save(extraer(documento.get()));
+        } catch (DataIntegrityViolationException e) {
+            // Borrado mientras se extraía, o indexado a la vez desde otro puesto
+        } catch (RuntimeException e) {
+            LOG.warn("No se pudo indexar el documento {}", id, e);
+        }
+    }
+
+    private TextoDocumento extraer(Documento documento) {
+        ExtractorTexto.Formato formato = ExtractorTexto.formato(documento.getNombre(), documento.getContentType());
+        if (formato == null) {
+            return new TextoDocumento(documento.getId(), TextoDocumento.Estado.SIN_TEXTO, null);
+        }
+        try (PaquetesDocumentos.Lectura lectura = almacen.abrir(documento)) {
+            if (lectura.tamano() > maxMb * 1024 * 1024) {
+                return new TextoDocumento(documento.getId(), TextoDocumento.Estado.SIN_TEXTO, null);
+            }
+            String texto = ExtractorTexto.extraer(formato, lectura);
+            return texto.isBlank()
+                    ? new TextoDocumento(documento.getId(), TextoDocumento.Estado.SIN_TEXTO, null)
+                    : new TextoDocumento(documento.getId(), TextoDocumento.Estado.EXTRAIDO, texto);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("No se pudo extraer el texto de '{}' ({})", documento.getNombre(), documento.getId(), e);
+            return new TextoDocumento(documento.getId(), TextoDocumento.Estado.ERROR, null);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        extractor.shutdownNow();
+    }
+}
@@ -0,0 +1,324 @@
+package com.adrian.gestionfct.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+/**
+ * Índice de los contenidos guardados en los paquetes: para cada SHA-256, el paquete, la
+ * posición y el tamaño. Es una tabla hash de direccionamiento abierto sobre un archivo
+ * proyectado en memoria, así que buscar un contenido lee solo su hueco (y los siguientes
+ * si choca) sin cargar el índice en el heap ni leerlo al arrancar.
+ *
+ * Cada hueco ocupa {@value #HUECO} bytes alineados, así que nunca queda partido entre dos
+ * sectores del disco, y su estado se escribe el último. Como los hash ya están repartidos
+ * uniformemente, el hueco inicial sale de sus primeros 8 bytes.
+ *
+ * Al llenarse hasta {@value #CARGA_MAXIMA} se reconstruye en un archivo nuevo con el doble
+ * de huecos ({@code indice.<generación>.idx}) y se abre el de generación más alta cuya
+ * cabecera esté completa. El archivo anterior se borra si se puede: en Windows no se puede
+ * borrar mientras siga proyectado y se borra la próxima vez que se abra el índice.
+ *
+ * No es seguro entre hilos: {@link PaquetesDocumentos} lo usa siempre con su cerrojo.
+ */
+final class IndicePaquetes implements AutoCloseable {
+
+    private static final int MAGIA = 0x47464950; // "GFIP"
+    private static final int CABECERA = 64;
+    static final int HUECO = 64;
+    static final double CARGA_MAXIMA = 0.7;
+    static final int CAPACIDAD_INICIAL = 1024;
+
+    private static final int LIBRE = 0;
+    private static final int OCUPADO = 1;
+    private static final int BORRADO = 2;
+
+    // Posiciones dentro de la cabecera
+    private static final int CAB_MAGIA = 0;
+    private static final int CAB_CAPACIDAD = 4;
+    private static final int CAB_OCUPADOS = 8;
+    private static final int CAB_BORRADOS = 12;
+
+    // Posiciones dentro de cada hueco
+    private static final int H_HASH = 0;
+    private static final int H_PAQUETE = 32;
+    private static final int H_ESTADO = 36;
+    private static final int H_POSICION = 40;
+    private static final int H_TAMANO = 48;
+
+    /**
+     * Contenido guardado en un paquete: {@code posicion} es el primer byte del contenido,
+     * tras su cabecera.
+     */
+    record Entrada(String hash, int paquete, long posicion, long tamano) {
+    }
+
+    private final Path carpeta;
+    private int generacion;
+    private int capacidad;
+    private MappedByteBuffer mapa;
+
+    private IndicePaquetes(Path carpeta) {
+        this.carpeta = carpeta;
+    }
+
+    /**
+     * Abre el índice de la carpeta o lo crea vacío.
+     */
+    static IndicePaquetes abrir(Path carpeta) throws IOException {
+        IndicePaquetes indice = new IndicePaquetes(carpeta);
+        int ultima = -1;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "indice.*.idx")) {
+            for (Path archivo : archivos) {
+                int generacion = generacionDe(archivo);
+                if (generacion > ultima && cabeceraCompleta(archivo)) {
+                    ultima = generacion;
+                }
+            }
+        }
+        if (ultima < 0) {
+            indice.crear(0, CAPACIDAD_INICIAL);
+        } else {
+            indice.proyectar(ultima);
+        }
+        indice.borrarAnteriores();
+        return indice;
+    }
+
+    int getOcupados() {
+        return mapa.getInt(CAB_OCUPADOS);
+    }
+
+    int getCapacidad() {
+        return capacidad;
+    }
+
+    Entrada buscar(String hash) {
+        byte[] clave = HexFormat.of().parseHex(hash);
+        int hueco = buscarHueco(clave);
+        return hueco < 0 ? null : leer(hueco);
+    }
+
+    /**
+     * Apunta el contenido o, si ya estaba, cambia su sitio (al compactar).
+     */
+    void poner(String hash, int paquete, long posicion, long tamano) throws IOException {
+        byte[] clave = HexFormat.of().parseHex(hash);
+        int existente = buscarHueco(clave);
+        if (existente >= 0) {
+            escribir(existente, clave, paquete, posicion, tamano);
+            return;
+        }
+        if (getOcupados() + mapa.getInt(CAB_BORRADOS) + 1 > capacidad * CARGA_MAXIMA) {
+            crecer();
+        }
+        int hueco = inicio(clave, capacidad);
+        while (estado(hueco) == OCUPADO) {
+            hueco = (hueco + 1) % capacidad;
+        }
+        if (estado(hueco) == BORRADO) {
+            mapa.putInt(CAB_BORRADOS, mapa.getInt(CAB_BORRADOS) - 1);
+        }
+        escribir(hueco, clave, paquete, posicion, tamano);
+        mapa.putInt(CAB_OCUPADOS, getOcupados() + 1);
+    }
+
+    /**
+     * Quita el contenido. El hueco queda marcado como borrado para no cortar la búsqueda
+     * de los que chocaron con él; se recupera al crecer o al reutilizarlo.
+     */
+    boolean quitar(String hash) {
+        int hueco = buscarHueco(HexFormat.of().parseHex(hash));
+        if (hueco < 0) {
+            return false;
+        }
+        mapa.putInt(base(hueco) + H_ESTADO, BORRADO);
+        mapa.putInt(CAB_OCUPADOS, getOcupados() - 1);
+        mapa.putInt(CAB_BORRADOS, mapa.getInt(CAB_BORRADOS) + 1);
+        return true;
+    }
+
+    void recorrer(Consumer<Entrada> accion) {
+        for (int hueco = 0; hueco < capacidad; hueco++) {
+            if (estado(hueco) == OCUPADO) {
+                accion.accept(leer(hueco));
+            }
+        }
+    }
+
+    /**
+     * Escribe en disco los huecos cambiados.
+     */
+    void forzar() {
+        mapa.force();
+    }
+
+    @Override
+    public void close() {
+        forzar();
+        mapa = null;
+    }
+
+    // ============== HUECOS ==============
+
+    private int buscarHueco(byte[] clave) {
+        int hueco = inicio(clave, capacidad);
+        for (int probados = 0; probados < capacidad; probados++) {
+            int estado = estado(hueco);
+            if (estado == LIBRE) {
+                return -1;
+            }
+            if (estado == OCUPADO && mismaClave(hueco, clave)) {
+                return hueco;
+            }
+            hueco = (hueco + 1) % capacidad;
+        }
+        return -1;
+    }
+
+    private static int inicio(byte[] clave, int capacidad) {
+        return (int) Long.remainderUnsigned(ByteBuffer.wrap(clave).getLong(), capacidad);
+    }
+
+    private static int base(int hueco) {
+        return CABECERA + hueco * HUECO;
+    }
+
+    private int estado(int hueco) {
+        return mapa.getInt(base(hueco) + H_ESTADO);
+    }
+
+    private boolean mismaClave(int hueco, byte[] clave) {
+        int base = base(hueco) + H_HASH;
+        for (int i = 0; i < clave.length; i++) {
+            if (mapa.get(base + i) != clave[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entrada leer(int hueco) {
+        int base = base(hueco);
+        byte[] clave = new byte[32];
+        mapa.get(base + H_HASH, clave);
+        return new Entrada(HexFormat.of().formatHex(clave), mapa.getInt(base + H_PAQUETE),
+                mapa.getLong(base + H_POSICION), mapa.getLong(base + H_TAMANO));
+    }
+
+    private void escribir(int hueco, byte[] clave, int paquete, long posicion, long tamano) {
+        int base = base(hueco);
+        mapa.put(base + H_HASH, clave);
+        mapa.putInt(base + H_PAQUETE, paquete);
+        mapa.putLong(base + H_POSICION, posicion);
+        mapa.putLong(base + H_TAMANO, tamano);
+        mapa.putInt(base + H_ESTADO, OCUPADO);
+    }
+
+    // ============== ARCHIVOS ==============
+
+    private void crecer() throws IOException {
+        // Si sobran huecos borrados basta con reconstruirlo del mismo tamaño
+        int nueva = getOcupados() + 1 > capacidad * CARGA_MAXIMA / 2 ? capacidad * 2 : capacidad;
+        MappedByteBuffer anterior = mapa;
+        int capacidadAnterior = capacidad;
+        crear(generacion + 1, nueva);
+        for (int hueco = 0; hueco < capacidadAnterior; hueco++) {
+            int base = base(hueco);
+            if (anterior.getInt(base + H_ESTADO) != OCUPADO) {
+                continue;
+            }
+            byte[] clave = new byte[32];
+            anterior.get(base + H_HASH, clave);
+            int destino = inicio(clave, capacidad);
+            while (estado(destino) != LIBRE) {
+                destino = (destino + 1) % capacidad;
+            }
+            escribir(destino, clave, anterior.getInt(base + H_PAQUETE), anterior.getLong(base + H_POSICION),
+                    anterior.getLong(base + H_TAMANO));
+            mapa.putInt(CAB_OCUPADOS, getOcupados() + 1);
+        }
+        completar();
+        borrarAnteriores();
+    }
+
+    /**
+     * Crea un índice vacío. La magia se escribe con {@link #completar()}, cuando ya está
+     * lleno y en disco, para que un índice a medio construir nunca se abra.
+     */
+    private void crear(int generacion, int capacidad) throws IOException {
+        Path archivo = archivoDe(generacion);
+        Files.deleteIfExists(archivo);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) capacidad * HUECO);
+        }
+        this.generacion = generacion;
+        this.capacidad = capacidad;
+        mapa.putInt(CAB_CAPACIDAD, capacidad);
+        if (generacion == 0) {
+            completar();
+        }
+    }
+
+    private void completar() {
+        mapa.force();
+        mapa.putInt(CAB_MAGIA, MAGIA);
+        mapa.force();
+    }
+
+    private void proyectar(int generacion) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivoDe(generacion), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        }
+        this.generacion = generacion;
+        this.capacidad = mapa.getInt(CAB_CAPACIDAD);
+    }
+
+    private void borrarAnteriores() throws IOException {
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "indice.*.idx")) {
+            for (Path archivo : archivos) {
+                if (generacionDe(archivo) != generacion) {
+                    try {
+                        Files.deleteIfExists(archivo);
+                    } catch (IOException e) {
+                        // Aún proyectado: se borra al abrir el índice la próxima vez
+                    }
+                }
+            }
+        }
+    }
+
+    private Path archivoDe(int generacion) {
+        return carpeta.resolve("indice." + generacion + ".idx");
+    }
+
+    private static int generacionDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        try {
+            return Integer.parseInt(nombre.substring("indice.".length(), nombre.length() - ".idx".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean cabeceraCompleta(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            if (canal.size() < CABECERA || canal.read(cabecera, 0) < CABECERA) {
+                return false;
+            }
+            int capacidad = cabecera.getInt(CAB_CAPACIDAD);
+            return cabecera.getInt(CAB_MAGIA) == MAGIA && capacidad > 0
+                    && canal.size() == CABECERA + (long) capacidad * HUECO;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.adrian.gestionfct.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Colocación óptima de estudiantes en empresas, resuelta como un flujo de coste mínimo.
+ *
+ * La red va de cada estudiante a las empresas que ha pedido (coste según el orden de la
+ * preferencia) y, a través de un nodo por ciclo, a las empresas compatibles con su ciclo
+ * (coste fijo mayor). Cada empresa limita sus plazas y reparte entre sus tutores; el
+ * k-ésimo estudiante que recibe un tutor cuesta su carga actual más k, así que la carga
+ * se reparte. El flujo máximo coloca a todos los que se puede y, entre esas soluciones,
+ * el coste mínimo respeta las preferencias y equilibra a los tutores.
+ *
+ * Los grupos de estudiantes y empresas que no comparten ninguna arista (p. ej. ciclos
+ * sin sectores en común) se resuelven por separado y en paralelo.
+ *
+ * Es código puro, sin acceso a datos: {@link ColocacionService} prepara la entrada.
+ */
+public final class OptimizadorColocacion {
+
+    /** Preferencias que se tienen en cuenta por estudiante. */
+    public static final int MAX_PREFERENCIAS = 5;
+
+    /** Coste de cada puesto en la lista de preferencias (la primera no cuesta). */
+    static final int PESO_PREFERENCIA = 3;
+
+    /** Coste de una empresa compatible que el estudiante no ha pedido; mayor que cualquier preferencia. */
+    static final int COSTE_SIN_PREFERENCIA = 20;
+
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    /**
+     * Estudiante por colocar, con las empresas que prefiere en orden.
+     */
+    public record Alumno(long id, String ciclo, List<Long> preferencias) {
+    }
+
+    /**
+     * Empresa: plazas que puede cubrir aún y ciclos compatibles con su sector.
+     */
+    public record Puesto(long empresaId, int plazas, Set<String> ciclos) {
+    }
+
+    /**
+     * Tutor de empresa: estudiantes que puede recibir aún y los que ya tiene.
+     */
+    public record Tutor(long id, long empresaId, int plazasLibres, int carga) {
+    }
+
+    /**
+     * @param preferencia posición de la empresa en las preferencias del estudiante; -1 si no la pidió
+     */
+    public record Asignacion(long alumnoId, long empresaId, long tutorId, int preferencia) {
+    }
+
+    public record Resultado(List<Asignacion> asignaciones, List<Long> sinPlaza, long coste) {
+    }
+
+    private OptimizadorColocacion() {
+    }
+
+    public static Resultado resolver(List<Alumno> alumnos, List<Puesto> puestos, List<Tutor> tutores) {
+        List<String> ciclos = alumnos.stream().map(Alumno::ciclo).distinct().toList();
+        Map<String, Integer> indiceCiclo = new HashMap<>();
+        ciclos.forEach(ciclo -> indiceCiclo.put(ciclo, indiceCiclo.size()));
+        Map<Long, Integer> indicePuesto = new HashMap<>();
+        puestos.forEach(puesto -> indicePuesto.put(puesto.empresaId(), indicePuesto.size()));
+
+        // Componentes conexas: alumnos [0, A), ciclos [A, A + C), puestos [A + C, A + C + P)
+        int a = alumnos.size();
+        int c = ciclos.size();
+        UnionFind componentes = new UnionFind(a + c + puestos.size());
+        for (int i = 0; i < a; i++) {
+            Alumno alumno = alumnos.get(i);
+            componentes.unir(i, a + indiceCiclo.get(alumno.ciclo()));
+            for (Long preferida : preferencias(alumno)) {
+                Integer p = indicePuesto.get(preferida);
+                if (p != null) {
+                    componentes.unir(i, a + c + p);
+                }
+            }
+        }
+        for (int p = 0; p < puestos.size(); p++) {
+            for (String ciclo : puestos.get(p).ciclos()) {
+                Integer indice = indiceCiclo.get(ciclo);
+                if (indice != null) {
+                    componentes.unir(a + indice, a + c + p);
+                }
+            }
+        }
+
+        Map<Integer, Problema> problemas = new HashMap<>();
+        for (int i = 0; i < a; i++) {
+            problemas.computeIfAbsent(componentes.raiz(i), raiz -> new Problema()).alumnos.add(alumnos.get(i));
+        }
+        for (int p = 0; p < puestos.size(); p++) {
+            Problema problema = problemas.get(componentes.raiz(a + c + p));
+            if (problema != null) {
+                problema.puestos.add(puestos.get(p));
+            }
+        }
+        for (Tutor tutor : tutores) {
+            Integer p = indicePuesto.get(tutor.empresaId());
+            Problema problema = p != null ? problemas.get(componentes.raiz(a + c + p)) : null;
+            if (problema != null && tutor.plazasLibres() > 0) {
+                problema.tutores.add(tutor);
+            }
+        }
+
+        List<Resultado> parciales = problemas.values().parallelStream().map(Problema::resolver).toList();
+        List<Asignacion> asignaciones = new ArrayList<>();
+        List<Long> sinPlaza = new ArrayList<>();
+        long coste = 0;
+        for (Resultado parcial : parciales) {
+            asignaciones.addAll(parcial.asignaciones());
+            sinPlaza.addAll(parcial.sinPlaza());
+            coste += parcial.coste();
+        }
+        return new Resultado(asignaciones, sinPlaza, coste);
+    }
+
+    private static List<Long> preferencias(Alumno alumno) {
+        List<Long> preferencias = alumno.preferencias() != null ? alumno.preferencias() : List.of();
+        return preferencias.size() > MAX_PREFERENCIAS ? preferencias.subList(0, MAX_PREFERENCIAS) : preferencias;
+    }
+
+    /**
+     * Una componente conexa del problema, con su propia red de flujo.
+     */
+    private static final class Problema {
+        private final List<Alumno> alumnos = new ArrayList<>();
+        private final List<Puesto> puestos = new ArrayList<>();
+        private final List<Tutor> tutores = new ArrayList<>();
+
+        Resultado resolver() {
+            Map<String, Integer> indiceCiclo = new HashMap<>();
+            alumnos.forEach(alumno -> indiceCiclo.putIfAbsent(alumno.ciclo(), indiceCiclo.size()));
+            Map<Long, Integer> indicePuesto = new HashMap<>();
+            puestos.forEach(puesto -> indicePuesto.put(puesto.empresaId(), indicePuesto.size()));
+
+            // Nodos: origen, destino, alumnos, ciclos, entrada y salida de cada puesto, tutores
+            int nA = alumnos.size();
+            int nC = indiceCiclo.size();
+            int nP = puestos.size();
+            int origen = 0;
+            int destino = 1;
+            int baseAlumnos = 2;
+            int baseCiclos = baseAlumnos + nA;
+            int baseEntradas = baseCiclos + nC;
+            int baseSalidas = baseEntradas + nP;
+            int baseTutores = baseSalidas + nP;
+            Red red = new Red(baseTutores + tutores.size());
+
+            int[] aristaCiclo = new int[nA];
+            int[][] aristasPreferencia = new int[nA][];
+            for (int i = 0; i < nA; i++) {
+                Alumno alumno = alumnos.get(i);
+                red.arista(origen, baseAlumnos + i, 1, 0);
+                List<Long> preferencias = preferencias(alumno);
+                aristasPreferencia[i] = new int[preferencias.size()];
+                for (int r = 0; r < preferencias.size(); r++) {
+                    Integer p = indicePuesto.get(preferencias.get(r));
+                    aristasPreferencia[i][r] = p == null ? -1
+                            : red.arista(baseAlumnos + i, baseEntradas + p, 1, r * PESO_PREFERENCIA);
+                }
+                aristaCiclo[i] = red.arista(baseAlumnos + i, baseCiclos + indiceCiclo.get(alumno.ciclo()), 1,
+                        COSTE_SIN_PREFERENCIA);
+            }
+
+            List<int[]> aristasCicloPuesto = new ArrayList<>();
+            for (int p = 0; p < nP; p++) {
+                Puesto puesto = puestos.get(p);
+                for (String ciclo : puesto.ciclos()) {
+                    Integer k = indiceCiclo.get(ciclo);
+                    if (k != null) {
+                        aristasCicloPuesto.add(new int[] { k, p,
+                                red.arista(baseCiclos + k, baseEntradas + p, INFINITO, 0) });
+                    }
+                }
+                red.arista(baseEntradas + p, baseSalidas + p, Math.max(puesto.plazas(), 0), 0);
+            }
+
+            int[] aristaTutor = new int[tutores.size()];
+            for (int j = 0; j < tutores.size(); j++) {
+                Tutor tutor = tutores.get(j);
+                aristaTutor[j] = red.arista(baseSalidas + indicePuesto.get(tutor.empresaId()), baseTutores + j,
+                        INFINITO, 0);
+                for (int k = 0; k < tutor.plazasLibres(); k++) {
+                    red.arista(baseTutores + j, destino, 1, tutor.carga() + k);
+                }
+            }
+
+            red.flujoCosteMinimo(origen, destino);
+            return extraer(red, aristaCiclo, aristasPreferencia, aristasCicloPuesto, aristaTutor);
+        }
+
+        /**
+         * Descompone el flujo en asignaciones. Los estudiantes que llegan a una empresa por
+         * el mismo ciclo, y los que reparte una empresa entre sus tutores, tienen el mismo
+         * coste, así que da igual cuál se asigna a cuál.
+         */
+        private Resultado extraer(Red red, int[] aristaCiclo, int[][] aristasPreferencia,
+                List<int[]> aristasCicloPuesto, int[] aristaTutor) {
+            List<Deque<Integer>> porCiclo = new ArrayList<>();
+            List<Deque<int[]>> porPuesto = new ArrayList<>();
+            puestos.forEach(puesto -> porPuesto.add(new ArrayDeque<>()));
+            List<Long> sinPlaza = new ArrayList<>();
+
+            Map<String, Integer> indiceCiclo = new HashMap<>();
+            alumnos.forEach(alumno -> indiceCiclo.putIfAbsent(alumno.ciclo(), indiceCiclo.size()));
+            indiceCiclo.forEach((ciclo, k) -> porCiclo.add(new ArrayDeque<>()));
+            Map<Long, Integer> indicePuesto = new HashMap<>();
+            puestos.forEach(puesto -> indicePuesto.put(puesto.empresaId(), indicePuesto.size()));
+
+            for (int i = 0; i < alumnos.size(); i++) {
+                Alumno alumno = alumnos.get(i);
+                boolean colocado = false;
+                List<Long> preferencias = preferencias(alumno);
+                for (int r = 0; r < aristasPreferencia[i].length && !colocado; r++) {
+                    int arista = aristasPreferencia[i][r];
+                    if (arista >= 0 && red.flujo(arista) > 0) {
+                        porPuesto.get(indicePuesto.get(preferencias.get(r))).add(new int[] { i, r });
+                        colocado = true;
+                    }
+                }
+                if (!colocado && red.flujo(aristaCiclo[i]) > 0) {
+                    porCiclo.get(indiceCiclo.get(alumno.ciclo())).add(i);
+                    colocado = true;
+                }
+                if (!colocado) {
+                    sinPlaza.add(alumno.id());
+                }
+            }
+            for (int[] arista : aristasCicloPuesto) {
+                for (int n = red.flujo(arista[2]); n > 0; n--) {
+                    porPuesto.get(arista[1]).add(new int[] { porCiclo.get(arista[0]).poll(), -1 });
+                }
+            }
+
+            List<Asignacion> asignaciones = new ArrayList<>();
+            for (int j = 0; j < tutores.size(); j++) {
+                Tutor tutor = tutores.get(j);
+                Deque<int[]> llegados = porPuesto.get(indicePuesto.get(tutor.empresaId()));
+                for (int n = red.flujo(aristaTutor[j]); n > 0; n--) {
+                    int[] llegado = llegados.poll();
+                    asignaciones.add(new Asignacion(alumnos.get(llegado[0]).id(), tutor.empresaId(), tutor.id(),
+                            llegado[1]));
+                }
+            }
+            return new Resultado(asignaciones, sinPlaza, red.coste());
+        }
+    }
+
+    /**
+     * Red de flujo en listas de adyacencia sobre arrays. Cada arista se guarda junto a su
+     * inversa (índices e y e ^ 1); el flujo de una arista es la capacidad de su inversa.
+     */
+    private static final class Red {
+        private final int nodos;
+        private final int[] cabeza;
+        private int[] siguiente = new int[64];
+        private int[] destino = new int[64];
+        private int[] capacidad = new int[64];
+        private int[] coste = new int[64];
+        private int aristas;
+
+        private final long[] potencial;
+        private final long[] distancia;
+        private final int[] nivel;
+        private final int[] actual;
+
+        Red(int nodos) {
+            this.nodos = nodos;
+            this.cabeza = new int[nodos];
+            Arrays.fill(cabeza, -1);
+            this.potencial = new long[nodos];
+            this.distancia = new long[nodos];
+            this.nivel = new int[nodos];
+            this.actual = new int[nodos];
+        }
+
+        int arista(int desde, int hasta, int cap, int precio) {
+            int e = aristas;
+            anadir(desde, hasta, cap, precio);
+            anadir(hasta, desde, 0, -precio);
+            return e;
+        }
+
+        private void anadir(int desde, int hasta, int cap, int precio) {
+            if (aristas == destino.length) {
+                int tamano = aristas * 2;
+                siguiente = Arrays.copyOf(siguiente, tamano);
+                destino = Arrays.copyOf(destino, tamano);
+                capacidad = Arrays.copyOf(capacidad, tamano);
+                coste = Arrays.copyOf(coste, tamano);
+            }
+            destino[aristas] = hasta;
+            capacidad[aristas] = cap;
+            coste[aristas] = precio;
+            siguiente[aristas] = cabeza[desde];
+            cabeza[desde] = aristas++;
+        }
+
+        int flujo(int arista) {
+            return capacidad[arista ^ 1];
+        }
+
+        long coste() {
+            long total = 0;
+            for (int e = 0; e < aristas; e += 2) {
+                total += (long) coste[e] * flujo(e);
+            }
+            return total;
+        }
+
+        /**
+         * Primal-dual: en cada fase, Dijkstra con costes reducidos (todos los costes son no
+         * negativos, así que los potenciales empiezan en cero) y después tantos caminos como
+         * quepan por las aristas de coste reducido cero, como en Dinic. Con costes enteros
+         * pequeños hay pocas fases.
+         */
+        void flujoCosteMinimo(int origen, int destinoFinal) {
+            while (caminosMinimos(origen, destinoFinal)) {
+                while (niveles(origen, destinoFinal)) {
+                    System.arraycopy(cabeza, 0, actual, 0, nodos);
+                    while (empujar(origen, destinoFinal, INFINITO) > 0) {
+                        // se repite mientras queden caminos en este nivel
+                    }
+                }
+            }
+        }
+
+        private boolean caminosMinimos(int origen, int destinoFinal) {
+            Arrays.fill(distancia, Long.MAX_VALUE);
+            distancia[origen] = 0;
+            // Distancia y nodo en un solo long: la distancia en los bits altos ordena la cola
+            PriorityQueue<Long> cola = new PriorityQueue<>();
+            cola.add((long) origen);
+            while (!cola.isEmpty()) {
+                long cabecera = cola.poll();
+                int u = (int) (cabecera & 0x3FFFFF);
+                long d = cabecera >>> 22;
+                if (d > distancia[u]) {
+                    continue;
+                }
+                for (int e = cabeza[u]; e != -1; e = siguiente[e]) {
+                    if (capacidad[e] > 0) {
+                        int v = destino[e];
+                        long nueva = d + coste[e] + potencial[u] - potencial[v];
+                        if (nueva < distancia[v]) {
+                            distancia[v] = nueva;
+                            cola.add((nueva << 22) | v);
+                        }
+                    }
+                }
+            }
+            if (distancia[destinoFinal] == Long.MAX_VALUE) {
+                return false;
+            }
+            for (int v = 0; v < nodos; v++) {
+                if (distancia[v] != Long.MAX_VALUE) {
+                    potencial[v] += distancia[v];
+                }
+            }
+            return true;
+        }
+
+        private boolean admisible(int e, int u) {
+            return capacidad[e] > 0 && coste[e] + potencial[u] - potencial[destino[e]] == 0;
+        }
+
+        private boolean niveles(int origen, int destinoFinal) {
+            Arrays.fill(nivel, -1);
+            nivel[origen] = 0;
+            int[] cola = new int[nodos];
+            int inicio = 0;
+            int fin = 0;
+            cola[fin++] = origen;
+            while (inicio < fin) {
+                int u = cola[inicio++];
+                for (int e = cabeza[u]; e != -1; e = siguiente[e]) {
+                    int v = destino[e];
+                    if (nivel[v] < 0 && admisible(e, u)) {
+                        nivel[v] = nivel[u] + 1;
+                        cola[fin++] = v;
+                    }
+                }
+            }
+            return nivel[destinoFinal] >= 0;
+        }
+
+        private int empujar(int u, int destinoFinal, int limite) {
+            if (u == destinoFinal) {
+                return limite;
+            }
+            for (; actual[u] != -1; actual[u] = siguiente[actual[u]]) {
+                int e = actual[u];
+                int v = destino[e];
+                if (nivel[v] == nivel[u] + 1 && admisible(e, u)) {
+                    int enviado = empujar(v, destinoFinal, Math.min(limite, capacidad[e]));
+                    if (enviado > 0) {
+                        capacidad[e] -= enviado;
+                        capacidad[e ^ 1] += enviado;
+                        return enviado;
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static final class UnionFind {
+        private final int[] padre;
+
+        UnionFind(int tamano) {
+            padre = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                padre[i] = i;
+            }
+        }
+
+        int raiz(int x) {
+            while (padre[x] != x) {
+                padre[x] = padre[padre[x]];
+                x = padre[x];
+            }
+            return x;
+        }
+
+        void unir(int x, int y) {
+            padre[raiz(x)] = raiz(y);
+        }
+    }
+}
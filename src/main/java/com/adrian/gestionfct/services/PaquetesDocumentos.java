@@ -0,0 +1,603 @@
+package com.adrian.gestionfct.services;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+
+/**
+ * Contenidos de documentos guardados uno tras otro en archivos grandes
+ * ({@code paquete-000001.dat}, ...) en vez de un archivo por contenido. Con decenas de
+ * miles de formularios escaneados pequeños por curso, la copia de seguridad pasa a copiar
+ * unos pocos archivos grandes y no gasta un inodo por documento.
+ *
+ * Los paquetes solo crecen: cada contenido se añade al final del paquete activo con una
+ * cabecera (marca, hash y tamaño) y se busca en {@link IndicePaquetes}. Quitar un
+ * contenido solo lo borra del índice; los bytes se recuperan al compactar, que copia los
+ * contenidos vivos de los paquetes con más de la mitad de bytes muertos al paquete activo
+ * y borra los viejos. Lo que se escribió en un paquete sin llegar al índice (un corte a
+ * mitad) cuenta también como muerto.
+ *
+ * Al compactar, el hueco del índice de cada contenido se reescribe en su sitio; si el
+ * proceso muere a mitad, el hueco puede quedar apuntando a bytes que no son los suyos. Por
+ * eso cada lectura comprueba antes la cabecera del contenido (marca, hash y tamaño) y no
+ * usa la entrada si no coincide. Además, mientras se compacta existe el archivo
+ * {@value #COMPACTANDO}: si sigue ahí al abrir los paquetes, la compactación se cortó y se
+ * repara el índice. Cada entrada que no coincide con su cabecera se vuelve a apuntar a una
+ * copia del contenido que se encuentra recorriendo los paquetes (la del paquete viejo sigue
+ * intacta, porque no se borra hasta que el índice está en disco) y, si no hay ninguna
+ * completa, se quita del índice para que se busque suelto.
+ *
+ * El índice se cambia con el cerrojo de escritura. Las lecturas abren su canal con el de
+ * lectura y lo sueltan antes de copiar, así que una compactación no borra un paquete entre
+ * que se busca un contenido y se abre, y una descarga larga no para las escrituras.
+ *
+ * Los paquetes los escribe un solo proceso. Al abrirlos se toma un bloqueo exclusivo del
+ * archivo {@code escritor.lock} de la carpeta, que se suelta al cerrar (o al morir el
+ * proceso); si otro proceso lo tiene, no se abren. En una carpeta compartida por varios
+ * puestos, solo el primero en arrancar puede usar los paquetes.
+ */
+public final class PaquetesDocumentos implements Closeable {
+
+    private static final Logger LOG = getLogger(PaquetesDocumentos.class);
+
+    private static final int MAGIA = 0x47464443; // "GFDC"
+    private static final String ESCRITOR = "escritor.lock";
+    /** Existe mientras se compacta un paquete. */
+    static final String COMPACTANDO = "compactando";
+    /** Bytes de paquete que se leen de una vez al buscar cabeceras para reparar. */
+    private static final int BLOQUE_REPARACION = 1024 * 1024;
+    /** Marca, hash y tamaño delante de cada contenido. */
+    static final int CABECERA = 4 + 32 + 8;
+    /** Proporción de bytes muertos a partir de la cual se compacta un paquete. */
+    static final double MUERTOS_PARA_COMPACTAR = 0.5;
+
+    /**
+     * Contenido abierto para leer: los bytes [{@code posicion}, {@code posicion + tamano})
+     * del canal. Cerrarlo cierra el canal.
+     */
+    public record Lectura(FileChannel canal, long posicion, long tamano) implements Closeable {
+
+        /**
+         * Flujo con solo los bytes del contenido, para quien necesita un InputStream.
+         */
+        public InputStream flujo() {
+            return new BufferedInputStream(new InputStream() {
+                private long leidos;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] uno = new byte[1];
+                    return read(uno, 0, 1) < 0 ? -1 : uno[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] destino, int desde, int cuantos) throws IOException {
+                    if (leidos >= tamano) {
+                        return -1;
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(destino, desde, (int) Math.min(cuantos, tamano - leidos));
+                    int n = canal.read(buffer, posicion + leidos);
+                    if (n > 0) {
+                        leidos += n;
+                    }
+                    return n;
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    /**
+     * Bytes de un paquete: los de los contenidos que siguen en el índice y el total.
+     */
+    public record Ocupacion(int paquete, long vivos, long total) {
+        public double muertos() {
+            return total == 0 ? 0 : 1 - (double) vivos / total;
+        }
+    }
+
+    private final Path carpeta;
+    private final long tamanoMaximoPaquete;
+    /** Bloqueo del único proceso que escribe en la carpeta. */
+    private final FileLock escritor;
+    private final IndicePaquetes indice;
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final ExecutorService compactador;
+    private final AtomicBoolean compactacionPendiente = new AtomicBoolean();
+    private int activo;
+    private FileChannel salida;
+
+    /**
+     * @param tamanoMaximoPaquete al pasar de este tamaño se empieza un paquete nuevo
+     * @throws IOException también si otro proceso (u otra instancia) tiene abiertos los
+     *                     paquetes de la carpeta
+     */
+    public PaquetesDocumentos(Path carpeta, long tamanoMaximoPaquete) throws IOException {
+        this.carpeta = Files.createDirectories(carpeta);
+        this.tamanoMaximoPaquete = tamanoMaximoPaquete;
+        this.escritor = bloquear(carpeta.resolve(ESCRITOR));
+        try {
+            this.indice = IndicePaquetes.abrir(carpeta);
+            this.activo = Math.max(1, paquetes().stream().mapToInt(Integer::intValue).max().orElse(1));
+            this.salida = abrirSalida(activo);
+            if (Files.exists(carpeta.resolve(COMPACTANDO))) {
+                reparar();
+            }
+        } catch (IOException | RuntimeException e) {
+            escritor.channel().close();
+            throw e;
+        }
+        this.compactador = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "compactacion-paquetes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // ============== CONTENIDOS ==============
+
+    public boolean contiene(String hash) {
+        cerrojo.readLock().lock();
+        try {
+            return indice.buscar(hash) != null;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Añade el archivo al paquete activo si el contenido no estaba. El índice se apunta
+     * cuando el contenido ya está escrito en disco.
+     */
+    public void anadir(String hash, Path archivo) throws IOException {
+        try (FileChannel entrada = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            cerrojo.writeLock().lock();
+            try {
+                if (indice.buscar(hash) == null) {
+                    anadir(hash, entrada, 0, entrada.size());
+                    indice.forzar();
+                }
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Abre el contenido para leerlo, o vacío si no está en los paquetes o su entrada del
+     * índice no coincide con la cabecera escrita en el paquete (entonces se busca suelto).
+     */
+    public Optional<Lectura> abrir(String hash) throws IOException {
+        cerrojo.readLock().lock();
+        try {
+            IndicePaquetes.Entrada entrada = indice.buscar(hash);
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            FileChannel canal = FileChannel.open(archivoDe(entrada.paquete()), StandardOpenOption.READ);
+            try {
+                if (!cabeceraValida(canal, entrada)) {
+                    canal.close();
+                    LOG.error("El índice de los paquetes está dañado: {} no está en la posición {} del paquete {}",
+                            hash, entrada.posicion(), entrada.paquete());
+                    return Optional.empty();
+                }
+            } catch (IOException e) {
+                canal.close();
+                throw e;
+            }
+            return Optional.of(new Lectura(canal, entrada.posicion(), entrada.tamano()));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Paquete donde está el contenido, o null si no está.
+     */
+    public Path paqueteDe(String hash) {
+        cerrojo.readLock().lock();
+        try {
+            IndicePaquetes.Entrada entrada = indice.buscar(hash);
+            return entrada == null ? null : archivoDe(entrada.paquete());
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quita el contenido del índice. Sus bytes siguen en el paquete hasta compactarlo.
+     */
+    public boolean quitar(String hash) {
+        cerrojo.writeLock().lock();
+        try {
+            boolean quitado = indice.quitar(hash);
+            indice.forzar();
+            return quitado;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Contenidos guardados, en el orden del índice.
+     */
+    List<IndicePaquetes.Entrada> listar() {
+        cerrojo.readLock().lock();
+        try {
+            List<IndicePaquetes.Entrada> entradas = new ArrayList<>(indice.getOcupados());
+            indice.recorrer(entradas::add);
+            return entradas;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    public int getContenidos() {
+        cerrojo.readLock().lock();
+        try {
+            return indice.getOcupados();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // ============== COMPACTACIÓN ==============
+
+    /**
+     * Bytes vivos y totales de cada paquete.
+     */
+    public List<Ocupacion> ocupacion() throws IOException {
+        cerrojo.readLock().lock();
+        try {
+            Map<Integer, Long> vivos = new HashMap<>();
+            indice.recorrer(entrada -> vivos.merge(entrada.paquete(), CABECERA + entrada.tamano(), Long::sum));
+            List<Ocupacion> ocupacion = new ArrayList<>();
+            for (int paquete : paquetes()) {
+                ocupacion.add(new Ocupacion(paquete, vivos.getOrDefault(paquete, 0L), Files.size(archivoDe(paquete))));
+            }
+            return ocupacion;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lanza la compactación en su hilo si algún paquete la necesita y no hay otra
+     * pendiente.
+     */
+    public void compactarEnSegundoPlano() {
+        if (!compactacionPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        compactador.execute(() -> {
+            compactacionPendiente.set(false);
+            try {
+                long liberados = compactar();
+                if (liberados > 0) {
+                    LOG.info("Compactados los paquetes de documentos: {} bytes liberados", liberados);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("No se pudieron compactar los paquetes de documentos", e);
+            }
+        });
+    }
+
+    /**
+     * Copia los contenidos vivos de los paquetes con más de la mitad de bytes muertos al
+     * paquete activo y los borra. Cada contenido se copia con el cerrojo de escritura, así
+     * que las subidas y descargas siguen mientras tanto.
+     *
+     * @return bytes liberados
+     */
+    public synchronized long compactar() throws IOException {
+        long liberados = 0;
+        for (Ocupacion ocupacion : ocupacion()) {
+            if (ocupacion.paquete() == activoActual() || ocupacion.muertos() < MUERTOS_PARA_COMPACTAR) {
+                continue;
+            }
+            liberados += compactar(ocupacion.paquete());
+        }
+        return liberados;
+    }
+
+    private long compactar(int paquete) throws IOException {
+        Path archivo = archivoDe(paquete);
+        long tamano = Files.size(archivo);
+        empezarCompactacion();
+        try (FileChannel entrada = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            for (IndicePaquetes.Entrada vivo : vivosDe(paquete)) {
+                cerrojo.writeLock().lock();
+                try {
+                    // Puede haberse quitado mientras se copiaban los anteriores
+                    IndicePaquetes.Entrada actual = indice.buscar(vivo.hash());
+                    if (actual == null || actual.paquete() != paquete) {
+                        continue;
+                    }
+                    // Sin copiar bytes ajenos: el paquete se queda sin compactar
+                    if (!cabeceraValida(entrada, actual)) {
+                        throw new IOException("El índice de los paquetes está dañado: " + actual.hash()
+                                + " no está en la posición " + actual.posicion() + " del paquete " + paquete);
+                    }
+                    anadir(actual.hash(), entrada, actual.posicion(), actual.tamano());
+                } finally {
+                    cerrojo.writeLock().unlock();
+                }
+            }
+        }
+        cerrojo.writeLock().lock();
+        try {
+            // El índice apunta ya a las copias antes de borrar el paquete viejo
+            indice.forzar();
+            Files.deleteIfExists(carpeta.resolve(COMPACTANDO));
+            Files.deleteIfExists(archivo);
+            return tamano;
+        } catch (IOException e) {
+            // Abierto por una descarga (en Windows): se queda sin contenidos vivos y se
+            // borra en la próxima compactación
+            return 0;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Crea {@value #COMPACTANDO} y lo lleva al disco antes de tocar ningún hueco del índice.
+     */
+    private void empezarCompactacion() throws IOException {
+        try (FileChannel marca = FileChannel.open(carpeta.resolve(COMPACTANDO), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            marca.force(true);
+        }
+    }
+
+    // ============== REPARACIÓN ==============
+
+    /**
+     * Repara el índice tras una compactación cortada: las entradas que no coinciden con la
+     * cabecera de su paquete se apuntan a otra copia completa del contenido o se quitan.
+     */
+    private void reparar() throws IOException {
+        Map<String, IndicePaquetes.Entrada> danadas = new HashMap<>();
+        Map<Integer, FileChannel> canales = new HashMap<>();
+        try {
+            List<IndicePaquetes.Entrada> entradas = new ArrayList<>(indice.getOcupados());
+            indice.recorrer(entradas::add);
+            for (IndicePaquetes.Entrada entrada : entradas) {
+                FileChannel canal = canales.get(entrada.paquete());
+                if (canal == null && Files.exists(archivoDe(entrada.paquete()))) {
+                    canal = FileChannel.open(archivoDe(entrada.paquete()), StandardOpenOption.READ);
+                    canales.put(entrada.paquete(), canal);
+                }
+                if (canal == null || !cabeceraValida(canal, entrada)) {
+                    danadas.put(entrada.hash(), entrada);
+                }
+            }
+        } finally {
+            for (FileChannel canal : canales.values()) {
+                canal.close();
+            }
+        }
+
+        Map<String, IndicePaquetes.Entrada> copias = new HashMap<>();
+        if (!danadas.isEmpty()) {
+            for (int paquete : paquetes()) {
+                buscarCopias(paquete, danadas.keySet(), copias);
+            }
+        }
+        for (String hash : danadas.keySet()) {
+            IndicePaquetes.Entrada copia = copias.get(hash);
+            if (copia != null) {
+                indice.poner(hash, copia.paquete(), copia.posicion(), copia.tamano());
+            } else {
+                indice.quitar(hash);
+                LOG.error("El contenido {} no está completo en ningún paquete: se quita del índice", hash);
+            }
+        }
+        indice.forzar();
+        Files.deleteIfExists(carpeta.resolve(COMPACTANDO));
+        LOG.warn("Reparado el índice de los paquetes tras una compactación cortada: {} entradas recolocadas, {} "
+                + "quitadas", copias.size(), danadas.size() - copias.size());
+    }
+
+    /**
+     * Recorre el paquete byte a byte buscando cabeceras de los contenidos buscados (un
+     * corte a mitad de una copia deja bytes que no siguen la cadena de cabeceras) y apunta
+     * en {@code copias} las que tienen detrás el contenido completo, la última si hay varias.
+     */
+    private void buscarCopias(int paquete, Set<String> buscados, Map<String, IndicePaquetes.Entrada> copias)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(archivoDe(paquete), StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            ByteBuffer bloque = ByteBuffer.allocate(BLOQUE_REPARACION + CABECERA);
+            byte[] hash = new byte[32];
+            for (long desde = 0; desde < tamano; desde += BLOQUE_REPARACION) {
+                bloque.clear();
+                while (bloque.hasRemaining()) {
+                    if (canal.read(bloque, desde + bloque.position()) < 0) {
+                        break;
+                    }
+                }
+                int leidos = bloque.position();
+                for (int i = 0; i < BLOQUE_REPARACION && i + CABECERA <= leidos; i++) {
+                    if (bloque.getInt(i) != MAGIA) {
+                        continue;
+                    }
+                    bloque.get(i + 4, hash);
+                    String clave = HexFormat.of().formatHex(hash);
+                    long tamanoContenido = bloque.getLong(i + 36);
+                    long posicion = desde + i + CABECERA;
+                    if (buscados.contains(clave) && tamanoContenido >= 0 && posicion + tamanoContenido <= tamano
+                            && contenidoCompleto(canal, clave, posicion, tamanoContenido)) {
+                        copias.put(clave, new IndicePaquetes.Entrada(clave, paquete, posicion, tamanoContenido));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean contenidoCompleto(FileChannel canal, String hash, long posicion, long tamano)
+            throws IOException {
+        MessageDigest sha = CopiaArchivos.nuevoSha256();
+        CopiaArchivos.actualizar(sha, canal, posicion, posicion + tamano);
+        return HexFormat.of().formatHex(sha.digest()).equals(hash);
+    }
+
+    private List<IndicePaquetes.Entrada> vivosDe(int paquete) {
+        cerrojo.readLock().lock();
+        try {
+            List<IndicePaquetes.Entrada> vivos = new ArrayList<>();
+            indice.recorrer(entrada -> {
+                if (entrada.paquete() == paquete) {
+                    vivos.add(entrada);
+                }
+            });
+            return vivos;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    private int activoActual() {
+        cerrojo.readLock().lock();
+        try {
+            return activo;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // ============== PAQUETES ==============
+
+    /**
+     * Escribe el contenido al final del paquete activo y lo apunta en el índice (sin
+     * forzarlo). Se llama con el cerrojo de escritura.
+     */
+    private void anadir(String hash, FileChannel entrada, long desde, long tamano) throws IOException {
+        if (salida.size() > 0 && salida.size() + CABECERA + tamano > tamanoMaximoPaquete) {
+            salida.close();
+            activo++;
+            salida = abrirSalida(activo);
+        }
+        long inicio = salida.size();
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        cabecera.putInt(MAGIA).put(HexFormat.of().parseHex(hash)).putLong(tamano).flip();
+        salida.position(inicio);
+        while (cabecera.hasRemaining()) {
+            salida.write(cabecera);
+        }
+        CopiaArchivos.copiarRango(entrada, desde, desde + tamano, salida, CopiaArchivos.Progreso.NINGUNO);
+        salida.force(false);
+        indice.poner(hash, activo, inicio + CABECERA, tamano);
+    }
+
+    private static FileLock bloquear(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock bloqueo;
+        try {
+            bloqueo = canal.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Ya abiertos en este mismo proceso
+            bloqueo = null;
+        }
+        if (bloqueo == null) {
+            canal.close();
+            throw new IOException("Los paquetes de " + archivo.getParent() + " los está usando otro proceso: "
+                    + "solo un puesto puede tener activos los paquetes en la misma carpeta");
+        }
+        return bloqueo;
+    }
+
+    /**
+     * Comprueba que delante del contenido está la cabecera que le escribió {@link #anadir}.
+     */
+    private static boolean cabeceraValida(FileChannel canal, IndicePaquetes.Entrada entrada) throws IOException {
+        long inicio = entrada.posicion() - CABECERA;
+        if (inicio < 0 || entrada.posicion() + entrada.tamano() > canal.size()) {
+            return false;
+        }
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        while (cabecera.hasRemaining()) {
+            if (canal.read(cabecera, inicio + cabecera.position()) < 0) {
+                return false;
+            }
+        }
+        byte[] hash = new byte[32];
+        cabecera.flip();
+        int magia = cabecera.getInt();
+        cabecera.get(hash);
+        return magia == MAGIA && Arrays.equals(hash, HexFormat.of().parseHex(entrada.hash()))
+                && cabecera.getLong() == entrada.tamano();
+    }
+
+    private FileChannel abrirSalida(int paquete) throws IOException {
+        return FileChannel.open(archivoDe(paquete), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private Path archivoDe(int paquete) {
+        return carpeta.resolve(String.format("paquete-%06d.dat", paquete));
+    }
+
+    private List<Integer> paquetes() throws IOException {
+        List<Integer> paquetes = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "paquete-*.dat")) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                try {
+                    paquetes.add(Integer.parseInt(nombre.substring("paquete-".length(), nombre.length() - 4)));
+                } catch (NumberFormatException e) {
+                    // No es un paquete del almacén
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return paquetes;
+        }
+        paquetes.sort(null);
+        return paquetes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactador.shutdownNow();
+        cerrojo.writeLock().lock();
+        try {
+            salida.close();
+            indice.close();
+        } finally {
+            cerrojo.writeLock().unlock();
+            // Cerrar el canal suelta el bloqueo
+            escritor.channel().close();
+        }
+    }
+}
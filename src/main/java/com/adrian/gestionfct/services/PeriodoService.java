@@ -1,8 +1,11 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.adrian.gestionfct.config.CacheConfig;
 import com.adrian.gestionfct.modelo.CursoAcademico;
 import com.adrian.gestionfct.modelo.Periodo;
 import com.adrian.gestionfct.modelo.TipoPeriodo;
@@ -17,20 +20,33 @@ public class PeriodoService {
     @Autowired
     private PeriodoRepository periodoRepository;
 
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @CacheEvict(cacheNames = CacheConfig.PERIODOS_ACTIVOS, allEntries = true)
     public Periodo save(Periodo periodo) {
-        return periodoRepository.save(periodo);
+        Periodo guardado = periodoRepository.save(periodo);
+        busCambios.avisar(Periodo.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PERIODOS_ACTIVOS, allEntries = true)
     public Periodo update(Periodo periodo) {
-        return periodoRepository.save(periodo);
+        Periodo guardado = periodoRepository.save(periodo);
+        busCambios.avisar(Periodo.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PERIODOS_ACTIVOS, allEntries = true)
     public void delete(Periodo periodo) {
         periodoRepository.delete(periodo);
+        busCambios.avisar(Periodo.class, periodo.getId());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PERIODOS_ACTIVOS, allEntries = true)
     public void deleteById(Long id) {
         periodoRepository.deleteById(id);
+        busCambios.avisar(Periodo.class, id);
     }
 
     public Optional<Periodo> findById(Long id) {
@@ -60,6 +76,7 @@ public class PeriodoService {
     /**
      * Obtiene los periodos activos (vigentes).
      */
+    @Cacheable(CacheConfig.PERIODOS_ACTIVOS)
     public List<Periodo> findActivos() {
         return periodoRepository.findByActivoTrue();
     }
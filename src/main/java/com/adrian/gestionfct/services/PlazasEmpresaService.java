@@ -0,0 +1,288 @@
+package com.adrian.gestionfct.services;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.adrian.gestionfct.exception.OperacionNoPermitidaException;
+import com.adrian.gestionfct.exception.ValidacionException;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.Periodo;
+import com.adrian.gestionfct.modelo.PlazasEmpresa;
+import com.adrian.gestionfct.repositorios.FCTRepository;
+import com.adrian.gestionfct.repositorios.PlazasEmpresaRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plazas de cada empresa por periodo.
+ *
+ * Una reserva lee las plazas libres y las ocupa con un UPDATE condicional (solo si siguen
+ * cabiendo). Si entre la lectura y el UPDATE otro puesto ha ocupado plazas, el UPDATE no
+ * cambia nada y se vuelve a leer. Cada intento va en una transacción propia y muy corta,
+ * así que la fila del contador solo se bloquea durante el UPDATE y no durante toda la
+ * asignación. Si la transacción que pidió la reserva se deshace, las plazas se devuelven.
+ *
+ * Las plazas que se liberan (FCT canceladas, borradas o cambiadas de empresa) se devuelven
+ * al confirmarse la transacción que las libera.
+ *
+ * Una devolución que no llega a hacerse (el proceso muere o se pierde la conexión entre la
+ * reserva y el final de la transacción) deja plazas ocupadas de más. Por eso el contador se
+ * vuelve a calcular con las FCT al abrir las plazas de una empresa ({@link #recalcular}). Una
+ * reserva en curso cuya FCT aún no se ha confirmado no entra en esa cuenta; la siguiente la
+ * corrige.
+ */
+@Service
+public class PlazasEmpresaService {
+
+    /** Intentos de una reserva que choca con otras antes de rendirse. */
+    private static final int MAX_INTENTOS = 10;
+
+    private static final Logger LOG = getLogger(PlazasEmpresaService.class);
+
+    @Autowired
+    private PlazasEmpresaRepository plazasRepository;
+
+    @Autowired
+    private FCTRepository fctRepository;
+
+    private final TransactionTemplate transaccionPropia;
+
+    public PlazasEmpresaService(PlatformTransactionManager transactionManager) {
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserva hasta {@code cantidad} plazas de la empresa en el periodo.
+     *
+     * @return las plazas conseguidas: todas si la empresa no tiene cupo definido, menos si
+     *         no quedan suficientes libres
+     * @throws ConcurrencyFailureException si tras {@link #MAX_INTENTOS} sigue chocando con
+     *         otras reservas
+     */
+    public int reservar(Long empresaId, Long periodoId, int cantidad) {
+        if (cantidad <= 0) {
+            return 0;
+        }
+        for (int intento = 1;; intento++) {
+            try {
+                Integer conseguidas = transaccionPropia
+                        .execute(estado -> intentarReservar(empresaId, periodoId, cantidad));
+                if (conseguidas != null) {
+                    if (conseguidas > 0) {
+                        devolverSiSeDeshace(empresaId, periodoId, conseguidas);
+                    }
+                    return conseguidas;
+                }
+            } catch (ConcurrencyFailureException e) {
+                // Interbloqueo o espera de bloqueo agotada: se reintenta igual que un UPDATE fallido
+                if (intento >= MAX_INTENTOS) {
+                    throw e;
+                }
+            }
+            if (intento >= MAX_INTENTOS) {
+                throw new ConcurrencyFailureException("No se han podido reservar plazas de la empresa " + empresaId
+                        + " tras " + MAX_INTENTOS + " intentos");
+            }
+            esperar(intento);
+        }
+    }
+
+    /**
+     * Reserva una plaza o falla.
+     *
+     * @throws OperacionNoPermitidaException si la empresa no tiene plazas libres en el periodo
+     */
+    public void reservarUna(Long empresaId, Long periodoId) {
+        if (reservar(empresaId, periodoId, 1) == 0) {
+            throw new OperacionNoPermitidaException("asignar FCT", "la empresa no tiene plazas libres en este periodo");
+        }
+    }
+
+    /**
+     * Devuelve plazas ocupadas cuando se confirme la transacción en curso (o ya, si no hay).
+     */
+    public void liberar(Long empresaId, Long periodoId, int cantidad) {
+        if (cantidad <= 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            devolver(empresaId, periodoId, cantidad);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                devolverOAvisar(empresaId, periodoId, cantidad);
+            }
+        });
+    }
+
+    /**
+     * Plazas libres en el periodo de las empresas que tienen cupo; las que no aparecen no
+     * tienen límite.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> libresPorEmpresa(Periodo periodo) {
+        Map<Long, Integer> libres = new HashMap<>();
+        for (PlazasEmpresa plazas : plazasRepository.findByPeriodoId(periodo.getId())) {
+            libres.put(plazas.getEmpresa().getId(), plazas.getLibres());
+        }
+        return libres;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PlazasEmpresa> obtener(Empresa empresa, Periodo periodo) {
+        return plazasRepository.findByEmpresaIdAndPeriodoId(empresa.getId(), periodo.getId());
+    }
+
+    /**
+     * Cuenta otra vez las plazas ocupadas de la empresa en el periodo con sus FCT no
+     * canceladas, para corregir devoluciones perdidas, y devuelve el cupo resultante.
+     */
+    @Transactional
+    public Optional<PlazasEmpresa> recalcular(Empresa empresa, Periodo periodo) {
+        Optional<PlazasEmpresa> antes = plazasRepository.findByEmpresaIdAndPeriodoId(empresa.getId(), periodo.getId());
+        if (antes.isEmpty()) {
+            return antes;
+        }
+        int ocupadasAntes = antes.get().getOcupadas();
+        plazasRepository.recount(empresa.getId(), periodo.getId());
+        Optional<PlazasEmpresa> despues = plazasRepository.findByEmpresaIdAndPeriodoId(empresa.getId(),
+                periodo.getId());
+        despues.ifPresent(plazas -> {
+            if (plazas.getOcupadas() != ocupadasAntes) {
+                LOG.warn("Corregidas las plazas ocupadas de la empresa {} en el periodo {}: {} en vez de {}",
+                        empresa.getId(), periodo.getId(), plazas.getOcupadas(), ocupadasAntes);
+            }
+        });
+        return despues;
+    }
+
+    /**
+     * Fija las plazas de la empresa en el periodo. Al crear el cupo se cuentan como
+     * ocupadas las FCT no canceladas que ya tenga. La fila se inserta antes de contarlas y
+     * la cuenta bloquea las FCT: las confirmadas antes entran en ella y las asignaciones
+     * posteriores encuentran el cupo y reservan. Una que reservó sin cupo y aún no había
+     * guardado su FCT queda fuera hasta que se recalcule.
+     *
+     * @throws OperacionNoPermitidaException si hay más plazas ocupadas que las indicadas
+     */
+    @Transactional
+    public void definir(Empresa empresa, Periodo periodo, int plazas) {
+        if (plazas < 0) {
+            throw new ValidacionException("plazas", "no puede ser negativo");
+        }
+        if (plazasRepository.updatePlazas(empresa.getId(), periodo.getId(), plazas) > 0) {
+            return;
+        }
+        Optional<PlazasEmpresa> existente = plazasRepository.findByEmpresaIdAndPeriodoId(empresa.getId(),
+                periodo.getId());
+        if (existente.isPresent()) {
+            // updatePlazas no ha cambiado nada: hay más ocupadas que las pedidas
+            throw new OperacionNoPermitidaException("definir las plazas",
+                    "la empresa ya tiene " + existente.get().getOcupadas() + " plazas ocupadas en este periodo");
+        }
+        try {
+            plazasRepository.saveAndFlush(new PlazasEmpresa(empresa, periodo, plazas, 0));
+        } catch (DataIntegrityViolationException e) {
+            // uk_plazas_empresa_periodo: otro puesto lo ha creado a la vez
+            throw new OperacionNoPermitidaException("definir las plazas",
+                    "otro usuario acaba de definirlas; vuelva a intentarlo");
+        }
+        plazasRepository.recount(empresa.getId(), periodo.getId());
+        long ocupadas = fctRepository.countOcupandoPlaza(empresa.getId(), periodo.getId());
+        if (ocupadas > plazas) {
+            // Se deshace también la fila insertada
+            throw new OperacionNoPermitidaException("definir las plazas",
+                    "la empresa ya tiene " + ocupadas + " plazas ocupadas en este periodo");
+        }
+    }
+
+    /**
+     * Quita el cupo: la empresa deja de tener límite en el periodo.
+     */
+    @Transactional
+    public void quitar(Empresa empresa, Periodo periodo) {
+        plazasRepository.findByEmpresaIdAndPeriodoId(empresa.getId(), periodo.getId())
+                .ifPresent(plazasRepository::delete);
+    }
+
+    /**
+     * Un intento de reserva: lee las plazas libres y las ocupa si nadie lo ha hecho antes.
+     *
+     * @return las plazas conseguidas, o null si otro puesto cambió el contador entre medias
+     */
+    private Integer intentarReservar(Long empresaId, Long periodoId, int cantidad) {
+        Optional<PlazasEmpresa> plazas = plazasRepository.findByEmpresaIdAndPeriodoId(empresaId, periodoId);
+        if (plazas.isEmpty()) {
+            return cantidad;
+        }
+        int pedidas = Math.min(cantidad, plazas.get().getLibres());
+        if (pedidas <= 0) {
+            return 0;
+        }
+        return plazasRepository.reserve(empresaId, periodoId, pedidas) > 0 ? pedidas : null;
+    }
+
+    private void devolverSiSeDeshace(Long empresaId, Long periodoId, int cantidad) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado != STATUS_COMMITTED) {
+                    devolverOAvisar(empresaId, periodoId, cantidad);
+                }
+            }
+        });
+    }
+
+    private void devolver(Long empresaId, Long periodoId, int cantidad) {
+        Integer devueltas = transaccionPropia.execute(estado -> plazasRepository.release(empresaId, periodoId,
+                cantidad));
+        if (devueltas == null || devueltas == 0) {
+            LOG.warn("No se han podido devolver {} plazas de la empresa {} en el periodo {}: hay menos ocupadas",
+                    cantidad, empresaId, periodoId);
+        }
+    }
+
+    /**
+     * Devolución al acabar una transacción, donde un error ya no llega a nadie: se deja en
+     * el log y el contador se corrige la próxima vez que se recalcule.
+     */
+    private void devolverOAvisar(Long empresaId, Long periodoId, int cantidad) {
+        try {
+            devolver(empresaId, periodoId, cantidad);
+        } catch (RuntimeException e) {
+            LOG.error("No se han podido devolver {} plazas de la empresa {} en el periodo {}; se corregirán al "
+                    + "recalcularlas", cantidad, empresaId, periodoId, e);
+        }
+    }
+
+    /** Espera aleatoria y creciente, para que los puestos que chocan no vuelvan a coincidir. */
+    private static void esperar(int intento) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(1, 5 * intento + 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyFailureException("Reserva de plazas interrumpida", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.adrian.gestionfct.services;
+
+import com.adrian.gestionfct.dto.CoincidenciaContenido.Trozo;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fragmento de un texto alrededor de las palabras buscadas, con ellas resaltadas.
+ *
+ * Una palabra coincide si, normalizada, empieza por alguno de los términos, igual que en
+ * la consulta FULLTEXT por prefijos ({@link ClaveBusqueda#consultaPrefijos}). Se elige la
+ * ventana con más términos distintos; como el texto puede ser largo, se deja de buscar en
+ * cuanto una ventana los tiene todos.
+ */
+public final class Resaltador {
+
+    private static final Pattern PALABRA = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final String PUNTOS = "…";
+
+    private record Coincidencia(int inicio, int fin, String termino) {
+    }
+
+    private Resaltador() {
+    }
+
+    /**
+     * @param terminos términos normalizados (ver {@link ClaveBusqueda#terminos})
+     * @param longitud caracteres aproximados del fragmento
+     */
+    public static List<Trozo> fragmento(String texto, List<String> terminos, int longitud) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        int mejorAncla = -1;
+        int mejorFin = 0;
+        int mejorTerminos = 0;
+        Matcher palabras = PALABRA.matcher(texto);
+        while (mejorTerminos < terminos.size() && palabras.find()) {
+            String normalizada = ClaveBusqueda.normalizar(palabras.group());
+            String termino = terminos.stream().filter(normalizada::startsWith).findFirst().orElse(null);
+            if (termino == null) {
+                continue;
+            }
+            coincidencias.add(new Coincidencia(palabras.start(), palabras.end(), termino));
+            // Ventana que acaba en esta coincidencia: los términos distintos que caben
+            Set<String> vistos = new HashSet<>();
+            int ancla = coincidencias.size() - 1;
+            for (int i = ancla; i >= 0 && palabras.end() - coincidencias.get(i).inicio() <= longitud; i--) {
+                vistos.add(coincidencias.get(i).termino());
+                ancla = i;
+            }
+            if (vistos.size() > mejorTerminos) {
+                mejorTerminos = vistos.size();
+                mejorAncla = ancla;
+                mejorFin = palabras.end();
+            }
+        }
+
+        int inicio = mejorAncla < 0 ? 0
+                : inicioDePalabra(texto, coincidencias.get(mejorAncla).inicio() - longitud / 4);
+        int fin = finDePalabra(texto, Math.min(texto.length(), Math.max(inicio + longitud, mejorFin)));
+        // Si se dejó de buscar antes del final, faltan las que caen en el fragmento tras la ventana
+        while (mejorTerminos == terminos.size() && palabras.find() && palabras.start() < fin) {
+            String normalizada = ClaveBusqueda.normalizar(palabras.group());
+            terminos.stream().filter(normalizada::startsWith).findFirst().ifPresent(termino ->
+                    coincidencias.add(new Coincidencia(palabras.start(), palabras.end(), termino)));
+        }
+
+        List<Trozo> trozos = new ArrayList<>();
+        StringBuilder normal = new StringBuilder(inicio > 0 ? PUNTOS : "");
+        int posicion = inicio;
+        for (Coincidencia coincidencia : coincidencias) {
+            if (coincidencia.inicio() < inicio || coincidencia.fin() > fin) {
+                continue;
+            }
+            normal.append(texto, posicion, coincidencia.inicio());
+            anadir(trozos, normal.toString(), false);
+            normal.setLength(0);
+            anadir(trozos, texto.substring(coincidencia.inicio(), coincidencia.fin()), true);
+            posicion = coincidencia.fin();
+        }
+        normal.append(texto, posicion, fin).append(fin < texto.length() ? PUNTOS : "");
+        anadir(trozos, normal.toString(), false);
+        return trozos;
+    }
+
+    private static void anadir(List<Trozo> trozos, String texto, boolean resaltado) {
+        String limpio = ESPACIOS.matcher(texto).replaceAll(" ");
+        if (!limpio.isEmpty()) {
+            trozos.add(new Trozo(limpio, resaltado));
+        }
+    }
+
+    /** Retrocede hasta el principio de la palabra en la que cae {@code posicion}. */
+    private static int inicioDePalabra(String texto, int posicion) {
+        int inicio = Math.max(0, posicion);
+        while (inicio > 0 && !Character.isWhitespace(texto.charAt(inicio - 1))) {
+            inicio--;
+        }
+        return inicio;
+    }
+
+    /** Avanza hasta el final de la palabra en la que cae {@code posicion}. */
+    private static int finDePalabra(String texto, int posicion) {
+        int fin = posicion;
+        while (fin < texto.length() && !Character.isWhitespace(texto.charAt(fin))) {
+            fin++;
+        }
+        return fin;
+    }
+}
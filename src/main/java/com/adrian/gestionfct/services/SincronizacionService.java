@@ -0,0 +1,155 @@
+package com.adrian.gestionfct.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.adrian.gestionfct.dto.DocumentoRowView;
+import com.adrian.gestionfct.dto.FctRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.*;
+import com.adrian.gestionfct.repositorios.*;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Lee los cambios hechos desde una fecha, para que cada puesto ponga al día sus tablas
+ * sin volver a cargarlas.
+ *
+ * Las fechas son siempre del reloj de MySQL (fecha_modificacion y las lápidas de bajas
+ * las pone la base de datos), así que los relojes de los puestos no influyen.
+ */
+@Service
+public class SincronizacionService {
+
+    /** Entidad de cada tabla que registra bajas (ver V6__seguimiento_cambios.sql). */
+    private static final Map<String, Class<?>> ENTIDADES_POR_TABLA = Map.of(
+            "fcts", FCT.class,
+            "empresas", Empresa.class,
+            "estudiantes", Estudiante.class,
+            "tutores_empresa", TutorEmpresa.class,
+            "documentos", Documento.class,
+            "usuarios", Usuario.class);
+
+    /** Tablas cuyas filas borra la base de datos al borrar una de la tabla (ON DELETE CASCADE). */
+    private static final Map<String, List<String>> BORRADAS_EN_CASCADA = Map.of("fcts", List.of("documentos"));
+
+    @Autowired
+    private FCTRepository fctRepository;
+
+    @Autowired
+    private EmpresaRepository empresaRepository;
+
+    @Autowired
+    private EstudianteRepository estudianteRepository;
+
+    @Autowired
+    private TutorEmpresaRepository tutorEmpresaRepository;
+
+    @Autowired
+    private DocumentoRepository documentoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private BajaRepository bajaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Indica si la tabla se muestra en las pantallas y sus cambios se sincronizan.
+     */
+    public boolean esTablaSincronizada(String tabla) {
+        return ENTIDADES_POR_TABLA.containsKey(tabla);
+    }
+
+    /**
+     * Hora actual del servidor de base de datos.
+     */
+    public LocalDateTime ahora() {
+        // LOCALTIMESTAMP y no CURRENT_TIMESTAMP: en otras bases (H2, por ejemplo) el segundo
+        // lleva zona horaria
+        Object ahora = entityManager.createNativeQuery("SELECT LOCALTIMESTAMP(6)").getSingleResult();
+        return ahora instanceof Timestamp marca ? marca.toLocalDateTime() : (LocalDateTime) ahora;
+    }
+
+    /**
+     * Filas modificadas y bajas desde la fecha dada, en ese orden, solo de lo que depende de
+     * las tablas cambiadas (las que han avisado otros puestos por el bus): sus filas, las
+     * de otras tablas que muestran sus datos (las FCT muestran el nombre del estudiante, la
+     * empresa y el tutor; los documentos, el del estudiante y el del autor) y las bajas
+     * suyas y de las que se borran en cascada con ellas. Las filas van ya preparadas para
+     * las tablas, como en los cambios que publican los servicios.
+     */
+    @Transactional(readOnly = true)
+    public List<CambioDatos> cambiosDesde(LocalDateTime desde, Set<String> tablas) {
+        Map<Long, FctRowView> fcts = new LinkedHashMap<>();
+        Map<Long, DocumentoRowView> documentos = new LinkedHashMap<>();
+        List<CambioDatos> cambios = new ArrayList<>();
+        if (tablas.contains("fcts")) {
+            fctRepository.findModifiedSince(desde).forEach(fila -> fcts.putIfAbsent(fila.id(), fila));
+        }
+        if (tablas.contains("empresas")) {
+            empresaRepository.findModifiedSince(desde)
+                    .forEach(fila -> cambios.add(CambioDatos.modificacion(Empresa.class, fila.id(), fila)));
+            fctRepository.findRowsWithCompanyModifiedSince(desde).forEach(fila -> fcts.putIfAbsent(fila.id(), fila));
+        }
+        if (tablas.contains("estudiantes")) {
+            estudianteRepository.findModifiedSince(desde)
+                    .forEach(fila -> cambios.add(CambioDatos.modificacion(Estudiante.class, fila.id(), fila)));
+            fctRepository.findRowsWithStudentModifiedSince(desde).forEach(fila -> fcts.putIfAbsent(fila.id(), fila));
+            documentoRepository.findRowsWithStudentModifiedSince(desde)
+                    .forEach(fila -> documentos.putIfAbsent(fila.id(), fila));
+        }
+        if (tablas.contains("tutores_empresa")) {
+            tutorEmpresaRepository.findModifiedSince(desde)
+                    .forEach(tutor -> cambios.add(CambioDatos.modificacion(TutorEmpresa.class, tutor.getId(), tutor)));
+            fctRepository.findRowsWithTutorModifiedSince(desde).forEach(fila -> fcts.putIfAbsent(fila.id(), fila));
+        }
+        if (tablas.contains("documentos")) {
+            documentoRepository.findModifiedSince(desde).forEach(fila -> documentos.putIfAbsent(fila.id(), fila));
+        }
+        if (tablas.contains("usuarios")) {
+            usuarioRepository.findModifiedSince(desde)
+                    .forEach(usuario -> cambios.add(CambioDatos.modificacion(Usuario.class, usuario.getId(), usuario)));
+            documentoRepository.findRowsWithAuthorModifiedSince(desde)
+                    .forEach(fila -> documentos.putIfAbsent(fila.id(), fila));
+        }
+        fcts.values().forEach(fila -> cambios.add(CambioDatos.modificacion(FCT.class, fila.id(), fila)));
+        documentos.values().forEach(fila -> cambios.add(CambioDatos.modificacion(Documento.class, fila.id(), fila)));
+
+        Set<String> conBajas = new HashSet<>();
+        for (String tabla : tablas) {
+            if (ENTIDADES_POR_TABLA.containsKey(tabla)) {
+                conBajas.add(tabla);
+                conBajas.addAll(BORRADAS_EN_CASCADA.getOrDefault(tabla, List.of()));
+            }
+        }
+        if (!conBajas.isEmpty()) {
+            for (Baja baja : bajaRepository.findModifiedSince(desde, conBajas)) {
+                cambios.add(CambioDatos.baja(ENTIDADES_POR_TABLA.get(baja.getTabla()), baja.getRegistroId()));
+            }
+        }
+        return cambios;
+    }
+
+    /**
+     * Borra las lápidas anteriores a la fecha dada. Un puesto que lleve más tiempo sin
+     * sincronizar debe recargar sus tablas en lugar de pedir diferencias.
+     */
+    @Transactional
+    public int purgarBajasAnteriores(LocalDateTime limite) {
+        return bajaRepository.deleteOlderThan(limite);
+    }
+}
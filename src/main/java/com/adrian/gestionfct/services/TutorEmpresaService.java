@@ -1,8 +1,13 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.adrian.gestionfct.config.CacheConfig;
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
 import com.adrian.gestionfct.modelo.Empresa;
 import com.adrian.gestionfct.modelo.TutorEmpresa;
 import com.adrian.gestionfct.modelo.Usuario;
@@ -14,23 +19,38 @@ import java.util.Optional;
 @Service
 public class TutorEmpresaService {
 
+    private static final int MAX_RESULTADOS_BUSQUEDA = 200;
+
     @Autowired
     private TutorEmpresaRepository tutorEmpresaRepository;
 
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @CacheEvict(cacheNames = { CacheConfig.TUTORES_ACTIVOS, CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public TutorEmpresa save(TutorEmpresa tutorEmpresa) {
-        return tutorEmpresaRepository.save(tutorEmpresa);
+        TutorEmpresa guardado = tutorEmpresaRepository.save(tutorEmpresa);
+        busCambios.avisar(TutorEmpresa.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.TUTORES_ACTIVOS, CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public TutorEmpresa update(TutorEmpresa tutorEmpresa) {
-        return tutorEmpresaRepository.save(tutorEmpresa);
+        TutorEmpresa guardado = tutorEmpresaRepository.save(tutorEmpresa);
+        busCambios.avisar(TutorEmpresa.class, guardado.getId());
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.TUTORES_ACTIVOS, CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void delete(TutorEmpresa tutorEmpresa) {
         tutorEmpresaRepository.delete(tutorEmpresa);
+        busCambios.avisar(TutorEmpresa.class, tutorEmpresa.getId());
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.TUTORES_ACTIVOS, CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void deleteById(Long id) {
         tutorEmpresaRepository.deleteById(id);
+        busCambios.avisar(TutorEmpresa.class, id);
     }
 
     public Optional<TutorEmpresa> findById(Long id) {
@@ -41,6 +61,7 @@ public class TutorEmpresaService {
         return tutorEmpresaRepository.findAll();
     }
 
+    @Cacheable(CacheConfig.TUTORES_ACTIVOS)
     public List<TutorEmpresa> findActivos() {
         return tutorEmpresaRepository.findByActivoTrue();
     }
@@ -49,6 +70,8 @@ public class TutorEmpresaService {
         return tutorEmpresaRepository.findByUsuario(usuario);
     }
 
+    @Cacheable(cacheNames = CacheConfig.TUTORES_POR_EMPRESA, key = "#empresa.id",
+            condition = "#empresa?.id != null")
     public List<TutorEmpresa> findByEmpresa(Empresa empresa) {
         return tutorEmpresaRepository.findByEmpresa(empresa);
     }
@@ -57,11 +80,25 @@ public class TutorEmpresaService {
         return tutorEmpresaRepository.findByEmpresaAndActivoTrue(empresa);
     }
 
+    /**
+     * Busca tutores por nombre, apellidos, DNI o email sin distinguir tildes ni mayúsculas.
+     */
+    public List<TutorEmpresa> buscar(String texto) {
+        String consulta = ClaveBusqueda.consultaPrefijos(texto);
+        if (consulta == null) {
+            return List.of();
+        }
+        return tutorEmpresaRepository.buscarPorClave(consulta, PageRequest.of(0, MAX_RESULTADOS_BUSQUEDA));
+    }
+
     public boolean existeDni(String dni) {
         return tutorEmpresaRepository.existsByDni(dni);
     }
 
+    @CacheEvict(cacheNames = { CacheConfig.TUTORES_ACTIVOS, CacheConfig.TUTORES_POR_EMPRESA }, allEntries = true)
     public void deleteInBatch(List<TutorEmpresa> tutores) {
+        List<Long> ids = tutores.stream().map(TutorEmpresa::getId).toList();
         tutorEmpresaRepository.deleteAll(tutores);
+        busCambios.avisar(TutorEmpresa.class, ids);
     }
 }
@@ -1,8 +1,10 @@
 package com.adrian.gestionfct.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.adrian.gestionfct.eventos.CambioDatos;
 import com.adrian.gestionfct.modelo.Rol;
 import com.adrian.gestionfct.modelo.Usuario;
 import com.adrian.gestionfct.repositorios.UsuarioRepository;
@@ -17,23 +19,40 @@ public class UsuarioService {
 	@Autowired
 	private UsuarioRepository usuarioRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventos;
+
+	@Autowired
+	private BusCambiosService busCambios;
+
 	// Variable para almacenar el usuario logueado en la sesión
 	private Usuario usuarioActual;
 
+	// Cada escritura publica un CambioDatos (la tabla de usuarios muestra la propia entidad)
+	// y deja un aviso para los demás puestos
+
 	public Usuario save(Usuario usuario) {
-		return usuarioRepository.save(usuario);
+		boolean nuevo = usuario.getId() == null;
+		Usuario guardado = usuarioRepository.save(usuario);
+		busCambios.avisar(Usuario.class, guardado.getId());
+		eventos.publishEvent(CambioDatos.guardado(Usuario.class, nuevo, guardado.getId(), guardado));
+		return guardado;
 	}
 
 	public Usuario update(Usuario usuario) {
-		return usuarioRepository.save(usuario);
+		return save(usuario);
 	}
 
 	public void delete(Usuario usuario) {
 		usuarioRepository.delete(usuario);
+		busCambios.avisar(Usuario.class, usuario.getId());
+		eventos.publishEvent(CambioDatos.baja(Usuario.class, usuario.getId()));
 	}
 
 	public void deleteById(Long id) {
 		usuarioRepository.deleteById(id);
+		busCambios.avisar(Usuario.class, id);
+		eventos.publishEvent(CambioDatos.baja(Usuario.class, id));
 	}
 
 	public Optional<Usuario> findById(Long id) {
@@ -52,6 +71,10 @@ public class UsuarioService {
 		return usuarioRepository.findByRol(rol);
 	}
 
+	public long contarPorRol(Rol rol) {
+		return usuarioRepository.countByRol(rol);
+	}
+
 	public List<Usuario> findActivos() {
 		return usuarioRepository.findByActivoTrue();
 	}
@@ -112,6 +135,10 @@ public class UsuarioService {
 	}
 
 	public void deleteInBatch(List<Usuario> usuarios) {
+		// Los ids se copian antes: la lista puede ser la selección de la tabla que se va a tocar
+		List<Long> ids = usuarios.stream().map(Usuario::getId).toList();
 		usuarioRepository.deleteAll(usuarios);
+		busCambios.avisar(Usuario.class, ids);
+		ids.forEach(id -> eventos.publishEvent(CambioDatos.baja(Usuario.class, id)));
 	}
 }
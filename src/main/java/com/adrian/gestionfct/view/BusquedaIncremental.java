@@ -0,0 +1,311 @@
+package com.adrian.gestionfct.view;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+/**
+ * Búsqueda por texto de una tabla paginada en el servidor.
+ *
+ * Las pulsaciones se agrupan: la búsqueda se lanza cuando el usuario deja de escribir
+ * durante el retardo configurado. Si la última carga trajo todas las coincidencias (cabían
+ * en una página) y el texto nuevo solo restringe el anterior, no se vuelve a consultar la
+ * base de datos: se filtran en memoria las filas que coincidían, usando su clave de
+ * búsqueda ya normalizada. En cualquier otro caso se pide una carga nueva.
+ *
+ * Mientras la pantalla está oculta, las filas se guardan con {@link #retener()} en una
+ * {@link SoftReference}: se recuperan al volver si la memoria no hizo falta para otra cosa.
+ *
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+public class BusquedaIncremental<R> {
+
+    /**
+     * Reproduce en memoria el filtro de texto que aplica la consulta SQL de la pantalla.
+     */
+    public interface Criterio<R> {
+
+        /** Filas que devolvería la consulta para ese texto. */
+        Predicate<R> filtro(String texto);
+
+        /** Indica si todo lo que encuentra el texto nuevo lo encontraba ya el anterior. */
+        boolean refina(String anterior, String nuevo);
+
+        /**
+         * Criterio de las búsquedas FULLTEXT por prefijos: una fila coincide si alguna de
+         * sus claves contiene todos los términos.
+         */
+        @SafeVarargs
+        static <R> Criterio<R> prefijos(Function<R, String>... claves) {
+            return new Criterio<>() {
+                @Override
+                public Predicate<R> filtro(String texto) {
+                    List<String> terminos = ClaveBusqueda.terminos(texto);
+                    return fila -> {
+                        for (Function<R, String> clave : claves) {
+                            if (ClaveBusqueda.contienePrefijos(clave.apply(fila), terminos)) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    };
+                }
+
+                @Override
+                public boolean refina(String anterior, String nuevo) {
+                    return ClaveBusqueda.refina(ClaveBusqueda.terminos(anterior), ClaveBusqueda.terminos(nuevo));
+                }
+            };
+        }
+
+        /**
+         * Criterio de las búsquedas LIKE '%texto%': la clave normalizada contiene el texto.
+         */
+        static <R> Criterio<R> subcadena(Function<R, String> clave) {
+            return new Criterio<>() {
+                @Override
+                public Predicate<R> filtro(String texto) {
+                    String buscado = normalizar(texto);
+                    return fila -> clave.apply(fila).contains(buscado);
+                }
+
+                @Override
+                public boolean refina(String anterior, String nuevo) {
+                    return normalizar(nuevo).contains(normalizar(anterior));
+                }
+
+                private String normalizar(String texto) {
+                    return texto == null ? "" : ClaveBusqueda.normalizar(texto.trim());
+                }
+            };
+        }
+    }
+
+    private final Criterio<R> criterio;
+    private final PauseTransition pausa;
+    private final ObservableList<R> filas = FXCollections.observableArrayList();
+    private final FilteredList<R> visibles = new FilteredList<>(filas);
+
+    private TextField campo;
+    private Runnable recargar;
+    private Runnable alFiltrar;
+
+    /** Texto con el que se cargaron las filas; null mientras no haya una carga válida. */
+    private String textoCargado;
+    private boolean completa;
+    /** Último texto aplicado en memoria y filas que coincidían con él. */
+    private String textoAplicado;
+    private List<R> coincidencias = List.of();
+
+    private SoftReference<Retenidas<R>> retenidas;
+
+    public BusquedaIncremental(long retardoMs, Criterio<R> criterio) {
+        this.criterio = criterio;
+        this.pausa = new PauseTransition(Duration.millis(retardoMs));
+        this.pausa.setOnFinished(e -> aplicar(campo.getText()));
+    }
+
+    /**
+     * Filas visibles, para asignarlas a la tabla.
+     */
+    public FilteredList<R> getFilas() {
+        return visibles;
+    }
+
+    /**
+     * Escucha los cambios del campo de búsqueda. Cuando hace falta ir a la base de datos
+     * se llama a {@code recargar}; cuando basta con filtrar en memoria, a {@code alFiltrar}
+     * (por ejemplo, para actualizar el contador).
+     */
+    public void escuchar(TextField campo, Runnable recargar, Runnable alFiltrar) {
+        this.campo = campo;
+        this.recargar = recargar;
+        this.alFiltrar = alFiltrar;
+        campo.textProperty().addListener((obs, anterior, nuevo) -> pausa.playFromStart());
+    }
+
+    /**
+     * Marca las filas actuales como no reutilizables. Se llama al pedir una carga: hasta
+     * que llegue, cualquier búsqueda irá a la base de datos.
+     */
+    public void invalidar() {
+        completa = false;
+    }
+
+    /**
+     * Sustituye las filas por las recibidas de la base de datos.
+     *
+     * @param texto    texto con el que se hizo la consulta
+     * @param cargadas filas recibidas
+     * @param completa true si están todas las coincidencias (no hay más páginas)
+     */
+    public void cargar(String texto, List<R> cargadas, boolean completa) {
+        filas.setAll(cargadas);
+        visibles.setPredicate(null);
+        this.textoCargado = texto;
+        this.completa = completa;
+        this.textoAplicado = texto;
+        this.coincidencias = cargadas;
+
+        // Si la carga ya corresponde al texto escrito (p. ej. se lanzó con Enter), la búsqueda
+        // pendiente sobra. Si el usuario ha seguido escribiendo, esa búsqueda sigue en marcha
+        // y decidirá con las filas recién cargadas.
+        if (campo != null && mismoTexto(campo.getText(), texto)) {
+            pausa.stop();
+        }
+    }
+
+    /**
+     * Indica si las filas cargadas son todas las coincidencias, de modo que el total es
+     * el número de filas visibles.
+     */
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    /**
+     * Sustituye en su sitio la fila cargada que cumpla {@code esLaFila}. Si es igual a la
+     * nueva no se toca, para no perder la selección de la tabla. Con un filtro en memoria,
+     * la fila nueva se vuelve a comprobar con él: aparece si ahora coincide y se oculta si
+     * ha dejado de coincidir.
+     *
+     * @return false si esa fila no está cargada
+     */
+    public boolean sustituir(Predicate<R> esLaFila, R nueva) {
+        int indice = indiceDe(esLaFila);
+        if (indice < 0) {
+            return false;
+        }
+        if (filas.get(indice).equals(nueva)) {
+            return true;
+        }
+        R anterior = filas.set(indice, nueva);
+        boolean coincide = visibles.getPredicate() == null || criterio.filtro(textoAplicado).test(nueva);
+        coincidencias = Stream.concat(coincidencias.stream().filter(fila -> fila != anterior),
+                coincide ? Stream.of(nueva) : Stream.empty()).collect(Collectors.toList());
+        mostrarCoincidencias();
+        return true;
+    }
+
+    /**
+     * Añade al final una fila recién creada, visible aunque no coincida con el texto buscado.
+     *
+     * @return false si no hay filas cargadas (la vista está oculta o sin cargar)
+     */
+    public boolean anadir(R nueva) {
+        if (textoCargado == null) {
+            return false;
+        }
+        filas.add(nueva);
+        coincidencias = Stream.concat(coincidencias.stream(), Stream.of(nueva)).collect(Collectors.toList());
+        mostrarCoincidencias();
+        return true;
+    }
+
+    /**
+     * Quita la fila cargada que cumpla {@code esLaFila}.
+     *
+     * @return false si esa fila no está cargada
+     */
+    public boolean quitar(Predicate<R> esLaFila) {
+        int indice = indiceDe(esLaFila);
+        if (indice < 0) {
+            return false;
+        }
+        R anterior = filas.remove(indice);
+        coincidencias = coincidencias.stream().filter(fila -> fila != anterior).collect(Collectors.toList());
+        mostrarCoincidencias();
+        return true;
+    }
+
+    /**
+     * Deja de mostrar las filas y las conserva solo mientras la memoria lo permita.
+     */
+    public void retener() {
+        pausa.stop();
+        if (textoCargado != null) {
+            retenidas = new SoftReference<>(new Retenidas<>(List.copyOf(filas), textoCargado, completa));
+        }
+        filas.clear();
+        visibles.setPredicate(null);
+        textoCargado = null;
+        completa = false;
+        textoAplicado = null;
+        coincidencias = List.of();
+    }
+
+    /**
+     * Vuelve a mostrar las filas retenidas, con el texto con el que se cargaron.
+     *
+     * @return false si no había filas retenidas o el recolector ya las liberó
+     */
+    public boolean restaurar() {
+        Retenidas<R> guardadas = retenidas != null ? retenidas.get() : null;
+        retenidas = null;
+        if (guardadas == null) {
+            return false;
+        }
+        cargar(guardadas.texto(), guardadas.filas(), guardadas.completa());
+        return true;
+    }
+
+    private void aplicar(String texto) {
+        if (!completa || !criterio.refina(textoCargado, texto)) {
+            recargar.run();
+            return;
+        }
+        // Si el texto restringe el último aplicado, basta con revisar sus coincidencias
+        List<R> candidatas = criterio.refina(textoAplicado, texto) ? coincidencias : filas;
+        Predicate<R> filtro = criterio.filtro(texto);
+        coincidencias = candidatas.stream().filter(filtro).collect(Collectors.toList());
+        textoAplicado = texto;
+        filtrarPorCoincidencias();
+        alFiltrar.run();
+    }
+
+    /**
+     * Tras tocar las filas, vuelve a filtrar por las coincidencias si había un filtro en memoria.
+     */
+    private void mostrarCoincidencias() {
+        if (visibles.getPredicate() != null) {
+            filtrarPorCoincidencias();
+        }
+    }
+
+    private void filtrarPorCoincidencias() {
+        Set<R> visiblesAhora = Collections.newSetFromMap(new IdentityHashMap<>());
+        visiblesAhora.addAll(coincidencias);
+        visibles.setPredicate(visiblesAhora::contains);
+    }
+
+    private int indiceDe(Predicate<R> esLaFila) {
+        for (int i = 0; i < filas.size(); i++) {
+            if (esLaFila.test(filas.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record Retenidas<R>(List<R> filas, String texto, boolean completa) {
+    }
+
+    private static boolean mismoTexto(String a, String b) {
+        return (a == null ? "" : a).equals(b == null ? "" : b);
+    }
+}
@@ -0,0 +1,41 @@
+package com.adrian.gestionfct.view;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.adrian.gestionfct.eventos.CambioDatos;
+
+import javafx.application.Platform;
+
+/**
+ * Reparte entre las pantallas los {@link CambioDatos} que publican los servicios.
+ *
+ * Si el cambio se publica dentro de una transacción, se entrega cuando esta se confirma
+ * (una escritura deshecha no llega a las tablas); si no, en el momento. La entrega se hace
+ * siempre en el hilo de JavaFX, aunque el servicio se haya llamado desde una carga en
+ * segundo plano.
+ */
+@Component
+public class CanalCambios {
+
+    private final ObjectProvider<OyenteCambios> oyentes;
+
+    public CanalCambios(ObjectProvider<OyenteCambios> oyentes) {
+        this.oyentes = oyentes;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void repartir(CambioDatos cambio) {
+        Runnable entrega = () -> oyentes.orderedStream().forEach(oyente -> oyente.alCambiar(cambio));
+        if (Platform.isFxApplicationThread()) {
+            entrega.run();
+            return;
+        }
+        try {
+            Platform.runLater(entrega);
+        } catch (IllegalStateException e) {
+            // JavaFX no está arrancado (p. ej. en los tests): no hay pantallas que avisar
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.adrian.gestionfct.view;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+
+/**
+ * Canal de carga en segundo plano que solo conserva la última petición.
+ *
+ * Todos los métodos se llaman desde el hilo de JavaFX y los callbacks también se
+ * ejecutan en él. Si se lanza una carga mientras otra sigue en curso, la anterior se
+ * cancela y su resultado se descarta aunque la consulta llegue a terminar.
+ */
+public class CargaCancelable {
+
+    private static final Logger LOG = getLogger(CargaCancelable.class);
+
+    private final Executor executor;
+    private Task<?> enCurso;
+
+    CargaCancelable(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Ejecuta la consulta en segundo plano y entrega el resultado en el hilo de JavaFX.
+     */
+    public <T> void ejecutar(Callable<T> consulta, Consumer<T> alTerminar, Consumer<Throwable> alFallar) {
+        lanzar(consulta, alTerminar, alFallar, () -> { }, () -> { });
+    }
+
+    /**
+     * Igual que {@link #ejecutar(Callable, Consumer, Consumer)}, mostrando un indicador de
+     * carga en la tabla mientras no tenga filas.
+     */
+    public <T> void ejecutar(TableView<?> tabla, Callable<T> consulta, Consumer<T> alTerminar,
+            Consumer<Throwable> alFallar) {
+        cancelar();
+        Node placeholderOriginal = tabla.getPlaceholder() instanceof CargandoPlaceholder cargando
+                ? cargando.original
+                : tabla.getPlaceholder();
+        lanzar(consulta, alTerminar, alFallar,
+                () -> tabla.setPlaceholder(new CargandoPlaceholder(placeholderOriginal)),
+                () -> tabla.setPlaceholder(placeholderOriginal));
+    }
+
+    /**
+     * Rellena un combo en segundo plano. Mientras carga queda deshabilitado y con el texto
+     * "Cargando..."; al terminar recupera su estado y su texto de ayuda.
+     */
+    public <T> void rellenar(ComboBox<T> combo, Callable<? extends List<T>> consulta, Runnable alTerminar,
+            Consumer<Throwable> alFallar) {
+        cancelar();
+        String promptOriginal = combo.getPromptText();
+        boolean deshabilitado = combo.isDisable();
+        lanzar(consulta, opciones -> {
+            combo.setItems(FXCollections.observableArrayList(opciones));
+            alTerminar.run();
+        }, alFallar, () -> {
+            combo.setPromptText("Cargando...");
+            combo.setDisable(true);
+        }, () -> {
+            combo.setPromptText(promptOriginal);
+            combo.setDisable(deshabilitado);
+        });
+    }
+
+    /**
+     * Cancela la carga en curso, si la hay. Su resultado ya no se entregará.
+     */
+    public void cancelar() {
+        Task<?> tarea = enCurso;
+        enCurso = null;
+        if (tarea != null) {
+            tarea.cancel(true);
+        }
+    }
+
+    public boolean isEnCurso() {
+        return enCurso != null;
+    }
+
+    private <T> void lanzar(Callable<T> consulta, Consumer<T> alTerminar, Consumer<Throwable> alFallar,
+            Runnable alEmpezar, Runnable alAcabar) {
+        cancelar();
+
+        Task<T> tarea = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return consulta.call();
+            }
+        };
+        tarea.setOnSucceeded(e -> {
+            if (enCurso == tarea) {
+                enCurso = null;
+                alAcabar.run();
+                alTerminar.accept(tarea.getValue());
+            }
+        });
+        tarea.setOnFailed(e -> {
+            if (enCurso == tarea) {
+                enCurso = null;
+                alAcabar.run();
+                LOG.error("Error en la carga de datos", tarea.getException());
+                alFallar.accept(tarea.getException());
+            }
+        });
+        // Si ya hay otra carga en marcha, es ella la que decide qué se muestra. Si la
+        // canceló el cargador (cola llena), el canal se queda sin carga
+        tarea.setOnCancelled(e -> {
+            if (enCurso == null || enCurso == tarea) {
+                enCurso = null;
+                alAcabar.run();
+            }
+        });
+
+        enCurso = tarea;
+        alEmpezar.run();
+        executor.execute(tarea);
+    }
+
+    /**
+     * Indicador de carga que recuerda el placeholder que sustituye.
+     */
+    private static final class CargandoPlaceholder extends VBox {
+        private final Node original;
+
+        private CargandoPlaceholder(Node original) {
+            super(10, new ProgressIndicator(), new Label("Cargando..."));
+            this.original = original;
+            setAlignment(Pos.CENTER);
+            ProgressIndicator indicador = (ProgressIndicator) getChildren().get(0);
+            indicador.setMaxSize(40, 40);
+        }
+    }
+}
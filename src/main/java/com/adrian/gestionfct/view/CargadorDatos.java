@@ -0,0 +1,75 @@
+package com.adrian.gestionfct.view;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ejecuta las consultas de las pantallas fuera del hilo de JavaFX.
+ *
+ * Cada controlador pide una {@link CargaCancelable} por cada dato que carga (la tabla,
+ * un combo...). Al lanzar una carga nueva en la misma CargaCancelable se cancela la
+ * anterior, así que un cambio rápido de filtros no acumula consultas ni pinta resultados viejos.
+ *
+ * Los hilos son pocos y fijos: el pool de conexiones es pequeño y más consultas
+ * simultáneas solo harían esperar a todas.
+ */
+@Component
+public class CargadorDatos {
+
+    private static final int HILOS = 4;
+    private static final int CAPACIDAD_COLA = 64;
+
+    private static final Logger LOG = getLogger(CargadorDatos.class);
+
+    private final ExecutorService executor;
+
+    public CargadorDatos() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarea -> {
+            Thread hilo = new Thread(tarea, "carga-datos-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        this.executor = new ThreadPoolExecutor(HILOS, HILOS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(CAPACIDAD_COLA), fabrica, CargadorDatos::sinSitio);
+    }
+
+    /**
+     * Con la cola llena, primero se sacan de ella las cargas ya sustituidas por otra (están
+     * canceladas y no harían nada). Si aun así no cabe, la nueva se cancela y su canal
+     * vuelve a su estado. Nunca se ejecuta en el hilo que la pide, que es el de JavaFX.
+     */
+    private static void sinSitio(Runnable tarea, ThreadPoolExecutor executor) {
+        executor.purge();
+        if (executor.isShutdown() || !executor.getQueue().offer(tarea)) {
+            LOG.warn("Cola de cargas llena: se descarta una carga");
+            if (tarea instanceof Future<?> futuro) {
+                futuro.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Crea un canal de carga independiente; cada canal solo mantiene viva su última carga.
+     */
+    public CargaCancelable nuevaCarga() {
+        return new CargaCancelable(executor);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.adrian.gestionfct.view;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import com.adrian.gestionfct.exception.ConflictoEdicionException;
+import com.adrian.gestionfct.modelo.CamposEditables;
+import com.adrian.gestionfct.modelo.CamposEditables.Diferencia;
+import com.adrian.gestionfct.modelo.Editable;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Guardado desde las pantallas con resolución de conflictos de edición.
+ *
+ * Cuando el servicio no puede fusionar la edición con la que guardó otro usuario, se
+ * muestran los campos en conflicto con los dos valores y el usuario elige cuáles se
+ * quedan. Los cambios que no chocaban ya vienen fusionados en la fila actual.
+ *
+ * Se llama desde el hilo de JavaFX.
+ */
+public final class DialogoConflicto {
+
+    private DialogoConflicto() {
+    }
+
+    /**
+     * Guarda la entidad y, si hay conflicto, pregunta al usuario hasta que se guarde o
+     * lo cancele.
+     *
+     * @return la entidad guardada; vacío si el usuario canceló
+     */
+    public static <T extends Editable> Optional<T> guardar(T editada, CamposEditables<T> campos,
+            UnaryOperator<T> guardar) {
+        T aGuardar = editada;
+        while (true) {
+            try {
+                return Optional.of(guardar.apply(aGuardar));
+            } catch (ConflictoEdicionException e) {
+                T actual = e.getActual();
+                Optional<Boolean> mantenerMios = preguntar(e.getConflictos());
+                if (mantenerMios.isEmpty()) {
+                    return Optional.empty();
+                }
+                if (mantenerMios.get()) {
+                    campos.imponer(e.getConflictos(), aGuardar, actual);
+                }
+                aGuardar = actual;
+            }
+        }
+    }
+
+    /**
+     * @return true para mantener los valores propios, false para los del otro usuario;
+     *         vacío si se cancela
+     */
+    private static Optional<Boolean> preguntar(List<Diferencia> conflictos) {
+        Dialog<Boolean> dialog = new Dialog<>();
+        dialog.setTitle("Conflicto de edición");
+        dialog.setHeaderText("Otro usuario ha modificado este registro mientras lo editaba.\n"
+                + "Elija qué valores se guardan en los campos que han cambiado los dos.");
+
+        ButtonType btnMios = new ButtonType("Mantener mis cambios", ButtonBar.ButtonData.YES);
+        ButtonType btnSuyos = new ButtonType("Mantener los suyos", ButtonBar.ButtonData.NO);
+        dialog.getDialogPane().getButtonTypes().addAll(btnMios, btnSuyos, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(15);
+        grid.setVgap(8);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+        grid.add(negrita("Campo"), 0, 0);
+        grid.add(negrita("Mi valor"), 1, 0);
+        grid.add(negrita("Valor guardado"), 2, 0);
+        int fila = 1;
+        for (Diferencia diferencia : conflictos) {
+            grid.add(new Label(diferencia.campo()), 0, fila);
+            grid.add(valor(diferencia.mio()), 1, fila);
+            grid.add(valor(diferencia.suyo()), 2, fila);
+            fila++;
+        }
+        dialog.getDialogPane().setContent(grid);
+
+        dialog.setResultConverter(boton -> boton == btnMios ? Boolean.TRUE
+                : boton == btnSuyos ? Boolean.FALSE : null);
+        return dialog.showAndWait();
+    }
+
+    private static Label negrita(String texto) {
+        Label etiqueta = new Label(texto);
+        etiqueta.setStyle("-fx-font-weight: bold;");
+        return etiqueta;
+    }
+
+    private static Label valor(String texto) {
+        Label etiqueta = new Label(texto.isEmpty() ? "(vacío)" : texto);
+        etiqueta.setWrapText(true);
+        etiqueta.setMaxWidth(250);
+        return etiqueta;
+    }
+}
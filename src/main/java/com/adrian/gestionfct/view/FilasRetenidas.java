@@ -0,0 +1,123 @@
+package com.adrian.gestionfct.view;
+
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javafx.collections.ObservableList;
+
+/**
+ * Conserva las filas de una tabla mientras su pantalla está oculta y aplica sobre ellas
+ * los cambios de una sola fila.
+ *
+ * Las filas se guardan en una {@link SoftReference}: si la memoria hace falta, el
+ * recolector las libera (empezando por las menos usadas) y la pantalla las vuelve a
+ * consultar al mostrarse. Para tablas paginadas con búsqueda, {@link BusquedaIncremental}
+ * hace lo mismo con su estado.
+ *
+ * Los cambios solo se aplican con filas cargadas (con {@link #cargar} o
+ * {@link #restaurar()}): mientras la pantalla está oculta se ignoran, y al volver se
+ * vuelve a consultar. Una fila nueva solo se añade si cumple el filtro con el que se
+ * cargaron las filas (la búsqueda de la pantalla).
+ *
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+public class FilasRetenidas<T> {
+
+    private final ObservableList<T> filas;
+    private SoftReference<Retenidas<T>> retenidas;
+    /** Filtro de las filas mostradas; null mientras no hay filas cargadas. */
+    private Predicate<T> filtro;
+
+    public FilasRetenidas(ObservableList<T> filas) {
+        this.filas = filas;
+    }
+
+    /**
+     * Muestra las filas de una consulta completa, sin filtrar.
+     */
+    public void cargar(List<T> nuevas) {
+        cargar(nuevas, fila -> true);
+    }
+
+    /**
+     * Muestra las filas de una búsqueda; {@code filtro} la reproduce en memoria para decidir
+     * si una fila que llega después habría salido en ella.
+     */
+    public void cargar(List<T> nuevas, Predicate<T> filtro) {
+        filas.setAll(nuevas);
+        this.filtro = filtro;
+    }
+
+    /**
+     * Sustituye en su sitio la fila que cumpla {@code esLaFila}. Si es igual a la nueva no
+     * se toca, para no perder la selección de la tabla; si ya no cumple el filtro, se quita.
+     *
+     * @return false si esa fila no está en la tabla
+     */
+    public boolean sustituir(Predicate<T> esLaFila, T nueva) {
+        for (int i = 0; i < filas.size(); i++) {
+            if (esLaFila.test(filas.get(i))) {
+                if (filtro != null && !filtro.test(nueva)) {
+                    filas.remove(i);
+                } else if (!filas.get(i).equals(nueva)) {
+                    filas.set(i, nueva);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Añade al final una fila que no estaba, si cumple el filtro de las filas cargadas.
+     *
+     * @return false si no hay filas cargadas (la vista está oculta o sin cargar) o la
+     *         fila no cumple el filtro
+     */
+    public boolean anadir(T nueva) {
+        if (filtro == null || !filtro.test(nueva)) {
+            return false;
+        }
+        filas.add(nueva);
+        return true;
+    }
+
+    /**
+     * Quita de la tabla la fila que cumpla {@code esLaFila}.
+     *
+     * @return false si esa fila no está en la tabla
+     */
+    public boolean quitar(Predicate<T> esLaFila) {
+        return filas.removeIf(esLaFila);
+    }
+
+    /**
+     * Vacía la lista de la tabla y guarda su contenido.
+     */
+    public void retener() {
+        if (filtro != null) {
+            retenidas = new SoftReference<>(new Retenidas<>(List.copyOf(filas), filtro));
+        }
+        filas.clear();
+        filtro = null;
+    }
+
+    /**
+     * Devuelve a la tabla las filas guardadas.
+     *
+     * @return false si no había filas guardadas o el recolector ya las liberó
+     */
+    public boolean restaurar() {
+        Retenidas<T> guardadas = retenidas != null ? retenidas.get() : null;
+        retenidas = null;
+        if (guardadas == null) {
+            return false;
+        }
+        cargar(guardadas.filas(), guardadas.filtro());
+        return true;
+    }
+
+    private record Retenidas<T>(List<T> filas, Predicate<T> filtro) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.adrian.gestionfct.view;
 
+import java.util.List;
+
 /**
  * Enum que define todas las vistas FXML del sistema.
  * 
- * Cada vista tiene asociado su archivo FXML y su título.
+ * Cada vista tiene asociado su archivo FXML, su título y las vistas a las que
+ * normalmente se navega desde ella.
  */
 public enum FxmlView {
 
@@ -29,6 +32,11 @@ public enum FxmlView {
 		public String getFxmlFile() {
 			return "/fxml/MenuAdmin.fxml";
 		}
+
+		@Override
+		public List<FxmlView> getVistasSiguientes() {
+			return List.of(GESTION_EMPRESAS, GESTION_ESTUDIANTES, ASIGNAR_FCT, GESTION_DOCUMENTOS, GESTION_USUARIOS);
+		}
 	},
 
 	MENU_DOCENTE {
@@ -41,6 +49,11 @@ public enum FxmlView {
 		public String getFxmlFile() {
 			return "/fxml/MenuDocente.fxml";
 		}
+
+		@Override
+		public List<FxmlView> getVistasSiguientes() {
+			return List.of(ASIGNAR_FCT, GESTION_DOCUMENTOS);
+		}
 	},
 
 	MENU_TUTOR {
@@ -53,6 +66,11 @@ public enum FxmlView {
 		public String getFxmlFile() {
 			return "/fxml/MenuTutor.fxml";
 		}
+
+		@Override
+		public List<FxmlView> getVistasSiguientes() {
+			return List.of(GESTION_DOCUMENTOS);
+		}
 	},
 
 	MENU_ESTUDIANTE {
@@ -125,9 +143,28 @@ public enum FxmlView {
 		public String getFxmlFile() {
 			return "/fxml/GestionDocumentos.fxml";
 		}
+	},
+
+	MONITOR_RENDIMIENTO {
+		@Override
+		public String getTitle() {
+			return "GestionFCT - Rendimiento de Consultas";
+		}
+
+		@Override
+		public String getFxmlFile() {
+			return "/fxml/MonitorRendimiento.fxml";
+		}
 	};
 
 	public abstract String getTitle();
 
 	public abstract String getFxmlFile();
+
+	/**
+	 * Vistas que se suelen abrir desde esta; se precargan en segundo plano al mostrarla.
+	 */
+	public List<FxmlView> getVistasSiguientes() {
+		return List.of();
+	}
 }
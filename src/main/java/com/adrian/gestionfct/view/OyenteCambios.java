@@ -0,0 +1,16 @@
+package com.adrian.gestionfct.view;
+
+import com.adrian.gestionfct.eventos.CambioDatos;
+
+/**
+ * Controlador que actualiza sus filas con los cambios guardados en cualquier pantalla.
+ * Basta con que el bean implemente esta interfaz: {@link CanalCambios} le entrega los
+ * cambios en el hilo de JavaFX.
+ *
+ * Los cambios llegan aunque la vista esté oculta o no se haya cargado nunca; en ese
+ * caso no hay filas que tocar y la siguiente carga ya los incluye.
+ */
+public interface OyenteCambios {
+
+	void alCambiar(CambioDatos cambio);
+}
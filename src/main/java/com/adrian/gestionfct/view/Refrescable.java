@@ -0,0 +1,25 @@
+package com.adrian.gestionfct.view;
+
+/**
+ * Controlador de una vista que {@link com.adrian.gestionfct.config.StageManager} conserva
+ * entre navegaciones.
+ *
+ * Como la vista solo se construye una vez, {@code initialize()} deja de ejecutarse en cada
+ * visita: lo que deba ponerse al día cada vez que se muestra (datos de la tabla, usuario
+ * actual...) va en {@link #refrescar()}. Al mostrarse, la vista debe enseñar enseguida los
+ * datos que conserve y revalidarlos en segundo plano.
+ */
+public interface Refrescable {
+
+	/**
+	 * Se llama cada vez que la vista se muestra, también la primera, en el hilo de JavaFX.
+	 */
+	void refrescar();
+
+	/**
+	 * Se llama cuando se navega a otra vista. Es el momento de cancelar las cargas en
+	 * curso y de soltar los datos que se puedan volver a pedir.
+	 */
+	default void alOcultar() {
+	}
+}
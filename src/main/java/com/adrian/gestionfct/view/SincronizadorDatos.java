@@ -0,0 +1,207 @@
+package com.adrian.gestionfct.view;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.adrian.gestionfct.config.CacheConfig;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.AvisoCambio;
+import com.adrian.gestionfct.services.BusCambiosService;
+import com.adrian.gestionfct.services.CacheService;
+import com.adrian.gestionfct.services.SincronizacionService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pone al día periódicamente las cachés y las tablas abiertas con lo que han cambiado
+ * otros puestos.
+ *
+ * Cada pasada lee los avisos del {@link BusCambiosService} con id mayor que el último
+ * visto: sin cambios es una sola consulta por rango de la clave primaria. Por cada tabla
+ * cambiada en otro puesto se vacían las cachés que dependen de ella y, si la muestran las
+ * pantallas, se piden las filas modificadas y las bajas desde la pasada anterior (solo de
+ * esas tablas y de las que muestran sus datos) y se publican como {@link CambioDatos}:
+ * las pantallas las aplican igual que sus propios cambios, a través de
+ * {@link CanalCambios}.
+ *
+ * Cada pasada repite un margen de tiempo de la anterior: una transacción que tarda en
+ * confirmarse puede llevar una fecha algo anterior a la de la última pasada. Aplicar dos
+ * veces el mismo cambio no tiene efecto.
+ */
+@Component
+public class SincronizadorDatos {
+
+    private static final Logger LOG = getLogger(SincronizadorDatos.class);
+
+    /** Ids saltados que se siguen pidiendo como mucho. */
+    private static final int MAX_PENDIENTES = 1000;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private BusCambiosService busCambios;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    /** Segundos entre pasadas; 0 desactiva la sincronización. */
+    @Value("${gestionfct.sincronizacion.intervalo-segundos:15}")
+    private long intervaloSegundos;
+
+    @Value("${gestionfct.sincronizacion.margen-segundos:30}")
+    private long margenSegundos;
+
+    @Value("${gestionfct.sincronizacion.retencion-bajas-dias:7}")
+    private long retencionBajasDias;
+
+    private ScheduledExecutorService planificador;
+
+    // Estado de las pasadas, que no se solapan (sincronizar() es synchronized)
+
+    /** Hora del servidor en la última pasada que pidió diferencias. */
+    private LocalDateTime ultimaPasada;
+
+    /** Id del último aviso leído. */
+    private long ultimoAviso;
+
+    /** Ids saltados que pueden ser transacciones sin confirmar, con el momento en que se vieron. */
+    private final Map<Long, Long> pendientes = new HashMap<>();
+
+    /** Tablas avisadas por otros puestos que aún no se han procesado. */
+    private final Set<String> tablasCambiadas = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void arrancar() {
+        if (intervaloSegundos <= 0) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "sincronizacion-datos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.scheduleWithFixedDelay(this::sincronizar, 0, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+        }
+    }
+
+    /**
+     * Una pasada: lee los avisos nuevos, vacía las cachés de las tablas que han cambiado
+     * en otros puestos y, si alguna se muestra en las pantallas, les pasa las diferencias.
+     * La llama el planificador; con la sincronización desactivada se puede llamar a mano.
+     */
+    public synchronized void sincronizar() {
+        try {
+            if (ultimaPasada == null) {
+                // Primera pasada: las pantallas cargan sus datos al abrirse y las cachés están
+                // vacías, solo se fija el punto de partida
+                LocalDateTime ahora = sincronizacionService.ahora();
+                sincronizacionService.purgarBajasAnteriores(ahora.minusDays(retencionBajasDias));
+                busCambios.purgarAnteriores(ahora.minusDays(retencionBajasDias));
+                ultimoAviso = busCambios.ultimoId();
+                ultimaPasada = ahora;
+                return;
+            }
+
+            leerAvisos();
+            if (tablasCambiadas.isEmpty()) {
+                return;
+            }
+            LOG.debug("Avisos de otros puestos en {}", tablasCambiadas);
+            cacheService.vaciar(tablasCambiadas.stream()
+                    .flatMap(tabla -> CacheConfig.cachesDeTabla(tabla).stream())
+                    .distinct()
+                    .toList());
+            if (tablasCambiadas.stream().anyMatch(sincronizacionService::esTablaSincronizada)) {
+                publicarDiferencias();
+            }
+            tablasCambiadas.clear();
+        } catch (Exception e) {
+            // Se reintenta en la siguiente pasada: las tablas avisadas siguen pendientes y las
+            // diferencias se piden desde la misma fecha
+            LOG.warn("Error al sincronizar los datos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lee los avisos posteriores al último visto y los pendientes, y anota las tablas que
+     * han cambiado en otros puestos.
+     *
+     * Los ids se reservan al insertar pero se ven al confirmar: si aparece el 12 antes que
+     * el 11, el 11 puede ser una transacción todavía abierta. Los ids saltados se vuelven a
+     * pedir durante el margen de la sincronización; pasado ese tiempo se dan por perdidos
+     * (una transacción deshecha también deja huecos).
+     */
+    private void leerAvisos() {
+        long ahora = System.nanoTime();
+        long margenNanos = TimeUnit.SECONDS.toNanos(margenSegundos);
+        pendientes.values().removeIf(desde -> ahora - desde > margenNanos);
+
+        int nuevos;
+        do {
+            nuevos = 0;
+            for (AvisoCambio aviso : busCambios.leer(ultimoAviso, List.copyOf(pendientes.keySet()))) {
+                if (pendientes.remove(aviso.getId()) == null) {
+                    nuevos++;
+                    for (long hueco = ultimoAviso + 1; hueco < aviso.getId()
+                            && pendientes.size() < MAX_PENDIENTES; hueco++) {
+                        pendientes.put(hueco, ahora);
+                    }
+                    ultimoAviso = aviso.getId();
+                }
+                if (!busCambios.getOrigen().equals(aviso.getOrigen())) {
+                    tablasCambiadas.add(aviso.getTabla());
+                }
+            }
+        } while (nuevos == BusCambiosService.LOTE);
+    }
+
+    /**
+     * Publica las filas modificadas y las bajas desde la pasada anterior de las tablas
+     * avisadas.
+     */
+    private void publicarDiferencias() {
+        LocalDateTime ahora = sincronizacionService.ahora();
+        if (ultimaPasada.isBefore(ahora.minusDays(retencionBajasDias))) {
+            // Las lápidas de entonces pueden estar ya purgadas: las diferencias no serían
+            // fiables y las pantallas se revalidan de todos modos al volver a mostrarse
+            LOG.warn("Sin sincronizar desde {}; se continúa desde ahora", ultimaPasada);
+            ultimaPasada = ahora;
+            return;
+        }
+
+        List<CambioDatos> cambios = sincronizacionService.cambiosDesde(ultimaPasada.minusSeconds(margenSegundos),
+                Set.copyOf(tablasCambiadas));
+        cambios.forEach(eventos::publishEvent);
+        ultimaPasada = ahora;
+        if (!cambios.isEmpty()) {
+            LOG.debug("Sincronización: {} cambios", cambios.size());
+        }
+    }
+}
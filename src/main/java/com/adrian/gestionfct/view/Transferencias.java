@@ -0,0 +1,166 @@
+package com.adrian.gestionfct.view;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.services.CopiaArchivos;
+
+import jakarta.annotation.PreDestroy;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Copias de archivos en segundo plano (descargas y subidas de documentos) con su progreso.
+ *
+ * Tienen sus propios hilos, pocos, para que una descarga grande no ocupe los de
+ * {@link CargadorDatos} y deje las pantallas sin cargar. Las transferencias en curso se
+ * publican en {@link #getActivas()} para mostrarlas en una lista con {@link #celda()}.
+ *
+ * Todos los métodos se llaman desde el hilo de JavaFX y los callbacks también se
+ * ejecutan en él.
+ */
+@Component
+public class Transferencias {
+
+    private static final Logger LOG = getLogger(Transferencias.class);
+
+    /**
+     * Trabajo de una transferencia: se ejecuta fuera del hilo de JavaFX e informa del avance.
+     */
+    @FunctionalInterface
+    public interface Trabajo<T> {
+        T ejecutar(CopiaArchivos.Progreso progreso) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final ObservableList<Task<?>> activas = FXCollections.observableArrayList();
+
+    public Transferencias(@Value("${gestionfct.documentos.transferencias-simultaneas:2}") int simultaneas) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarea -> {
+            Thread hilo = new Thread(tarea, "transferencia-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        this.executor = Executors.newFixedThreadPool(simultaneas, fabrica);
+    }
+
+    /**
+     * Lanza la transferencia. Si se cancela no se llama a ningún callback.
+     *
+     * @param titulo nombre con el que aparece en la lista (normalmente el del archivo)
+     */
+    public <T> Task<T> lanzar(String titulo, Trabajo<T> trabajo, Consumer<T> alTerminar,
+            Consumer<Throwable> alFallar) {
+        return lanzar(titulo, trabajo, alTerminar, alFallar, () -> { });
+    }
+
+    /**
+     * Lanza la transferencia; si se cancela, ya fuera de la lista, se llama a
+     * {@code alCancelar}.
+     *
+     * @param titulo nombre con el que aparece en la lista (normalmente el del archivo)
+     */
+    public <T> Task<T> lanzar(String titulo, Trabajo<T> trabajo, Consumer<T> alTerminar,
+            Consumer<Throwable> alFallar, Runnable alCancelar) {
+        Task<T> tarea = new Task<>() {
+            {
+                updateTitle(titulo);
+            }
+
+            @Override
+            protected T call() throws Exception {
+                return trabajo.ejecutar((copiados, total) -> {
+                    updateProgress(copiados, total);
+                    updateMessage(Documento.formatearTamano(copiados) + " de " + Documento.formatearTamano(total));
+                });
+            }
+        };
+        tarea.setOnSucceeded(e -> {
+            activas.remove(tarea);
+            alTerminar.accept(tarea.getValue());
+        });
+        tarea.setOnFailed(e -> {
+            activas.remove(tarea);
+            LOG.error("Error en la transferencia de {}", titulo, tarea.getException());
+            alFallar.accept(tarea.getException());
+        });
+        tarea.setOnCancelled(e -> {
+            activas.remove(tarea);
+            alCancelar.run();
+        });
+        activas.add(tarea);
+        executor.execute(tarea);
+        return tarea;
+    }
+
+    /**
+     * Transferencias en curso o en espera.
+     */
+    public ObservableList<Task<?>> getActivas() {
+        return activas;
+    }
+
+    /**
+     * Celda para una lista de transferencias: nombre, barra de progreso, bytes copiados y
+     * un botón para cancelarla.
+     */
+    public static ListCell<Task<?>> celda() {
+        return new ListCell<>() {
+            private final Label titulo = new Label();
+            private final Label mensaje = new Label();
+            private final ProgressBar barra = new ProgressBar();
+            private final Button cancelar = new Button("✕");
+            private final HBox fila = new HBox(10, new VBox(2, titulo, mensaje), barra, cancelar);
+
+            {
+                fila.setAlignment(Pos.CENTER_LEFT);
+                HBox.setHgrow(barra, Priority.ALWAYS);
+                barra.setMaxWidth(Double.MAX_VALUE);
+                mensaje.setStyle("-fx-font-size: 11px;");
+            }
+
+            @Override
+            protected void updateItem(Task<?> tarea, boolean vacia) {
+                super.updateItem(tarea, vacia);
+                titulo.textProperty().unbind();
+                mensaje.textProperty().unbind();
+                barra.progressProperty().unbind();
+                if (vacia || tarea == null) {
+                    setGraphic(null);
+                    return;
+                }
+                titulo.textProperty().bind(tarea.titleProperty());
+                mensaje.textProperty().bind(tarea.messageProperty());
+                barra.progressProperty().bind(tarea.progressProperty());
+                cancelar.setOnAction(e -> tarea.cancel(true));
+                setGraphic(fila);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.adrian.gestionfct.modelo.ClaveBusqueda;
+
+/**
+ * Rellena clave_busqueda en las filas que ya existían antes de V3.
+ * Se hace en Java porque MySQL no sabe quitar tildes y la clave tiene que
+ * coincidir exactamente con la que genera {@link ClaveBusqueda} al guardar.
+ */
+public class V4__RellenarClavesBusqueda extends BaseJavaMigration {
+
+	private static final int TAMANO_LOTE = 500;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		Connection conexion = context.getConnection();
+		rellenar(conexion, "estudiantes", "nombre", "apellidos", "dni", "email");
+		rellenar(conexion, "empresas", "nombre", "nif", "localidad");
+		rellenar(conexion, "tutores_empresa", "nombre", "apellidos", "dni", "email");
+	}
+
+	private void rellenar(Connection conexion, String tabla, String... columnas) throws Exception {
+		String select = "SELECT id, " + String.join(", ", columnas) + " FROM " + tabla;
+		String update = "UPDATE " + tabla + " SET clave_busqueda = ? WHERE id = ?";
+
+		try (Statement consulta = conexion.createStatement();
+				ResultSet filas = consulta.executeQuery(select);
+				PreparedStatement actualizacion = conexion.prepareStatement(update)) {
+			int pendientes = 0;
+			while (filas.next()) {
+				String[] valores = new String[columnas.length];
+				for (int i = 0; i < columnas.length; i++) {
+					valores[i] = filas.getString(i + 2);
+				}
+				actualizacion.setString(1, ClaveBusqueda.de(valores));
+				actualizacion.setLong(2, filas.getLong(1));
+				actualizacion.addBatch();
+				if (++pendientes == TAMANO_LOTE) {
+					actualizacion.executeBatch();
+					pendientes = 0;
+				}
+			}
+			if (pendientes > 0) {
+				actualizacion.executeBatch();
+			}
+		}
+	}
+}
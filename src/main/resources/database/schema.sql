@@ -64,6 +64,7 @@ CREATE TABLE IF NOT EXISTS empresas (
     persona_contacto VARCHAR(200),
     sector VARCHAR(500),
     activa BIT(1) NOT NULL DEFAULT 1,
+    clave_busqueda VARCHAR(500),
     observaciones VARCHAR(1000)
 ) ENGINE=InnoDB;
 
@@ -81,6 +82,7 @@ CREATE TABLE IF NOT EXISTS tutores_empresa (
     email VARCHAR(100),
     cargo VARCHAR(100),
     activo BIT(1) NOT NULL DEFAULT 1,
+    clave_busqueda VARCHAR(500),
     usuario_id BIGINT UNIQUE,
     empresa_id BIGINT NOT NULL,
     FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE SET NULL,
@@ -125,6 +127,7 @@ CREATE TABLE IF NOT EXISTS estudiantes (
     grupo VARCHAR(50),
     curso_actual INT,
     activo BIT(1) NOT NULL DEFAULT 1,
+    clave_busqueda VARCHAR(500),
     usuario_id BIGINT UNIQUE,
     profesor_tutor_id BIGINT,
     FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE SET NULL,
@@ -185,6 +188,55 @@ CREATE TABLE IF NOT EXISTS documentos (
     FOREIGN KEY (autor_id) REFERENCES usuarios(id) ON DELETE RESTRICT
 ) ENGINE=InnoDB;
 
+-- ============================================================
+-- ÍNDICES SECUNDARIOS PARA LAS CONSULTAS DE LOS REPOSITORIOS
+-- Cada índice indica la consulta a la que da servicio.
+-- Copia de db/migration/V2__indices_consultas.sql.
+-- ============================================================
+
+-- FCTRepository.findByEstado / countByEstado / búsqueda paginada por estado
+CREATE INDEX idx_fcts_estado ON fcts (estado);
+
+-- FCTRepository.findByCursoAcademicoAndEstado / búsqueda paginada por curso y estado
+CREATE INDEX idx_fcts_curso_estado ON fcts (curso_academico_id, estado);
+
+-- EstudianteRepository.findByEmail / existsByEmail
+CREATE INDEX idx_estudiantes_email ON estudiantes (email);
+
+-- EstudianteRepository.findByDni / existsByDni
+CREATE INDEX idx_estudiantes_dni ON estudiantes (dni);
+
+-- EstudianteRepository.findAllByOrderByApellidosAsc / findAllRows
+CREATE INDEX idx_estudiantes_apellidos ON estudiantes (apellidos);
+
+-- EstudianteRepository.findByCicloAndGrupo / findByCiclo
+CREATE INDEX idx_estudiantes_ciclo_grupo ON estudiantes (ciclo, grupo);
+
+-- DocumentoRepository.findByFctAndTipo / findByFct (sustituye al índice de la FK fct_id)
+CREATE INDEX idx_documentos_fct_tipo ON documentos (fct_id, tipo);
+
+-- DocumentoRepository.findAllRows / búsqueda paginada ordenada por fecha
+CREATE INDEX idx_documentos_fecha_subida ON documentos (fecha_subida);
+
+-- UsuarioRepository.findByRolAndActivoTrue / findByRol / countByRol
+CREATE INDEX idx_usuarios_rol_activo ON usuarios (rol, activo);
+
+-- PeriodoRepository.findByActivoTrue
+CREATE INDEX idx_periodos_activo ON periodos (activo);
+
+-- EmpresaRepository.findByActivaTrue / búsqueda paginada ordenada por nombre
+CREATE INDEX idx_empresas_activa_nombre ON empresas (activa, nombre);
+
+-- TutorEmpresaRepository.findByEmpresaAndActivoTrue (sustituye al índice de la FK empresa_id)
+CREATE INDEX idx_tutores_empresa_activo ON tutores_empresa (empresa_id, activo);
+
+-- Búsqueda por clave normalizada (copia de db/migration/V3__claves_busqueda.sql)
+SET SESSION innodb_ft_enable_stopword = OFF;
+CREATE FULLTEXT INDEX ftx_estudiantes_clave_busqueda ON estudiantes (clave_busqueda);
+CREATE FULLTEXT INDEX ftx_empresas_clave_busqueda ON empresas (clave_busqueda);
+CREATE FULLTEXT INDEX ftx_tutores_empresa_clave_busqueda ON tutores_empresa (clave_busqueda);
+SET SESSION innodb_ft_enable_stopword = ON;
+
 -- ============================================================
 -- DATOS INICIALES
 -- ============================================================
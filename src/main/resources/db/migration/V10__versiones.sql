@@ -0,0 +1,10 @@
+-- ============================================================
+-- V10 - CONTROL DE VERSIONES OPTIMISTA
+-- Cada guardado de una FCT, empresa o estudiante incrementa la versión;
+-- guardar con una versión antigua falla y la aplicación fusiona la
+-- edición con la que se guardó entretanto (ver FusionEdiciones).
+-- ============================================================
+
+ALTER TABLE fcts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE empresas ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE estudiantes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- ============================================================
+-- V11 - ALMACÉN DE DOCUMENTOS POR CONTENIDO
+-- Los archivos subidos se copian al almacén gestionado y se guardan
+-- una sola vez por contenido, con su SHA-256 como nombre. Cada fila de
+-- blobs_documento cuenta cuántos documentos usan ese contenido; con 0
+-- referencias el archivo se borra del almacén.
+-- ============================================================
+
+CREATE TABLE blobs_documento (
+    hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    tamano BIGINT NOT NULL,
+    referencias INT NOT NULL DEFAULT 0,
+    fecha_creacion DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB;
+
+-- Purga de contenidos sin documentos
+CREATE INDEX idx_blobs_documento_referencias ON blobs_documento (referencias);
+
+-- Los documentos anteriores se quedan sin hash: su ruta sigue siendo la del archivo original
+ALTER TABLE documentos ADD COLUMN hash VARCHAR(64) NULL;
+ALTER TABLE documentos ADD CONSTRAINT fk_documentos_blob FOREIGN KEY (hash) REFERENCES blobs_documento(hash);
+
+-- Como las bajas de V6, con disparadores se cuentan también los documentos borrados
+-- en cascada con su FCT o quitados de FCT.documentos (orphanRemoval)
+CREATE TRIGGER trg_documentos_blob_alta AFTER INSERT ON documentos
+    FOR EACH ROW UPDATE blobs_documento SET referencias = referencias + 1 WHERE hash = NEW.hash;
+CREATE TRIGGER trg_documentos_blob_baja AFTER DELETE ON documentos
+    FOR EACH ROW UPDATE blobs_documento SET referencias = referencias - 1 WHERE hash = OLD.hash;
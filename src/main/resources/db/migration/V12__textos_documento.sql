@@ -0,0 +1,26 @@
+-- ============================================================
+-- V12 - TEXTO DE LOS DOCUMENTOS
+-- Texto extraído de cada documento (PDF, DOCX o texto) para buscar
+-- en su contenido. Lo rellena IndexadorContenidos en segundo plano
+-- tras cada subida y, al arrancar, para los documentos que no lo
+-- tengan. clave_busqueda es el texto normalizado (ClaveBusqueda) con
+-- índice FULLTEXT; texto es el original, para mostrar los fragmentos.
+-- ============================================================
+
+CREATE TABLE textos_documento (
+    documento_id BIGINT NOT NULL PRIMARY KEY,
+    estado VARCHAR(20) NOT NULL,
+    texto MEDIUMTEXT NULL,
+    clave_busqueda MEDIUMTEXT NULL,
+    fecha_extraccion DATETIME(6) NOT NULL,
+    -- Borrar el documento (también en cascada con su FCT) borra su texto del índice
+    CONSTRAINT fk_textos_documento_documento FOREIGN KEY (documento_id)
+        REFERENCES documentos(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Como en V3, sin palabras vacías: la lista por defecto es la inglesa
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+CREATE FULLTEXT INDEX ftx_textos_documento_clave_busqueda ON textos_documento (clave_busqueda);
+
+SET SESSION innodb_ft_enable_stopword = ON;
@@ -0,0 +1,177 @@
+-- ============================================================
+-- V1 - ESQUEMA INICIAL DE GESTIÓN FCT
+-- Tablas tal y como las dejaba ddl-auto=update. En una base de datos
+-- ya existente Flyway marca esta versión como línea base y no la ejecuta.
+-- Los datos iniciales los carga DataInitializer.
+-- ============================================================
+
+-- ============================================================
+-- TABLA: usuarios
+-- Columnas según Usuario.java:
+-- id, nombre, apellidos, email, password, telefono, rol, activo, fecha_creacion, ultimo_acceso
+-- Enum Rol: ADMINISTRADOR, PROFESOR, TUTOR_EMPRESA, ESTUDIANTE, DOCENTE
+-- ============================================================
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    apellidos VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    telefono VARCHAR(20),
+    rol ENUM('ADMINISTRADOR', 'PROFESOR', 'TUTOR_EMPRESA', 'ESTUDIANTE', 'DOCENTE') NOT NULL,
+    activo BIT(1) NOT NULL DEFAULT 1,
+    fecha_creacion DATETIME,
+    ultimo_acceso DATETIME
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: cursos_academicos
+-- Columnas según CursoAcademico.java:
+-- id, nombre, descripcion, activo
+-- ============================================================
+CREATE TABLE IF NOT EXISTS cursos_academicos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(9) NOT NULL UNIQUE,
+    descripcion VARCHAR(500),
+    activo BIT(1) NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: empresas
+-- Columnas según Empresa.java:
+-- id, nombre, nif, direccion, localidad, codigo_postal, provincia,
+-- telefono, email, persona_contacto, sector, activa, observaciones
+-- ============================================================
+CREATE TABLE IF NOT EXISTS empresas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(200) NOT NULL,
+    nif VARCHAR(15) NOT NULL UNIQUE,
+    direccion VARCHAR(300),
+    localidad VARCHAR(100),
+    codigo_postal VARCHAR(10),
+    provincia VARCHAR(100),
+    telefono VARCHAR(20),
+    email VARCHAR(100) UNIQUE,
+    persona_contacto VARCHAR(200),
+    sector VARCHAR(500),
+    activa BIT(1) NOT NULL DEFAULT 1,
+    observaciones VARCHAR(1000)
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: tutores_empresa
+-- Columnas según TutorEmpresa.java:
+-- id, nombre, apellidos, dni, telefono, email, cargo, activo, usuario_id, empresa_id
+-- ============================================================
+CREATE TABLE IF NOT EXISTS tutores_empresa (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    apellidos VARCHAR(100) NOT NULL,
+    dni VARCHAR(15),
+    telefono VARCHAR(20),
+    email VARCHAR(100),
+    cargo VARCHAR(100),
+    activo BIT(1) NOT NULL DEFAULT 1,
+    usuario_id BIGINT UNIQUE,
+    empresa_id BIGINT NOT NULL,
+    FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE SET NULL,
+    FOREIGN KEY (empresa_id) REFERENCES empresas(id) ON DELETE RESTRICT
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: periodos
+-- Columnas según Periodo.java:
+-- id, nombre, curso, tipo, fecha_inicio, fecha_fin, horas_totales, activo, curso_academico_id
+-- Enum TipoPeriodo: ORDINARIO, EXTRAORDINARIO
+-- ============================================================
+CREATE TABLE IF NOT EXISTS periodos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    curso INT NOT NULL,
+    tipo ENUM('ORDINARIO', 'EXTRAORDINARIO') NOT NULL,
+    fecha_inicio DATE NOT NULL,
+    fecha_fin DATE NOT NULL,
+    horas_totales INT,
+    activo BIT(1) NOT NULL DEFAULT 1,
+    curso_academico_id BIGINT NOT NULL,
+    FOREIGN KEY (curso_academico_id) REFERENCES cursos_academicos(id) ON DELETE RESTRICT
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: estudiantes
+-- Columnas según Estudiante.java:
+-- id, nombre, apellidos, dni, fecha_nacimiento, telefono, email, direccion,
+-- ciclo, grupo, curso_actual, activo, usuario_id, profesor_tutor_id
+-- ============================================================
+CREATE TABLE IF NOT EXISTS estudiantes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    apellidos VARCHAR(100) NOT NULL,
+    dni VARCHAR(15),
+    fecha_nacimiento DATE,
+    telefono VARCHAR(20),
+    email VARCHAR(100),
+    direccion VARCHAR(300),
+    ciclo VARCHAR(100),
+    grupo VARCHAR(50),
+    curso_actual INT,
+    activo BIT(1) NOT NULL DEFAULT 1,
+    usuario_id BIGINT UNIQUE,
+    profesor_tutor_id BIGINT,
+    FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE SET NULL,
+    FOREIGN KEY (profesor_tutor_id) REFERENCES usuarios(id) ON DELETE SET NULL
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: fcts
+-- Columnas según FCT.java:
+-- id, estado, fecha_inicio, fecha_fin, horas_realizadas, horas_totales,
+-- observaciones, fecha_creacion, fecha_modificacion,
+-- estudiante_id, empresa_id, tutor_empresa_id, periodo_id, curso_academico_id
+-- Enum EstadoFCT: ACTIVA, FINALIZADA, CANCELADA
+-- ============================================================
+CREATE TABLE IF NOT EXISTS fcts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    estado ENUM('ACTIVA', 'FINALIZADA', 'CANCELADA') NOT NULL DEFAULT 'ACTIVA',
+    fecha_inicio DATE,
+    fecha_fin DATE,
+    horas_realizadas INT DEFAULT 0,
+    horas_totales INT,
+    observaciones VARCHAR(1000),
+    fecha_creacion DATETIME,
+    fecha_modificacion DATETIME,
+    estudiante_id BIGINT NOT NULL,
+    empresa_id BIGINT NOT NULL,
+    tutor_empresa_id BIGINT NOT NULL,
+    periodo_id BIGINT NOT NULL,
+    curso_academico_id BIGINT NOT NULL,
+    CONSTRAINT uk_estudiante_periodo UNIQUE (estudiante_id, periodo_id),
+    FOREIGN KEY (estudiante_id) REFERENCES estudiantes(id) ON DELETE RESTRICT,
+    FOREIGN KEY (empresa_id) REFERENCES empresas(id) ON DELETE RESTRICT,
+    FOREIGN KEY (tutor_empresa_id) REFERENCES tutores_empresa(id) ON DELETE RESTRICT,
+    FOREIGN KEY (periodo_id) REFERENCES periodos(id) ON DELETE RESTRICT,
+    FOREIGN KEY (curso_academico_id) REFERENCES cursos_academicos(id) ON DELETE RESTRICT
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLA: documentos
+-- Columnas según Documento.java:
+-- id, nombre, nombre_almacenado, ruta, tipo, content_type, tamano,
+-- descripcion, fecha_subida, fct_id, autor_id
+-- Enum TipoDocumento: CONVENIO, INFORME_SEGUIMIENTO, EVALUACION, INFORME_FINAL, OTRO
+-- ============================================================
+CREATE TABLE IF NOT EXISTS documentos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    nombre_almacenado VARCHAR(255) NOT NULL,
+    ruta VARCHAR(500) NOT NULL,
+    tipo ENUM('CONVENIO', 'INFORME_SEGUIMIENTO', 'EVALUACION', 'INFORME_FINAL', 'OTRO') NOT NULL,
+    content_type VARCHAR(100),
+    tamano BIGINT,
+    descripcion VARCHAR(500),
+    fecha_subida DATETIME NOT NULL,
+    fct_id BIGINT NOT NULL,
+    autor_id BIGINT NOT NULL,
+    FOREIGN KEY (fct_id) REFERENCES fcts(id) ON DELETE CASCADE,
+    FOREIGN KEY (autor_id) REFERENCES usuarios(id) ON DELETE RESTRICT
+) ENGINE=InnoDB;
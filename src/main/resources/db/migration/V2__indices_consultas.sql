@@ -0,0 +1,41 @@
+-- ============================================================
+-- V2 - ÍNDICES SECUNDARIOS PARA LAS CONSULTAS DE LOS REPOSITORIOS
+-- Cada índice indica la consulta a la que da servicio.
+-- Deben coincidir con los @Index declarados en las entidades.
+-- ============================================================
+
+-- FCTRepository.findByEstado / countByEstado / búsqueda paginada por estado
+CREATE INDEX idx_fcts_estado ON fcts (estado);
+
+-- FCTRepository.findByCursoAcademicoAndEstado / búsqueda paginada por curso y estado
+CREATE INDEX idx_fcts_curso_estado ON fcts (curso_academico_id, estado);
+
+-- EstudianteRepository.findByEmail / existsByEmail
+CREATE INDEX idx_estudiantes_email ON estudiantes (email);
+
+-- EstudianteRepository.findByDni / existsByDni
+CREATE INDEX idx_estudiantes_dni ON estudiantes (dni);
+
+-- EstudianteRepository.findAllByOrderByApellidosAsc / findAllRows
+CREATE INDEX idx_estudiantes_apellidos ON estudiantes (apellidos);
+
+-- EstudianteRepository.findByCicloAndGrupo / findByCiclo
+CREATE INDEX idx_estudiantes_ciclo_grupo ON estudiantes (ciclo, grupo);
+
+-- DocumentoRepository.findByFctAndTipo / findByFct (sustituye al índice de la FK fct_id)
+CREATE INDEX idx_documentos_fct_tipo ON documentos (fct_id, tipo);
+
+-- DocumentoRepository.findAllRows / búsqueda paginada ordenada por fecha
+CREATE INDEX idx_documentos_fecha_subida ON documentos (fecha_subida);
+
+-- UsuarioRepository.findByRolAndActivoTrue / findByRol / countByRol
+CREATE INDEX idx_usuarios_rol_activo ON usuarios (rol, activo);
+
+-- PeriodoRepository.findByActivoTrue
+CREATE INDEX idx_periodos_activo ON periodos (activo);
+
+-- EmpresaRepository.findByActivaTrue / búsqueda paginada ordenada por nombre
+CREATE INDEX idx_empresas_activa_nombre ON empresas (activa, nombre);
+
+-- TutorEmpresaRepository.findByEmpresaAndActivoTrue (sustituye al índice de la FK empresa_id)
+CREATE INDEX idx_tutores_empresa_activo ON tutores_empresa (empresa_id, activo);
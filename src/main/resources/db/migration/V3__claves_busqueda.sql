@@ -0,0 +1,23 @@
+-- ============================================================
+-- V3 - CLAVE DE BÚSQUEDA NORMALIZADA
+-- Columna clave_busqueda (sin tildes, en minúsculas y partida en palabras)
+-- con índice FULLTEXT para estudiantes, empresas y tutores.
+-- La rellena la aplicación al guardar (ClaveBusqueda) y, para las filas
+-- existentes, la migración Java V4__RellenarClavesBusqueda.
+-- ============================================================
+
+ALTER TABLE estudiantes ADD COLUMN clave_busqueda VARCHAR(500);
+ALTER TABLE empresas ADD COLUMN clave_busqueda VARCHAR(500);
+ALTER TABLE tutores_empresa ADD COLUMN clave_busqueda VARCHAR(500);
+
+-- Sin lista de palabras vacías: "com" o "www" forman parte de emails y webs. Las de
+-- menos de 3 letras ("de", "la") no se indexan igualmente (innodb_ft_min_token_size)
+-- y ClaveBusqueda.terminos no las busca.
+-- La variable se lee al crear el índice, así que basta con la sesión de la migración.
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+CREATE FULLTEXT INDEX ftx_estudiantes_clave_busqueda ON estudiantes (clave_busqueda);
+CREATE FULLTEXT INDEX ftx_empresas_clave_busqueda ON empresas (clave_busqueda);
+CREATE FULLTEXT INDEX ftx_tutores_empresa_clave_busqueda ON tutores_empresa (clave_busqueda);
+
+SET SESSION innodb_ft_enable_stopword = ON;
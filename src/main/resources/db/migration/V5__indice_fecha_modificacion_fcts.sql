@@ -0,0 +1,6 @@
+-- ============================================================
+-- V5 - ÍNDICE SOBRE LA FECHA DE MODIFICACIÓN DE LAS FCT
+-- ============================================================
+
+-- FCTRepository.obtenerVersion: max(fecha_modificacion) se resuelve leyendo el final del índice
+CREATE INDEX idx_fcts_fecha_modificacion ON fcts (fecha_modificacion);
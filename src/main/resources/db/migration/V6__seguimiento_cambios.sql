@@ -0,0 +1,56 @@
+-- ============================================================
+-- V6 - SEGUIMIENTO DE CAMBIOS PARA LA SINCRONIZACIÓN POR DIFERENCIAS
+-- Cada tabla que muestran las pantallas lleva fecha_modificacion, puesta
+-- por MySQL (no por la aplicación) para que todos los puestos compartan
+-- el mismo reloj. Los borrados dejan una lápida en bajas.
+-- ============================================================
+
+-- fcts ya tenía la columna, rellenada por la aplicación
+UPDATE fcts SET fecha_modificacion = COALESCE(fecha_creacion, NOW()) WHERE fecha_modificacion IS NULL;
+ALTER TABLE fcts MODIFY fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+ALTER TABLE empresas ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE estudiantes ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE tutores_empresa ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE documentos ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+ALTER TABLE usuarios ADD COLUMN fecha_modificacion DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+-- findModifiedSince: rango sobre la fecha
+CREATE INDEX idx_empresas_fecha_modificacion ON empresas (fecha_modificacion);
+CREATE INDEX idx_estudiantes_fecha_modificacion ON estudiantes (fecha_modificacion);
+CREATE INDEX idx_tutores_empresa_fecha_modificacion ON tutores_empresa (fecha_modificacion);
+CREATE INDEX idx_documentos_fecha_modificacion ON documentos (fecha_modificacion);
+CREATE INDEX idx_usuarios_fecha_modificacion ON usuarios (fecha_modificacion);
+
+-- ------------------------------------------------------------
+-- Lápidas de las filas borradas
+-- ------------------------------------------------------------
+CREATE TABLE bajas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tabla VARCHAR(50) NOT NULL,
+    registro_id BIGINT NOT NULL,
+    fecha_baja DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_bajas_fecha_baja ON bajas (fecha_baja);
+
+-- Con disparadores se registran también los borrados en cascada (las FCT de un
+-- estudiante, los documentos de una FCT...) y los que no pasan por los servicios
+CREATE TRIGGER trg_fcts_baja AFTER DELETE ON fcts
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('fcts', OLD.id);
+CREATE TRIGGER trg_empresas_baja AFTER DELETE ON empresas
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('empresas', OLD.id);
+CREATE TRIGGER trg_estudiantes_baja AFTER DELETE ON estudiantes
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('estudiantes', OLD.id);
+CREATE TRIGGER trg_tutores_empresa_baja AFTER DELETE ON tutores_empresa
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('tutores_empresa', OLD.id);
+CREATE TRIGGER trg_documentos_baja AFTER DELETE ON documentos
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('documentos', OLD.id);
+CREATE TRIGGER trg_usuarios_baja AFTER DELETE ON usuarios
+    FOR EACH ROW INSERT INTO bajas (tabla, registro_id) VALUES ('usuarios', OLD.id);
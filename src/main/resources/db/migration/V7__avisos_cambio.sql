@@ -0,0 +1,19 @@
+-- ============================================================
+-- V7 - AVISOS DE CAMBIO ENTRE PUESTOS
+-- Los servicios añaden una fila por cada alta, modificación o baja
+-- en la misma transacción que el cambio. Cada puesto lee las filas
+-- con id mayor que la última que vio (una consulta por rango de la
+-- clave primaria) y vacía sus cachés o pone al día sus pantallas.
+-- ============================================================
+
+CREATE TABLE avisos_cambio (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tabla VARCHAR(50) NOT NULL,
+    registro_id BIGINT NULL,
+    -- Puesto que hizo el cambio: cada uno ignora sus propios avisos
+    origen VARCHAR(36) NOT NULL,
+    fecha DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB;
+
+-- Purga de avisos antiguos
+CREATE INDEX idx_avisos_cambio_fecha ON avisos_cambio (fecha);
@@ -0,0 +1,25 @@
+-- ============================================================
+-- V8 - IDS POR BLOQUES
+-- Las entidades que inserta la aplicación dejan IDENTITY y toman sus
+-- ids de esta tabla por bloques (GeneradorIds), para que Hibernate
+-- pueda agrupar los INSERT en lotes JDBC. Cada fila guarda el primer
+-- id libre de su tabla (optimizador pooled-lo).
+-- bajas y avisos_cambio siguen con AUTO_INCREMENT: las primeras las
+-- insertan los disparadores y las segundas se leen en orden de id.
+-- ============================================================
+
+CREATE TABLE generadores_id (
+    tabla VARCHAR(50) NOT NULL PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+-- Cada generador empieza después del mayor id existente, así que los datos
+-- actuales conservan sus ids
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'usuarios', COALESCE(MAX(id), 0) + 1 FROM usuarios;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'cursos_academicos', COALESCE(MAX(id), 0) + 1 FROM cursos_academicos;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'periodos', COALESCE(MAX(id), 0) + 1 FROM periodos;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'empresas', COALESCE(MAX(id), 0) + 1 FROM empresas;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'tutores_empresa', COALESCE(MAX(id), 0) + 1 FROM tutores_empresa;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'estudiantes', COALESCE(MAX(id), 0) + 1 FROM estudiantes;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'fcts', COALESCE(MAX(id), 0) + 1 FROM fcts;
+INSERT INTO generadores_id (tabla, siguiente) SELECT 'documentos', COALESCE(MAX(id), 0) + 1 FROM documentos;
@@ -0,0 +1,23 @@
+-- ============================================================
+-- V9 - PLAZAS DE CADA EMPRESA POR PERIODO
+-- Una fila por empresa y periodo con las plazas que ofrece y las que
+-- ocupan sus FCT no canceladas. Las asignaciones reservan plazas con un
+-- UPDATE condicional sobre esta fila, así que dos profesores asignando
+-- a la vez no pueden pasarse del cupo. Sin fila, la empresa no tiene
+-- límite en ese periodo.
+-- ============================================================
+
+CREATE TABLE plazas_empresa (
+    id BIGINT NOT NULL PRIMARY KEY,
+    empresa_id BIGINT NOT NULL,
+    periodo_id BIGINT NOT NULL,
+    plazas INT NOT NULL,
+    ocupadas INT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_plazas_empresa_periodo UNIQUE (empresa_id, periodo_id),
+    CONSTRAINT ck_plazas_ocupadas CHECK (ocupadas >= 0 AND ocupadas <= plazas),
+    FOREIGN KEY (empresa_id) REFERENCES empresas(id) ON DELETE CASCADE,
+    FOREIGN KEY (periodo_id) REFERENCES periodos(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Ids por bloques, como el resto de tablas de la aplicación (V8)
+INSERT INTO generadores_id (tabla, siguiente) VALUES ('plazas_empresa', 1);
@@ -0,0 +1,37 @@
+package com.adrian.gestionfct;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * MySQL en un contenedor de Docker para las pruebas que usan la base de datos. El esquema
+ * lo crean las migraciones de Flyway, que son de MySQL (disparadores, índices FULLTEXT),
+ * igual que en los puestos.
+ *
+ * Las pruebas con un contexto de Spring lo importan con {@code @Import}; las que arrancan
+ * varios contextos crean su propio contenedor con {@link #contenedor()}. Todas llevan
+ * {@code @Testcontainers(disabledWithoutDocker = true)}: sin Docker se saltan.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class BaseDatosPrueba {
+
+	/**
+	 * Contenedor con la misma configuración que la conexión de los puestos. Con el log
+	 * binario activo, los disparadores de las migraciones solo se pueden crear con
+	 * log_bin_trust_function_creators.
+	 */
+	public static MySQLContainer<?> contenedor() {
+		return new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+				.withUrlParam("rewriteBatchedStatements", "true")
+				.withCommand("--log-bin-trust-function-creators=1");
+	}
+
+	@Bean
+	@ServiceConnection
+	MySQLContainer<?> mysql() {
+		return contenedor();
+	}
+}
@@ -0,0 +1,63 @@
+package com.adrian.gestionfct.modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.adrian.gestionfct.modelo.CamposEditables.Diferencia;
+
+class CamposEditablesTest {
+
+	private static Empresa cargada() {
+		Empresa empresa = new Empresa();
+		empresa.setNombre("Talleres Norte");
+		empresa.setTelefono("985000000");
+		empresa.setEmail("info@norte.es");
+		empresa.recordarValores();
+		return empresa;
+	}
+
+	@Test
+	void fusionaCambiosEnCamposDistintos() {
+		Empresa mia = cargada();
+		mia.setTelefono("985111111");
+		Empresa actual = cargada();
+		actual.setEmail("rrhh@norte.es");
+
+		List<Diferencia> conflictos = Empresa.CAMPOS_EDITABLES.fusionar(mia, actual);
+
+		assertTrue(conflictos.isEmpty());
+		assertEquals("985111111", actual.getTelefono());
+		assertEquals("rrhh@norte.es", actual.getEmail());
+	}
+
+	@Test
+	void mismoCampoConValoresDistintosEsConflicto() {
+		Empresa mia = cargada();
+		mia.setTelefono("985111111");
+		Empresa actual = cargada();
+		actual.setTelefono("985222222");
+
+		List<Diferencia> conflictos = Empresa.CAMPOS_EDITABLES.fusionar(mia, actual);
+
+		assertEquals(List.of(new Diferencia("Teléfono", "985111111", "985222222")), conflictos);
+		assertEquals("985222222", actual.getTelefono());
+
+		Empresa.CAMPOS_EDITABLES.imponer(conflictos, mia, actual);
+		assertEquals("985111111", actual.getTelefono());
+	}
+
+	@Test
+	void textoVacioNoCuentaComoCambio() {
+		Empresa mia = cargada();
+		mia.setDireccion("");
+		Empresa actual = cargada();
+		actual.setDireccion("Calle Mayor 1");
+
+		assertTrue(Empresa.CAMPOS_EDITABLES.fusionar(mia, actual).isEmpty());
+		assertEquals("Calle Mayor 1", actual.getDireccion());
+	}
+}
@@ -0,0 +1,61 @@
+package com.adrian.gestionfct.modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ClaveBusquedaTest {
+
+	@Test
+	void quitaTildesYMayusculas() {
+		assertEquals("jose maria martinez nunez", ClaveBusqueda.de("José María", "MARTÍNEZ Núñez"));
+	}
+
+	@Test
+	void separaPorSignosYNoRepitePalabras() {
+		assertEquals("ana garcia 12345678 a com",
+				ClaveBusqueda.de("Ana", "García", "12345678-A", "ana.garcia@garcia.com"));
+		assertEquals("ana lopez", ClaveBusqueda.de("Ana", null, "López", "ana"));
+	}
+
+	@Test
+	void consultaExigeTodasLasPalabrasComoPrefijo() {
+		assertEquals("+martinez* +lop*", ClaveBusqueda.consultaPrefijos("Martínez  Lóp"));
+	}
+
+	@Test
+	void consultaDescartaPalabrasNoIndexables() {
+		assertEquals("+garcia* +fuente*", ClaveBusqueda.consultaPrefijos("García de la Fuente"));
+		assertEquals("+ma*", ClaveBusqueda.consultaPrefijos("Ma"));
+	}
+
+	@Test
+	void consultaVaciaDevuelveNull() {
+		assertNull(ClaveBusqueda.consultaPrefijos("  -- "));
+		assertNull(ClaveBusqueda.consultaPrefijos(null));
+	}
+
+	@Test
+	void coincidenciaEnMemoriaIgualQueFulltext() {
+		String clave = ClaveBusqueda.de("José", "Martínez de la Fuente");
+		assertTrue(ClaveBusqueda.contienePrefijos(clave, ClaveBusqueda.terminos("mart fuen")));
+		assertTrue(ClaveBusqueda.contienePrefijos(clave, ClaveBusqueda.terminos("")));
+		assertFalse(ClaveBusqueda.contienePrefijos(clave, ClaveBusqueda.terminos("tinez")));
+		// "de" y "la" no están indexadas, así que no pueden coincidir
+		assertFalse(ClaveBusqueda.contienePrefijos(clave, ClaveBusqueda.terminos("la")));
+	}
+
+	@Test
+	void refinaSoloSiLosNuevosTerminosSonMasRestrictivos() {
+		assertTrue(ClaveBusqueda.refina(List.of(), ClaveBusqueda.terminos("mar")));
+		assertTrue(ClaveBusqueda.refina(ClaveBusqueda.terminos("mar"), ClaveBusqueda.terminos("mart lop")));
+		assertFalse(ClaveBusqueda.refina(ClaveBusqueda.terminos("mart"), ClaveBusqueda.terminos("mar")));
+		// "ab" deja de exigirse en cuanto se escribe una palabra indexable
+		assertFalse(ClaveBusqueda.refina(ClaveBusqueda.terminos("ab"), ClaveBusqueda.terminos("ab cde")));
+	}
+}
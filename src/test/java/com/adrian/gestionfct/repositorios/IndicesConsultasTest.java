@@ -0,0 +1,160 @@
+package com.adrian.gestionfct.repositorios;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.adrian.gestionfct.BaseDatosPrueba;
+
+/**
+ * Comprueba con EXPLAIN que las consultas más frecuentes de los repositorios
+ * pueden usar los índices creados en V2__indices_consultas.sql.
+ * Se mira possible_keys y no key porque con tablas casi vacías MySQL
+ * prefiere a veces el recorrido completo aunque el índice sea válido. La base de datos es
+ * un MySQL en Docker con las migraciones aplicadas (ver BaseDatosPrueba).
+ */
+@SpringBootTest
+@Import(BaseDatosPrueba.class)
+@Testcontainers(disabledWithoutDocker = true)
+class IndicesConsultasTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void fctsPorEstadoUsaIndice() {
+		comprobarIndice("SELECT * FROM fcts WHERE estado = 'ACTIVA'", "fcts", "idx_fcts_estado");
+	}
+
+	@Test
+	void fctsPorCursoYEstadoUsaIndice() {
+		comprobarIndice("SELECT * FROM fcts WHERE curso_academico_id = 1 AND estado = 'ACTIVA'", "fcts",
+				"idx_fcts_curso_estado");
+	}
+
+	@Test
+	void estudiantePorDniUsaIndice() {
+		comprobarIndice("SELECT * FROM estudiantes WHERE dni = '00000000A'", "estudiantes", "idx_estudiantes_dni");
+	}
+
+	@Test
+	void estudiantePorEmailUsaIndice() {
+		comprobarIndice("SELECT * FROM estudiantes WHERE email = 'a@a.es'", "estudiantes", "idx_estudiantes_email");
+	}
+
+	@Test
+	void estudiantesPorCicloYGrupoUsaIndice() {
+		comprobarIndice("SELECT * FROM estudiantes WHERE ciclo = 'DAM' AND grupo = 'A'", "estudiantes",
+				"idx_estudiantes_ciclo_grupo");
+	}
+
+	@Test
+	void documentosPorFctYTipoUsaIndice() {
+		comprobarIndice("SELECT * FROM documentos WHERE fct_id = 1 AND tipo = 'CONVENIO'", "documentos",
+				"idx_documentos_fct_tipo");
+	}
+
+	@Test
+	void usuariosPorRolActivosUsaIndice() {
+		comprobarIndice("SELECT * FROM usuarios WHERE rol = 'DOCENTE' AND activo = 1", "usuarios",
+				"idx_usuarios_rol_activo");
+	}
+
+	@Test
+	void periodoActivoUsaIndice() {
+		comprobarIndice("SELECT * FROM periodos WHERE activo = 1", "periodos", "idx_periodos_activo");
+	}
+
+	@Test
+	void empresasActivasUsaIndice() {
+		comprobarIndice("SELECT * FROM empresas WHERE activa = 1 ORDER BY nombre", "empresas",
+				"idx_empresas_activa_nombre");
+	}
+
+	@Test
+	void tutoresActivosDeEmpresaUsaIndice() {
+		comprobarIndice("SELECT * FROM tutores_empresa WHERE empresa_id = 1 AND activo = 1", "tutores_empresa",
+				"idx_tutores_empresa_activo");
+	}
+
+	@Test
+	void busquedaEstudiantesUsaFulltext() {
+		comprobarIndice("SELECT * FROM estudiantes WHERE MATCH(clave_busqueda) AGAINST ('+martinez*' IN BOOLEAN MODE) > 0",
+				"estudiantes", "ftx_estudiantes_clave_busqueda");
+	}
+
+	@Test
+	void busquedaEmpresasUsaFulltext() {
+		comprobarIndice("SELECT * FROM empresas WHERE MATCH(clave_busqueda) AGAINST ('+tecno*' IN BOOLEAN MODE) > 0",
+				"empresas", "ftx_empresas_clave_busqueda");
+	}
+
+	@Test
+	void fctsModificadasDesdeUsaIndice() {
+		comprobarIndice("SELECT * FROM fcts WHERE fecha_modificacion >= '2024-01-01 00:00:00'", "fcts",
+				"idx_fcts_fecha_modificacion");
+	}
+
+	@Test
+	void estudiantesModificadosDesdeUsaIndice() {
+		comprobarIndice("SELECT * FROM estudiantes WHERE fecha_modificacion >= '2024-01-01 00:00:00'", "estudiantes",
+				"idx_estudiantes_fecha_modificacion");
+	}
+
+	@Test
+	void filasFctPorDatosModificadosDesdeUsanIndices() {
+		String joins = "SELECT fcts.id FROM fcts JOIN estudiantes ON estudiantes.id = fcts.estudiante_id "
+				+ "JOIN empresas ON empresas.id = fcts.empresa_id "
+				+ "JOIN tutores_empresa ON tutores_empresa.id = fcts.tutor_empresa_id WHERE ";
+		comprobarIndice(joins + "fcts.fecha_modificacion >= '2024-01-01 00:00:00'", "fcts",
+				"idx_fcts_fecha_modificacion");
+		comprobarIndice(joins + "estudiantes.fecha_modificacion >= '2024-01-01 00:00:00'", "estudiantes",
+				"idx_estudiantes_fecha_modificacion");
+		comprobarIndice(joins + "empresas.fecha_modificacion >= '2024-01-01 00:00:00'", "empresas",
+				"idx_empresas_fecha_modificacion");
+		comprobarIndice(joins + "tutores_empresa.fecha_modificacion >= '2024-01-01 00:00:00'", "tutores_empresa",
+				"idx_tutores_empresa_fecha_modificacion");
+	}
+
+	@Test
+	void filasDocumentoPorDatosModificadosDesdeUsanIndices() {
+		String joins = "SELECT documentos.id FROM documentos JOIN fcts ON fcts.id = documentos.fct_id "
+				+ "JOIN estudiantes ON estudiantes.id = fcts.estudiante_id "
+				+ "JOIN usuarios ON usuarios.id = documentos.autor_id WHERE ";
+		comprobarIndice(joins + "documentos.fecha_modificacion >= '2024-01-01 00:00:00'", "documentos",
+				"idx_documentos_fecha_modificacion");
+		comprobarIndice(joins + "estudiantes.fecha_modificacion >= '2024-01-01 00:00:00'", "estudiantes",
+				"idx_estudiantes_fecha_modificacion");
+		comprobarIndice(joins + "usuarios.fecha_modificacion >= '2024-01-01 00:00:00'", "usuarios",
+				"idx_usuarios_fecha_modificacion");
+	}
+
+	@Test
+	void bajasDesdeUsaIndice() {
+		comprobarIndice("SELECT * FROM bajas WHERE fecha_baja >= '2024-01-01 00:00:00'", "bajas",
+				"idx_bajas_fecha_baja");
+	}
+
+	@Test
+	void fctsDeEstudiantesEnPeriodoUsaClaveUnica() {
+		comprobarIndice("SELECT estudiante_id FROM fcts WHERE periodo_id = 1 AND estudiante_id IN (1, 2, 3)", "fcts",
+				"uk_estudiante_periodo");
+	}
+
+	private void comprobarIndice(String sql, String tabla, String indice) {
+		List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+		boolean encontrado = plan.stream()
+				.filter(fila -> tabla.equals(fila.get("table")))
+				.map(fila -> fila.get("possible_keys"))
+				.anyMatch(claves -> claves != null && claves.toString().contains(indice));
+		assertTrue(encontrado, "EXPLAIN de [" + sql + "] no contempla " + indice + ": " + plan);
+	}
+}
@@ -0,0 +1,96 @@
+package com.adrian.gestionfct.repositorios;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.adrian.gestionfct.BaseDatosPrueba;
+import com.adrian.gestionfct.modelo.Empresa;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Compara una carga masiva con los ids por bloques de V8 (INSERT en lotes JDBC) con la
+ * inserción fila a fila a la que obligaba IDENTITY. Los tiempos dependen de la máquina y
+ * solo se escriben en el log; lo que se comprueba es que los lotes envían muchas menos
+ * sentencias que filas, con las estadísticas de Hibernate activadas durante la prueba. Las
+ * dos cargas se deshacen al terminar.
+ */
+@SpringBootTest
+@Import(BaseDatosPrueba.class)
+@Testcontainers(disabledWithoutDocker = true)
+class InsercionPorLotesTest {
+
+	private static final int FILAS = 2000;
+
+	private static final Logger LOG = getLogger(InsercionPorLotesTest.class);
+
+	@Autowired
+	private EmpresaRepository empresaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void insercionPorLotesEnviaMenosSentencias() {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		boolean activas = estadisticas.isStatisticsEnabled();
+		// Sin estadísticas el contador se queda a 0 y la comprobación pasaría siempre
+		estadisticas.setStatisticsEnabled(true);
+
+		long sentenciasAntes = estadisticas.getPrepareStatementCount();
+		long inicio = System.nanoTime();
+		transaccion.executeWithoutResult(estado -> {
+			List<Empresa> empresas = IntStream.range(0, FILAS)
+					.mapToObj(i -> new Empresa("Empresa por lotes " + i, "LOTE" + i))
+					.toList();
+			empresaRepository.saveAll(empresas);
+			empresaRepository.flush();
+			estado.setRollbackOnly();
+		});
+		long nanosPorLotes = System.nanoTime() - inicio;
+		long sentencias = estadisticas.getPrepareStatementCount() - sentenciasAntes;
+		estadisticas.setStatisticsEnabled(activas);
+
+		inicio = System.nanoTime();
+		transaccion.executeWithoutResult(estado -> {
+			for (int i = 0; i < FILAS; i++) {
+				jdbcTemplate.update("INSERT INTO empresas (nombre, nif, activa) VALUES (?, ?, 1)",
+						"Empresa fila a fila " + i, "FILA" + i);
+			}
+			estado.setRollbackOnly();
+		});
+		long nanosFilaAFila = System.nanoTime() - inicio;
+
+		LOG.info("Por lotes: {} filas/s con {} sentencias; fila a fila: {} filas/s",
+				filasPorSegundo(nanosPorLotes), sentencias, filasPorSegundo(nanosFilaAFila));
+		assertTrue(sentencias > 0, "No se ha contado ninguna sentencia");
+		assertTrue(sentencias < FILAS / 10, "Se han preparado " + sentencias + " sentencias para " + FILAS + " filas");
+	}
+
+	private static long filasPorSegundo(long nanos) {
+		return FILAS * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+	}
+}
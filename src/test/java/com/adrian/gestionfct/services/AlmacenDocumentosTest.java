@@ -0,0 +1,169 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.adrian.gestionfct.BaseDatosPrueba;
+import com.adrian.gestionfct.modelo.CursoAcademico;
+import com.adrian.gestionfct.modelo.Documento;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.Estudiante;
+import com.adrian.gestionfct.modelo.FCT;
+import com.adrian.gestionfct.modelo.Periodo;
+import com.adrian.gestionfct.modelo.Rol;
+import com.adrian.gestionfct.modelo.TipoDocumento;
+import com.adrian.gestionfct.modelo.TipoPeriodo;
+import com.adrian.gestionfct.modelo.TutorEmpresa;
+import com.adrian.gestionfct.modelo.Usuario;
+import com.adrian.gestionfct.repositorios.BlobDocumentoRepository;
+import com.adrian.gestionfct.repositorios.CursoAcademicoRepository;
+import com.adrian.gestionfct.repositorios.EmpresaRepository;
+import com.adrian.gestionfct.repositorios.EstudianteRepository;
+import com.adrian.gestionfct.repositorios.FCTRepository;
+import com.adrian.gestionfct.repositorios.PeriodoRepository;
+import com.adrian.gestionfct.repositorios.TutorEmpresaRepository;
+import com.adrian.gestionfct.repositorios.UsuarioRepository;
+
+/**
+ * Subidas al almacén sobre la base de datos: el mismo contenido subido dos veces se guarda
+ * una sola, los disparadores de V11 cuentan sus documentos y se purga al borrar el último.
+ * Un alta que falla no deja su archivo en el almacén. El almacén es una carpeta temporal y
+ * los datos de prueba se borran al terminar.
+ */
+@SpringBootTest(properties = "gestionfct.documentos.directorio=target/almacen-prueba")
+@Import(BaseDatosPrueba.class)
+@Testcontainers(disabledWithoutDocker = true)
+class AlmacenDocumentosTest {
+
+	@TempDir
+	Path carpeta;
+
+	@Autowired
+	private DocumentoService documentoService;
+
+	@Autowired
+	private AlmacenDocumentos almacen;
+
+	@Autowired
+	private BlobDocumentoRepository blobRepository;
+
+	@Autowired
+	private CursoAcademicoRepository cursoAcademicoRepository;
+
+	@Autowired
+	private PeriodoRepository periodoRepository;
+
+	@Autowired
+	private EmpresaRepository empresaRepository;
+
+	@Autowired
+	private TutorEmpresaRepository tutorEmpresaRepository;
+
+	@Autowired
+	private EstudianteRepository estudianteRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private FCTRepository fctRepository;
+
+	private CursoAcademico curso;
+	private Periodo periodo;
+	private Empresa empresa;
+	private TutorEmpresa tutor;
+	private Estudiante estudiante;
+	private Usuario autor;
+	private FCT fct;
+
+	@BeforeEach
+	void crearFct() {
+		curso = cursoAcademicoRepository.save(new CursoAcademico("9997-9998"));
+		periodo = new Periodo("Periodo de prueba del almacén", 2, TipoPeriodo.ORDINARIO, LocalDate.of(9998, 3, 1),
+				LocalDate.of(9998, 6, 1));
+		periodo.setCursoAcademico(curso);
+		periodo = periodoRepository.save(periodo);
+		empresa = empresaRepository.save(new Empresa("Empresa de prueba del almacén", "ALMACEN01"));
+		tutor = tutorEmpresaRepository.save(new TutorEmpresa("Tutor", "Almacén", empresa));
+		estudiante = estudianteRepository.save(new Estudiante("Estudiante", "Almacén", "99999999A"));
+		autor = usuarioRepository.save(new Usuario("Autor", "Almacén", "almacen@prueba.invalid", "x", Rol.PROFESOR));
+		fct = fctRepository.save(new FCT(estudiante, empresa, tutor, periodo));
+	}
+
+	@AfterEach
+	void borrarFct() {
+		fctRepository.delete(fct);
+		usuarioRepository.delete(autor);
+		estudianteRepository.delete(estudiante);
+		tutorEmpresaRepository.delete(tutor);
+		empresaRepository.delete(empresa);
+		periodoRepository.delete(periodo);
+		cursoAcademicoRepository.delete(curso);
+	}
+
+	@Test
+	void elMismoContenidoSeGuardaUnaVezYSePurgaConSuUltimoDocumento() throws IOException {
+		Path original = archivoAleatorio("convenio.pdf");
+		Path copia = Files.copy(original, carpeta.resolve("convenio (copia).pdf"));
+
+		Documento primero = documentoService.subir(documento("convenio.pdf"), original, CopiaArchivos.Progreso.NINGUNO);
+		Documento segundo = documentoService.subir(documento("convenio (copia).pdf"), copia,
+				CopiaArchivos.Progreso.NINGUNO);
+
+		String hash = primero.getHash();
+		assertEquals(hash, segundo.getHash());
+		assertEquals(2, blobRepository.findById(hash).orElseThrow().getReferencias());
+		assertTrue(Files.exists(almacen.ubicacion(hash)));
+
+		documentoService.delete(primero);
+		assertEquals(1, blobRepository.findById(hash).orElseThrow().getReferencias());
+		assertTrue(Files.exists(almacen.ubicacion(hash)));
+
+		// La purga se lanza sola al confirmarse la baja
+		documentoService.delete(segundo);
+		assertFalse(blobRepository.existsById(hash));
+		assertFalse(Files.exists(almacen.ubicacion(hash)));
+	}
+
+	@Test
+	void unAltaDeshechaNoDejaElArchivoEnElAlmacen() throws IOException {
+		AlmacenDocumentos.ArchivoPreparado preparado = almacen.preparar(archivoAleatorio("informe.pdf"),
+				CopiaArchivos.Progreso.NINGUNO);
+
+		assertThrows(IllegalStateException.class, () -> almacen.incorporar(preparado, () -> {
+			throw new IllegalStateException("Fallo al guardar el documento");
+		}));
+
+		assertFalse(blobRepository.existsById(preparado.hash()));
+		assertFalse(Files.exists(almacen.ubicacion(preparado.hash())));
+		almacen.descartar(preparado);
+	}
+
+	private Documento documento(String nombre) {
+		return new Documento(nombre, null, TipoDocumento.CONVENIO, fct, autor);
+	}
+
+	/** Archivo con contenido aleatorio, que no puede estar ya en el almacén. */
+	private Path archivoAleatorio(String nombre) throws IOException {
+		byte[] contenido = new byte[64 * 1024];
+		new Random().nextBytes(contenido);
+		return Files.write(carpeta.resolve(nombre), contenido);
+	}
+}
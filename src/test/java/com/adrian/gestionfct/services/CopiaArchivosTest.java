@@ -0,0 +1,76 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CopiaArchivosTest {
+
+	@TempDir
+	Path carpeta;
+
+	private Path archivoAleatorio(int tamano) throws IOException {
+		byte[] contenido = new byte[tamano];
+		new Random(42).nextBytes(contenido);
+		return Files.write(carpeta.resolve("origen.bin"), contenido);
+	}
+
+	@Test
+	void copiaPorBloquesInformandoDelAvance() throws IOException {
+		int tamano = (int) (2.5 * CopiaArchivos.BLOQUE);
+		Path origen = archivoAleatorio(tamano);
+		Path destino = carpeta.resolve("destino.bin");
+		List<Long> avances = new ArrayList<>();
+
+		CopiaArchivos.copiarDesde(origen, destino, 0, (copiados, total) -> {
+			assertEquals(tamano, total);
+			avances.add(copiados);
+		});
+
+		assertArrayEquals(Files.readAllBytes(origen), Files.readAllBytes(destino));
+		assertEquals(List.of(0L, CopiaArchivos.BLOQUE, 2 * CopiaArchivos.BLOQUE, (long) tamano), avances);
+	}
+
+	@Test
+	void continuaUnaCopiaInterrumpida() throws IOException {
+		Path origen = archivoAleatorio(100_000);
+		byte[] contenido = Files.readAllBytes(origen);
+		Path destino = Files.write(carpeta.resolve("destino.bin.part"), Arrays.copyOf(contenido, 40_000));
+
+		long tamano = CopiaArchivos.copiarDesde(origen, destino, Files.size(destino), CopiaArchivos.Progreso.NINGUNO);
+
+		assertEquals(100_000, tamano);
+		assertArrayEquals(contenido, Files.readAllBytes(destino));
+	}
+
+	@Test
+	void descartaLoQueSobraTrasLaPosicionDeInicio() throws IOException {
+		Path origen = archivoAleatorio(1_000);
+		Path destino = Files.write(carpeta.resolve("destino.bin"), new byte[5_000]);
+
+		CopiaArchivos.copiarDesde(origen, destino, 0, CopiaArchivos.Progreso.NINGUNO);
+
+		assertArrayEquals(Files.readAllBytes(origen), Files.readAllBytes(destino));
+	}
+
+	@Test
+	void calculaElSha256SinCargarElArchivo() throws Exception {
+		Path origen = archivoAleatorio(3 * 1024 * 1024 + 17);
+		String esperado = HexFormat.of()
+				.formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(origen)));
+
+		assertEquals(esperado, CopiaArchivos.sha256(origen));
+	}
+}
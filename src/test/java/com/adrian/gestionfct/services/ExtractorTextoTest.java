@@ -0,0 +1,170 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Extracción de texto de DOCX, texto plano y PDF. Los archivos se construyen en la prueba;
+ * el PDF se deja en medio de otros bytes, como en un paquete, y se lee por su tramo.
+ */
+class ExtractorTextoTest {
+
+	@TempDir
+	Path carpeta;
+
+	// ============== DOCX ==============
+
+	@Test
+	void unaLineaPorParrafoYUnEspacioPorTabulacion() throws IOException {
+		byte[] docx = docx("<w:p><w:r><w:t>Memoria</w:t></w:r><w:r><w:tab/><w:t>final</w:t></w:r></w:p>"
+				+ "<w:p><w:r><w:t xml:space=\"preserve\">Empresa </w:t></w:r><w:r><w:t>Acme</w:t></w:r></w:p>");
+
+		assertEquals("Memoria final\nEmpresa Acme\n", ExtractorTexto.docx(new ByteArrayInputStream(docx)));
+	}
+
+	@Test
+	void unZipSinCuerpoNoEsUnDocumentoDeWord() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			zip.putNextEntry(new ZipEntry("otro.xml"));
+			zip.write("<a/>".getBytes(StandardCharsets.UTF_8));
+		}
+
+		assertThrows(IOException.class, () -> ExtractorTexto.docx(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	// ============== Texto plano ==============
+
+	@Test
+	void leeUtf8() {
+		assertEquals("Memoria de prácticas", ExtractorTexto.texto(utf8("Memoria de prácticas"), false));
+	}
+
+	@Test
+	void siNoEsUtf8LeeWindows1252() {
+		byte[] bytes = "Memoria de prácticas".getBytes(Charset.forName("windows-1252"));
+
+		assertEquals("Memoria de prácticas", ExtractorTexto.texto(bytes, false));
+	}
+
+	@Test
+	void unCaracterPartidoAlFinalDeUnArchivoRecortadoSigueSiendoUtf8() {
+		byte[] completo = utf8("camión");
+		// Sin el último byte de la ó, que queda en la parte que no se ha leído
+		byte[] bytes = Arrays.copyOf(completo, completo.length - 2);
+
+		assertEquals("cami", ExtractorTexto.texto(bytes, true));
+		// Si el archivo acaba ahí, el carácter partido es un error y no es UTF-8
+		assertEquals("camiÃ", ExtractorTexto.texto(bytes, false));
+	}
+
+	@Test
+	void quitaLaMarcaDeOrdenDeBytes() {
+		byte[] bytes = concatenar(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF }, utf8("Convenio"));
+
+		assertEquals("Convenio", ExtractorTexto.texto(bytes, false));
+	}
+
+	@Test
+	void recortaElTextoALaLongitudMaxima() throws IOException {
+		byte[] bytes = utf8("a".repeat(ExtractorTexto.LONGITUD_MAXIMA + 100));
+
+		String texto = extraer(ExtractorTexto.Formato.TEXTO, new byte[0], bytes);
+
+		assertEquals(ExtractorTexto.LONGITUD_MAXIMA, texto.length());
+	}
+
+	// ============== PDF ==============
+
+	@Test
+	void leeUnPdfPorSuTramoDelPaquete() throws IOException {
+		byte[] antes = utf8("%PDF-1.4 contenido anterior del paquete que no es este documento\n");
+
+		String texto = extraer(ExtractorTexto.Formato.PDF, antes, pdf("Memoria de practicas"));
+
+		assertEquals("Memoria de practicas", texto.strip());
+	}
+
+	// ============== Utilidades ==============
+
+	/**
+	 * Escribe {@code contenido} tras {@code antes} y con más bytes detrás, y lo extrae por
+	 * su tramo como haría una lectura del paquete.
+	 */
+	private String extraer(ExtractorTexto.Formato formato, byte[] antes, byte[] contenido) throws IOException {
+		byte[] despues = utf8("\nstartxref\n0\n%%EOF\n");
+		Path paquete = Files.write(carpeta.resolve("paquete.bin"), concatenar(antes, contenido, despues));
+		try (PaquetesDocumentos.Lectura lectura = new PaquetesDocumentos.Lectura(FileChannel.open(paquete),
+				antes.length, contenido.length)) {
+			return ExtractorTexto.extraer(formato, lectura);
+		}
+	}
+
+	private static byte[] docx(String parrafos) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+			zip.write(utf8("<Types/>"));
+			zip.putNextEntry(new ZipEntry("word/document.xml"));
+			zip.write(utf8("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+					+ "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+					+ "<w:body>" + parrafos + "</w:body></w:document>"));
+		}
+		return bytes.toByteArray();
+	}
+
+	/** PDF de una página con una línea de texto en Helvetica, con su tabla xref. */
+	private static byte[] pdf(String linea) {
+		String flujo = "BT /F1 12 Tf 72 720 Td (" + linea + ") Tj ET";
+		List<String> objetos = List.of(
+				"<< /Type /Catalog /Pages 2 0 R >>",
+				"<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+				"<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] "
+						+ "/Resources << /Font << /F1 4 0 R >> >> /Contents 5 0 R >>",
+				"<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>",
+				"<< /Length " + flujo.length() + " >>\nstream\n" + flujo + "\nendstream");
+		StringBuilder pdf = new StringBuilder("%PDF-1.4\n");
+		List<Integer> posiciones = new ArrayList<>();
+		for (int i = 0; i < objetos.size(); i++) {
+			posiciones.add(pdf.length());
+			pdf.append(i + 1).append(" 0 obj\n").append(objetos.get(i)).append("\nendobj\n");
+		}
+		int xref = pdf.length();
+		pdf.append("xref\n0 ").append(objetos.size() + 1).append("\n0000000000 65535 f \n");
+		for (int posicion : posiciones) {
+			pdf.append(String.format("%010d 00000 n \n", posicion));
+		}
+		pdf.append("trailer\n<< /Size ").append(objetos.size() + 1).append(" /Root 1 0 R >>\n")
+				.append("startxref\n").append(xref).append("\n%%EOF\n");
+		return pdf.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static byte[] utf8(String texto) {
+		return texto.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] concatenar(byte[]... partes) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (byte[] parte : partes) {
+			bytes.writeBytes(parte);
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,98 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.adrian.gestionfct.services.OptimizadorColocacion.Alumno;
+import com.adrian.gestionfct.services.OptimizadorColocacion.Asignacion;
+import com.adrian.gestionfct.services.OptimizadorColocacion.Puesto;
+import com.adrian.gestionfct.services.OptimizadorColocacion.Resultado;
+import com.adrian.gestionfct.services.OptimizadorColocacion.Tutor;
+
+class OptimizadorColocacionTest {
+
+	@Test
+	void cedeLaPrimeraPreferenciaSiAsiSeColocaATodos() {
+		// Dar a 1 su primera preferencia dejaría a 2 sin plaza
+		List<Alumno> alumnos = List.of(new Alumno(1, "DAM", List.of(10L, 11L)), new Alumno(2, "DAM", List.of(10L)));
+		List<Puesto> puestos = List.of(new Puesto(10, 1, Set.of()), new Puesto(11, 1, Set.of()));
+		List<Tutor> tutores = List.of(new Tutor(100, 10, 1, 0), new Tutor(110, 11, 1, 0));
+
+		Resultado resultado = OptimizadorColocacion.resolver(alumnos, puestos, tutores);
+
+		assertTrue(resultado.sinPlaza().isEmpty());
+		assertTrue(resultado.asignaciones().contains(new Asignacion(1, 11, 110, 1)));
+		assertTrue(resultado.asignaciones().contains(new Asignacion(2, 10, 100, 0)));
+	}
+
+	@Test
+	void usaEmpresasCompatiblesConElCicloYRepartePorCarga() {
+		List<Alumno> alumnos = List.of(new Alumno(1, "DAW", List.of()), new Alumno(2, "DAW", List.of()),
+				new Alumno(3, "ASIR", List.of()));
+		List<Puesto> puestos = List.of(new Puesto(10, 5, Set.of("DAW")));
+		List<Tutor> tutores = List.of(new Tutor(100, 10, 2, 3), new Tutor(101, 10, 2, 0));
+
+		Resultado resultado = OptimizadorColocacion.resolver(alumnos, puestos, tutores);
+
+		assertEquals(List.of(3L), resultado.sinPlaza());
+		assertEquals(2, resultado.asignaciones().size());
+		assertTrue(resultado.asignaciones().stream().allMatch(asignacion -> asignacion.tutorId() == 101));
+	}
+
+	@Test
+	void colocaDosMilEstudiantesEnCuatrocientasEmpresasEnPocosSegundos() {
+		Random random = new Random(42);
+		String[] ciclos = { "DAM", "DAW", "ASIR", "SMR" };
+		List<Puesto> puestos = new ArrayList<>();
+		List<Tutor> tutores = new ArrayList<>();
+		for (int p = 0; p < 400; p++) {
+			Set<String> compatibles = Set.of(ciclos[random.nextInt(ciclos.length)]);
+			int plazas = 0;
+			int numTutores = 1 + random.nextInt(3);
+			for (int t = 0; t < numTutores; t++) {
+				int libres = random.nextInt(6);
+				plazas += libres;
+				tutores.add(new Tutor(p * 10L + t, p, libres, 5 - libres));
+			}
+			puestos.add(new Puesto(p, plazas, compatibles));
+		}
+		List<Alumno> alumnos = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			List<Long> preferencias = random.longs(5, 0, 400).distinct().boxed().toList();
+			alumnos.add(new Alumno(i, ciclos[random.nextInt(ciclos.length)], preferencias));
+		}
+
+		Resultado resultado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> OptimizadorColocacion.resolver(alumnos, puestos, tutores));
+
+		assertEquals(alumnos.size(), resultado.asignaciones().size() + resultado.sinPlaza().size());
+		Set<Long> colocados = new HashSet<>();
+		Map<Long, Integer> porTutor = new HashMap<>();
+		for (Asignacion asignacion : resultado.asignaciones()) {
+			assertTrue(colocados.add(asignacion.alumnoId()));
+			assertEquals(asignacion.empresaId(), asignacion.tutorId() / 10);
+			Alumno alumno = alumnos.get((int) asignacion.alumnoId());
+			if (asignacion.preferencia() >= 0) {
+				assertEquals(asignacion.empresaId(), alumno.preferencias().get(asignacion.preferencia()));
+			} else {
+				assertTrue(puestos.get((int) asignacion.empresaId()).ciclos().contains(alumno.ciclo()));
+			}
+			porTutor.merge(asignacion.tutorId(), 1, Integer::sum);
+		}
+		for (Tutor tutor : tutores) {
+			assertTrue(porTutor.getOrDefault(tutor.id(), 0) <= tutor.plazasLibres());
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compara los archivos sueltos del almacén con los paquetes al listar, leer y copiar para
+ * una copia de seguridad muchos documentos pequeños. No entra en {@code mvn test} (no
+ * termina en Test); se lanza con:
+ *
+ * <pre>
+ * mvn test -Dtest=PaquetesDocumentosBenchmark -Dbenchmark.documentos=20000
+ * </pre>
+ *
+ * Cada medida es la mejor de {@value #REPETICIONES}, así que todas van con la caché del
+ * sistema caliente; la diferencia en frío (la copia de seguridad nocturna) es mayor.
+ */
+class PaquetesDocumentosBenchmark {
+
+	private static final int REPETICIONES = 3;
+
+	@TempDir
+	Path carpeta;
+
+	@Test
+	void comparaSueltosYPaquetes() throws Exception {
+		int documentos = Integer.getInteger("benchmark.documentos", 10_000);
+		Path sueltos = Files.createDirectories(carpeta.resolve("sueltos"));
+		List<String> hashes = new ArrayList<>();
+		Random aleatorio = new Random(42);
+		long bytes = 0;
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(carpeta.resolve("paquetes"), 512L << 20)) {
+			// Formularios escaneados: entre 1 y 64 KB
+			for (int i = 0; i < documentos; i++) {
+				byte[] contenido = new byte[1024 + aleatorio.nextInt(63 * 1024)];
+				aleatorio.nextBytes(contenido);
+				Path temporal = Files.write(carpeta.resolve("temporal"), contenido);
+				String hash = CopiaArchivos.sha256(temporal);
+				Path suelto = sueltos.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+				Files.createDirectories(suelto.getParent());
+				Files.copy(temporal, suelto);
+				paquetes.anadir(hash, temporal);
+				hashes.add(hash);
+				bytes += contenido.length;
+			}
+			Collections.shuffle(hashes, aleatorio);
+
+			System.out.printf("%d documentos, %d MB%n", documentos, bytes >> 20);
+			System.out.printf("%-20s %10s %10s%n", "", "sueltos", "paquetes");
+			comparar("listar", () -> listarSueltos(sueltos), () -> (long) paquetes.listar().size());
+			comparar("leer todos", () -> leerSueltos(sueltos, hashes), () -> leerPaquetes(paquetes, hashes));
+			comparar("copia de seguridad", () -> copiar(sueltos, carpeta.resolve("copia-sueltos")),
+					() -> copiar(carpeta.resolve("paquetes"), carpeta.resolve("copia-paquetes")));
+		}
+	}
+
+	private void comparar(String medida, Callable<Long> sueltos, Callable<Long> paquetes) throws Exception {
+		long[] resultado = new long[2];
+		long msSueltos = mejorTiempo(sueltos, resultado, 0);
+		long msPaquetes = mejorTiempo(paquetes, resultado, 1);
+		if (!medida.startsWith("copia")) {
+			assertEquals(resultado[0], resultado[1], medida);
+		}
+		System.out.printf("%-20s %8d ms %8d ms%n", medida, msSueltos, msPaquetes);
+	}
+
+	private static long mejorTiempo(Callable<Long> tarea, long[] resultado, int indice) throws Exception {
+		long mejor = Long.MAX_VALUE;
+		for (int i = 0; i < REPETICIONES; i++) {
+			long inicio = System.nanoTime();
+			resultado[indice] = tarea.call();
+			mejor = Math.min(mejor, System.nanoTime() - inicio);
+		}
+		return mejor / 1_000_000;
+	}
+
+	private static long listarSueltos(Path sueltos) throws IOException {
+		try (Stream<Path> rutas = Files.walk(sueltos)) {
+			return rutas.filter(Files::isRegularFile).count();
+		}
+	}
+
+	private static long leerSueltos(Path sueltos, List<String> hashes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		long leidos = 0;
+		for (String hash : hashes) {
+			Path suelto = sueltos.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+			try (FileChannel canal = FileChannel.open(suelto, StandardOpenOption.READ)) {
+				leidos += leer(canal, 0, canal.size(), buffer);
+			}
+		}
+		return leidos;
+	}
+
+	private static long leerPaquetes(PaquetesDocumentos paquetes, List<String> hashes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		long leidos = 0;
+		for (String hash : hashes) {
+			try (PaquetesDocumentos.Lectura lectura = paquetes.abrir(hash).orElseThrow()) {
+				leidos += leer(lectura.canal(), lectura.posicion(), lectura.tamano(), buffer);
+			}
+		}
+		return leidos;
+	}
+
+	private static long leer(FileChannel canal, long posicion, long tamano, ByteBuffer buffer) throws IOException {
+		long leidos = 0;
+		while (leidos < tamano) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), tamano - leidos));
+			leidos += canal.read(buffer, posicion + leidos);
+		}
+		return leidos;
+	}
+
+	/** Copia la carpeta entera, como una copia de seguridad de archivos. */
+	private static long copiar(Path origen, Path destino) throws IOException {
+		borrar(destino);
+		long copiados = 0;
+		try (Stream<Path> rutas = Files.walk(origen)) {
+			for (Path ruta : (Iterable<Path>) rutas::iterator) {
+				Path copia = destino.resolve(origen.relativize(ruta).toString());
+				if (Files.isDirectory(ruta)) {
+					Files.createDirectories(copia);
+				} else {
+					Files.copy(ruta, copia);
+					copiados++;
+				}
+			}
+		}
+		return copiados;
+	}
+
+	private static void borrar(Path carpeta) throws IOException {
+		if (!Files.exists(carpeta)) {
+			return;
+		}
+		try (Stream<Path> rutas = Files.walk(carpeta)) {
+			for (Path ruta : (Iterable<Path>) rutas.sorted(Collections.reverseOrder())::iterator) {
+				Files.delete(ruta);
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PaquetesDocumentosTest {
+
+	@TempDir
+	Path carpeta;
+
+	private final Random aleatorio = new Random(42);
+
+	/** Escribe un archivo con contenido aleatorio y devuelve su hash. */
+	private String archivo(String nombre, int tamano) throws IOException {
+		byte[] contenido = new byte[tamano];
+		aleatorio.nextBytes(contenido);
+		Path archivo = Files.write(carpeta.resolve(nombre), contenido);
+		return CopiaArchivos.sha256(archivo);
+	}
+
+	private byte[] leer(PaquetesDocumentos paquetes, String hash) throws IOException {
+		try (PaquetesDocumentos.Lectura lectura = paquetes.abrir(hash).orElseThrow()) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) lectura.tamano());
+			while (buffer.hasRemaining()) {
+				lectura.canal().read(buffer, lectura.posicion() + buffer.position());
+			}
+			return buffer.array();
+		}
+	}
+
+	@Test
+	void guardaYLeeLosContenidosTrasReabrir() throws IOException {
+		String a = archivo("a", 10_000);
+		String b = archivo("b", 0);
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(carpeta.resolve("paquetes"), 1 << 20)) {
+			paquetes.anadir(a, carpeta.resolve("a"));
+			paquetes.anadir(b, carpeta.resolve("b"));
+			paquetes.anadir(a, carpeta.resolve("a"));
+			assertEquals(2, paquetes.getContenidos());
+		}
+
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(carpeta.resolve("paquetes"), 1 << 20)) {
+			assertArrayEquals(Files.readAllBytes(carpeta.resolve("a")), leer(paquetes, a));
+			assertEquals(0, leer(paquetes, b).length);
+			assertFalse(paquetes.contiene(CopiaArchivos.sha256(Files.write(carpeta.resolve("c"), new byte[1]))));
+		}
+	}
+
+	@Test
+	void elIndiceCreceSinPerderContenidos() throws IOException {
+		int cuantos = IndicePaquetes.CAPACIDAD_INICIAL * 2;
+		List<String> hashes = new ArrayList<>();
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(carpeta.resolve("paquetes"), 1 << 20)) {
+			for (int i = 0; i < cuantos; i++) {
+				String hash = archivo("f", 64);
+				paquetes.anadir(hash, carpeta.resolve("f"));
+				hashes.add(hash);
+			}
+		}
+
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(carpeta.resolve("paquetes"), 1 << 20)) {
+			assertEquals(cuantos, paquetes.getContenidos());
+			assertTrue(hashes.stream().allMatch(paquetes::contiene));
+			try (Stream<Path> indices = Files.list(carpeta.resolve("paquetes"))) {
+				assertEquals(1, indices.filter(ruta -> ruta.toString().endsWith(".idx")).count());
+			}
+		}
+	}
+
+	@Test
+	void compactaLosPaquetesConMuchosContenidosQuitados() throws IOException {
+		Path paquetesDir = carpeta.resolve("paquetes");
+		List<String> hashes = new ArrayList<>();
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 50_000)) {
+			// Diez contenidos de 10 KB: cuatro por paquete
+			for (int i = 0; i < 10; i++) {
+				String hash = archivo("f" + i, 10_000);
+				paquetes.anadir(hash, carpeta.resolve("f" + i));
+				hashes.add(hash);
+			}
+			assertEquals(3, paquetes.ocupacion().size());
+			for (int i = 0; i < 3; i++) {
+				paquetes.quitar(hashes.get(i));
+			}
+
+			long liberados = paquetes.compactar();
+
+			assertTrue(liberados > 0);
+			assertFalse(Files.exists(paquetesDir.resolve("paquete-000001.dat")));
+			assertFalse(Files.exists(paquetesDir.resolve(PaquetesDocumentos.COMPACTANDO)));
+			assertEquals(7, paquetes.getContenidos());
+			for (int i = 3; i < 10; i++) {
+				assertArrayEquals(Files.readAllBytes(carpeta.resolve("f" + i)), leer(paquetes, hashes.get(i)));
+			}
+			assertTrue(paquetes.ocupacion().stream()
+					.allMatch(ocupacion -> ocupacion.muertos() < PaquetesDocumentos.MUERTOS_PARA_COMPACTAR));
+		}
+	}
+
+	@Test
+	void soloUnaInstanciaPuedeEscribirEnLaCarpeta() throws IOException {
+		Path paquetesDir = carpeta.resolve("paquetes");
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 1 << 20)) {
+			assertThrows(IOException.class, () -> new PaquetesDocumentos(paquetesDir, 1 << 20));
+		}
+
+		// Al cerrar se suelta el bloqueo
+		new PaquetesDocumentos(paquetesDir, 1 << 20).close();
+	}
+
+	@Test
+	void noLeeUnaEntradaQueNoCoincideConSuCabecera() throws IOException {
+		String a = archivo("a", 1_000);
+		String b = archivo("b", 1_000);
+		Path paquetesDir = carpeta.resolve("paquetes");
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 1 << 20)) {
+			paquetes.anadir(a, carpeta.resolve("a"));
+			paquetes.anadir(b, carpeta.resolve("b"));
+		}
+		// Cabecera de a machacada, como si su hueco apuntara a bytes ajenos
+		try (FileChannel paquete = FileChannel.open(paquetesDir.resolve("paquete-000001.dat"),
+				StandardOpenOption.WRITE)) {
+			paquete.write(ByteBuffer.allocate(PaquetesDocumentos.CABECERA), 0);
+		}
+
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 1 << 20)) {
+			assertTrue(paquetes.abrir(a).isEmpty());
+			assertArrayEquals(Files.readAllBytes(carpeta.resolve("b")), leer(paquetes, b));
+		}
+	}
+
+	@Test
+	void reparaElIndiceTrasUnaCompactacionCortada() throws IOException {
+		Path paquetesDir = carpeta.resolve("paquetes");
+		List<String> hashes = new ArrayList<>();
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 50_000)) {
+			for (int i = 0; i < 6; i++) {
+				String hash = archivo("f" + i, 10_000);
+				paquetes.anadir(hash, carpeta.resolve("f" + i));
+				hashes.add(hash);
+			}
+		}
+		// Corte a mitad de reescribir los huecos de f0 y f1: el de f0 apunta al paquete
+		// nuevo con la posición del viejo y el de f1 a un contenido que no existe
+		IndicePaquetes.Entrada f0;
+		try (IndicePaquetes indice = IndicePaquetes.abrir(paquetesDir)) {
+			f0 = indice.buscar(hashes.get(0));
+			indice.poner(f0.hash(), 2, f0.posicion(), f0.tamano());
+			indice.poner(hashes.get(1), 1, 5, 10_000);
+		}
+		Files.createFile(paquetesDir.resolve(PaquetesDocumentos.COMPACTANDO));
+		// El segundo contenido tampoco está completo en el paquete
+		try (FileChannel paquete = FileChannel.open(paquetesDir.resolve("paquete-000001.dat"),
+				StandardOpenOption.WRITE)) {
+			paquete.write(ByteBuffer.allocate(100), PaquetesDocumentos.CABECERA + 10_000 + PaquetesDocumentos.CABECERA);
+		}
+
+		try (PaquetesDocumentos paquetes = new PaquetesDocumentos(paquetesDir, 50_000)) {
+			assertFalse(Files.exists(paquetesDir.resolve(PaquetesDocumentos.COMPACTANDO)));
+			assertArrayEquals(Files.readAllBytes(carpeta.resolve("f0")), leer(paquetes, hashes.get(0)));
+			assertFalse(paquetes.contiene(hashes.get(1)));
+			for (int i = 2; i < 6; i++) {
+				assertArrayEquals(Files.readAllBytes(carpeta.resolve("f" + i)), leer(paquetes, hashes.get(i)));
+			}
+		}
+	}
+}
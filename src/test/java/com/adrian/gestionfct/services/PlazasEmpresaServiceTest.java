@@ -0,0 +1,140 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.adrian.gestionfct.BaseDatosPrueba;
+import com.adrian.gestionfct.modelo.CursoAcademico;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.modelo.Periodo;
+import com.adrian.gestionfct.modelo.TipoPeriodo;
+import com.adrian.gestionfct.repositorios.CursoAcademicoRepository;
+import com.adrian.gestionfct.repositorios.EmpresaRepository;
+import com.adrian.gestionfct.repositorios.PeriodoRepository;
+import com.adrian.gestionfct.repositorios.PlazasEmpresaRepository;
+
+/**
+ * Varios hilos, cada uno con su conexión como si fueran puestos distintos, reservan a la
+ * vez plazas de la misma empresa: entre todos no pueden pasar del cupo. Los datos de
+ * prueba se borran al terminar.
+ */
+@SpringBootTest
+@Import(BaseDatosPrueba.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PlazasEmpresaServiceTest {
+
+	private static final int PLAZAS = 5;
+	private static final int PUESTOS = 16;
+
+	@Autowired
+	private PlazasEmpresaService plazasService;
+
+	@Autowired
+	private PlazasEmpresaRepository plazasRepository;
+
+	@Autowired
+	private EmpresaRepository empresaRepository;
+
+	@Autowired
+	private PeriodoRepository periodoRepository;
+
+	@Autowired
+	private CursoAcademicoRepository cursoAcademicoRepository;
+
+	private CursoAcademico curso;
+	private Periodo periodo;
+	private Empresa empresa;
+
+	@BeforeEach
+	void crearCupo() {
+		curso = cursoAcademicoRepository.save(new CursoAcademico("9998-9999"));
+		periodo = new Periodo("Periodo de prueba de plazas", 2, TipoPeriodo.ORDINARIO, LocalDate.of(9999, 3, 1),
+				LocalDate.of(9999, 6, 1));
+		periodo.setCursoAcademico(curso);
+		periodo = periodoRepository.save(periodo);
+		empresa = empresaRepository.save(new Empresa("Empresa de prueba de plazas", "PLAZAS001"));
+		plazasService.definir(empresa, periodo, PLAZAS);
+	}
+
+	@AfterEach
+	void borrarCupo() {
+		plazasRepository.deleteAll(plazasRepository.findByPeriodoId(periodo.getId()));
+		empresaRepository.delete(empresa);
+		periodoRepository.delete(periodo);
+		cursoAcademicoRepository.delete(curso);
+	}
+
+	@Test
+	void reservasSimultaneasNoPasanDelCupo() throws Exception {
+		assertEquals(PLAZAS, reservarALaVez(1));
+		assertEquals(PLAZAS, ocupadas());
+	}
+
+	@Test
+	void reservasDeVariasPlazasSeQuedanConLasQueQuedan() throws Exception {
+		assertEquals(PLAZAS, reservarALaVez(2));
+		assertEquals(PLAZAS, ocupadas());
+	}
+
+	@Test
+	void liberarDevuelveLasPlazas() {
+		assertEquals(3, plazasService.reservar(empresa.getId(), periodo.getId(), 3));
+		plazasService.liberar(empresa.getId(), periodo.getId(), 3);
+
+		assertEquals(0, ocupadas());
+	}
+
+	@Test
+	void recalcularCorrigeLasPlazasQueNoSeDevolvieron() {
+		// Reserva sin transacción ni FCT: como si el proceso hubiera muerto antes de devolverla
+		assertEquals(2, plazasService.reservar(empresa.getId(), periodo.getId(), 2));
+		assertEquals(2, ocupadas());
+
+		assertEquals(0, plazasService.recalcular(empresa, periodo).orElseThrow().getOcupadas());
+		assertEquals(0, ocupadas());
+	}
+
+	/**
+	 * Lanza {@link #PUESTOS} reservas a la vez y devuelve cuántas plazas han conseguido entre todas.
+	 */
+	private int reservarALaVez(int plazasPorReserva) throws Exception {
+		ExecutorService hilos = Executors.newFixedThreadPool(PUESTOS);
+		CountDownLatch salida = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> reservas = IntStream.range(0, PUESTOS)
+					.mapToObj(i -> hilos.submit(() -> {
+						salida.await();
+						return plazasService.reservar(empresa.getId(), periodo.getId(), plazasPorReserva);
+					}))
+					.toList();
+			salida.countDown();
+			int conseguidas = 0;
+			for (Future<Integer> reserva : reservas) {
+				conseguidas += reserva.get(30, TimeUnit.SECONDS);
+			}
+			return conseguidas;
+		} finally {
+			hilos.shutdownNow();
+		}
+	}
+
+	private int ocupadas() {
+		return plazasService.obtener(empresa, periodo).orElseThrow().getOcupadas();
+	}
+}
@@ -0,0 +1,42 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.adrian.gestionfct.dto.CoincidenciaContenido.Trozo;
+
+class ResaltadorTest {
+
+	@Test
+	void resaltaPalabrasQueEmpiezanPorLosTerminos() {
+		List<Trozo> trozos = Resaltador.fragmento("El Convenio de prácticas\nfirmado", List.of("convenio", "practica"), 240);
+
+		assertEquals(List.of(new Trozo("El ", false), new Trozo("Convenio", true), new Trozo(" de ", false),
+				new Trozo("prácticas", true), new Trozo(" firmado", false)), trozos);
+	}
+
+	@Test
+	void eligeLaZonaConTodosLosTerminos() {
+		String relleno = "texto ".repeat(100);
+		String texto = "seguro " + relleno + "el seguro escolar del alumno " + relleno;
+
+		List<Trozo> trozos = Resaltador.fragmento(texto, List.of("seguro", "escolar"), 60);
+
+		List<String> resaltados = trozos.stream().filter(Trozo::resaltado).map(Trozo::texto).collect(Collectors.toList());
+		assertEquals(List.of("seguro", "escolar"), resaltados);
+		assertTrue(trozos.get(0).texto().startsWith("…"));
+		assertTrue(trozos.get(trozos.size() - 1).texto().endsWith("…"));
+	}
+
+	@Test
+	void sinCoincidenciasDevuelveElPrincipio() {
+		List<Trozo> trozos = Resaltador.fragmento("uno dos tres cuatro", List.of("cinco"), 7);
+
+		assertEquals(List.of(new Trozo("uno dos…", false)), trozos);
+	}
+}
@@ -0,0 +1,133 @@
+package com.adrian.gestionfct.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Subida por bloques de {@link AlmacenDocumentos#preparar}: se corta tras unos bloques y se
+ * continúa desde la marca. El almacén no toca la base de datos al preparar, así que se crea
+ * sin transacciones ni paquetes.
+ */
+class SubidaReanudableTest {
+
+	private static final long BLOQUE = AlmacenDocumentos.BLOQUE_SUBIDA;
+
+	@TempDir
+	Path carpeta;
+
+	private AlmacenDocumentos almacen;
+	private Path origen;
+	private long tamano;
+
+	@BeforeEach
+	void crearAlmacen() throws IOException {
+		almacen = new AlmacenDocumentos(carpeta.resolve("almacen").toString(), false, 1024, 512, null);
+		byte[] contenido = new byte[(int) (2.5 * BLOQUE)];
+		new Random(42).nextBytes(contenido);
+		origen = Files.write(carpeta.resolve("memoria.pdf"), contenido);
+		tamano = contenido.length;
+	}
+
+	@Test
+	void continuaDesdeLaUltimaMarca() throws IOException {
+		cortarTras(2);
+		assertEquals(2 * BLOQUE, Long.parseLong(Files.readString(marca()).trim()));
+
+		List<Long> avances = new ArrayList<>();
+		AlmacenDocumentos.ArchivoPreparado preparado = reanudar(avances);
+
+		assertEquals(List.of(2 * BLOQUE, tamano), avances);
+		comprobarCopia(preparado);
+	}
+
+	@Test
+	void descartaLoEscritoDespuesDeLaMarca() throws IOException {
+		cortarTras(1);
+		// Un corte a mitad de bloque deja en el temporal bytes que la marca no cubre
+		byte[] basura = new byte[(int) (BLOQUE / 2)];
+		Files.write(temporal(), basura, StandardOpenOption.APPEND);
+
+		List<Long> avances = new ArrayList<>();
+		AlmacenDocumentos.ArchivoPreparado preparado = reanudar(avances);
+
+		assertEquals(BLOQUE, avances.get(0));
+		comprobarCopia(preparado);
+	}
+
+	@Test
+	void empiezaDeCeroSiCambiaLaFechaDelArchivo() throws IOException {
+		cortarTras(1);
+		Files.setLastModifiedTime(origen,
+				FileTime.fromMillis(Files.getLastModifiedTime(origen).toMillis() + 60_000));
+
+		List<Long> avances = new ArrayList<>();
+		AlmacenDocumentos.ArchivoPreparado preparado = reanudar(avances);
+
+		assertEquals(0, avances.get(0));
+		comprobarCopia(preparado);
+	}
+
+	@Test
+	void empiezaDeCeroSiCambiaElTamanoDelArchivo() throws IOException {
+		cortarTras(1);
+		Files.write(origen, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+		tamano += 3;
+
+		List<Long> avances = new ArrayList<>();
+		AlmacenDocumentos.ArchivoPreparado preparado = reanudar(avances);
+
+		assertEquals(0, avances.get(0));
+		comprobarCopia(preparado);
+	}
+
+	/** Sube el origen y lo corta en cuanto se apunta el bloque {@code bloques}. */
+	private void cortarTras(int bloques) {
+		assertThrows(UncheckedIOException.class, () -> almacen.preparar(origen, (copiados, total) -> {
+			if (copiados >= bloques * BLOQUE) {
+				throw new UncheckedIOException(new IOException("Conexión perdida"));
+			}
+		}));
+	}
+
+	private AlmacenDocumentos.ArchivoPreparado reanudar(List<Long> avances) throws IOException {
+		return almacen.preparar(origen, (copiados, total) -> avances.add(copiados));
+	}
+
+	private void comprobarCopia(AlmacenDocumentos.ArchivoPreparado preparado) throws IOException {
+		assertEquals(CopiaArchivos.sha256(origen), preparado.hash());
+		assertEquals(tamano, preparado.tamano());
+		assertArrayEquals(Files.readAllBytes(origen), Files.readAllBytes(preparado.temporal()));
+	}
+
+	private Path temporal() throws IOException {
+		return unico(".part");
+	}
+
+	private Path marca() throws IOException {
+		return unico(".marca");
+	}
+
+	private Path unico(String extension) throws IOException {
+		try (Stream<Path> archivos = Files.list(carpeta.resolve("almacen").resolve("tmp"))) {
+			List<Path> encontrados = archivos.filter(p -> p.toString().endsWith(extension)).toList();
+			assertEquals(1, encontrados.size());
+			return encontrados.get(0);
+		}
+	}
+}
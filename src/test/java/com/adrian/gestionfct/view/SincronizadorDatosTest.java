@@ -0,0 +1,155 @@
+package com.adrian.gestionfct.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.adrian.gestionfct.BaseDatosPrueba;
+import com.adrian.gestionfct.GestionFct;
+import com.adrian.gestionfct.config.CacheConfig;
+import com.adrian.gestionfct.dto.EmpresaRowView;
+import com.adrian.gestionfct.eventos.CambioDatos;
+import com.adrian.gestionfct.modelo.Empresa;
+import com.adrian.gestionfct.services.EmpresaService;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Dos puestos (dos contextos de Spring) sobre la misma base de datos MySQL, con el esquema
+ * de las migraciones: lo que guarda uno debe vaciar las cachés del otro al leer los avisos
+ * del bus, y sus modificaciones y bajas deben llegar a las filas que muestra el otro.
+ * La sincronización periódica se desactiva y las pasadas se lanzan a mano.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SincronizadorDatosTest {
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = BaseDatosPrueba.contenedor();
+
+	private static ConfigurableApplicationContext puestoA;
+	private static ConfigurableApplicationContext puestoB;
+
+	/** Tabla de empresas del puesto B, con los cambios aplicados como en su pantalla. */
+	private static final ObservableList<EmpresaRowView> FILAS_B = FXCollections.observableArrayList();
+	private static final FilasRetenidas<EmpresaRowView> EMPRESAS_B = new FilasRetenidas<>(FILAS_B);
+
+	@BeforeAll
+	static void arrancarPuestos() {
+		puestoA = arrancarPuesto();
+		puestoB = arrancarPuesto();
+		// CanalCambios entrega en el hilo de JavaFX, que no está arrancado: se escuchan
+		// directamente los cambios que publica el sincronizador
+		puestoB.addApplicationListener(evento -> {
+			if (evento instanceof PayloadApplicationEvent<?> aviso && aviso.getPayload() instanceof CambioDatos cambio
+					&& cambio.es(Empresa.class)) {
+				aplicar(cambio);
+			}
+		});
+	}
+
+	@AfterAll
+	static void pararPuestos() {
+		puestoB.close();
+		puestoA.close();
+	}
+
+	@Test
+	void cambioEnOtroPuestoVaciaLaCache() {
+		sincronizar(puestoB);
+		EmpresaService empresasB = puestoB.getBean(EmpresaService.class);
+		empresasB.findActivas();
+		assertNotNull(empresasActivas(puestoB).get(SimpleKey.EMPTY));
+
+		puestoA.getBean(EmpresaService.class).save(new Empresa("Empresa del puesto A", "B11111111"));
+		sincronizar(puestoB);
+
+		assertNull(empresasActivas(puestoB).get(SimpleKey.EMPTY));
+		assertTrue(empresasB.findActivas().stream().anyMatch(empresa -> "B11111111".equals(empresa.getNif())));
+	}
+
+	@Test
+	void modificacionYBajaEnOtroPuestoLleganALaTablaYALaCache() {
+		EmpresaService empresasA = puestoA.getBean(EmpresaService.class);
+		EmpresaService empresasB = puestoB.getBean(EmpresaService.class);
+		Empresa empresa = empresasA.save(new Empresa("Empresa compartida", "B33333333"));
+		sincronizar(puestoB);
+		EMPRESAS_B.cargar(empresasB.findAllRows());
+		empresasB.findActivas();
+
+		empresa.setNombre("Empresa compartida renombrada");
+		empresa = empresasA.update(empresa);
+		sincronizar(puestoB);
+
+		assertNull(empresasActivas(puestoB).get(SimpleKey.EMPTY));
+		assertEquals("Empresa compartida renombrada", filaB(empresa.getId()).nombre());
+		assertTrue(empresasB.findActivas().stream()
+				.anyMatch(activa -> "Empresa compartida renombrada".equals(activa.getNombre())));
+
+		empresasA.delete(empresa);
+		sincronizar(puestoB);
+
+		assertNull(empresasActivas(puestoB).get(SimpleKey.EMPTY));
+		Long id = empresa.getId();
+		assertFalse(FILAS_B.stream().anyMatch(fila -> fila.id().equals(id)));
+		assertFalse(empresasB.findActivas().stream().anyMatch(activa -> activa.getId().equals(id)));
+	}
+
+	@Test
+	void avisoPropioNoVaciaLaCache() {
+		sincronizar(puestoA);
+		EmpresaService empresasA = puestoA.getBean(EmpresaService.class);
+		empresasA.save(new Empresa("Empresa propia", "B22222222"));
+		empresasA.findActivas();
+
+		sincronizar(puestoA);
+
+		assertNotNull(empresasActivas(puestoA).get(SimpleKey.EMPTY));
+	}
+
+	/** Como argumentos, para que tengan prioridad sobre application.properties. */
+	private static ConfigurableApplicationContext arrancarPuesto() {
+		return new SpringApplicationBuilder(GestionFct.class).run(
+				"--spring.datasource.url=" + MYSQL.getJdbcUrl(),
+				"--spring.datasource.username=" + MYSQL.getUsername(),
+				"--spring.datasource.password=" + MYSQL.getPassword(),
+				"--gestionfct.sincronizacion.intervalo-segundos=0");
+	}
+
+	/** Lo mismo que hace con los cambios de empresa la pantalla de empresas. */
+	private static void aplicar(CambioDatos cambio) {
+		switch (cambio.tipo()) {
+			case ALTA -> EMPRESAS_B.anadir(cambio.fila(EmpresaRowView.class));
+			case MODIFICACION -> EMPRESAS_B.sustituir(fila -> fila.id().equals(cambio.id()),
+					cambio.fila(EmpresaRowView.class));
+			case BAJA -> EMPRESAS_B.quitar(fila -> fila.id().equals(cambio.id()));
+		}
+	}
+
+	private static EmpresaRowView filaB(Long id) {
+		return FILAS_B.stream().filter(fila -> fila.id().equals(id)).findFirst().orElseThrow();
+	}
+
+	private static void sincronizar(ConfigurableApplicationContext puesto) {
+		puesto.getBean(SincronizadorDatos.class).sincronizar();
+	}
+
+	private static Cache empresasActivas(ConfigurableApplicationContext puesto) {
+		return puesto.getBean(CacheManager.class).getCache(CacheConfig.EMPRESAS_ACTIVAS);
+	}
+}